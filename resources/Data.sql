@@ -18,6 +18,15 @@ create table ticket(
  FOREIGN KEY (PARKING_NUMBER)
  REFERENCES parking(PARKING_NUMBER));
 
+/* nombre de visites par immatriculation, maintenu par trigger dans la transaction d'insertion du ticket */
+create table vehicle_visit(
+ VEHICLE_REG_NUMBER varchar(10) PRIMARY KEY,
+ NB_TICKET int NOT NULL);
+
+create trigger ticket_visit_count after insert on ticket for each row
+ insert into vehicle_visit(VEHICLE_REG_NUMBER, NB_TICKET) values(NEW.VEHICLE_REG_NUMBER, 1)
+ on duplicate key update NB_TICKET = NB_TICKET + 1;
+
 insert into parking(PARKING_NUMBER,AVAILABLE,TYPE) values(1,true,'CAR');
 insert into parking(PARKING_NUMBER,AVAILABLE,TYPE) values(2,true,'CAR');
 insert into parking(PARKING_NUMBER,AVAILABLE,TYPE) values(3,true,'CAR');
@@ -45,6 +54,15 @@ create table ticket(
  FOREIGN KEY (PARKING_NUMBER)
  REFERENCES parking(PARKING_NUMBER));
 
+/* nombre de visites par immatriculation, maintenu par trigger dans la transaction d'insertion du ticket */
+create table vehicle_visit(
+ VEHICLE_REG_NUMBER varchar(10) PRIMARY KEY,
+ NB_TICKET int NOT NULL);
+
+create trigger ticket_visit_count after insert on ticket for each row
+ insert into vehicle_visit(VEHICLE_REG_NUMBER, NB_TICKET) values(NEW.VEHICLE_REG_NUMBER, 1)
+ on duplicate key update NB_TICKET = NB_TICKET + 1;
+
 insert into parking(PARKING_NUMBER,AVAILABLE,TYPE) values(1,true,'CAR');
 insert into parking(PARKING_NUMBER,AVAILABLE,TYPE) values(2,true,'CAR');
 insert into parking(PARKING_NUMBER,AVAILABLE,TYPE) values(3,true,'CAR');
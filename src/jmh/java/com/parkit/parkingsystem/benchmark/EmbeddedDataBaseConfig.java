@@ -0,0 +1,78 @@
+package com.parkit.parkingsystem.benchmark;
+
+import com.parkit.parkingsystem.config.DataBaseConfig;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Base H2 en mémoire (mode MySQL) avec le même schéma que la base de production, pour les benchmarks.
+ */
+public class EmbeddedDataBaseConfig extends DataBaseConfig {
+
+    private final String name;
+
+    public EmbeddedDataBaseConfig(String name) {
+        this.name = name;
+    }
+
+    @Override
+    protected String getUrl() {
+        return "jdbc:h2:mem:" + name + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+    }
+
+    @Override
+    protected String getUser() {
+        return "sa";
+    }
+
+    @Override
+    protected String getPassword() {
+        return "";
+    }
+
+    public void createSchema(int carSpots, int bikeSpots) throws Exception {
+        createSchema(carSpots, bikeSpots, true);
+    }
+
+    // visitCountTrigger à false : sans le trigger Java appelé pour chaque ligne insérée, qui domine le coût d'un import
+    public void createSchema(int carSpots, int bikeSpots, boolean visitCountTrigger) throws Exception {
+        try (Connection con = getConnection(); Statement statement = con.createStatement()) {
+            statement.execute("drop all objects");
+            statement.execute("create table parking(PARKING_NUMBER int PRIMARY KEY, AVAILABLE bool NOT NULL, TYPE varchar(10) NOT NULL)");
+            statement.execute("create table ticket(ID int PRIMARY KEY AUTO_INCREMENT, PARKING_NUMBER int NOT NULL,"
+                    + " VEHICLE_REG_NUMBER varchar(10) NOT NULL, PRICE decimal(10,2), IN_TIME DATETIME NOT NULL, OUT_TIME DATETIME,"
+                    + " FOREIGN KEY (PARKING_NUMBER) REFERENCES parking(PARKING_NUMBER))");
+            statement.execute("create table vehicle_visit(VEHICLE_REG_NUMBER varchar(10) PRIMARY KEY, NB_TICKET int NOT NULL)");
+            if (visitCountTrigger) {
+                statement.execute("create trigger ticket_visit_count after insert on ticket for each row call \""
+                        + VisitCountTrigger.class.getName() + "\"");
+            }
+            statement.execute("create index IDX_TICKET_PLATE_OUT_TIME on ticket(VEHICLE_REG_NUMBER, OUT_TIME)");
+            statement.execute("create index IDX_TICKET_PLATE_IN_TIME on ticket(VEHICLE_REG_NUMBER, IN_TIME)");
+            statement.execute("create index IDX_PARKING_TYPE_AVAILABLE on parking(TYPE, AVAILABLE, PARKING_NUMBER)");
+            try (PreparedStatement ps = con.prepareStatement("insert into parking(PARKING_NUMBER, AVAILABLE, TYPE) values(?,true,?)")) {
+                for (int i = 1; i <= carSpots + bikeSpots; i++) {
+                    ps.setInt(1, i);
+                    ps.setString(2, i <= carSpots ? "CAR" : "BIKE");
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+        }
+    }
+
+    // équivalent H2 du trigger MySQL ticket_visit_count
+    public static class VisitCountTrigger implements org.h2.api.Trigger {
+        @Override
+        public void fire(Connection con, Object[] oldRow, Object[] newRow) throws SQLException {
+            try (PreparedStatement ps = con.prepareStatement("insert into vehicle_visit(VEHICLE_REG_NUMBER, NB_TICKET) values(?, 1)"
+                    + " on duplicate key update NB_TICKET = NB_TICKET + 1")) {
+                ps.setString(1, (String) newRow[2]);
+                ps.executeUpdate();
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.parkit.parkingsystem.benchmark;
+
+import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.model.ParkingSpot;
+import com.parkit.parkingsystem.model.Ticket;
+import com.parkit.parkingsystem.service.FareCalculatorService;
+import com.parkit.parkingsystem.util.Duration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class FareCalculatorBenchmark {
+
+    private FareCalculatorService fareCalculatorService;
+    private Ticket ticket;
+    private Date inTime;
+    private Date outTime;
+    private long durationMillis;
+
+    @Setup
+    public void setUp() {
+        fareCalculatorService = new FareCalculatorService();
+        inTime = new Date(System.currentTimeMillis() - 135 * 60 * 1000);
+        outTime = new Date();
+        durationMillis = outTime.getTime() - inTime.getTime();
+        ticket = new Ticket();
+        ticket.setParkingSpot(new ParkingSpot(1, ParkingType.CAR, false));
+        ticket.setVehicleRegNumber("ABC123");
+        ticket.setInTime(inTime);
+        ticket.setOutTime(outTime);
+    }
+
+    @Benchmark
+    public double calculateFare() {
+        fareCalculatorService.calculateFare(ticket);
+        return ticket.getPrice();
+    }
+
+    @Benchmark
+    public double calculateFareWithDiscount() {
+        fareCalculatorService.calculateFare(ticket, true);
+        return ticket.getPrice();
+    }
+
+    @Benchmark
+    public long durationMillis() {
+        return Duration.getDurationMillis(inTime, outTime);
+    }
+
+    @Benchmark
+    public double durationToHours() {
+        return Duration.getDurationToHoursDecimal(durationMillis);
+    }
+}
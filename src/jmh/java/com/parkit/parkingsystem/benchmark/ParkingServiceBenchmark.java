@@ -0,0 +1,80 @@
+package com.parkit.parkingsystem.benchmark;
+
+import com.parkit.parkingsystem.config.DataBaseConfig;
+import com.parkit.parkingsystem.dao.ParkingSpotDAO;
+import com.parkit.parkingsystem.dao.TicketDAO;
+import com.parkit.parkingsystem.service.FareCalculatorService;
+import com.parkit.parkingsystem.service.ParkingService;
+import com.parkit.parkingsystem.util.InputReaderUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parcours entrée puis sortie d'un véhicule de bout en bout, sur base H2 embarquée.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ParkingServiceBenchmark {
+
+    private ParkingService parkingService;
+    private ScriptedInputReader inputReader;
+    private PrintStream systemOut;
+    private int vehicle;
+
+    @Setup
+    public void setUp() throws Exception {
+        EmbeddedDataBaseConfig dataBaseConfig = new EmbeddedDataBaseConfig("parkingservice");
+        dataBaseConfig.createSchema(100, 50);
+
+        ParkingSpotDAO parkingSpotDAO = new ParkingSpotDAO();
+        parkingSpotDAO.dataBaseConfig = dataBaseConfig;
+        TicketDAO ticketDAO = new TicketDAO();
+        ticketDAO.dataBaseConfig = dataBaseConfig;
+        ticketDAO.parkingSpotDAO = parkingSpotDAO;
+
+        inputReader = new ScriptedInputReader();
+        parkingService = new ParkingService(inputReader, parkingSpotDAO, ticketDAO, new FareCalculatorService());
+
+        // les messages console ne doivent pas être mesurés
+        systemOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(systemOut);
+        DataBaseConfig.shutdownPools();
+    }
+
+    @Benchmark
+    public void entryAndExit() {
+        inputReader.vehicleRegNumber = "BENCH" + (vehicle++ % 1000);
+        parkingService.processIncomingVehicle();
+        parkingService.processExitingVehicle();
+    }
+
+    private static class ScriptedInputReader extends InputReaderUtil {
+        private String vehicleRegNumber;
+
+        @Override
+        public int readSelection() {
+            return 1;
+        }
+
+        @Override
+        public String readVehicleRegistrationNumber() {
+            return vehicleRegNumber;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.parkit.parkingsystem.benchmark;
+
+import com.parkit.parkingsystem.config.DataBaseConfig;
+import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.dao.TicketDAO;
+import com.parkit.parkingsystem.model.ParkingSpot;
+import com.parkit.parkingsystem.model.Ticket;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TicketDAOBenchmark {
+
+    private TicketDAO ticketDAO;
+
+    @Setup
+    public void setUp() throws Exception {
+        EmbeddedDataBaseConfig dataBaseConfig = new EmbeddedDataBaseConfig("ticketdao");
+        dataBaseConfig.createSchema(10, 5);
+        ticketDAO = new TicketDAO();
+        ticketDAO.dataBaseConfig = dataBaseConfig;
+        ticketDAO.parkingSpotDAO.dataBaseConfig = dataBaseConfig;
+
+        Ticket ticket = new Ticket();
+        ticket.setParkingSpot(new ParkingSpot(1, ParkingType.CAR, false));
+        ticket.setVehicleRegNumber("ABC123");
+        ticket.setInTime(new Date());
+        ticketDAO.saveTicket(ticket);
+    }
+
+    @TearDown
+    public void tearDown() {
+        DataBaseConfig.shutdownPools();
+    }
+
+    @Benchmark
+    public Ticket getTicket() {
+        return ticketDAO.getTicket("ABC123");
+    }
+
+    @Benchmark
+    public int getNbTicket() {
+        return ticketDAO.getNbTicket("ABC123");
+    }
+
+    @Benchmark
+    public boolean isVehicleAlreadyParked() {
+        return ticketDAO.isVehicleAlreadyParked("ABC123");
+    }
+}
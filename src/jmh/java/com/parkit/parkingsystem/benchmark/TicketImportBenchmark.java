@@ -0,0 +1,93 @@
+package com.parkit.parkingsystem.benchmark;
+
+import com.parkit.parkingsystem.config.DataBaseConfig;
+import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.dao.TicketDAO;
+import com.parkit.parkingsystem.model.ImportResult;
+import com.parkit.parkingsystem.model.ParkingSpot;
+import com.parkit.parkingsystem.model.Ticket;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Import de 100 000 tickets historiques : ligne à ligne avec saveTicket() contre saveTickets() en lot.
+ * Limite : ce benchmark ne mesure pas le gain des lots. Sur H2 en mémoire il n'y a pas d'aller-retour réseau,
+ * or c'est ce que les lots économisent sur MySQL (un INSERT multi-lignes avec rewriteBatchedStatements) ;
+ * le coût d'insertion par ligne du moteur domine et les deux variantes prennent à peu près le même temps.
+ * visitTrigger isole le coût du trigger Java de vehicle_visit, qui double à lui seul la durée de l'import.
+ * Pour comparer les deux modes d'import, mesurer sur une base MySQL.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TicketImportBenchmark {
+
+    private static final int ROWS = 100_000;
+
+    @Param({"1000"})
+    public int batchSize;
+
+    @Param({"false", "true"})
+    public boolean visitTrigger;
+
+    private EmbeddedDataBaseConfig dataBaseConfig;
+    private TicketDAO ticketDAO;
+    private List<Ticket> tickets;
+
+    @Setup(Level.Trial)
+    public void createTickets() {
+        tickets = new ArrayList<>(ROWS);
+        long start = System.currentTimeMillis() - ROWS * 60_000L;
+        for (int i = 0; i < ROWS; i++) {
+            Ticket ticket = new Ticket();
+            ticket.setParkingSpot(new ParkingSpot(1 + i % 10, i % 3 == 0 ? ParkingType.BIKE : ParkingType.CAR, false));
+            ticket.setVehicleRegNumber("IMP" + (i % 50_000));
+            ticket.setInTime(new Date(start + i * 60_000L));
+            ticket.setOutTime(new Date(start + i * 60_000L + 90 * 60_000L));
+            ticket.setPriceCents(225);
+            tickets.add(ticket);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setUp() throws Exception {
+        dataBaseConfig = new EmbeddedDataBaseConfig("ticketimport");
+        dataBaseConfig.createSchema(10, 5, visitTrigger);
+        ticketDAO = new TicketDAO();
+        ticketDAO.dataBaseConfig = dataBaseConfig;
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        DataBaseConfig.shutdownPools();
+    }
+
+    @Benchmark
+    public ImportResult saveTickets() {
+        return ticketDAO.saveTickets(tickets, batchSize, 10 * batchSize);
+    }
+
+    @Benchmark
+    public int saveTicketOneByOne() {
+        int saved = 0;
+        for (Ticket ticket : tickets) {
+            if (ticketDAO.saveTicket(ticket)) {
+                saved++;
+            }
+        }
+        return saved;
+    }
+}
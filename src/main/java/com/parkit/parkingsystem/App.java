@@ -1,13 +1,108 @@
 package com.parkit.parkingsystem;
 
+import com.parkit.parkingsystem.config.DataBaseConfig;
+import com.parkit.parkingsystem.config.SchemaMigrator;
+import com.parkit.parkingsystem.dao.TicketReportDAO;
+import com.parkit.parkingsystem.metrics.LatencyMetrics;
+import com.parkit.parkingsystem.model.RevenueReport;
+import com.parkit.parkingsystem.server.GateHttpServer;
 import com.parkit.parkingsystem.service.InteractiveShell;
+import com.parkit.parkingsystem.service.ParkingServiceFactory;
+import com.parkit.parkingsystem.simulation.GateSimulator;
+import com.parkit.parkingsystem.simulation.SimulationConfig;
+import com.parkit.parkingsystem.util.ShutdownSequence;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
 public class App {
     private static final Logger logger = LogManager.getLogger("App");
     public static void main(String args[]){
         logger.info("Initializing Parking System");
+        // un schéma incomplet ferait échouer plus tard archive, tableau de bord, etc. : on s'arrête tout de suite
+        if (!migrateSchema()) {
+            DataBaseConfig.shutdownPools();
+            System.exit(1);
+        }
+        // latences consultables en JMX et résumées périodiquement dans les logs
+        LatencyMetrics.registerMBeans();
+        LatencyMetrics.startDump(Long.getLong(LatencyMetrics.DUMP_INTERVAL_MS, 60_000L));
+        // "server [port]" : bornes HTTP au lieu de la console
+        if (args.length > 0 && "server".equalsIgnoreCase(args[0])) {
+            startServer(args.length > 1 ? Integer.parseInt(args[1])
+                    : Integer.getInteger(GateHttpServer.PORT, GateHttpServer.DEFAULT_PORT));
+            return;
+        }
+        // "simulate" : charge simulée sur les bornes, paramètres -Dparkit.sim.*
+        if (args.length > 0 && "simulate".equalsIgnoreCase(args[0])) {
+            simulate();
+            return;
+        }
+        // "report <du> <au> [fichier.csv]" : chiffre d'affaires par jour, heure et type, dates ISO, "au" exclu
+        if (args.length > 2 && "report".equalsIgnoreCase(args[0])) {
+            report(LocalDate.parse(args[1]), LocalDate.parse(args[2]), args.length > 3 ? args[3] : null);
+            return;
+        }
         InteractiveShell.loadInterface();
     }
+
+    private static void report(LocalDate from, LocalDate to, String file) {
+        try {
+            RevenueReport report = new TicketReportDAO().getRevenueReport(from, to);
+            if (file == null) {
+                report.writeCsv(System.out);
+            } else {
+                try (Writer writer = Files.newBufferedWriter(Path.of(file), StandardCharsets.UTF_8)) {
+                    report.writeCsv(writer);
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Unable to build revenue report", e);
+        } finally {
+            DataBaseConfig.shutdownPools();
+        }
+    }
+
+    private static void simulate() {
+        try {
+            GateSimulator.create(SimulationConfig.fromSystemProperties()).run();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            DataBaseConfig.shutdownPools();
+        }
+    }
+
+    private static void startServer(int port) {
+        GateHttpServer server = new GateHttpServer(ParkingServiceFactory.createHeadless(), port);
+        try {
+            server.start();
+        } catch (Exception e) {
+            logger.fatal("Unable to start gate server on port {}", port, e);
+            return;
+        }
+        // bornes arrêtées d'abord, pools fermés après le journal, l'instantané et le point de contrôle
+        ShutdownSequence.register(ShutdownSequence.Phase.STOP_INPUT, () -> server.stop(2));
+        ShutdownSequence.register(ShutdownSequence.Phase.CLOSE_POOLS, DataBaseConfig::shutdownPools);
+    }
+
+    // false si la migration a échoué
+    private static boolean migrateSchema() {
+        if (ParkingServiceFactory.isInMemoryStorage()
+                || !Boolean.parseBoolean(System.getProperty(SchemaMigrator.MIGRATE_ON_STARTUP, "true"))) {
+            return true;
+        }
+        try {
+            new SchemaMigrator(new DataBaseConfig()).migrate();
+            return true;
+        } catch (Exception e) {
+            logger.fatal("Database schema migration failed, aborting startup", e);
+            return false;
+        }
+    }
 }
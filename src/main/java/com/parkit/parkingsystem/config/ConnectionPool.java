@@ -0,0 +1,611 @@
+package com.parkit.parkingsystem.config;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pool de connexions JDBC borné.
+ * Les connexions rendues par borrow() sont des proxies : close() remet la connexion physique dans le pool.
+ * Chaque connexion physique garde un cache LRU de ses PreparedStatement : close() sur un statement en cache
+ * le remet à disposition au lieu de le fermer, la requête n'est donc préparée qu'une fois par connexion.
+ * Les proxies se protègent par des ReentrantLock et non par synchronized : un thread virtuel bloqué dans un appel
+ * JDBC libère alors son thread porteur.
+ */
+public class ConnectionPool {
+
+    private static final Logger logger = LogManager.getLogger("ConnectionPool");
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    @FunctionalInterface
+    public interface ConnectionFactory {
+        Connection create() throws SQLException;
+    }
+
+    private final ConnectionFactory connectionFactory;
+    private final int minSize;
+    private final int maxSize;
+    private final long idleTimeoutMillis;
+    private final long borrowTimeoutMillis;
+    private final int statementCacheSize;
+
+    private final LinkedBlockingDeque<PooledConnection> idleConnections = new LinkedBlockingDeque<>();
+    private final Semaphore permits;
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final ScheduledExecutorService evictor;
+    private volatile boolean closed;
+
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong borrowWaitNanos = new AtomicLong();
+    private final AtomicLong maxBorrowWaitNanos = new AtomicLong();
+    private final AtomicLong borrowTimeouts = new AtomicLong();
+    private final AtomicLong createdConnections = new AtomicLong();
+    private final AtomicLong evictedConnections = new AtomicLong();
+    private final AtomicLong validationFailures = new AtomicLong();
+    private final AtomicLong statementCacheHits = new AtomicLong();
+    private final AtomicLong statementCacheMisses = new AtomicLong();
+
+    public ConnectionPool(ConnectionFactory connectionFactory, int minSize, int maxSize,
+                          long idleTimeoutMillis, long borrowTimeoutMillis) {
+        this(connectionFactory, minSize, maxSize, idleTimeoutMillis, borrowTimeoutMillis, 0);
+    }
+
+    // statementCacheSize : nombre de PreparedStatement gardés par connexion, 0 pour désactiver le cache
+    public ConnectionPool(ConnectionFactory connectionFactory, int minSize, int maxSize,
+                          long idleTimeoutMillis, long borrowTimeoutMillis, int statementCacheSize) {
+        if (maxSize < 1 || minSize < 0 || minSize > maxSize) {
+            throw new IllegalArgumentException("Taille de pool invalide : min=" + minSize + ", max=" + maxSize);
+        }
+        if (statementCacheSize < 0) {
+            throw new IllegalArgumentException("Taille de cache de statements invalide : " + statementCacheSize);
+        }
+        this.statementCacheSize = statementCacheSize;
+        this.connectionFactory = connectionFactory;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.permits = new Semaphore(maxSize, true);
+
+        if (idleTimeoutMillis > 0) {
+            evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "connection-pool-evictor");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long period = Math.max(idleTimeoutMillis / 2, 1000);
+            evictor.scheduleWithFixedDelay(this::evictIdleConnections, period, period, TimeUnit.MILLISECONDS);
+        } else {
+            evictor = null;
+        }
+        fillToMinimum();
+    }
+
+    public Connection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                borrowTimeouts.incrementAndGet();
+                throw new SQLException("Timeout while waiting for a DB connection (" + borrowTimeoutMillis + " ms)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a DB connection", e);
+        }
+
+        try {
+            PooledConnection pooled;
+            while ((pooled = idleConnections.pollFirst()) != null) {
+                if (isValid(pooled)) {
+                    break;
+                }
+                validationFailures.incrementAndGet();
+                destroy(pooled);
+            }
+            if (pooled == null) {
+                pooled = create();
+            }
+            recordBorrow(System.nanoTime() - start);
+            return pooled.lease();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private void release(PooledConnection pooled) {
+        try {
+            Connection physical = pooled.physical;
+            // statements oubliés par l'emprunteur : remis à disposition pour le prochain
+            pooled.releaseStatements();
+            if (!physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+            // isolation et lecture seule changées par l'emprunteur : le suivant retrouve l'état d'origine
+            if (pooled.sessionChanged) {
+                physical.setTransactionIsolation(pooled.defaultIsolation);
+                physical.setReadOnly(pooled.defaultReadOnly);
+                pooled.sessionChanged = false;
+            }
+            pooled.lastUsedMillis = System.currentTimeMillis();
+            if (closed) {
+                destroy(pooled);
+            } else {
+                idleConnections.offerFirst(pooled);
+            }
+        } catch (SQLException e) {
+            logger.error("Error while returning connection to the pool", e);
+            destroy(pooled);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private boolean isValid(PooledConnection pooled) {
+        try {
+            return pooled.physical.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private PooledConnection create() throws SQLException {
+        Connection physical = connectionFactory.create();
+        PooledConnection pooled;
+        try {
+            pooled = new PooledConnection(physical);
+        } catch (SQLException e) {
+            try {
+                physical.close();
+            } catch (SQLException closeError) {
+                e.addSuppressed(closeError);
+            }
+            throw e;
+        }
+        totalConnections.incrementAndGet();
+        createdConnections.incrementAndGet();
+        logger.debug("Create DB connection");
+        return pooled;
+    }
+
+    private void destroy(PooledConnection pooled) {
+        totalConnections.decrementAndGet();
+        try {
+            pooled.physical.close();
+        } catch (SQLException e) {
+            logger.error("Error while closing connection", e);
+        }
+    }
+
+    private void fillToMinimum() {
+        try {
+            while (totalConnections.get() < minSize) {
+                idleConnections.offerLast(create());
+            }
+        } catch (SQLException e) {
+            logger.error("Unable to pre-fill the connection pool", e);
+        }
+    }
+
+    // connexions au-delà de minSize inutilisées depuis idleTimeoutMillis fermées, puis retour à minSize
+    // (connexions détruites après un échec de validation ou de restitution)
+    void evictIdleConnections() {
+        long limit = System.currentTimeMillis() - idleTimeoutMillis;
+        Iterator<PooledConnection> iterator = idleConnections.descendingIterator();
+        while (iterator.hasNext() && totalConnections.get() > minSize) {
+            PooledConnection pooled = iterator.next();
+            if (pooled.lastUsedMillis < limit && idleConnections.removeLastOccurrence(pooled)) {
+                evictedConnections.incrementAndGet();
+                destroy(pooled);
+            }
+        }
+        if (!closed) {
+            fillToMinimum();
+        }
+    }
+
+    private void recordBorrow(long waitNanos) {
+        borrowCount.incrementAndGet();
+        borrowWaitNanos.addAndGet(waitNanos);
+        maxBorrowWaitNanos.accumulateAndGet(waitNanos, Math::max);
+    }
+
+    public void close() {
+        closed = true;
+        if (evictor != null) {
+            evictor.shutdownNow();
+        }
+        PooledConnection pooled;
+        while ((pooled = idleConnections.pollFirst()) != null) {
+            destroy(pooled);
+        }
+    }
+
+    public int getMinSize() {
+        return minSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public int getTotalConnections() {
+        return totalConnections.get();
+    }
+
+    public int getIdleConnections() {
+        return idleConnections.size();
+    }
+
+    public int getActiveConnections() {
+        return maxSize - permits.availablePermits();
+    }
+
+    public long getBorrowCount() {
+        return borrowCount.get();
+    }
+
+    public long getBorrowTimeouts() {
+        return borrowTimeouts.get();
+    }
+
+    public long getCreatedConnections() {
+        return createdConnections.get();
+    }
+
+    public long getEvictedConnections() {
+        return evictedConnections.get();
+    }
+
+    public long getValidationFailures() {
+        return validationFailures.get();
+    }
+
+    public double getAverageBorrowWaitMillis() {
+        long count = borrowCount.get();
+        return count == 0 ? 0.0 : borrowWaitNanos.get() / (count * 1_000_000.0);
+    }
+
+    public double getMaxBorrowWaitMillis() {
+        return maxBorrowWaitNanos.get() / 1_000_000.0;
+    }
+
+    public int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+
+    public long getStatementCacheHits() {
+        return statementCacheHits.get();
+    }
+
+    public long getStatementCacheMisses() {
+        return statementCacheMisses.get();
+    }
+
+    public double getStatementCacheHitRate() {
+        long hits = statementCacheHits.get();
+        long total = hits + statementCacheMisses.get();
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    @Override
+    public String toString() {
+        return "ConnectionPool[active=" + getActiveConnections() + ", idle=" + getIdleConnections()
+                + ", total=" + getTotalConnections() + ", borrows=" + getBorrowCount()
+                + ", timeouts=" + getBorrowTimeouts() + ", avgWaitMs=" + getAverageBorrowWaitMillis()
+                + ", maxWaitMs=" + getMaxBorrowWaitMillis() + ", statementCacheHitRate=" + getStatementCacheHitRate() + "]";
+    }
+
+    private final class PooledConnection {
+        private final Connection physical;
+        private volatile long lastUsedMillis = System.currentTimeMillis();
+        // accès limité à l'emprunteur courant et sous lock
+        private final Map<StatementKey, CachedStatement> statements = new LinkedHashMap<>(16, 0.75f, true);
+        private final ReentrantLock lock = new ReentrantLock();
+        private final int defaultIsolation;
+        private final boolean defaultReadOnly;
+        // modifié et lu par l'emprunteur courant, sous le lock de son LeaseHandler
+        private boolean sessionChanged;
+
+        private PooledConnection(Connection physical) throws SQLException {
+            this.physical = physical;
+            this.defaultIsolation = physical.getTransactionIsolation();
+            this.defaultReadOnly = physical.isReadOnly();
+        }
+
+        private Connection lease() {
+            return (Connection) Proxy.newProxyInstance(ConnectionPool.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, new LeaseHandler(this));
+        }
+
+        private PreparedStatement prepare(LeaseHandler lease, Object proxy, Method method, Object[] args)
+                throws Throwable {
+            lock.lock();
+            try {
+                return prepareLocked(lease, proxy, method, args);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private PreparedStatement prepareLocked(LeaseHandler lease, Object proxy, Method method, Object[] args)
+                throws Throwable {
+            StatementKey key = new StatementKey((String) args[0], args.length > 1 ? (Integer) args[1] : null);
+            CachedStatement cached = statements.get(key);
+            if (cached != null && cached.owner == null) {
+                statementCacheHits.incrementAndGet();
+            } else {
+                statementCacheMisses.incrementAndGet();
+                PreparedStatement statement = (PreparedStatement) invokePhysical(method, args);
+                if (cached != null) {
+                    // même requête déjà ouverte par cet emprunteur : statement hors cache
+                    return newStatementProxy(new StatementHandler(lease, proxy, new CachedStatement(statement), false));
+                }
+                cached = new CachedStatement(statement);
+                statements.put(key, cached);
+                evictStatements();
+            }
+            StatementHandler handler = new StatementHandler(lease, proxy, cached, true);
+            cached.owner = handler;
+            return newStatementProxy(handler);
+        }
+
+        private void evictStatements() {
+            Iterator<CachedStatement> iterator = statements.values().iterator();
+            while (statements.size() > statementCacheSize && iterator.hasNext()) {
+                CachedStatement eldest = iterator.next();
+                if (eldest.owner == null) {
+                    iterator.remove();
+                    closeQuietly(eldest.statement);
+                }
+            }
+        }
+
+        private void releaseStatements() {
+            lock.lock();
+            try {
+                List<CachedStatement> inUse = new ArrayList<>();
+                for (CachedStatement cached : statements.values()) {
+                    if (cached.owner != null) {
+                        inUse.add(cached);
+                    }
+                }
+                for (CachedStatement cached : inUse) {
+                    recycle(cached, cached.owner);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // sans effet si le statement a déjà été rendu puis confié à un autre utilisateur
+        private void recycle(CachedStatement cached, StatementHandler owner) {
+            lock.lock();
+            try {
+                if (cached.owner != owner) {
+                    return;
+                }
+                cached.owner = null;
+                try {
+                    cached.statement.clearParameters();
+                    cached.statement.clearBatch();
+                } catch (SQLException e) {
+                    statements.values().remove(cached);
+                    closeQuietly(cached.statement);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private Object invokePhysical(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    private static PreparedStatement newStatementProxy(StatementHandler handler) {
+        return (PreparedStatement) Proxy.newProxyInstance(ConnectionPool.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class}, handler);
+    }
+
+    private static void closeQuietly(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            logger.error("Error while closing cached statement", e);
+        }
+    }
+
+    private static final class StatementKey {
+        private final String sql;
+        private final Integer autoGeneratedKeys;
+
+        private StatementKey(String sql, Integer autoGeneratedKeys) {
+            this.sql = sql;
+            this.autoGeneratedKeys = autoGeneratedKeys;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof StatementKey)) {
+                return false;
+            }
+            StatementKey other = (StatementKey) o;
+            return sql.equals(other.sql) && java.util.Objects.equals(autoGeneratedKeys, other.autoGeneratedKeys);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * sql.hashCode() + (autoGeneratedKeys == null ? 0 : autoGeneratedKeys);
+        }
+    }
+
+    private static final class CachedStatement {
+        private final PreparedStatement statement;
+        // utilisateur courant, null si le statement est disponible
+        private StatementHandler owner;
+
+        private CachedStatement(PreparedStatement statement) {
+            this.statement = statement;
+        }
+    }
+
+    // Un handler par utilisation : close() rend le statement au cache, l'utilisateur ne peut plus s'en servir
+    private final class StatementHandler implements InvocationHandler {
+        private final LeaseHandler lease;
+        private final Object connectionProxy;
+        private final CachedStatement cached;
+        private final boolean recyclable;
+        private final ReentrantLock lock = new ReentrantLock();
+        private boolean closed;
+
+        private StatementHandler(LeaseHandler lease, Object connectionProxy, CachedStatement cached, boolean recyclable) {
+            this.lease = lease;
+            this.connectionProxy = connectionProxy;
+            this.cached = cached;
+            this.recyclable = recyclable;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            lock.lock();
+            try {
+                return invokeLocked(proxy, method, args);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private Object invokeLocked(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        if (!recyclable) {
+                            cached.statement.close();
+                        } else {
+                            lease.pooled.recycle(cached, this);
+                        }
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || lease.isReleased() || cached.statement.isClosed();
+                case "getConnection":
+                    return connectionProxy;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledStatement[" + cached.statement + "]";
+                default:
+                    if (closed || lease.isReleased()) {
+                        throw new SQLException("Statement has already been closed");
+                    }
+                    try {
+                        return method.invoke(cached.statement, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+            }
+        }
+    }
+
+    // Un handler par emprunt : une connexion rendue ne peut plus être utilisée par l'ancien emprunteur
+    private final class LeaseHandler implements InvocationHandler {
+        private final PooledConnection pooled;
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile boolean released;
+
+        private LeaseHandler(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        private boolean isReleased() {
+            return released;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            lock.lock();
+            try {
+                return invokeLocked(proxy, method, args);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private Object invokeLocked(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!released) {
+                        released = true;
+                        release(pooled);
+                    }
+                    return null;
+                case "isClosed":
+                    return released || pooled.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + pooled.physical + "]";
+                default:
+                    if (released) {
+                        throw new SQLException("Connection has already been returned to the pool");
+                    }
+                    if (statementCacheSize > 0 && isCacheablePrepare(method)) {
+                        return pooled.prepare(this, proxy, method, args);
+                    }
+                    if ("setTransactionIsolation".equals(method.getName()) || "setReadOnly".equals(method.getName())) {
+                        pooled.sessionChanged = true;
+                    }
+                    try {
+                        return method.invoke(pooled.physical, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+            }
+        }
+    }
+
+    // prepareStatement(sql) et prepareStatement(sql, autoGeneratedKeys) : les autres variantes ne sont pas mises en cache
+    private static boolean isCacheablePrepare(Method method) {
+        if (!"prepareStatement".equals(method.getName())) {
+            return false;
+        }
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        return parameterTypes.length == 1
+                || (parameterTypes.length == 2 && parameterTypes[1] == int.class);
+    }
+}
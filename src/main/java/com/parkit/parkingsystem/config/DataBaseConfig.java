@@ -4,23 +4,91 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.sql.*;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class DataBaseConfig {
 
     private static final Logger logger = LogManager.getLogger("DataBaseConfig");
 
+    private static final String DRIVER = "com.mysql.cj.jdbc.Driver";
+
+    // Réglages du pool, surchargeables par -Dparkit.db.pool.xxx
+    public static final String POOL_MIN_SIZE = "parkit.db.pool.minSize";
+    public static final String POOL_MAX_SIZE = "parkit.db.pool.maxSize";
+    public static final String POOL_IDLE_TIMEOUT_MS = "parkit.db.pool.idleTimeoutMs";
+    public static final String POOL_BORROW_TIMEOUT_MS = "parkit.db.pool.borrowTimeoutMs";
+    // statements gardés par connexion : couvre toutes les requêtes de DBConstants
+    public static final String POOL_STATEMENT_CACHE_SIZE = "parkit.db.pool.statementCacheSize";
+
+    // Un pool par URL, partagé par toutes les instances (chaque DAO crée son propre DataBaseConfig)
+    private static final Map<String, ConnectionPool> pools = new ConcurrentHashMap<>();
+
     public Connection getConnection() throws ClassNotFoundException, SQLException {
-        logger.info("Create DB connection");
-        Class.forName("com.mysql.cj.jdbc.Driver");
-        return DriverManager.getConnection(
-                "jdbc:mysql://localhost:3306/prod","root","rootroot");
+        return getConnectionPool().borrow();
+    }
+
+    public ConnectionPool getConnectionPool() throws ClassNotFoundException {
+        String url = getUrl();
+        ConnectionPool pool = pools.get(url);
+        if (pool == null) {
+            Class.forName(DRIVER);
+            pool = pools.computeIfAbsent(url, key -> createPool());
+        }
+        return pool;
+    }
+
+    protected String getUrl() {
+        return "jdbc:mysql://localhost:3306/prod";
+    }
+
+    protected String getUser() {
+        return "root";
+    }
+
+    protected String getPassword() {
+        return "rootroot";
+    }
+
+    // préparation côté serveur MySQL : la requête est analysée une fois par connexion et réutilisée par le cache du pool
+    protected Properties getConnectionProperties() {
+        Properties properties = new Properties();
+        properties.setProperty("user", getUser());
+        properties.setProperty("password", getPassword());
+        if (getUrl().startsWith("jdbc:mysql:")) {
+            // pas de cachePrepStmts : le cache de statements du pool (parkit.db.pool.statementCacheSize) suffit
+            properties.setProperty("useServerPrepStmts", "true");
+            // executeBatch() envoie un seul INSERT multi-lignes au lieu d'un aller-retour par ligne
+            properties.setProperty("rewriteBatchedStatements", "true");
+        }
+        return properties;
+    }
+
+    private ConnectionPool createPool() {
+        String url = getUrl();
+        Properties properties = getConnectionProperties();
+        ConnectionPool pool = new ConnectionPool(
+                () -> DriverManager.getConnection(url, properties),
+                Integer.getInteger(POOL_MIN_SIZE, 2),
+                Integer.getInteger(POOL_MAX_SIZE, 10),
+                Long.getLong(POOL_IDLE_TIMEOUT_MS, 5 * 60 * 1000L),
+                Long.getLong(POOL_BORROW_TIMEOUT_MS, 5 * 1000L),
+                Integer.getInteger(POOL_STATEMENT_CACHE_SIZE, 32));
+        logger.info("Created connection pool for {} : {}", url, pool);
+        return pool;
+    }
+
+    public static void shutdownPools() {
+        pools.values().forEach(ConnectionPool::close);
+        pools.clear();
     }
 
     public void closeConnection(Connection con){
         if(con!=null){
             try {
                 con.close();
-                logger.info("Closing DB connection");
+                logger.debug("Closing DB connection");
             } catch (SQLException e) {
                 logger.error("Error while closing connection",e);
             }
@@ -31,7 +99,7 @@ public class DataBaseConfig {
         if(ps!=null){
             try {
                 ps.close();
-                logger.info("Closing Prepared Statement");
+                logger.debug("Closing Prepared Statement");
             } catch (SQLException e) {
                 logger.error("Error while closing prepared statement",e);
             }
@@ -42,7 +110,7 @@ public class DataBaseConfig {
         if(rs!=null){
             try {
                 rs.close();
-                logger.info("Closing Result Set");
+                logger.debug("Closing Result Set");
             } catch (SQLException e) {
                 logger.error("Error while closing result set",e);
             }
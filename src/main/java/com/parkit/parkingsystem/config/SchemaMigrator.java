@@ -0,0 +1,190 @@
+package com.parkit.parkingsystem.config;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Applique au démarrage les scripts db/migration/V<n>__<description>.sql pas encore installés.
+ * Les versions appliquées sont tracées dans la table schema_version. MySQL valide chaque DDL à part :
+ * un script interrompu est rejoué en entier au démarrage suivant, ses instructions doivent donc être rejouables
+ * (create table if not exists, drop ... if exists ; les create index et alter table ... add column déjà appliqués
+ * sont sautés ici).
+ */
+public class SchemaMigrator {
+
+    private static final Logger logger = LogManager.getLogger("SchemaMigrator");
+
+    public static final String MIGRATE_ON_STARTUP = "parkit.db.migrate";
+
+    private static final String MIGRATION_PATH = "db/migration/";
+
+    // à compléter à chaque nouveau script, dans l'ordre des versions
+    static final String[] MIGRATIONS = {
+            "V1__baseline.sql",
+            "V2__ticket_parking_indexes.sql",
+            "V3__ticket_price_decimal.sql",
+            "V4__ticket_parking_out_time_index.sql",
+            "V5__ticket_archive.sql",
+            "V6__dashboard_counter.sql",
+            "V7__dashboard_counter_instance.sql",
+    };
+
+    private static final String CREATE_VERSION_TABLE = "create table if not exists schema_version("
+            + "VERSION int PRIMARY KEY, DESCRIPTION varchar(100) NOT NULL, INSTALLED_ON DATETIME NOT NULL)";
+    private static final String GET_CURRENT_VERSION = "select coalesce(max(VERSION), 0) from schema_version";
+    private static final String SAVE_VERSION = "insert into schema_version(VERSION, DESCRIPTION, INSTALLED_ON) values(?,?,now())";
+    // verrou applicatif MySQL : une seule instance migre à la fois
+    private static final String GET_LOCK = "select get_lock('parkit_schema_migration', 60)";
+    private static final String RELEASE_LOCK = "select release_lock('parkit_schema_migration')";
+    // MySQL n'a ni "create index if not exists" ni "add column if not exists"
+    private static final Pattern CREATE_INDEX = Pattern.compile("(?i)^create\\s+index\\s+(\\w+)\\s+on\\s+(\\w+)");
+    private static final Pattern ADD_COLUMN = Pattern.compile("(?i)^alter\\s+table\\s+(\\w+)\\s+add\\s+column\\s+(\\w+)");
+    private static final String INDEX_EXISTS = "select count(*) from information_schema.statistics"
+            + " where table_schema = database() and table_name = ? and index_name = ?";
+    private static final String COLUMN_EXISTS = "select count(*) from information_schema.columns"
+            + " where table_schema = database() and table_name = ? and column_name = ?";
+
+    private final DataBaseConfig dataBaseConfig;
+
+    public SchemaMigrator(DataBaseConfig dataBaseConfig) {
+        this.dataBaseConfig = dataBaseConfig;
+    }
+
+    // retourne la version du schéma après migration
+    public int migrate() throws Exception {
+        try (Connection con = dataBaseConfig.getConnection()) {
+            try (Statement statement = con.createStatement()) {
+                statement.execute(CREATE_VERSION_TABLE);
+            }
+            lock(con);
+            try {
+                int currentVersion = getCurrentVersion(con);
+                for (String migration : MIGRATIONS) {
+                    int version = versionOf(migration);
+                    if (version > currentVersion) {
+                        apply(con, migration, version);
+                        currentVersion = version;
+                    }
+                }
+                logger.info("Database schema is at version {}", currentVersion);
+                return currentVersion;
+            } finally {
+                unlock(con);
+            }
+        }
+    }
+
+    private void apply(Connection con, String migration, int version) throws SQLException, IOException {
+        logger.info("Applying schema migration {}", migration);
+        try (Statement statement = con.createStatement()) {
+            for (String sql : readStatements(MIGRATION_PATH + migration)) {
+                if (alreadyApplied(con, sql)) {
+                    logger.info("Skipping already applied statement of {}: {}", migration, sql);
+                    continue;
+                }
+                statement.execute(sql);
+            }
+        }
+        try (PreparedStatement ps = con.prepareStatement(SAVE_VERSION)) {
+            ps.setInt(1, version);
+            ps.setString(2, descriptionOf(migration));
+            ps.executeUpdate();
+        }
+    }
+
+    // vrai pour un create index ou un add column déjà appliqué (exécution précédente interrompue)
+    private static boolean alreadyApplied(Connection con, String sql) throws SQLException {
+        String[] index = indexCreatedBy(sql);
+        if (index != null) {
+            return exists(con, INDEX_EXISTS, index);
+        }
+        String[] column = columnAddedBy(sql);
+        return column != null && exists(con, COLUMN_EXISTS, column);
+    }
+
+    private static boolean exists(Connection con, String query, String[] tableAndName) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement(query)) {
+            ps.setString(1, tableAndName[0]);
+            ps.setString(2, tableAndName[1]);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && rs.getInt(1) > 0;
+            }
+        }
+    }
+
+    // {table, index} pour "create index <index> on <table>", null sinon
+    static String[] indexCreatedBy(String sql) {
+        Matcher matcher = CREATE_INDEX.matcher(sql);
+        return matcher.find() ? new String[]{matcher.group(2), matcher.group(1)} : null;
+    }
+
+    // {table, colonne} pour "alter table <table> add column <colonne>", null sinon
+    static String[] columnAddedBy(String sql) {
+        Matcher matcher = ADD_COLUMN.matcher(sql);
+        return matcher.find() ? new String[]{matcher.group(1), matcher.group(2)} : null;
+    }
+
+    private int getCurrentVersion(Connection con) throws SQLException {
+        try (Statement statement = con.createStatement();
+             ResultSet rs = statement.executeQuery(GET_CURRENT_VERSION)) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private void lock(Connection con) throws SQLException {
+        try (Statement statement = con.createStatement();
+             ResultSet rs = statement.executeQuery(GET_LOCK)) {
+            if (!rs.next() || rs.getInt(1) != 1) {
+                throw new SQLException("Unable to acquire schema migration lock");
+            }
+        }
+    }
+
+    private void unlock(Connection con) {
+        try (Statement statement = con.createStatement()) {
+            statement.executeQuery(RELEASE_LOCK).close();
+        } catch (SQLException e) {
+            logger.error("Error while releasing schema migration lock", e);
+        }
+    }
+
+    static int versionOf(String migration) {
+        return Integer.parseInt(migration.substring(1, migration.indexOf("__")));
+    }
+
+    static String descriptionOf(String migration) {
+        return migration.substring(migration.indexOf("__") + 2, migration.lastIndexOf(".sql")).replace('_', ' ');
+    }
+
+    // découpe le script sur les ';' de fin de ligne et ignore les commentaires /* ... */
+    public static List<String> readStatements(String resource) throws IOException {
+        String script;
+        try (InputStream in = SchemaMigrator.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IOException("Migration script not found: " + resource);
+            }
+            script = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        script = script.replaceAll("(?s)/\\*.*?\\*/", "");
+        List<String> statements = new ArrayList<>();
+        for (String sql : script.split(";\\s*(\\r?\\n|$)")) {
+            if (!sql.isBlank()) {
+                statements.add(sql.trim());
+            }
+        }
+        return statements;
+    }
+}
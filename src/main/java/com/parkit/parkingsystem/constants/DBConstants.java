@@ -3,14 +3,56 @@ package com.parkit.parkingsystem.constants;
 public class DBConstants {
 
     public static final String GET_NEXT_PARKING_SPOT = "select min(PARKING_NUMBER) from parking where AVAILABLE = true and TYPE = ?";
+    // les places verrouillées par une autre borne sont sautées ; la recherche commence à la zone préférée de la borne,
+    // puis reprend au début (CLAIM_NEXT_PARKING_SPOT_BEFORE) : deux parcours de IDX_PARKING_TYPE_AVAILABLE dans l'ordre
+    // de l'index, sans tri, qui ne lisent et ne verrouillent que la place retenue
+    public static final String CLAIM_NEXT_PARKING_SPOT = "select PARKING_NUMBER from parking where TYPE = ? and AVAILABLE = true and PARKING_NUMBER >= ? order by PARKING_NUMBER limit 1 for update skip locked";
+    public static final String CLAIM_NEXT_PARKING_SPOT_BEFORE = "select PARKING_NUMBER from parking where TYPE = ? and AVAILABLE = true and PARKING_NUMBER < ? order by PARKING_NUMBER limit 1 for update skip locked";
+    public static final String GET_ALL_PARKING_SPOTS = "select PARKING_NUMBER, TYPE, AVAILABLE from parking";
     public static final String UPDATE_PARKING_SPOT = "update parking set available = ? where PARKING_NUMBER = ?";
+    // libération rejouée depuis le journal d'écriture différée : sans effet si la place a été réattribuée entre-temps
+    public static final String RELEASE_PARKING_SPOT_IF_FREE = "update parking set available = true where PARKING_NUMBER = ?"
+            + " and not exists (select 1 from ticket where PARKING_NUMBER = ? and OUT_TIME is null)";
+
+    // instantané d'occupation : ticket ouvert de chaque place occupée, et empreinte comparée à celle de l'instantané au démarrage
+    // (nb de places et somme des CRC32 de "place:disponible", nb de tickets ouverts et somme des CRC32 de "ID:place")
+    public static final String GET_OPEN_TICKETS = "select p.PARKING_NUMBER, p.TYPE, t.ID, t.VEHICLE_REG_NUMBER, t.IN_TIME from parking p join ticket t on t.PARKING_NUMBER = p.PARKING_NUMBER and t.OUT_TIME is null where p.AVAILABLE = false";
+    public static final String GET_OCCUPANCY_CHECKSUM = "select (select count(*) from parking), (select coalesce(sum(crc32(concat(PARKING_NUMBER, ':', AVAILABLE))), 0) from parking), count(t.ID), coalesce(sum(crc32(concat(t.ID, ':', t.PARKING_NUMBER))), 0) from parking p join ticket t on t.PARKING_NUMBER = p.PARKING_NUMBER and t.OUT_TIME is null where p.AVAILABLE = false";
+
+    // tableau de bord : places occupées par type au démarrage, puis points de reprise horaires des compteurs en mémoire
+    public static final String GET_OCCUPIED_SPOTS_BY_TYPE = "select TYPE, count(*) from parking where AVAILABLE = false group by TYPE";
+    // une ligne par instance : chacune réécrit ses propres valeurs absolues et ne relit que les siennes
+    public static final String SAVE_DASHBOARD_COUNTER = "insert into dashboard_counter(INSTANCE, PERIOD_START, TYPE, ENTRIES, EXITS, REVENUE) values(?,?,?,?,?,?) on duplicate key update ENTRIES = values(ENTRIES), EXITS = values(EXITS), REVENUE = values(REVENUE)";
+    public static final String GET_DASHBOARD_COUNTERS_SINCE = "select PERIOD_START, TYPE, ENTRIES, EXITS, REVENUE from dashboard_counter where INSTANCE = ? and PERIOD_START >= ?";
 
     public static final String SAVE_TICKET = "insert into ticket(PARKING_NUMBER, VEHICLE_REG_NUMBER, PRICE, IN_TIME, OUT_TIME) values(?,?,?,?,?)";
-    public static final String UPDATE_TICKET = "update ticket set PRICE=?, OUT_TIME=? where ID=?";
+    // clôture conditionnelle : 0 ligne si une autre borne a déjà enregistré la sortie
+    public static final String UPDATE_TICKET = "update ticket set PRICE=?, OUT_TIME=? where ID=? and OUT_TIME is null";
+    // sortie en écriture différée : le ticket lu par la borne n'a pas été clôturé en base depuis
+    public static final String IS_TICKET_OPEN = "select count(*) from ticket where ID = ? and OUT_TIME is null";
+    // rejeu du journal d'écriture différée : idempotents, un ticket est identifié par immatriculation + heure d'entrée
+    public static final String SAVE_TICKET_IF_ABSENT = "insert into ticket(PARKING_NUMBER, VEHICLE_REG_NUMBER, PRICE, IN_TIME, OUT_TIME) select ?,?,?,?,? from dual where not exists (select 1 from ticket where VEHICLE_REG_NUMBER = ? and IN_TIME = ?)";
+    public static final String UPDATE_TICKET_BY_PLATE_AND_IN_TIME = "update ticket set PRICE=?, OUT_TIME=? where VEHICLE_REG_NUMBER = ? and IN_TIME = ? and OUT_TIME is null";
     
     public static final String GET_TICKET = "select t.PARKING_NUMBER, t.ID, t.PRICE, t.IN_TIME, t.OUT_TIME, p.TYPE from ticket t,parking p where p.parking_number = t.parking_number and t.VEHICLE_REG_NUMBER=? order by t.IN_TIME DESC limit 1";
-	public static final String NB_TICKET = "SELECT COUNT(*) FROM ticket WHERE VEHICLE_REG_NUMBER = ?";
+	// compteur maintenu par le trigger ticket_visit_count : lecture par clé primaire, indépendante de l'historique
+	public static final String NB_TICKET = "select NB_TICKET from vehicle_visit where VEHICLE_REG_NUMBER = ?";
 	public static final String IS_VEHICLE_ALREADY_PARKED = "select count(*) from ticket where VEHICLE_REG_NUMBER = ? and OUT_TIME IS NULL";
+	// verrou exclusif sur la ligne vehicle_visit de l'immatriculation (créée à 0 si absente, le trigger la porte à 1) :
+	// deux entrées de la même immatriculation passent l'une après l'autre le contrôle IS_VEHICLE_ALREADY_PARKED
+	public static final String LOCK_VEHICLE_VISIT = "insert into vehicle_visit(VEHICLE_REG_NUMBER, NB_TICKET) values(?, 0) on duplicate key update NB_TICKET = NB_TICKET";
+
+	// historique froid (TicketArchiver) : GET_TICKET y retombe quand la table ticket n'a rien pour l'immatriculation
+	public static final String GET_ARCHIVED_TICKET = "select t.PARKING_NUMBER, t.ID, t.PRICE, t.IN_TIME, t.OUT_TIME, p.TYPE from ticket_archive t,parking p where p.parking_number = t.parking_number and t.VEHICLE_REG_NUMBER=? order by t.IN_TIME DESC limit 1";
+	// lot de tickets clos avant la date limite, verrouillés jusqu'à la fin du déplacement
+	public static final String GET_ARCHIVABLE_TICKET_IDS = "select ID from ticket where OUT_TIME < ? order by OUT_TIME limit ? for update";
+	public static final String ARCHIVE_TICKET = "insert into ticket_archive(ID, PARKING_NUMBER, VEHICLE_REG_NUMBER, PRICE, IN_TIME, OUT_TIME) select ID, PARKING_NUMBER, VEHICLE_REG_NUMBER, PRICE, IN_TIME, OUT_TIME from ticket where ID = ? and OUT_TIME is not null";
+	public static final String DELETE_ARCHIVED_TICKET = "delete from ticket where ID = ? and OUT_TIME is not null";
+
+	// rapports : tickets sortis dans [?, ?[ (table chaude puis archive), une ligne légère par ticket lue en flux
+	// (type, jour en jours depuis 1970, heure de sortie, prix en centimes, minutes de stationnement)
+	public static final String STREAM_CLOSED_TICKETS = "select p.TYPE, to_days(t.OUT_TIME) - 719528, hour(t.OUT_TIME), round(coalesce(t.PRICE, 0) * 100), timestampdiff(MINUTE, t.IN_TIME, t.OUT_TIME) from ticket t join parking p on p.PARKING_NUMBER = t.PARKING_NUMBER where t.OUT_TIME >= ? and t.OUT_TIME < ?"
+			+ " union all select p.TYPE, to_days(t.OUT_TIME) - 719528, hour(t.OUT_TIME), round(coalesce(t.PRICE, 0) * 100), timestampdiff(MINUTE, t.IN_TIME, t.OUT_TIME) from ticket_archive t join parking p on p.PARKING_NUMBER = t.PARKING_NUMBER where t.OUT_TIME >= ? and t.OUT_TIME < ?";
 	
 	
 	
@@ -1,10 +1,16 @@
 package com.parkit.parkingsystem.constants;
 
 public class Fare {
-    public static final double BIKE_RATE_PER_HOUR = 1.0;
-    public static final double CAR_RATE_PER_HOUR = 1.5;
-    
+  	// tarifs de référence en centimes, utilisés pour le calcul en virgule fixe
+  	public static final long BIKE_RATE_CENTS_PER_HOUR = 100;
+  	public static final long CAR_RATE_CENTS_PER_HOUR = 150;
+  	public static final long DISCOUNT_PERCENT = 95;
+  	public static final long MILLIS_PER_HOUR = 60 * 60 * 1000;
 
-  	public static final double COEF_DISCOUNT = 0.95;	// remise de 5%
+    // mêmes tarifs en euros, déduits des centimes pour ne pas diverger
+    public static final double BIKE_RATE_PER_HOUR = BIKE_RATE_CENTS_PER_HOUR / 100.0;
+    public static final double CAR_RATE_PER_HOUR = CAR_RATE_CENTS_PER_HOUR / 100.0;
+
+  	public static final double COEF_DISCOUNT = DISCOUNT_PERCENT / 100.0;	// remise de 5%
   	public static final int FREE_PARKING_DURATION = 30 * 60 * 1000; // Gratuité si stationnement inf à 30 min
 }
@@ -0,0 +1,61 @@
+package com.parkit.parkingsystem.dao;
+
+import com.parkit.parkingsystem.config.DataBaseConfig;
+import com.parkit.parkingsystem.metrics.LatencyMetrics;
+import com.parkit.parkingsystem.metrics.Operation;
+import com.parkit.parkingsystem.util.TaskExecutors;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Exécuteur borné partagé par les variantes *Async des DAO.
+ * Les erreurs JDBC ne sont pas converties en valeurs sentinelles : le future échoue avec l'exception d'origine.
+ */
+public class DaoExecutor {
+
+    public static final String THREADS = "parkit.dao.async.threads";
+
+    // une tâche par connexion empruntable : au-delà, les threads attendraient le pool de connexions
+    private static final int DEFAULT_THREADS = Integer.getInteger(DataBaseConfig.POOL_MAX_SIZE, 10);
+
+    private DaoExecutor() {
+    }
+
+    private static class Holder {
+        private static final ExecutorService EXECUTOR = TaskExecutors.newBoundedExecutor("dao-async",
+                Integer.getInteger(THREADS, DEFAULT_THREADS), 1024);
+    }
+
+    @FunctionalInterface
+    public interface SqlSupplier<T> {
+        T get() throws Exception;
+    }
+
+    @FunctionalInterface
+    public interface SqlRunnable {
+        void run() throws Exception;
+    }
+
+    public static <T> CompletableFuture<T> supply(SqlSupplier<T> supplier) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        long submitted = System.nanoTime();
+        Holder.EXECUTOR.execute(() -> {
+            // temps passé dans la file, la requête elle-même est mesurée par le DAO
+            LatencyMetrics.record(Operation.DAO_ASYNC_WAIT, submitted);
+            try {
+                future.complete(supplier.get());
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        });
+        return future;
+    }
+
+    public static CompletableFuture<Void> run(SqlRunnable runnable) {
+        return supply(() -> {
+            runnable.run();
+            return null;
+        });
+    }
+}
@@ -0,0 +1,155 @@
+package com.parkit.parkingsystem.dao;
+
+import com.parkit.parkingsystem.config.DataBaseConfig;
+import com.parkit.parkingsystem.constants.DBConstants;
+import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.metrics.DashboardCounters;
+import com.parkit.parkingsystem.util.TaskExecutors;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.Closeable;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persistance des DashboardCounters : au démarrage, places occupées lues dans la table parking et heures
+ * récentes relues dans dashboard_counter ; ensuite, recopie périodique des heures en mémoire (valeurs absolues,
+ * réécrire une heure est sans effet de bord). Un arrêt brutal perd au plus une période.
+ * Les lignes sont propres à chaque instance (parkit.dashboard.instance, nom d'hôte par défaut) : plusieurs
+ * instances ne s'écrasent pas, le total d'une heure est la somme sur les instances.
+ * Les places occupées, elles, sont communes à toutes les instances : relues dans la table parking à chaque
+ * point de reprise, elles intègrent les entrées et sorties des autres instances.
+ */
+public class DashboardCheckpointer implements Closeable {
+
+    private static final Logger logger = LogManager.getLogger("DashboardCheckpointer");
+
+    public static final String INTERVAL_MS = "parkit.dashboard.checkpointMs";
+    public static final String INSTANCE = "parkit.dashboard.instance";
+
+    // fenêtre relue au démarrage : celle gardée en mémoire par DashboardCounters
+    private static final long RESTORE_WINDOW_MILLIS = TimeUnit.HOURS.toMillis(48);
+
+    public DataBaseConfig dataBaseConfig = new DataBaseConfig();
+
+    private final DashboardCounters counters;
+    private final String instance;
+    private ScheduledExecutorService checkpointExecutor;
+
+    public DashboardCheckpointer(DashboardCounters counters) {
+        this(counters, System.getProperty(INSTANCE, localHostName()));
+    }
+
+    public DashboardCheckpointer(DashboardCounters counters, String instance) {
+        this.counters = counters;
+        this.instance = instance;
+    }
+
+    private static String localHostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            logger.warn("Unable to resolve host name, set -D{} on each instance", INSTANCE, e);
+            return "";
+        }
+    }
+
+    // à appeler avant la première entrée ou sortie
+    public void restore() throws SQLException, ClassNotFoundException {
+        long now = System.currentTimeMillis();
+        long since = counters.localHour(now - RESTORE_WINDOW_MILLIS);
+        try (Connection con = dataBaseConfig.getConnection()) {
+            reloadOccupied(con);
+            try (PreparedStatement ps = con.prepareStatement(DBConstants.GET_DASHBOARD_COUNTERS_SINCE)) {
+                ps.setString(1, instance);
+                ps.setTimestamp(2, Timestamp.valueOf(DashboardCounters.startOf(since)));
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        counters.restore(new DashboardCounters.HourCount(
+                                DashboardCounters.localHourOf(rs.getTimestamp(1).toLocalDateTime()),
+                                ParkingType.valueOf(rs.getString(2)), rs.getLong(3), rs.getLong(4),
+                                rs.getBigDecimal(5).movePointRight(2).longValueExact()), now);
+                    }
+                }
+            }
+        }
+    }
+
+    public int checkpoint() throws SQLException, ClassNotFoundException {
+        List<DashboardCounters.HourCount> counts = counters.getHourCounts();
+        try (Connection con = dataBaseConfig.getConnection()) {
+            if (!counts.isEmpty()) {
+                try (PreparedStatement ps = con.prepareStatement(DBConstants.SAVE_DASHBOARD_COUNTER)) {
+                    for (DashboardCounters.HourCount count : counts) {
+                        ps.setString(1, instance);
+                        ps.setTimestamp(2, Timestamp.valueOf(count.getStart()));
+                        ps.setString(3, count.getParkingType().toString());
+                        ps.setLong(4, count.getEntries());
+                        ps.setLong(5, count.getExits());
+                        ps.setBigDecimal(6, BigDecimal.valueOf(count.getRevenueCents(), 2));
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                }
+            }
+            reloadOccupied(con);
+        }
+        return counts.size();
+    }
+
+    // un type sans place occupée n'a pas de ligne dans le résultat
+    private void reloadOccupied(Connection con) throws SQLException {
+        long[] occupied = new long[ParkingType.values().length];
+        try (PreparedStatement ps = con.prepareStatement(DBConstants.GET_OCCUPIED_SPOTS_BY_TYPE);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                occupied[ParkingType.valueOf(rs.getString(1)).ordinal()] = rs.getLong(2);
+            }
+        }
+        for (ParkingType parkingType : ParkingType.values()) {
+            counters.setOccupied(parkingType, occupied[parkingType.ordinal()]);
+        }
+    }
+
+    public synchronized void start(long periodMillis) {
+        if (checkpointExecutor != null || periodMillis <= 0) {
+            return;
+        }
+        checkpointExecutor = Executors.newSingleThreadScheduledExecutor(
+                TaskExecutors.daemonThreadFactory("dashboard-checkpoint"));
+        checkpointExecutor.scheduleWithFixedDelay(this::checkpointQuietly, periodMillis, periodMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    private void checkpointQuietly() {
+        try {
+            checkpoint();
+        } catch (Exception e) {
+            // les compteurs restent en mémoire, le prochain point de reprise les recopie
+            logger.error("Unable to checkpoint dashboard counters", e);
+        }
+    }
+
+    // dernier point de reprise à l'arrêt
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (checkpointExecutor != null) {
+                checkpointExecutor.shutdownNow();
+                checkpointExecutor = null;
+            }
+        }
+        checkpointQuietly();
+    }
+}
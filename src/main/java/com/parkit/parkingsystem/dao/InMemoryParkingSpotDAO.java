@@ -0,0 +1,76 @@
+package com.parkit.parkingsystem.dao;
+
+import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.metrics.LatencyMetrics;
+import com.parkit.parkingsystem.metrics.Operation;
+import com.parkit.parkingsystem.model.ParkingSpot;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * ParkingSpotStore sur InMemoryStore : l'index des places du store est la référence,
+ * il n'y a rien à recharger ni à resynchroniser. Latences mesurées sous les mêmes Operation que ParkingSpotDAO.
+ */
+public class InMemoryParkingSpotDAO implements ParkingSpotStore {
+
+    private final InMemoryStore store;
+
+    public InMemoryParkingSpotDAO(InMemoryStore store) {
+        this.store = store;
+    }
+
+    public SpotAvailabilityIndex getAvailabilityIndex() {
+        return store.getAvailabilityIndex();
+    }
+
+    @Override
+    public List<ParkingSpot> getAllParkingSpots() {
+        long start = System.nanoTime();
+        try {
+            return store.getAllParkingSpots();
+        } finally {
+            LatencyMetrics.record(Operation.SPOT_LOAD_ALL, start);
+        }
+    }
+
+    @Override
+    public int getNextAvailableSlot(ParkingType parkingType) {
+        long start = System.nanoTime();
+        try {
+            return store.getAvailabilityIndex().nextAvailable(parkingType);
+        } finally {
+            LatencyMetrics.record(Operation.SPOT_NEXT_AVAILABLE, start);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Integer> getNextAvailableSlotAsync(ParkingType parkingType) {
+        return CompletableFuture.completedFuture(getNextAvailableSlot(parkingType));
+    }
+
+    @Override
+    public boolean updateParking(ParkingSpot parkingSpot) {
+        long start = System.nanoTime();
+        try {
+            return store.setAvailable(parkingSpot.getId(), parkingSpot.isAvailable());
+        } finally {
+            LatencyMetrics.record(Operation.SPOT_UPDATE, start);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Boolean> updateParkingAsync(ParkingSpot parkingSpot) {
+        return CompletableFuture.completedFuture(updateParking(parkingSpot));
+    }
+
+    @Override
+    public int claimNextAvailableSlot(ParkingType parkingType) {
+        long start = System.nanoTime();
+        try {
+            return store.getAvailabilityIndex().claimNextAvailable(parkingType);
+        } finally {
+            LatencyMetrics.record(Operation.SPOT_CLAIM, start);
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.parkit.parkingsystem.dao;
+
+import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.model.EntryResult;
+import com.parkit.parkingsystem.model.ExitResult;
+import com.parkit.parkingsystem.model.ParkingSpot;
+import com.parkit.parkingsystem.model.Ticket;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stockage en mémoire partagé par InMemoryTicketDAO et InMemoryParkingSpotDAO, sans serveur MySQL
+ * (tests, bornes autonomes). Mêmes règles que le schéma : dernier ticket par immatriculation,
+ * compteur de visites incrémenté à chaque ticket, une place réservée au plus une fois.
+ * Seuls les tickets ouverts et le dernier ticket de chaque immatriculation sont conservés : un ticket clos
+ * remplacé par un plus récent n'est plus lisible, seule la visite reste comptée.
+ * Rien n'est persisté : le contenu est perdu à l'arrêt.
+ */
+public class InMemoryStore {
+
+    // plan du parking, ex. "CAR:3,BIKE:2" : places numérotées à partir de 1 dans l'ordre
+    public static final String SPOTS = "parkit.storage.memory.spots";
+    public static final String DEFAULT_SPOTS = "CAR:3,BIKE:2";
+
+    private final List<ParkingSpot> layout;
+    private final SpotAvailabilityIndex availabilityIndex;
+    private final AtomicInteger lastTicketId = new AtomicInteger();
+    // tickets ouverts par ID, y compris ceux qui ne sont pas le plus récent de leur immatriculation (import)
+    private final ConcurrentHashMap<Integer, Ticket> openTickets = new ConcurrentHashMap<>();
+    // ticket le plus récent (IN_TIME) par immatriculation normalisée ; les écritures d'une immatriculation
+    // passent par compute() sur cette clé et sont donc sérialisées
+    private final ConcurrentHashMap<String, Ticket> latestTickets = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Integer> visits = new ConcurrentHashMap<>();
+
+    public InMemoryStore(Collection<ParkingSpot> parkingSpots) {
+        List<ParkingSpot> spots = new ArrayList<>();
+        for (ParkingSpot parkingSpot : parkingSpots) {
+            spots.add(new ParkingSpot(parkingSpot.getId(), parkingSpot.getParkingType(), false));
+        }
+        this.layout = Collections.unmodifiableList(spots);
+        this.availabilityIndex = new SpotAvailabilityIndex(parkingSpots);
+    }
+
+    public static InMemoryStore fromSystemProperties() {
+        return new InMemoryStore(parseLayout(System.getProperty(SPOTS, DEFAULT_SPOTS)));
+    }
+
+    public static List<ParkingSpot> parseLayout(String layout) {
+        List<ParkingSpot> parkingSpots = new ArrayList<>();
+        int parkingNumber = 1;
+        for (String group : layout.split(",")) {
+            String[] typeAndCount = group.trim().split(":");
+            if (typeAndCount.length != 2) {
+                throw new IllegalArgumentException("Plan de parking invalide : " + layout);
+            }
+            ParkingType parkingType = ParkingType.valueOf(typeAndCount[0].trim().toUpperCase(Locale.ROOT));
+            int count = Integer.parseInt(typeAndCount[1].trim());
+            for (int i = 0; i < count; i++) {
+                parkingSpots.add(new ParkingSpot(parkingNumber++, parkingType, true));
+            }
+        }
+        return parkingSpots;
+    }
+
+    public SpotAvailabilityIndex getAvailabilityIndex() {
+        return availabilityIndex;
+    }
+
+    public List<ParkingSpot> getAllParkingSpots() {
+        List<ParkingSpot> parkingSpots = new ArrayList<>(layout.size());
+        for (ParkingSpot parkingSpot : layout) {
+            parkingSpots.add(new ParkingSpot(parkingSpot.getId(), parkingSpot.getParkingType(),
+                    availabilityIndex.isAvailable(parkingSpot.getId())));
+        }
+        return parkingSpots;
+    }
+
+    // false si la place n'existe pas
+    public boolean setAvailable(int parkingNumber, boolean available) {
+        return availabilityIndex.setAvailable(parkingNumber, available);
+    }
+
+    // copie du ticket le plus récent, null si aucun
+    public Ticket getTicket(String vehicleRegNumber) {
+        Ticket ticket = latestTickets.get(OpenTicketCache.normalize(vehicleRegNumber));
+        return ticket == null ? null : new Ticket(ticket);
+    }
+
+    public int getNbTicket(String vehicleRegNumber) {
+        return visits.getOrDefault(OpenTicketCache.normalize(vehicleRegNumber), 0);
+    }
+
+    public boolean isVehicleAlreadyParked(String vehicleRegNumber) {
+        Ticket ticket = latestTickets.get(OpenTicketCache.normalize(vehicleRegNumber));
+        return ticket != null && ticket.getOutTime() == null;
+    }
+
+    // enregistre une copie et renseigne l'ID généré sur le ticket de l'appelant
+    public void saveTicket(Ticket ticket) {
+        latestTickets.compute(OpenTicketCache.normalize(ticket.getVehicleRegNumber()),
+                (plate, latest) -> {
+                    Ticket saved = insert(plate, ticket);
+                    ticket.setId(saved.getId());
+                    return latest == null || !saved.getInTime().before(latest.getInTime()) ? saved : latest;
+                });
+    }
+
+    // false si aucun ticket ne porte cet ID
+    public boolean updateTicket(Ticket ticket) {
+        boolean[] updated = new boolean[1];
+        latestTickets.computeIfPresent(OpenTicketCache.normalize(ticket.getVehicleRegNumber()),
+                (plate, latest) -> {
+                    Ticket stored = find(latest, ticket.getId());
+                    if (stored == null) {
+                        return latest;
+                    }
+                    Ticket saved = new Ticket(stored);
+                    saved.setPriceCents(ticket.getPriceCents());
+                    saved.setOutTime(ticket.getOutTime() == null ? null : new Date(ticket.getOutTime().getTime()));
+                    track(saved);
+                    updated[0] = true;
+                    return latest.getId() == saved.getId() ? saved : latest;
+                });
+        return updated[0];
+    }
+
+    // même contrat que TicketDAO.closeTicket : place libérée avec la clôture, NO_TICKET si le ticket est inconnu ou déjà clôturé
+    public ExitResult.Status closeTicket(Ticket ticket) {
+        ExitResult.Status[] status = {ExitResult.Status.NO_TICKET};
+        latestTickets.computeIfPresent(OpenTicketCache.normalize(ticket.getVehicleRegNumber()),
+                (plate, latest) -> {
+                    Ticket stored = find(latest, ticket.getId());
+                    if (stored == null || stored.getOutTime() != null) {
+                        return latest;
+                    }
+                    Ticket saved = new Ticket(stored);
+                    saved.setPriceCents(ticket.getPriceCents());
+                    saved.setOutTime(new Date(ticket.getOutTime().getTime()));
+                    track(saved);
+                    status[0] = ExitResult.Status.EXITED;
+                    return latest.getId() == saved.getId() ? saved : latest;
+                });
+        if (status[0] == ExitResult.Status.EXITED) {
+            ticket.getParkingSpot().setAvailable(true);
+            availabilityIndex.setAvailable(ticket.getParkingSpot().getId(), true);
+        }
+        return status[0];
+    }
+
+    // même contrat que TicketDAO.saveIncomingTicket : contrôle, réservation de la place et ticket sont atomiques
+    public EntryResult saveIncomingTicket(ParkingType parkingType, String vehicleRegNumber, Date inTime) {
+        EntryResult[] result = new EntryResult[1];
+        latestTickets.compute(OpenTicketCache.normalize(vehicleRegNumber), (plate, latest) -> {
+            if (latest != null && latest.getOutTime() == null) {
+                result[0] = EntryResult.of(EntryResult.Status.ALREADY_PARKED);
+                return latest;
+            }
+            int parkingNumber = availabilityIndex.claimNextAvailable(parkingType);
+            if (parkingNumber <= 0) {
+                result[0] = EntryResult.of(EntryResult.Status.NO_SPOT_AVAILABLE);
+                return latest;
+            }
+            Ticket ticket = new Ticket();
+            ticket.setParkingSpot(new ParkingSpot(parkingNumber, parkingType, false));
+            ticket.setVehicleRegNumber(vehicleRegNumber);
+            ticket.setInTime(inTime);
+            Ticket saved = insert(plate, ticket);
+            result[0] = EntryResult.parked(new Ticket(saved), visits.get(plate));
+            return saved;
+        });
+        return result[0];
+    }
+
+    // nombre de tickets enregistrés depuis le démarrage, y compris ceux qui ne sont plus conservés
+    public int getTicketCount() {
+        return lastTicketId.get();
+    }
+
+    public int getOpenTicketCount() {
+        return openTickets.size();
+    }
+
+    // à appeler sous compute() sur la clé de l'immatriculation
+    private Ticket insert(String plate, Ticket ticket) {
+        Ticket saved = new Ticket(ticket);
+        saved.setId(lastTicketId.incrementAndGet());
+        track(saved);
+        visits.merge(plate, 1, Integer::sum);
+        return saved;
+    }
+
+    // à appeler sous compute() : état courant du ticket, null s'il n'est plus conservé
+    private Ticket find(Ticket latest, int ticketId) {
+        return latest.getId() == ticketId ? latest : openTickets.get(ticketId);
+    }
+
+    private void track(Ticket ticket) {
+        if (ticket.getOutTime() == null) {
+            openTickets.put(ticket.getId(), ticket);
+        } else {
+            openTickets.remove(ticket.getId());
+        }
+    }
+}
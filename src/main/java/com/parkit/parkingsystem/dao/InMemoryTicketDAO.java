@@ -0,0 +1,153 @@
+package com.parkit.parkingsystem.dao;
+
+import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.metrics.LatencyMetrics;
+import com.parkit.parkingsystem.metrics.Operation;
+import com.parkit.parkingsystem.model.EntryResult;
+import com.parkit.parkingsystem.model.ExitResult;
+import com.parkit.parkingsystem.model.ImportResult;
+import com.parkit.parkingsystem.model.Ticket;
+
+import java.util.Date;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * TicketStore sur InMemoryStore : aucune connexion JDBC. Le cache de tickets et l'écriture différée
+ * ne sont pas utilisés, les opérations asynchrones sont terminées dès le retour.
+ * Les latences sont mesurées sous les mêmes Operation que TicketDAO, pour comparer les deux stockages.
+ */
+public class InMemoryTicketDAO implements TicketStore {
+
+    private final InMemoryStore store;
+
+    public InMemoryTicketDAO(InMemoryStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public boolean saveTicket(Ticket ticket) {
+        long start = System.nanoTime();
+        try {
+            store.saveTicket(ticket);
+            return true;
+        } finally {
+            LatencyMetrics.record(Operation.TICKET_SAVE, start);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Boolean> saveTicketAsync(Ticket ticket) {
+        return CompletableFuture.completedFuture(saveTicket(ticket));
+    }
+
+    @Override
+    public ImportResult saveTickets(Iterable<Ticket> tickets, int batchSize, int chunkSize) {
+        if (batchSize < 1 || chunkSize < 1) {
+            throw new IllegalArgumentException("Tailles de lot invalides : batch=" + batchSize + ", chunk=" + chunkSize);
+        }
+        long start = System.nanoTime();
+        try {
+            long rowsImported = 0;
+            for (Ticket ticket : tickets) {
+                store.saveTicket(new Ticket(ticket));
+                rowsImported++;
+            }
+            return ImportResult.completed(rowsImported, (rowsImported + batchSize - 1) / batchSize,
+                    System.nanoTime() - start);
+        } finally {
+            LatencyMetrics.record(Operation.TICKET_IMPORT, start);
+        }
+    }
+
+    @Override
+    public Ticket getTicket(String vehicleRegNumber) {
+        long start = System.nanoTime();
+        try {
+            return store.getTicket(vehicleRegNumber);
+        } finally {
+            LatencyMetrics.record(Operation.TICKET_GET, start);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Ticket> getTicketAsync(String vehicleRegNumber) {
+        return CompletableFuture.completedFuture(getTicket(vehicleRegNumber));
+    }
+
+    @Override
+    public Ticket loadTicket(String vehicleRegNumber) {
+        return getTicket(vehicleRegNumber);
+    }
+
+    @Override
+    public boolean updateTicket(Ticket ticket) {
+        long start = System.nanoTime();
+        try {
+            return store.updateTicket(ticket);
+        } finally {
+            LatencyMetrics.record(Operation.TICKET_UPDATE, start);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> updateTicketAsync(Ticket ticket) {
+        // même sémantique que UPDATE ... where ID = ? : aucune ligne modifiée n'est pas une erreur
+        updateTicket(ticket);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public ExitResult.Status closeTicket(Ticket ticket) {
+        long start = System.nanoTime();
+        try {
+            return store.closeTicket(ticket);
+        } finally {
+            LatencyMetrics.record(Operation.TICKET_CLOSE, start);
+        }
+    }
+
+    @Override
+    public EntryResult saveIncomingTicket(ParkingType parkingType, String vehicleRegNumber, Date inTime) {
+        long start = System.nanoTime();
+        try {
+            return store.saveIncomingTicket(parkingType, vehicleRegNumber, inTime);
+        } finally {
+            LatencyMetrics.record(Operation.TICKET_SAVE_INCOMING, start);
+        }
+    }
+
+    @Override
+    public int getNbTicket(String vehicleRegNumber) {
+        long start = System.nanoTime();
+        try {
+            return store.getNbTicket(vehicleRegNumber);
+        } finally {
+            LatencyMetrics.record(Operation.TICKET_COUNT, start);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Integer> getNbTicketAsync(String vehicleRegNumber) {
+        return CompletableFuture.completedFuture(getNbTicket(vehicleRegNumber));
+    }
+
+    @Override
+    public int loadNbTicket(String vehicleRegNumber) {
+        return getNbTicket(vehicleRegNumber);
+    }
+
+    @Override
+    public boolean isVehicleAlreadyParked(String vehicleRegNumber) {
+        long start = System.nanoTime();
+        try {
+            return store.isVehicleAlreadyParked(vehicleRegNumber);
+        } finally {
+            LatencyMetrics.record(Operation.TICKET_IS_PARKED, start);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Boolean> isVehicleAlreadyParkedAsync(String vehicleRegNumber) {
+        return CompletableFuture.completedFuture(isVehicleAlreadyParked(vehicleRegNumber));
+    }
+}
@@ -0,0 +1,216 @@
+package com.parkit.parkingsystem.dao;
+
+import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.model.ParkingSpot;
+import com.parkit.parkingsystem.model.Ticket;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.zip.CRC32;
+
+/**
+ * Instantané binaire de l'occupation : toutes les places (numéro, type, disponibilité) et le ticket ouvert
+ * de chaque place occupée. Lu par projection mémoire au démarrage, il évite de recharger la table parking ;
+ * son empreinte (Checksum) est comparée à celle de la base avant utilisation.
+ * Format : en-tête (magic, version, date, nb de places, nb de tickets, CRC32 du corps) puis
+ * places [int numéro][byte type][byte libre] et tickets [int ID][int place][long entrée][byte longueur][immatriculation].
+ */
+public class OccupancySnapshot {
+
+    private static final int MAGIC = 0x504B4F53;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    private static final int SPOT_SIZE = 6;
+    private static final int TICKET_FIXED_SIZE = 17;
+
+    private static final ParkingType[] TYPES = ParkingType.values();
+
+    private final long createdMillis;
+    private final List<ParkingSpot> parkingSpots;
+    private final List<Ticket> openTickets;
+
+    public OccupancySnapshot(long createdMillis, List<ParkingSpot> parkingSpots, List<Ticket> openTickets) {
+        this.createdMillis = createdMillis;
+        this.parkingSpots = Collections.unmodifiableList(parkingSpots);
+        this.openTickets = Collections.unmodifiableList(openTickets);
+    }
+
+    public long getCreatedMillis() {
+        return createdMillis;
+    }
+
+    public List<ParkingSpot> getParkingSpots() {
+        return parkingSpots;
+    }
+
+    public List<Ticket> getOpenTickets() {
+        return openTickets;
+    }
+
+    // même calcul que DBConstants.GET_OCCUPANCY_CHECKSUM : une somme de CRC32 ne se compense pas comme un XOR de numéros
+    public Checksum getChecksum() {
+        long spotCrcSum = 0;
+        for (ParkingSpot parkingSpot : parkingSpots) {
+            spotCrcSum += crc32(parkingSpot.getId() + ":" + (parkingSpot.isAvailable() ? 1 : 0));
+        }
+        long ticketCrcSum = 0;
+        for (Ticket ticket : openTickets) {
+            ticketCrcSum += crc32(ticket.getId() + ":" + ticket.getParkingSpot().getId());
+        }
+        return new Checksum(parkingSpots.size(), spotCrcSum, openTickets.size(), ticketCrcSum);
+    }
+
+    // équivalent de la fonction crc32() de MySQL
+    static long crc32(String value) {
+        CRC32 crc = new CRC32();
+        crc.update(value.getBytes(StandardCharsets.US_ASCII));
+        return crc.getValue();
+    }
+
+    // écrit dans un fichier temporaire puis le renomme : un lecteur ne voit jamais d'instantané partiel
+    public void write(Path file) throws IOException {
+        List<byte[]> plates = new ArrayList<>(openTickets.size());
+        int size = HEADER_SIZE + parkingSpots.size() * SPOT_SIZE;
+        for (Ticket ticket : openTickets) {
+            byte[] plate = ticket.getVehicleRegNumber().getBytes(StandardCharsets.UTF_8);
+            if (plate.length > Byte.MAX_VALUE) {
+                throw new IllegalArgumentException("Immatriculation trop longue : " + ticket.getVehicleRegNumber());
+            }
+            plates.add(plate);
+            size += TICKET_FIXED_SIZE + plate.length;
+        }
+
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.position(HEADER_SIZE);
+            for (ParkingSpot parkingSpot : parkingSpots) {
+                buffer.putInt(parkingSpot.getId());
+                buffer.put((byte) parkingSpot.getParkingType().ordinal());
+                buffer.put((byte) (parkingSpot.isAvailable() ? 1 : 0));
+            }
+            for (int i = 0; i < openTickets.size(); i++) {
+                Ticket ticket = openTickets.get(i);
+                buffer.putInt(ticket.getId());
+                buffer.putInt(ticket.getParkingSpot().getId());
+                buffer.putLong(ticket.getInTime().getTime());
+                buffer.put((byte) plates.get(i).length);
+                buffer.put(plates.get(i));
+            }
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putLong(8, createdMillis);
+            buffer.putInt(16, parkingSpots.size());
+            buffer.putInt(20, openTickets.size());
+            buffer.putInt(24, bodyCrc(buffer, size));
+            buffer.force();
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static OccupancySnapshot read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+                throw new IOException("Invalid occupancy snapshot size " + size + ": " + file);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IOException("Not an occupancy snapshot: " + file);
+            }
+            if (buffer.getInt(24) != bodyCrc(buffer, (int) size)) {
+                throw new IOException("Corrupted occupancy snapshot: " + file);
+            }
+            long createdMillis = buffer.getLong(8);
+            int spotCount = buffer.getInt(16);
+            int ticketCount = buffer.getInt(20);
+
+            buffer.position(HEADER_SIZE);
+            List<ParkingSpot> parkingSpots = new ArrayList<>(spotCount);
+            ParkingType[] spotTypes = new ParkingType[0];
+            for (int i = 0; i < spotCount; i++) {
+                int parkingNumber = buffer.getInt();
+                ParkingType parkingType = TYPES[buffer.get()];
+                parkingSpots.add(new ParkingSpot(parkingNumber, parkingType, buffer.get() == 1));
+                if (parkingNumber >= spotTypes.length) {
+                    spotTypes = Arrays.copyOf(spotTypes, Math.max(parkingNumber + 1, spotTypes.length * 2));
+                }
+                spotTypes[parkingNumber] = parkingType;
+            }
+            List<Ticket> openTickets = new ArrayList<>(ticketCount);
+            for (int i = 0; i < ticketCount; i++) {
+                Ticket ticket = new Ticket();
+                ticket.setId(buffer.getInt());
+                int parkingNumber = buffer.getInt();
+                ticket.setParkingSpot(new ParkingSpot(parkingNumber, spotTypes[parkingNumber], false));
+                ticket.setInTime(new Date(buffer.getLong()));
+                byte[] plate = new byte[buffer.get()];
+                buffer.get(plate);
+                ticket.setVehicleRegNumber(new String(plate, StandardCharsets.UTF_8));
+                openTickets.add(ticket);
+            }
+            return new OccupancySnapshot(createdMillis, parkingSpots, openTickets);
+        } catch (RuntimeException e) {
+            // en-tête valide mais contenu incohérent (index hors bornes, type inconnu)
+            throw new IOException("Unreadable occupancy snapshot: " + file, e);
+        }
+    }
+
+    private static int bodyCrc(MappedByteBuffer buffer, int size) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(HEADER_SIZE, size - HEADER_SIZE));
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Empreinte de l'occupation, calculée sur l'instantané ou par la base (GET_OCCUPANCY_CHECKSUM).
+     */
+    public static final class Checksum {
+        private final long spots;
+        private final long spotCrcSum;
+        private final long openTickets;
+        private final long ticketCrcSum;
+
+        public Checksum(long spots, long spotCrcSum, long openTickets, long ticketCrcSum) {
+            this.spots = spots;
+            this.spotCrcSum = spotCrcSum;
+            this.openTickets = openTickets;
+            this.ticketCrcSum = ticketCrcSum;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Checksum)) {
+                return false;
+            }
+            Checksum checksum = (Checksum) other;
+            return spots == checksum.spots && spotCrcSum == checksum.spotCrcSum
+                    && openTickets == checksum.openTickets && ticketCrcSum == checksum.ticketCrcSum;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(spots, spotCrcSum, openTickets, ticketCrcSum);
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "spots=%d (crc sum %d), openTickets=%d (crc sum %d)", spots,
+                    spotCrcSum, openTickets, ticketCrcSum);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.parkit.parkingsystem.dao;
+
+import com.parkit.parkingsystem.config.DataBaseConfig;
+import com.parkit.parkingsystem.constants.DBConstants;
+import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.model.ParkingSpot;
+import com.parkit.parkingsystem.model.Ticket;
+import com.parkit.parkingsystem.util.TaskExecutors;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cycle de vie de l'OccupancySnapshot : chargement vérifié au démarrage (une seule ligne d'agrégats demandée
+ * à la base au lieu de la table parking), rafraîchissement périodique en tâche de fond et dernière écriture à l'arrêt.
+ */
+public class OccupancySnapshotManager implements Closeable {
+
+    private static final Logger logger = LogManager.getLogger("OccupancySnapshotManager");
+
+    public static final String FILE = "parkit.snapshot.file";
+    public static final String REFRESH_MS = "parkit.snapshot.refreshMs";
+
+    public DataBaseConfig dataBaseConfig = new DataBaseConfig();
+
+    private final Path file;
+    private ScheduledExecutorService refreshExecutor;
+
+    public OccupancySnapshotManager(Path file) {
+        this.file = file;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    // null si le fichier est absent, illisible ou ne correspond plus à la base
+    public OccupancySnapshot loadVerified() {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        OccupancySnapshot snapshot;
+        try {
+            snapshot = OccupancySnapshot.read(file);
+        } catch (IOException e) {
+            logger.warn("Ignoring occupancy snapshot {}", file, e);
+            return null;
+        }
+        OccupancySnapshot.Checksum expected;
+        try {
+            expected = getDatabaseChecksum();
+        } catch (SQLException | ClassNotFoundException e) {
+            logger.error("Unable to verify occupancy snapshot against the database", e);
+            return null;
+        }
+        OccupancySnapshot.Checksum actual = snapshot.getChecksum();
+        if (!actual.equals(expected)) {
+            logger.warn("Stale occupancy snapshot {} ({}), database has {}", file, actual, expected);
+            return null;
+        }
+        return snapshot;
+    }
+
+    public OccupancySnapshot.Checksum getDatabaseChecksum() throws SQLException, ClassNotFoundException {
+        try (Connection con = dataBaseConfig.getConnection();
+             PreparedStatement ps = con.prepareStatement(DBConstants.GET_OCCUPANCY_CHECKSUM);
+             ResultSet rs = ps.executeQuery()) {
+            rs.next();
+            return new OccupancySnapshot.Checksum(rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getLong(4));
+        }
+    }
+
+    // places et tickets ouverts lus dans la même transaction (REPEATABLE READ, défaut InnoDB) : l'instantané est cohérent
+    public OccupancySnapshot capture() throws SQLException, ClassNotFoundException {
+        Connection con = null;
+        try {
+            con = dataBaseConfig.getConnection();
+            con.setAutoCommit(false);
+            List<ParkingSpot> parkingSpots = new ArrayList<>();
+            try (PreparedStatement ps = con.prepareStatement(DBConstants.GET_ALL_PARKING_SPOTS);
+                 ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    parkingSpots.add(new ParkingSpot(rs.getInt(1), ParkingType.valueOf(rs.getString(2)),
+                            rs.getBoolean(3)));
+                }
+            }
+            List<Ticket> openTickets = new ArrayList<>();
+            try (PreparedStatement ps = con.prepareStatement(DBConstants.GET_OPEN_TICKETS);
+                 ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    Ticket ticket = new Ticket();
+                    ticket.setParkingSpot(new ParkingSpot(rs.getInt(1), ParkingType.valueOf(rs.getString(2)), false));
+                    ticket.setId(rs.getInt(3));
+                    ticket.setVehicleRegNumber(rs.getString(4));
+                    ticket.setInTime(new Date(rs.getTimestamp(5).getTime()));
+                    openTickets.add(ticket);
+                }
+            }
+            con.commit();
+            return new OccupancySnapshot(System.currentTimeMillis(), parkingSpots, openTickets);
+        } catch (SQLException | ClassNotFoundException | RuntimeException e) {
+            if (con != null) {
+                con.rollback();
+            }
+            throw e;
+        } finally {
+            dataBaseConfig.closeConnection(con);
+        }
+    }
+
+    public OccupancySnapshot refresh() throws SQLException, ClassNotFoundException, IOException {
+        long start = System.nanoTime();
+        OccupancySnapshot snapshot = capture();
+        snapshot.write(file);
+        logger.debug("Occupancy snapshot written with {} spots and {} open tickets in {} ms",
+                snapshot.getParkingSpots().size(), snapshot.getOpenTickets().size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return snapshot;
+    }
+
+    // initialDelayMillis = 0 pour réécrire tout de suite un instantané absent ou périmé
+    public synchronized void start(long initialDelayMillis, long periodMillis) {
+        if (refreshExecutor != null || periodMillis <= 0) {
+            return;
+        }
+        refreshExecutor = Executors.newSingleThreadScheduledExecutor(
+                TaskExecutors.daemonThreadFactory("occupancy-snapshot"));
+        refreshExecutor.scheduleWithFixedDelay(this::refreshQuietly, initialDelayMillis, periodMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            // l'ancien instantané reste en place ; il sera rejeté au démarrage s'il est périmé
+            logger.error("Unable to refresh occupancy snapshot {}", file, e);
+        }
+    }
+
+    // dernier instantané à l'arrêt : le prochain démarrage le trouve à jour
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (refreshExecutor != null) {
+                refreshExecutor.shutdownNow();
+                refreshExecutor = null;
+            }
+        }
+        refreshQuietly();
+    }
+}
@@ -0,0 +1,58 @@
+package com.parkit.parkingsystem.dao;
+
+import com.parkit.parkingsystem.model.Ticket;
+import com.parkit.parkingsystem.util.LruCache;
+
+import java.util.Locale;
+
+/**
+ * Tickets ouverts (sans heure de sortie) indexés par immatriculation normalisée.
+ * Les tickets sont copiés à l'entrée et à la sortie du cache : l'appelant peut les modifier sans effet sur le cache.
+ */
+public class OpenTicketCache {
+
+    private final LruCache<String, Ticket> tickets;
+
+    public OpenTicketCache(int maxSize) {
+        this.tickets = new LruCache<>(maxSize);
+    }
+
+    public static String normalize(String vehicleRegNumber) {
+        return vehicleRegNumber.trim().toUpperCase(Locale.ROOT);
+    }
+
+    public Ticket get(String vehicleRegNumber) {
+        Ticket ticket = tickets.get(normalize(vehicleRegNumber));
+        return ticket == null ? null : new Ticket(ticket);
+    }
+
+    public void put(Ticket ticket) {
+        if (ticket.getOutTime() == null && ticket.getId() > 0) {
+            tickets.put(normalize(ticket.getVehicleRegNumber()), new Ticket(ticket));
+        }
+    }
+
+    public void evict(String vehicleRegNumber) {
+        tickets.remove(normalize(vehicleRegNumber));
+    }
+
+    public void clear() {
+        tickets.clear();
+    }
+
+    public int size() {
+        return tickets.size();
+    }
+
+    public long getHits() {
+        return tickets.getHits();
+    }
+
+    public long getMisses() {
+        return tickets.getMisses();
+    }
+
+    public double getHitRate() {
+        return tickets.getHitRate();
+    }
+}
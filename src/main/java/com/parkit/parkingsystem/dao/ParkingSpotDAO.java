@@ -3,6 +3,8 @@ package com.parkit.parkingsystem.dao;
 import com.parkit.parkingsystem.config.DataBaseConfig;
 import com.parkit.parkingsystem.constants.DBConstants;
 import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.metrics.LatencyMetrics;
+import com.parkit.parkingsystem.metrics.Operation;
 import com.parkit.parkingsystem.model.ParkingSpot;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -10,58 +12,279 @@ import org.apache.logging.log4j.Logger;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
-public class ParkingSpotDAO {
+public class ParkingSpotDAO implements ParkingSpotStore {
     private static final Logger logger = LogManager.getLogger("ParkingSpotDAO");
 
     public DataBaseConfig dataBaseConfig = new DataBaseConfig();
+
+    public static final String PREFERRED_START_SPOT = "parkit.gate.preferredStartSpot";
+
+    // première place examinée par cette borne : des bornes configurées sur des zones différentes ne se disputent pas les mêmes lignes
+    private volatile int preferredStartSpot = Integer.getInteger(PREFERRED_START_SPOT, 0);
+
+    public void setPreferredStartSpot(int preferredStartSpot) {
+        this.preferredStartSpot = preferredStartSpot;
+    }
+
+    public int getPreferredStartSpot() {
+        return preferredStartSpot;
+    }
+
+    public static final String AVAILABILITY_INDEX_ENABLED = "parkit.spotIndex.enabled";
+    public static final String AVAILABILITY_INDEX_RECONCILE_MS = "parkit.spotIndex.reconcileMs";
+
+    // index mémoire optionnel, null tant que enableAvailabilityIndex() n'a pas été appelé
+    private volatile SpotAvailabilityIndex availabilityIndex;
+    private ScheduledExecutorService reconciliationExecutor;
+
+    public SpotAvailabilityIndex getAvailabilityIndex() {
+        return availabilityIndex;
+    }
+
+    // charge l'index depuis la table parking et le resynchronise périodiquement
+    public synchronized boolean enableAvailabilityIndex(long reconcilePeriodMillis) {
+        if (!reloadAvailabilityIndex()) {
+            return false;
+        }
+        startReconciliation(reconcilePeriodMillis);
+        return true;
+    }
+
+    // charge l'index depuis un état déjà vérifié (instantané d'occupation) sans interroger la table parking
+    public synchronized void enableAvailabilityIndex(Collection<ParkingSpot> parkingSpots, long reconcilePeriodMillis) {
+        availabilityIndex = new SpotAvailabilityIndex(parkingSpots);
+        startReconciliation(reconcilePeriodMillis);
+    }
+
+    private void startReconciliation(long reconcilePeriodMillis) {
+        if (reconciliationExecutor == null && reconcilePeriodMillis > 0) {
+            reconciliationExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "spot-index-reconciliation");
+                thread.setDaemon(true);
+                return thread;
+            });
+            reconciliationExecutor.scheduleWithFixedDelay(this::reloadAvailabilityIndex,
+                    reconcilePeriodMillis, reconcilePeriodMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public synchronized void disableAvailabilityIndex() {
+        if (reconciliationExecutor != null) {
+            reconciliationExecutor.shutdownNow();
+            reconciliationExecutor = null;
+        }
+        availabilityIndex = null;
+    }
+
+    // resynchronise l'index en place : les mises à jour faites pendant la lecture de la table sont conservées ;
+    // reconstruit seulement au premier chargement ou quand des places ont été ajoutées
+    public synchronized boolean reloadAvailabilityIndex() {
+        SpotAvailabilityIndex index = availabilityIndex;
+        if (index != null) {
+            index.beginReload();
+        }
+        List<ParkingSpot> parkingSpots = getAllParkingSpots();
+        if (parkingSpots == null) {
+            return false;
+        }
+        if (index == null || !index.reload(parkingSpots)) {
+            availabilityIndex = new SpotAvailabilityIndex(parkingSpots);
+        }
+        logger.debug("Spot availability index reloaded with {} spots", parkingSpots.size());
+        return true;
+    }
+
+    public List<ParkingSpot> getAllParkingSpots() {
+        long start = System.nanoTime();
+        try (Connection con = dataBaseConfig.getConnection();
+             PreparedStatement ps = con.prepareStatement(DBConstants.GET_ALL_PARKING_SPOTS);
+             ResultSet rs = ps.executeQuery()) {
+            List<ParkingSpot> parkingSpots = new ArrayList<>();
+            while (rs.next()) {
+                parkingSpots.add(new ParkingSpot(rs.getInt(1), ParkingType.valueOf(rs.getString(2)), rs.getBoolean(3)));
+            }
+            return parkingSpots;
+        } catch (Exception ex) {
+            logger.error("Error loading parking spots", ex);
+            return null;
+        } finally {
+            LatencyMetrics.record(Operation.SPOT_LOAD_ALL, start);
+        }
+    }
+
+    // à appeler une fois la modification de la place validée en base
+    public void updateAvailabilityIndex(int parkingNumber, boolean available) {
+        SpotAvailabilityIndex index = availabilityIndex;
+        if (index != null) {
+            index.setAvailable(parkingNumber, available);
+        }
+    }
  
     public int getNextAvailableSlot(ParkingType parkingType){
+        try {
+            return doGetNextAvailableSlot(parkingType);
+        }catch (Exception ex){
+            logger.error("Error fetching next available slot",ex);
+            return -1;
+        }
+    }
+
+    // -1 si aucune place ; le future échoue avec l'exception JDBC
+    public CompletableFuture<Integer> getNextAvailableSlotAsync(ParkingType parkingType) {
+        SpotAvailabilityIndex index = availabilityIndex;
+        if (index != null) {
+            return CompletableFuture.completedFuture(index.nextAvailable(parkingType));
+        }
+        return DaoExecutor.supply(() -> doGetNextAvailableSlot(parkingType));
+    }
+
+    private int doGetNextAvailableSlot(ParkingType parkingType) throws SQLException, ClassNotFoundException {
+        SpotAvailabilityIndex index = availabilityIndex;
+        if (index != null) {
+            return index.nextAvailable(parkingType);
+        }
+
+        long start = System.nanoTime();
         Connection con = null; 
+        PreparedStatement ps = null;
+        ResultSet rs = null;
         int result= -1; 
         
         try {
             con = dataBaseConfig.getConnection();	
-            PreparedStatement ps = con.prepareStatement(DBConstants.GET_NEXT_PARKING_SPOT); 
+            ps = con.prepareStatement(DBConstants.GET_NEXT_PARKING_SPOT); 
             
             ps.setString(1, parkingType.toString()); 
-            ResultSet rs = ps.executeQuery(); 
+            rs = ps.executeQuery(); 
             
             if(rs.next()){	
             	result = rs.getInt(1);
             }
             
-            logger.info("Place trouvée pour " + parkingType + " : " + result);
-            
+            logger.debug("Place trouvée pour {} : {}", parkingType, result);
+        }finally {
             dataBaseConfig.closeResultSet(rs);
             dataBaseConfig.closePreparedStatement(ps);
-        }catch (Exception ex){
-            logger.error("Error fetching next available slot",ex);
-        }finally {
             dataBaseConfig.closeConnection(con);
+            LatencyMetrics.record(Operation.SPOT_NEXT_AVAILABLE, start);
         }
         return result;
     }
 
     public boolean updateParking(ParkingSpot parkingSpot){
+        try {
+            return doUpdateParking(parkingSpot);
+        }catch (Exception ex){
+            logger.error("Error updating parking info",ex);
+            return false;
+        }
+    }
+
+    public CompletableFuture<Boolean> updateParkingAsync(ParkingSpot parkingSpot) {
+        return DaoExecutor.supply(() -> doUpdateParking(parkingSpot));
+    }
+
+    private boolean doUpdateParking(ParkingSpot parkingSpot) throws SQLException, ClassNotFoundException {
         //update the availability fo that parking slot
+        long start = System.nanoTime();
         Connection con = null;
+        PreparedStatement ps = null;
         try {
             con = dataBaseConfig.getConnection();
-            PreparedStatement ps = con.prepareStatement(DBConstants.UPDATE_PARKING_SPOT);
+            ps = con.prepareStatement(DBConstants.UPDATE_PARKING_SPOT);
             ps.setBoolean(1, parkingSpot.isAvailable());
             ps.setInt(2, parkingSpot.getId());
             int updateRowCount = ps.executeUpdate(); 
-            dataBaseConfig.closePreparedStatement(ps);
+            if (updateRowCount == 1) {
+                updateAvailabilityIndex(parkingSpot.getId(), parkingSpot.isAvailable());
+            }
             return (updateRowCount == 1); 
-        }catch (Exception ex){
-            logger.error("Error updating parking info",ex);
-            return false;
         }finally {
+            dataBaseConfig.closePreparedStatement(ps);
             dataBaseConfig.closeConnection(con);
+            LatencyMetrics.record(Operation.SPOT_UPDATE, start);
         }
     }
 
+    // réserve atomiquement une place libre dans sa propre transaction, -1 si aucune place
+    public int claimNextAvailableSlot(ParkingType parkingType) {
+        Connection con = null;
+        try {
+            con = dataBaseConfig.getConnection();
+            con.setAutoCommit(false);
+            int parkingNumber = claimNextAvailableSlot(con, parkingType);
+            con.commit();
+            if (parkingNumber > 0) {
+                updateAvailabilityIndex(parkingNumber, false);
+            }
+            return parkingNumber;
+        } catch (Exception ex) {
+            logger.error("Error claiming next available slot", ex);
+            return -1;
+        } finally {
+            dataBaseConfig.closeConnection(con);
+        }
+    }
+
+    // réserve une place dans la transaction de l'appelant : le verrou de ligne est tenu jusqu'au commit
+    int claimNextAvailableSlot(Connection con, ParkingType parkingType) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            return doClaimNextAvailableSlot(con, parkingType);
+        } finally {
+            LatencyMetrics.record(Operation.SPOT_CLAIM, start);
+        }
+    }
 
+    private int doClaimNextAvailableSlot(Connection con, ParkingType parkingType) throws SQLException {
+        int startSpot = claimStartSpot(parkingType);
+        int parkingNumber = selectSpotForUpdate(con, DBConstants.CLAIM_NEXT_PARKING_SPOT, parkingType, startSpot);
+        if (parkingNumber <= 0 && startSpot > 0) {
+            parkingNumber = selectSpotForUpdate(con, DBConstants.CLAIM_NEXT_PARKING_SPOT_BEFORE, parkingType, startSpot);
+        }
+        if (parkingNumber <= 0) {
+            return -1;
+        }
+        try (PreparedStatement ps = con.prepareStatement(DBConstants.UPDATE_PARKING_SPOT)) {
+            ps.setBoolean(1, false);
+            ps.setInt(2, parkingNumber);
+            ps.executeUpdate();
+        }
+        return parkingNumber;
+    }
 
+    // avec l'index, la recherche part de la première place libre qu'il connaît (à partir de la place préférée,
+    // sinon depuis le début) au lieu de parcourir les places occupées ; la base reste seule juge
+    private int claimStartSpot(ParkingType parkingType) {
+        int startSpot = preferredStartSpot;
+        SpotAvailabilityIndex index = availabilityIndex;
+        if (index == null) {
+            return startSpot;
+        }
+        int freeSpot = index.nextAvailable(parkingType, startSpot);
+        if (freeSpot < 0) {
+            freeSpot = index.nextAvailable(parkingType);
+        }
+        return freeSpot > 0 ? freeSpot : startSpot;
+    }
+
+    private int selectSpotForUpdate(Connection con, String query, ParkingType parkingType, int startSpot)
+            throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement(query)) {
+            ps.setString(1, parkingType.toString());
+            ps.setInt(2, startSpot);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : -1;
+            }
+        }
+    }
 }
@@ -0,0 +1,25 @@
+package com.parkit.parkingsystem.dao;
+
+import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.model.ParkingSpot;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Stockage des places : ParkingSpotDAO (MySQL) ou InMemoryParkingSpotDAO (mémoire).
+ */
+public interface ParkingSpotStore {
+
+    List<ParkingSpot> getAllParkingSpots();
+
+    int getNextAvailableSlot(ParkingType parkingType);
+
+    CompletableFuture<Integer> getNextAvailableSlotAsync(ParkingType parkingType);
+
+    boolean updateParking(ParkingSpot parkingSpot);
+
+    CompletableFuture<Boolean> updateParkingAsync(ParkingSpot parkingSpot);
+
+    int claimNextAvailableSlot(ParkingType parkingType);
+}
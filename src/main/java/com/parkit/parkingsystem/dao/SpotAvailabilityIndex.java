@@ -0,0 +1,176 @@
+package com.parkit.parkingsystem.dao;
+
+import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.model.ParkingSpot;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Index mémoire des places libres : un bitset sans verrou par ParkingType, indexé par numéro de place.
+ * La table parking reste la référence, l'index est resynchronisé périodiquement par ParkingSpotDAO, place par place
+ * (beginReload() puis reload()) : une mise à jour faite pendant la relecture de la table n'est pas écrasée.
+ */
+public class SpotAvailabilityIndex {
+
+    private static final ParkingType[] TYPES = ParkingType.values();
+
+    private final AtomicLongArray[] freeSpots;
+    // type de chaque place, null si la place n'existe pas
+    private final ParkingType[] spotTypes;
+    // places modifiées par setAvailable() depuis beginReload() : reload() ne les touche pas
+    private final AtomicLongArray updatedSpots;
+
+    public SpotAvailabilityIndex(Collection<ParkingSpot> parkingSpots) {
+        int capacity = 1;
+        for (ParkingSpot parkingSpot : parkingSpots) {
+            capacity = Math.max(capacity, parkingSpot.getId() + 1);
+        }
+        spotTypes = new ParkingType[capacity];
+        freeSpots = new AtomicLongArray[TYPES.length];
+        int words = (capacity + 63) >>> 6;
+        updatedSpots = new AtomicLongArray(words);
+        for (int i = 0; i < TYPES.length; i++) {
+            freeSpots[i] = new AtomicLongArray(words);
+        }
+        for (ParkingSpot parkingSpot : parkingSpots) {
+            if (parkingSpot.getId() < 0 || parkingSpot.getParkingType() == null) {
+                continue;
+            }
+            spotTypes[parkingSpot.getId()] = parkingSpot.getParkingType();
+            writeBit(parkingSpot.getId(), parkingSpot.isAvailable());
+        }
+    }
+
+    // plus petit numéro de place libre pour ce type, -1 si aucune
+    public int nextAvailable(ParkingType parkingType) {
+        return nextAvailable(parkingType, 0);
+    }
+
+    // plus petit numéro de place libre >= fromSpot pour ce type, -1 si aucune
+    public int nextAvailable(ParkingType parkingType, int fromSpot) {
+        AtomicLongArray bits = freeSpots[parkingType.ordinal()];
+        int from = Math.max(fromSpot, 0);
+        for (int word = from >>> 6; word < bits.length(); word++) {
+            long value = bits.get(word);
+            if (word == from >>> 6) {
+                value &= -1L << from;
+            }
+            if (value != 0) {
+                return (word << 6) + Long.numberOfTrailingZeros(value);
+            }
+        }
+        return -1;
+    }
+
+    // réserve sans verrou la plus petite place libre (CAS sur le mot du bitset), -1 si aucune
+    public int claimNextAvailable(ParkingType parkingType) {
+        AtomicLongArray bits = freeSpots[parkingType.ordinal()];
+        for (int word = 0; word < bits.length(); word++) {
+            long value;
+            while ((value = bits.get(word)) != 0) {
+                long lowest = Long.lowestOneBit(value);
+                if (bits.compareAndSet(word, value, value & ~lowest)) {
+                    int parkingNumber = (word << 6) + Long.numberOfTrailingZeros(lowest);
+                    setBit(updatedSpots, parkingNumber);
+                    return parkingNumber;
+                }
+            }
+        }
+        return -1;
+    }
+
+    public int countAvailable(ParkingType parkingType) {
+        AtomicLongArray bits = freeSpots[parkingType.ordinal()];
+        int count = 0;
+        for (int word = 0; word < bits.length(); word++) {
+            count += Long.bitCount(bits.get(word));
+        }
+        return count;
+    }
+
+    public boolean isAvailable(int parkingNumber) {
+        ParkingType parkingType = typeOf(parkingNumber);
+        if (parkingType == null) {
+            return false;
+        }
+        return (freeSpots[parkingType.ordinal()].get(parkingNumber >>> 6) & (1L << parkingNumber)) != 0;
+    }
+
+    // retourne false si la place est inconnue de l'index (ajoutée depuis le dernier chargement)
+    public boolean setAvailable(int parkingNumber, boolean available) {
+        if (typeOf(parkingNumber) == null) {
+            return false;
+        }
+        // marquée avant l'écriture : une relecture en cours voit la place comme modifiée
+        setBit(updatedSpots, parkingNumber);
+        writeBit(parkingNumber, available);
+        return true;
+    }
+
+    // à appeler avant de relire la table parking
+    public void beginReload() {
+        for (int word = 0; word < updatedSpots.length(); word++) {
+            updatedSpots.set(word, 0);
+        }
+    }
+
+    // applique l'état relu place par place, sauf pour les places modifiées depuis beginReload() ;
+    // false si la table contient une place inconnue de l'index (ou de type changé) : il faut alors le reconstruire
+    public boolean reload(Collection<ParkingSpot> parkingSpots) {
+        for (ParkingSpot parkingSpot : parkingSpots) {
+            if (parkingSpot.getParkingType() != typeOf(parkingSpot.getId())) {
+                return false;
+            }
+        }
+        for (ParkingSpot parkingSpot : parkingSpots) {
+            reloadBit(parkingSpot.getId(), parkingSpot.isAvailable());
+        }
+        return true;
+    }
+
+    // le mot est lu avant de tester la marque : une mise à jour concurrente fait échouer le CAS, et la marque est
+    // alors vue au tour suivant
+    private void reloadBit(int parkingNumber, boolean available) {
+        AtomicLongArray bits = freeSpots[typeOf(parkingNumber).ordinal()];
+        int word = parkingNumber >>> 6;
+        long mask = 1L << parkingNumber;
+        long current;
+        long updated;
+        do {
+            current = bits.get(word);
+            if ((updatedSpots.get(word) & mask) != 0) {
+                return;
+            }
+            updated = available ? current | mask : current & ~mask;
+        } while (current != updated && !bits.compareAndSet(word, current, updated));
+    }
+
+    private void writeBit(int parkingNumber, boolean available) {
+        AtomicLongArray bits = freeSpots[typeOf(parkingNumber).ordinal()];
+        int word = parkingNumber >>> 6;
+        long mask = 1L << parkingNumber;
+        long current;
+        long updated;
+        do {
+            current = bits.get(word);
+            updated = available ? current | mask : current & ~mask;
+        } while (current != updated && !bits.compareAndSet(word, current, updated));
+    }
+
+    private static void setBit(AtomicLongArray bits, int index) {
+        int word = index >>> 6;
+        long mask = 1L << index;
+        long current;
+        while (((current = bits.get(word)) & mask) == 0 && !bits.compareAndSet(word, current, current | mask)) {
+            // mot modifié entre-temps : on relit
+        }
+    }
+
+    public ParkingType typeOf(int parkingNumber) {
+        if (parkingNumber < 0 || parkingNumber >= spotTypes.length) {
+            return null;
+        }
+        return spotTypes[parkingNumber];
+    }
+}
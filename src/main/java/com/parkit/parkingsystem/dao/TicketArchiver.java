@@ -0,0 +1,133 @@
+package com.parkit.parkingsystem.dao;
+
+import com.parkit.parkingsystem.config.DataBaseConfig;
+import com.parkit.parkingsystem.constants.DBConstants;
+import com.parkit.parkingsystem.util.TaskExecutors;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Déplace par lots les tickets clos depuis plus de afterDays de la table ticket vers ticket_archive :
+ * la table chaude ne garde que les tickets ouverts et récents, TicketDAO.getTicket retombe sur l'archive.
+ * Chaque lot est une transaction (copie puis suppression), un arrêt en cours de route ne perd ni ne duplique rien.
+ */
+public class TicketArchiver implements Closeable {
+
+    private static final Logger logger = LogManager.getLogger("TicketArchiver");
+
+    // âge minimal (jours depuis OUT_TIME) d'un ticket archivé ; archivage désactivé si absent
+    public static final String AFTER_DAYS = "parkit.archive.afterDays";
+    public static final String BATCH_SIZE = "parkit.archive.batchSize";
+    public static final String INTERVAL_MS = "parkit.archive.intervalMs";
+
+    public DataBaseConfig dataBaseConfig = new DataBaseConfig();
+
+    private final long retentionMillis;
+    private final int batchSize;
+    private ScheduledExecutorService archiveExecutor;
+
+    public TicketArchiver(long retentionMillis, int batchSize) {
+        this.retentionMillis = retentionMillis;
+        this.batchSize = batchSize;
+    }
+
+    public static TicketArchiver fromSystemProperties() {
+        return new TicketArchiver(TimeUnit.DAYS.toMillis(Long.getLong(AFTER_DAYS)),
+                Integer.getInteger(BATCH_SIZE, 1000));
+    }
+
+    // archive lot par lot tout ce qui a dépassé l'âge limite ; retourne le nombre de tickets déplacés
+    public int archive() throws SQLException, ClassNotFoundException {
+        Timestamp cutoff = new Timestamp(System.currentTimeMillis() - retentionMillis);
+        int total = 0;
+        int moved;
+        do {
+            moved = archiveBatch(cutoff);
+            total += moved;
+        } while (moved == batchSize);
+        if (total > 0) {
+            logger.info("Archived {} tickets closed before {}", total, cutoff);
+        }
+        return total;
+    }
+
+    public int archiveBatch(Timestamp cutoff) throws SQLException, ClassNotFoundException {
+        Connection con = null;
+        try {
+            con = dataBaseConfig.getConnection();
+            con.setAutoCommit(false);
+            List<Integer> ids = new ArrayList<>(batchSize);
+            try (PreparedStatement ps = con.prepareStatement(DBConstants.GET_ARCHIVABLE_TICKET_IDS)) {
+                ps.setTimestamp(1, cutoff);
+                ps.setInt(2, batchSize);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        ids.add(rs.getInt(1));
+                    }
+                }
+            }
+            if (ids.isEmpty()) {
+                con.commit();
+                return 0;
+            }
+            try (PreparedStatement copy = con.prepareStatement(DBConstants.ARCHIVE_TICKET);
+                 PreparedStatement delete = con.prepareStatement(DBConstants.DELETE_ARCHIVED_TICKET)) {
+                for (int id : ids) {
+                    copy.setInt(1, id);
+                    copy.addBatch();
+                    delete.setInt(1, id);
+                    delete.addBatch();
+                }
+                copy.executeBatch();
+                delete.executeBatch();
+            }
+            con.commit();
+            logger.debug("Archived a batch of {} tickets", ids.size());
+            return ids.size();
+        } catch (SQLException | ClassNotFoundException | RuntimeException e) {
+            if (con != null) {
+                con.rollback();
+            }
+            throw e;
+        } finally {
+            dataBaseConfig.closeConnection(con);
+        }
+    }
+
+    public synchronized void start(long periodMillis) {
+        if (archiveExecutor != null || periodMillis <= 0) {
+            return;
+        }
+        archiveExecutor = Executors.newSingleThreadScheduledExecutor(TaskExecutors.daemonThreadFactory("ticket-archiver"));
+        archiveExecutor.scheduleWithFixedDelay(this::archiveQuietly, 0, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void archiveQuietly() {
+        try {
+            archive();
+        } catch (Exception e) {
+            // les tickets restent dans la table chaude jusqu'au prochain passage
+            logger.error("Unable to archive closed tickets", e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (archiveExecutor != null) {
+            archiveExecutor.shutdownNow();
+            archiveExecutor = null;
+        }
+    }
+}
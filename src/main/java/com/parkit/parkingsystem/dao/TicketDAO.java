@@ -3,34 +3,75 @@ package com.parkit.parkingsystem.dao;
 import com.parkit.parkingsystem.config.DataBaseConfig;
 import com.parkit.parkingsystem.constants.DBConstants;
 import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.metrics.LatencyMetrics;
+import com.parkit.parkingsystem.metrics.Operation;
+import com.parkit.parkingsystem.model.EntryResult;
+import com.parkit.parkingsystem.model.ExitResult;
+import com.parkit.parkingsystem.model.ImportResult;
 import com.parkit.parkingsystem.model.ParkingSpot;
 import com.parkit.parkingsystem.model.Ticket;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.sql.Timestamp;
 import java.sql.Types;
+import java.util.Date;
+import java.util.concurrent.CompletableFuture;
 
-public class TicketDAO {
+public class TicketDAO implements TicketStore {
 
     private static final Logger logger = LogManager.getLogger("TicketDAO");
 
     public DataBaseConfig dataBaseConfig = new DataBaseConfig();
 
+    // utilisé pour réserver la place dans la transaction d'entrée
+    public ParkingSpotDAO parkingSpotDAO = new ParkingSpotDAO();
+
+    public static final String OPEN_TICKET_CACHE_SIZE = "parkit.ticketCache.size";
+
+    // cache optionnel des tickets ouverts, null si désactivé
+    public OpenTicketCache openTicketCache;
+
+    // écriture différée optionnelle via journal local, null si désactivée
+    public WriteBehindTicketWriter writeBehind;
+
     public boolean saveTicket(Ticket ticket){
+        long start = System.nanoTime();
+        if (writeBehind != null && writeBehind.saveTicket(ticket)) {
+            LatencyMetrics.record(Operation.TICKET_SAVE, start);
+            return true;
+        }
+        try {
+            return doSaveTicket(ticket);
+        }catch (Exception ex){
+            logger.error("Error fetching next available slot",ex);
+            return false;
+        }
+   }
+
+    // le future échoue avec l'exception JDBC au lieu de renvoyer false
+    public CompletableFuture<Boolean> saveTicketAsync(Ticket ticket) {
+        return DaoExecutor.supply(() -> doSaveTicket(ticket));
+    }
+
+    private boolean doSaveTicket(Ticket ticket) throws SQLException, ClassNotFoundException {
+        long start = System.nanoTime();
         Connection con = null;
         PreparedStatement ps = null;
         try {
             con = dataBaseConfig.getConnection();
-            ps = con.prepareStatement(DBConstants.SAVE_TICKET);
+            ps = con.prepareStatement(DBConstants.SAVE_TICKET, Statement.RETURN_GENERATED_KEYS);
             //ID, PARKING_NUMBER, VEHICLE_REG_NUMBER, PRICE, IN_TIME, OUT_TIME)
             //ps.setInt(1,ticket.getId());
             ps.setInt(1,ticket.getParkingSpot().getId());
             ps.setString(2, ticket.getVehicleRegNumber());
-            ps.setDouble(3, ticket.getPrice());
+            bindPrice(ps, 3, ticket);
             ps.setTimestamp(4, new Timestamp(ticket.getInTime().getTime()));
             
             if (ticket.getOutTime() == null) {
@@ -40,79 +81,422 @@ public class TicketDAO {
             }
 
             int affectedRows = ps.executeUpdate();
+            if (affectedRows > 0) {
+                readGeneratedId(ps, ticket);
+                if (openTicketCache != null) {
+                    openTicketCache.put(ticket);
+                }
+            }
             return affectedRows > 0;
-            
-        }catch (Exception ex){
-            logger.error("Error fetching next available slot",ex);
-            return false;
         }finally {
         	dataBaseConfig.closePreparedStatement(ps);
             dataBaseConfig.closeConnection(con);
+            LatencyMetrics.record(Operation.TICKET_SAVE, start);
         }
-   }
-
+    }
 
-    public Ticket getTicket(String vehicleRegNumber) {
+    // import en masse (historique d'un autre site, journaux de bornes hors ligne) : un lot JDBC toutes les batchSize
+    // lignes, un commit toutes les chunkSize lignes ; les tickets sont lus au fil de l'eau, l'Iterable peut être un flux.
+    // Les identifiants générés ne sont pas relus et la disponibilité des places n'est pas modifiée.
+    public ImportResult saveTickets(Iterable<Ticket> tickets, int batchSize, int chunkSize) {
+        if (batchSize < 1 || chunkSize < 1) {
+            throw new IllegalArgumentException("Tailles de lot invalides : batch=" + batchSize + ", chunk=" + chunkSize);
+        }
+        long start = System.nanoTime();
+        long rowsImported = 0;
+        long batches = 0;
         Connection con = null;
-        Ticket ticket = null;
+        PreparedStatement ps = null;
         try {
             con = dataBaseConfig.getConnection();
-            PreparedStatement ps = con.prepareStatement(DBConstants.GET_TICKET);
-            //ID, PARKING_NUMBER, VEHICLE_REG_NUMBER, PRICE, IN_TIME, OUT_TIME)
-            ps.setString(1,vehicleRegNumber);
-            ResultSet rs = ps.executeQuery();
-            if(rs.next()){
-                ticket = new Ticket();
-                ParkingSpot parkingSpot = new ParkingSpot(rs.getInt(1), ParkingType.valueOf(rs.getString(6)),false);
-                ticket.setParkingSpot(parkingSpot);
-                ticket.setId(rs.getInt(2));
-                ticket.setVehicleRegNumber(vehicleRegNumber);
-                ticket.setPrice(rs.getDouble(3));
-                ticket.setInTime(rs.getTimestamp(4));
-                ticket.setOutTime(rs.getTimestamp(5));
+            con.setAutoCommit(false);
+            ps = con.prepareStatement(DBConstants.SAVE_TICKET);
+            int batched = 0;
+            int uncommitted = 0;
+            for (Ticket ticket : tickets) {
+                ps.setInt(1, ticket.getParkingSpot().getId());
+                ps.setString(2, ticket.getVehicleRegNumber());
+                bindPrice(ps, 3, ticket);
+                ps.setTimestamp(4, new Timestamp(ticket.getInTime().getTime()));
+                if (ticket.getOutTime() == null) {
+                    ps.setNull(5, Types.TIMESTAMP);
+                } else {
+                    ps.setTimestamp(5, new Timestamp(ticket.getOutTime().getTime()));
+                }
+                ps.addBatch();
+                if (++batched == batchSize) {
+                    ps.executeBatch();
+                    batches++;
+                    uncommitted += batched;
+                    batched = 0;
+                    if (uncommitted >= chunkSize) {
+                        con.commit();
+                        rowsImported += uncommitted;
+                        uncommitted = 0;
+                    }
+                }
             }
-            dataBaseConfig.closeResultSet(rs);
+            if (batched > 0) {
+                ps.executeBatch();
+                batches++;
+                uncommitted += batched;
+            }
+            con.commit();
+            rowsImported += uncommitted;
+            ImportResult result = ImportResult.completed(rowsImported, batches, System.nanoTime() - start);
+            logger.info("Imported tickets: {}", result);
+            return result;
+        } catch (Exception ex) {
+            logger.error("Error importing tickets after {} committed rows", rowsImported, ex);
+            rollback(con);
+            clearBatch(ps);
+            return ImportResult.failed(rowsImported, batches, System.nanoTime() - start, ex);
+        } finally {
             dataBaseConfig.closePreparedStatement(ps);
+            dataBaseConfig.closeConnection(con);
+            // un ticket importé peut être plus récent que celui en cache pour la même immatriculation
+            if (openTicketCache != null) {
+                openTicketCache.clear();
+            }
+            LatencyMetrics.record(Operation.TICKET_IMPORT, start);
+        }
+    }
+
+    private void clearBatch(PreparedStatement ps) {
+        if (ps != null) {
+            try {
+                ps.clearBatch();
+            } catch (SQLException e) {
+                logger.error("Error while clearing statement batch", e);
+            }
+        }
+    }
+
+    private void readGeneratedId(PreparedStatement ps, Ticket ticket) throws SQLException {
+        try (ResultSet keys = ps.getGeneratedKeys()) {
+            if (keys != null && keys.next()) {
+                ticket.setId(keys.getInt(1));
+            }
+        }
+    }
+
+
+    public Ticket getTicket(String vehicleRegNumber) {
+        Ticket known = getPendingOrCachedTicket(vehicleRegNumber);
+        if (known != null) {
+            return known;
+        }
+        try {
+            return doGetTicket(vehicleRegNumber);
         }catch (Exception ex){
             logger.error("Error fetching next available slot",ex);
+            return null;
+        }
+    }
+
+    // un hit du cache est servi sans passer par l'exécuteur ; null si aucun ticket
+    public CompletableFuture<Ticket> getTicketAsync(String vehicleRegNumber) {
+        Ticket known = getPendingOrCachedTicket(vehicleRegNumber);
+        if (known != null) {
+            return CompletableFuture.completedFuture(known);
+        }
+        return DaoExecutor.supply(() -> doGetTicket(vehicleRegNumber));
+    }
+
+    // comme getTicket, dans le thread appelant (thread virtuel de la requête) mais sans avaler l'erreur JDBC
+    public Ticket loadTicket(String vehicleRegNumber) throws SQLException, ClassNotFoundException {
+        Ticket known = getPendingOrCachedTicket(vehicleRegNumber);
+        if (known != null) {
+            return known;
+        }
+        return doGetTicket(vehicleRegNumber);
+    }
+
+    // écriture différée en attente puis cache, null s'il faut lire la base ; un hit est mesuré comme une lecture
+    private Ticket getPendingOrCachedTicket(String vehicleRegNumber) {
+        long start = System.nanoTime();
+        Ticket ticket = getPendingTicket(vehicleRegNumber);
+        if (ticket == null && openTicketCache != null) {
+            ticket = openTicketCache.get(vehicleRegNumber);
+        }
+        if (ticket != null) {
+            LatencyMetrics.record(Operation.TICKET_GET, start);
+        }
+        return ticket;
+    }
+
+    private Ticket doGetTicket(String vehicleRegNumber) throws SQLException, ClassNotFoundException {
+        long start = System.nanoTime();
+        Connection con = null;
+        Ticket ticket;
+        try {
+            con = dataBaseConfig.getConnection();
+            ticket = readTicket(con, DBConstants.GET_TICKET, vehicleRegNumber);
+            if (ticket == null) {
+                // tickets clos déplacés par TicketArchiver
+                ticket = readTicket(con, DBConstants.GET_ARCHIVED_TICKET, vehicleRegNumber);
+            }
         }finally {
             dataBaseConfig.closeConnection(con);
+            LatencyMetrics.record(Operation.TICKET_GET, start);
         }
         return ticket;
     }
+
+    private Ticket readTicket(Connection con, String query, String vehicleRegNumber) throws SQLException {
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        try {
+            ps = con.prepareStatement(query);
+            //ID, PARKING_NUMBER, VEHICLE_REG_NUMBER, PRICE, IN_TIME, OUT_TIME)
+            ps.setString(1,vehicleRegNumber);
+            rs = ps.executeQuery();
+            if(!rs.next()){
+                return null;
+            }
+            Ticket ticket = new Ticket();
+            ParkingSpot parkingSpot = new ParkingSpot(rs.getInt(1), ParkingType.valueOf(rs.getString(6)),false);
+            ticket.setParkingSpot(parkingSpot);
+            ticket.setId(rs.getInt(2));
+            ticket.setVehicleRegNumber(vehicleRegNumber);
+            ticket.setPriceCents(readPriceCents(rs, 3));
+            ticket.setInTime(rs.getTimestamp(4));
+            ticket.setOutTime(rs.getTimestamp(5));
+            return ticket;
+        }finally {
+            dataBaseConfig.closeResultSet(rs);
+            dataBaseConfig.closePreparedStatement(ps);
+        }
+    }
  
 
     public boolean updateTicket(Ticket ticket) {
+        long start = System.nanoTime();
+        if (writeBehind != null && writeBehind.updateTicket(ticket)) {
+            if (openTicketCache != null) {
+                openTicketCache.evict(ticket.getVehicleRegNumber());
+            }
+            LatencyMetrics.record(Operation.TICKET_UPDATE, start);
+            return true;
+        }
+        try {
+            doUpdateTicket(ticket);
+            return true;
+        }catch (Exception ex){
+            logger.error("Error saving ticket info",ex);
+        }
+        return false;
+    }
+
+    public CompletableFuture<Void> updateTicketAsync(Ticket ticket) {
+        return DaoExecutor.run(() -> doUpdateTicket(ticket));
+    }
+
+    // sortie : clôture du ticket et libération de sa place, seulement si le ticket est encore ouvert ;
+    // NO_TICKET si une autre borne l'a clôturé entre-temps. En écriture différée, les deux sont journalisées ensemble.
+    public ExitResult.Status closeTicket(Ticket ticket) {
+        long start = System.nanoTime();
+        try {
+            return doCloseTicketOrJournal(ticket);
+        } finally {
+            LatencyMetrics.record(Operation.TICKET_CLOSE, start);
+        }
+    }
+
+    private ExitResult.Status doCloseTicketOrJournal(Ticket ticket) {
+        if (writeBehind != null) {
+            ExitResult.Status journaled = writeBehind.closeTicket(ticket);
+            if (journaled != null) {
+                if (openTicketCache != null) {
+                    openTicketCache.evict(ticket.getVehicleRegNumber());
+                }
+                if (journaled == ExitResult.Status.EXITED) {
+                    releaseSpot(ticket);
+                }
+                return journaled;
+            }
+        }
+        try {
+            if (!doCloseTicket(ticket)) {
+                return ExitResult.Status.NO_TICKET;
+            }
+            releaseSpot(ticket);
+            return ExitResult.Status.EXITED;
+        } catch (Exception ex) {
+            logger.error("Error saving ticket info", ex);
+            return ExitResult.Status.ERROR;
+        }
+    }
+
+    private void releaseSpot(Ticket ticket) {
+        ticket.getParkingSpot().setAvailable(true);
+        parkingSpotDAO.updateAvailabilityIndex(ticket.getParkingSpot().getId(), true);
+    }
+
+    // clôture et libération de la place dans une seule transaction ; false si le ticket n'était plus ouvert
+    private boolean doCloseTicket(Ticket ticket) throws SQLException, ClassNotFoundException {
+        Connection con = null;
+        try {
+            con = dataBaseConfig.getConnection();
+            con.setAutoCommit(false);
+            int updated;
+            try (PreparedStatement ps = con.prepareStatement(DBConstants.UPDATE_TICKET)) {
+                bindPrice(ps, 1, ticket);
+                ps.setTimestamp(2, new Timestamp(ticket.getOutTime().getTime()));
+                ps.setInt(3, ticket.getId());
+                updated = ps.executeUpdate();
+            }
+            if (updated == 1) {
+                try (PreparedStatement ps = con.prepareStatement(DBConstants.UPDATE_PARKING_SPOT)) {
+                    ps.setBoolean(1, true);
+                    ps.setInt(2, ticket.getParkingSpot().getId());
+                    ps.executeUpdate();
+                }
+            }
+            con.commit();
+            // clôturé ici ou par une autre borne : dans les deux cas le ticket n'est plus ouvert
+            if (openTicketCache != null) {
+                openTicketCache.evict(ticket.getVehicleRegNumber());
+            }
+            return updated == 1;
+        } catch (SQLException | RuntimeException e) {
+            rollback(con);
+            throw e;
+        } finally {
+            dataBaseConfig.closeConnection(con);
+        }
+    }
+
+    // true si le ticket était ouvert et vient d'être clôturé
+    private boolean doUpdateTicket(Ticket ticket) throws SQLException, ClassNotFoundException {
+        long start = System.nanoTime();
         Connection con = null;
+        PreparedStatement ps = null;
         try {
             con = dataBaseConfig.getConnection();
-            PreparedStatement ps = con.prepareStatement(DBConstants.UPDATE_TICKET);
-            ps.setDouble(1, ticket.getPrice());
+            ps = con.prepareStatement(DBConstants.UPDATE_TICKET);
+            bindPrice(ps, 1, ticket);
             ps.setTimestamp(2, new Timestamp(ticket.getOutTime().getTime()));
             ps.setInt(3,ticket.getId());
-            ps.execute();
-            return true;
-        }catch (Exception ex){
-            logger.error("Error saving ticket info",ex);
+            int updated = ps.executeUpdate();
+            // clôturé ici ou par une autre borne : dans les deux cas le ticket n'est plus ouvert
+            if (openTicketCache != null) {
+                openTicketCache.evict(ticket.getVehicleRegNumber());
+            }
+            return updated == 1;
         }finally {
+            dataBaseConfig.closePreparedStatement(ps);
             dataBaseConfig.closeConnection(con);
+            LatencyMetrics.record(Operation.TICKET_UPDATE, start);
         }
-        return false;
     }
      
+    // entrée complète (contrôle immatriculation, réservation de la place, ticket, nb de visites)
+    // dans une seule transaction sur une seule connexion
+    public EntryResult saveIncomingTicket(ParkingType parkingType, String vehicleRegNumber, Date inTime) {
+        long start = System.nanoTime();
+        Connection con = null;
+        try {
+            con = dataBaseConfig.getConnection();
+            con.setAutoCommit(false);
+
+            // une sortie journalisée pas encore en base fait foi sur l'état du ticket en base
+            Ticket pending = getPendingTicket(vehicleRegNumber);
+            if (pending != null && pending.getOutTime() == null) {
+                con.rollback();
+                return EntryResult.of(EntryResult.Status.ALREADY_PARKED);
+            }
+            // sérialise les entrées d'une même immatriculation jusqu'au commit : la lecture qui suit voit le ticket
+            // validé par une autre borne (sa première lecture cohérente a lieu après l'obtention du verrou).
+            // Le cache ne suffit pas à refuser l'entrée : une sortie sur une autre borne ne l'évince pas.
+            lockVehicle(con, vehicleRegNumber);
+            if (pending == null && isVehicleAlreadyParked(con, vehicleRegNumber)) {
+                con.rollback();
+                return EntryResult.of(EntryResult.Status.ALREADY_PARKED);
+            }
+
+            int parkingNumber = parkingSpotDAO.claimNextAvailableSlot(con, parkingType);
+            if (parkingNumber <= 0) {
+                con.rollback();
+                return EntryResult.of(EntryResult.Status.NO_SPOT_AVAILABLE);
+            }
+
+            ParkingSpot parkingSpot = new ParkingSpot(parkingNumber, parkingType, false);
+
+            Ticket ticket = new Ticket();
+            ticket.setParkingSpot(parkingSpot);
+            ticket.setVehicleRegNumber(vehicleRegNumber);
+            ticket.setInTime(inTime);
+            ticket.setPrice(0);
+            try (PreparedStatement ps = con.prepareStatement(DBConstants.SAVE_TICKET, Statement.RETURN_GENERATED_KEYS)) {
+                ps.setInt(1, parkingNumber);
+                ps.setString(2, vehicleRegNumber);
+                bindPrice(ps, 3, ticket);
+                ps.setTimestamp(4, new Timestamp(inTime.getTime()));
+                ps.setNull(5, Types.TIMESTAMP);
+                ps.executeUpdate();
+                readGeneratedId(ps, ticket);
+            }
+
+            int nbTickets = getNbTicket(con, vehicleRegNumber);
+            con.commit();
+            parkingSpotDAO.updateAvailabilityIndex(parkingNumber, false);
+            if (openTicketCache != null) {
+                openTicketCache.put(ticket);
+            }
+            if (pending != null) {
+                // le nouveau ticket est en base : les lectures n'ont plus à passer par le journal
+                writeBehind.forgetPendingTicket(vehicleRegNumber);
+            }
+            return EntryResult.parked(ticket, nbTickets);
+        } catch (Exception ex) {
+            logger.error("Error processing vehicle entry", ex);
+            rollback(con);
+            return EntryResult.of(EntryResult.Status.ERROR);
+        } finally {
+            dataBaseConfig.closeConnection(con);
+            LatencyMetrics.record(Operation.TICKET_SAVE_INCOMING, start);
+        }
+    }
+
+    private void lockVehicle(Connection con, String vehicleRegNumber) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement(DBConstants.LOCK_VEHICLE_VISIT)) {
+            ps.setString(1, vehicleRegNumber);
+            ps.executeUpdate();
+        }
+    }
+
+    private Ticket getPendingTicket(String vehicleRegNumber) {
+        return writeBehind == null ? null : writeBehind.getPendingTicket(vehicleRegNumber);
+    }
+
+    // PRICE est un decimal(10,2) : lié et lu en BigDecimal, sans passer par un double
+    static void bindPrice(PreparedStatement ps, int index, Ticket ticket) throws SQLException {
+        ps.setBigDecimal(index, BigDecimal.valueOf(ticket.getPriceCents(), 2));
+    }
+
+    static long readPriceCents(ResultSet rs, int index) throws SQLException {
+        BigDecimal price = rs.getBigDecimal(index);
+        return price == null ? 0 : price.movePointRight(2).longValueExact();
+    }
+
+    private void rollback(Connection con) {
+        if (con != null) {
+            try {
+                if (!con.getAutoCommit()) {
+                    con.rollback();
+                }
+            } catch (SQLException e) {
+                logger.error("Error while rolling back transaction", e);
+            }
+        }
+    }
+
     public int getNbTicket(String vehicleRegNumber) {
     	int nbTickets = 0 ;
     	
-    	try (Connection con = dataBaseConfig.getConnection();
-            PreparedStatement ps = con.prepareStatement(DBConstants.NB_TICKET)) {
-            	
-            ps.setString(1,vehicleRegNumber);
-            
-            try (ResultSet rs = ps.executeQuery()){
-                 if(rs.next()) {
-                	 nbTickets = rs.getInt(1);
-                 }
-            }
+    	try (Connection con = dataBaseConfig.getConnection()) {
+            nbTickets = getNbTicket(con, vehicleRegNumber);
          }catch (Exception ex){
             	logger.error("Error get number tickets",ex);
             }
@@ -120,23 +504,72 @@ public class TicketDAO {
     	return nbTickets;
     }
 
+    public CompletableFuture<Integer> getNbTicketAsync(String vehicleRegNumber) {
+        return DaoExecutor.supply(() -> loadNbTicket(vehicleRegNumber));
+    }
+
+    // comme getNbTicket, sans avaler l'erreur JDBC
+    public int loadNbTicket(String vehicleRegNumber) throws SQLException, ClassNotFoundException {
+        try (Connection con = dataBaseConfig.getConnection()) {
+            return getNbTicket(con, vehicleRegNumber);
+        }
+    }
+
+    private int getNbTicket(Connection con, String vehicleRegNumber) throws SQLException {
+        long start = System.nanoTime();
+        try (PreparedStatement ps = con.prepareStatement(DBConstants.NB_TICKET)) {
+            ps.setString(1,vehicleRegNumber);
+            try (ResultSet rs = ps.executeQuery()){
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        } finally {
+            LatencyMetrics.record(Operation.TICKET_COUNT, start);
+        }
+    }
+
     // contrôler l'unicité d'une immatriculation
 	public boolean isVehicleAlreadyParked(String vehicleRegNumber) {
+		// le cache n'est pas consulté : un ticket clôturé par une autre borne y reste jusqu'à son éviction
+		Ticket pending = getPendingTicket(vehicleRegNumber);
+		if (pending != null) {
+			return pending.getOutTime() == null;
+		}
 		boolean vehicleAlreadyParked = false;
 		
-		try (Connection con = dataBaseConfig.getConnection();
-	        PreparedStatement ps = con.prepareStatement(DBConstants.IS_VEHICLE_ALREADY_PARKED)) {
-	            	
-	        ps.setString(1,vehicleRegNumber);
-            
-	        try (ResultSet rs = ps.executeQuery()){
-                 if(rs.next() && rs.getInt(1) > 0){ 
-                	 vehicleAlreadyParked = true;
-                 }
-	        }
+		try (Connection con = dataBaseConfig.getConnection()) {
+	        vehicleAlreadyParked = isVehicleAlreadyParked(con, vehicleRegNumber);
         } catch (Exception ex) {
             	logger.error("Erreur lors de la vérification de l'immatriculation",ex);
             }
 		return vehicleAlreadyParked;
 	}
-}
\ No newline at end of file
+
+	public CompletableFuture<Boolean> isVehicleAlreadyParkedAsync(String vehicleRegNumber) {
+		Ticket pending = getPendingTicket(vehicleRegNumber);
+		if (pending != null) {
+			return CompletableFuture.completedFuture(pending.getOutTime() == null);
+		}
+		return DaoExecutor.supply(() -> {
+			try (Connection con = dataBaseConfig.getConnection()) {
+				return isVehicleAlreadyParked(con, vehicleRegNumber);
+			}
+		});
+	}
+
+	private boolean isVehicleAlreadyParked(Connection con, String vehicleRegNumber) throws SQLException {
+		long start = System.nanoTime();
+		try (PreparedStatement ps = con.prepareStatement(DBConstants.IS_VEHICLE_ALREADY_PARKED)) {
+	        ps.setString(1,vehicleRegNumber);
+	        try (ResultSet rs = ps.executeQuery()){
+                 boolean parked = rs.next() && rs.getInt(1) > 0;
+                 if (!parked && openTicketCache != null) {
+                     // ticket en cache clôturé par une autre borne
+                     openTicketCache.evict(vehicleRegNumber);
+                 }
+                 return parked;
+	        }
+		} finally {
+			LatencyMetrics.record(Operation.TICKET_IS_PARKED, start);
+		}
+	}
+}
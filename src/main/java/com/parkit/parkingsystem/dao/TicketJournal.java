@@ -0,0 +1,337 @@
+package com.parkit.parkingsystem.dao;
+
+import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.model.ParkingSpot;
+import com.parkit.parkingsystem.model.Ticket;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * Journal local des écritures de tickets, projeté en mémoire et utilisé en anneau.
+ * Enregistrement (aligné sur 8 octets) : longueur, CRC32, numéro de séquence, ticket.
+ * L'en-tête garde la position et le numéro du premier enregistrement pas encore appliqué en base ;
+ * à la réouverture, les enregistrements qui suivent avec des numéros consécutifs et un CRC valide sont à rejouer.
+ */
+public class TicketJournal implements Closeable {
+
+    public static final byte INSERT = 1;
+    public static final byte UPDATE = 2;
+
+    private static final int MAGIC = 0x504B544A;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    private static final int RECORD_HEADER_SIZE = 16;
+    // fin de tour : la suite est au début de la zone de données
+    private static final int PADDING = -1;
+    private static final int MAX_PLATE_BYTES = 64;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int dataSize;
+
+    // positions logiques (croissantes, modulo dataSize dans le fichier)
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private volatile long writePosition;
+    private volatile long syncedPosition;
+    private long nextSequence;
+    private volatile long checkpointPosition;
+    private long checkpointSequence;
+    // lecture par le seul thread de vidage
+    private long readPosition;
+    private long readSequence;
+
+    private final List<Record> recovered;
+
+    public TicketJournal(Path file, int capacityBytes) throws IOException {
+        if (capacityBytes < HEADER_SIZE + 1024) {
+            throw new IllegalArgumentException("Journal trop petit : " + capacityBytes);
+        }
+        int capacity = capacityBytes & ~7;
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long existingSize = channel.size();
+        if (existingSize > 0 && existingSize != capacity) {
+            channel.close();
+            throw new IOException("Journal " + file + " has size " + existingSize + ", expected " + capacity);
+        }
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        dataSize = capacity - HEADER_SIZE;
+
+        if (buffer.getInt(0) == 0) {
+            writeHeader(0, 0);
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.force();
+        } else if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            channel.close();
+            throw new IOException("Not a ticket journal: " + file);
+        }
+        checkpointPosition = buffer.getLong(8);
+        checkpointSequence = buffer.getLong(16);
+
+        // reprise : les enregistrements valides après le checkpoint n'ont pas été appliqués en base
+        recovered = new ArrayList<>();
+        long position = checkpointPosition;
+        long sequence = checkpointSequence;
+        Record record;
+        while ((record = readAt(position, sequence)) != null) {
+            recovered.add(record);
+            position = record.endPosition;
+            sequence++;
+        }
+        writePosition = position;
+        syncedPosition = position;
+        nextSequence = sequence;
+        readPosition = checkpointPosition;
+        readSequence = checkpointSequence;
+    }
+
+    // enregistrements en attente trouvés à l'ouverture, dans l'ordre d'écriture
+    public List<Record> getRecoveredRecords() {
+        return recovered;
+    }
+
+    /**
+     * Écrit l'enregistrement dans le fichier projeté, sans attendre qu'il soit durable.
+     * Retourne null si le journal est plein.
+     */
+    public Record write(byte type, Ticket ticket) {
+        byte[] plate = ticket.getVehicleRegNumber().getBytes(StandardCharsets.UTF_8);
+        if (plate.length > MAX_PLATE_BYTES) {
+            throw new IllegalArgumentException("Immatriculation trop longue : " + ticket.getVehicleRegNumber());
+        }
+        ByteBuffer payload = ByteBuffer.allocate(40 + plate.length);
+        payload.put(type);
+        ParkingSpot parkingSpot = ticket.getParkingSpot();
+        payload.put((byte) (parkingSpot.getParkingType() == null ? -1 : parkingSpot.getParkingType().ordinal()));
+        payload.putShort((short) plate.length);
+        payload.putInt(ticket.getId());
+        payload.putInt(parkingSpot.getId());
+        payload.putLong(ticket.getInTime().getTime());
+        payload.putLong(ticket.getOutTime() == null ? -1 : ticket.getOutTime().getTime());
+        payload.putLong(ticket.getPriceCents());
+        payload.put(plate);
+        int recordSize = align(RECORD_HEADER_SIZE + payload.capacity());
+
+        appendLock.lock();
+        try {
+            long position = writePosition;
+            int offset = offset(position);
+            int padding = dataSize - offset < recordSize ? dataSize - offset : 0;
+            if (position + padding + recordSize - checkpointPosition > dataSize) {
+                return null;
+            }
+            if (padding > 0) {
+                buffer.putInt(HEADER_SIZE + offset, PADDING);
+                position += padding;
+                offset = 0;
+            }
+            long sequence = nextSequence;
+            CRC32 crc = new CRC32();
+            crc.update(longBytes(sequence));
+            crc.update(payload.array());
+            int base = HEADER_SIZE + offset;
+            buffer.putInt(base, payload.capacity());
+            buffer.putInt(base + 4, (int) crc.getValue());
+            buffer.putLong(base + 8, sequence);
+            buffer.put(base + RECORD_HEADER_SIZE, payload.array());
+            nextSequence = sequence + 1;
+            writePosition = position + recordSize;
+            return new Record(type, new Ticket(ticket), sequence, position + recordSize);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Rend durable tout ce qui est écrit jusqu'à la position donnée. Un seul fsync à la fois :
+     * les bornes qui attendent pendant ce temps sont couvertes par le suivant (group commit).
+     */
+    public void awaitDurable(long position) {
+        if (syncedPosition >= position) {
+            return;
+        }
+        syncLock.lock();
+        try {
+            long from = syncedPosition;
+            if (from >= position) {
+                return;
+            }
+            long target = writePosition;
+            int start = offset(from);
+            long length = target - from;
+            if (start + length <= dataSize) {
+                buffer.force(HEADER_SIZE + start, (int) length);
+            } else {
+                buffer.force();
+            }
+            syncedPosition = target;
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    // prochains enregistrements durables à appliquer en base, sans avancer le checkpoint
+    public List<Record> readDurable(int maxRecords) {
+        List<Record> records = new ArrayList<>();
+        long position = readPosition;
+        long sequence = readSequence;
+        long durable = syncedPosition;
+        while (records.size() < maxRecords && position < durable) {
+            Record record = readAt(position, sequence);
+            if (record == null) {
+                break;
+            }
+            records.add(record);
+            position = record.endPosition;
+            sequence++;
+        }
+        readPosition = position;
+        readSequence = sequence;
+        return records;
+    }
+
+    // à appeler après le commit en base : l'espace jusqu'à cet enregistrement peut être réutilisé
+    public void checkpoint(Record lastApplied) {
+        appendLock.lock();
+        try {
+            checkpointPosition = lastApplied.endPosition;
+            checkpointSequence = lastApplied.sequence + 1;
+            writeHeader(checkpointPosition, checkpointSequence);
+            // l'en-tête doit être durable avant que l'espace libéré soit réécrit
+            buffer.force(0, HEADER_SIZE);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    // les enregistrements lus mais pas appliqués seront relus (échec de l'écriture en base)
+    public void rewind() {
+        appendLock.lock();
+        try {
+            readPosition = checkpointPosition;
+            readSequence = checkpointSequence;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    public long getPendingBytes() {
+        return writePosition - checkpointPosition;
+    }
+
+    public int getCapacity() {
+        return dataSize;
+    }
+
+    @Override
+    public void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    private Record readAt(long position, long expectedSequence) {
+        int offset = offset(position);
+        if (dataSize - offset < RECORD_HEADER_SIZE || buffer.getInt(HEADER_SIZE + offset) == PADDING) {
+            position += dataSize - offset;
+            offset = 0;
+        }
+        int base = HEADER_SIZE + offset;
+        int length = buffer.getInt(base);
+        if (length <= 0 || length > dataSize - offset - RECORD_HEADER_SIZE
+                || buffer.getLong(base + 8) != expectedSequence) {
+            return null;
+        }
+        byte[] payload = new byte[length];
+        buffer.get(base + RECORD_HEADER_SIZE, payload);
+        CRC32 crc = new CRC32();
+        crc.update(longBytes(expectedSequence));
+        crc.update(payload);
+        if ((int) crc.getValue() != buffer.getInt(base + 4)) {
+            return null;
+        }
+        return decode(payload, expectedSequence, position + align(RECORD_HEADER_SIZE + length));
+    }
+
+    private static Record decode(byte[] bytes, long sequence, long endPosition) {
+        ByteBuffer payload = ByteBuffer.wrap(bytes);
+        byte type = payload.get();
+        byte parkingType = payload.get();
+        short plateLength = payload.getShort();
+        Ticket ticket = new Ticket();
+        ticket.setId(payload.getInt());
+        int parkingNumber = payload.getInt();
+        ticket.setInTime(new Date(payload.getLong()));
+        long outTime = payload.getLong();
+        ticket.setOutTime(outTime < 0 ? null : new Date(outTime));
+        ticket.setPriceCents(payload.getLong());
+        byte[] plate = new byte[plateLength];
+        payload.get(plate);
+        ticket.setVehicleRegNumber(new String(plate, StandardCharsets.UTF_8));
+        ticket.setParkingSpot(new ParkingSpot(parkingNumber,
+                parkingType < 0 ? null : ParkingType.values()[parkingType], false));
+        return new Record(type, ticket, sequence, endPosition);
+    }
+
+    private void writeHeader(long position, long sequence) {
+        buffer.putLong(8, position);
+        buffer.putLong(16, sequence);
+    }
+
+    private int offset(long position) {
+        return (int) (position % dataSize);
+    }
+
+    private static int align(int size) {
+        return (size + 7) & ~7;
+    }
+
+    private static byte[] longBytes(long value) {
+        return ByteBuffer.allocate(8).putLong(value).array();
+    }
+
+    /**
+     * Écriture de ticket journalisée.
+     */
+    public static final class Record {
+        private final byte type;
+        private final Ticket ticket;
+        private final long sequence;
+        private final long endPosition;
+
+        private Record(byte type, Ticket ticket, long sequence, long endPosition) {
+            this.type = type;
+            this.ticket = ticket;
+            this.sequence = sequence;
+            this.endPosition = endPosition;
+        }
+
+        public byte getType() {
+            return type;
+        }
+
+        public Ticket getTicket() {
+            return ticket;
+        }
+
+        public long getSequence() {
+            return sequence;
+        }
+
+        public long getEndPosition() {
+            return endPosition;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.parkit.parkingsystem.dao;
+
+import com.parkit.parkingsystem.config.DataBaseConfig;
+import com.parkit.parkingsystem.constants.DBConstants;
+import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.model.RevenueReport;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rapports sur l'historique des tickets (table chaude et archive). Les lignes sont lues en flux,
+ * sans objet Ticket, et agrégées au fil de l'eau : la mémoire ne dépend pas du nombre de tickets.
+ */
+public class TicketReportDAO {
+
+    private static final Logger logger = LogManager.getLogger("TicketReportDAO");
+
+    // lignes reçues par aller-retour ; Integer.MIN_VALUE : flux ligne à ligne du pilote MySQL, sans tampon
+    public static final String FETCH_SIZE = "parkit.report.fetchSize";
+
+    public DataBaseConfig dataBaseConfig = new DataBaseConfig();
+
+    // tickets sortis entre from (inclus) et to (exclu)
+    public RevenueReport getRevenueReport(LocalDate from, LocalDate to) throws SQLException, ClassNotFoundException {
+        RevenueReport report = new RevenueReport(from, to);
+        Timestamp start = Timestamp.valueOf(from.atStartOfDay());
+        Timestamp end = Timestamp.valueOf(to.atStartOfDay());
+        long startNanos = System.nanoTime();
+        Connection con = null;
+        try {
+            con = dataBaseConfig.getConnection();
+            // variante non mise en cache par le pool : un flux occupe la connexion jusqu'à sa fermeture
+            try (PreparedStatement ps = con.prepareStatement(DBConstants.STREAM_CLOSED_TICKETS,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                ps.setFetchSize(Integer.getInteger(FETCH_SIZE, Integer.MIN_VALUE));
+                ps.setTimestamp(1, start);
+                ps.setTimestamp(2, end);
+                ps.setTimestamp(3, start);
+                ps.setTimestamp(4, end);
+                try (ResultSet rs = ps.executeQuery()) {
+                    String lastType = null;
+                    ParkingType parkingType = null;
+                    while (rs.next()) {
+                        String type = rs.getString(1);
+                        if (!type.equals(lastType)) {
+                            parkingType = ParkingType.valueOf(type);
+                            lastType = type;
+                        }
+                        report.add(rs.getLong(2), rs.getInt(3), parkingType, rs.getLong(4), rs.getLong(5));
+                    }
+                }
+            }
+        } finally {
+            dataBaseConfig.closeConnection(con);
+        }
+        logger.info("Revenue report {} - {} built from {} tickets in {} ms", from, to, report.getTotalTickets(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+        return report;
+    }
+}
@@ -0,0 +1,56 @@
+package com.parkit.parkingsystem.dao;
+
+import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.model.EntryResult;
+import com.parkit.parkingsystem.model.ExitResult;
+import com.parkit.parkingsystem.model.ImportResult;
+import com.parkit.parkingsystem.model.Ticket;
+
+import java.sql.SQLException;
+import java.util.Date;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Stockage des tickets : TicketDAO (MySQL) ou InMemoryTicketDAO (mémoire).
+ * Les variantes *Async et load* propagent l'erreur du stockage au lieu de renvoyer une valeur sentinelle.
+ */
+public interface TicketStore {
+
+    String IMPORT_BATCH_SIZE = "parkit.import.batchSize";
+    String IMPORT_CHUNK_SIZE = "parkit.import.chunkSize";
+
+    boolean saveTicket(Ticket ticket);
+
+    CompletableFuture<Boolean> saveTicketAsync(Ticket ticket);
+
+    default ImportResult saveTickets(Iterable<Ticket> tickets) {
+        return saveTickets(tickets, Integer.getInteger(IMPORT_BATCH_SIZE, 1000),
+                Integer.getInteger(IMPORT_CHUNK_SIZE, 10_000));
+    }
+
+    ImportResult saveTickets(Iterable<Ticket> tickets, int batchSize, int chunkSize);
+
+    Ticket getTicket(String vehicleRegNumber);
+
+    CompletableFuture<Ticket> getTicketAsync(String vehicleRegNumber);
+
+    Ticket loadTicket(String vehicleRegNumber) throws SQLException, ClassNotFoundException;
+
+    boolean updateTicket(Ticket ticket);
+
+    CompletableFuture<Void> updateTicketAsync(Ticket ticket);
+
+    ExitResult.Status closeTicket(Ticket ticket);
+
+    EntryResult saveIncomingTicket(ParkingType parkingType, String vehicleRegNumber, Date inTime);
+
+    int getNbTicket(String vehicleRegNumber);
+
+    CompletableFuture<Integer> getNbTicketAsync(String vehicleRegNumber);
+
+    int loadNbTicket(String vehicleRegNumber) throws SQLException, ClassNotFoundException;
+
+    boolean isVehicleAlreadyParked(String vehicleRegNumber);
+
+    CompletableFuture<Boolean> isVehicleAlreadyParkedAsync(String vehicleRegNumber);
+}
@@ -0,0 +1,401 @@
+package com.parkit.parkingsystem.dao;
+
+import com.parkit.parkingsystem.config.DataBaseConfig;
+import com.parkit.parkingsystem.constants.DBConstants;
+import com.parkit.parkingsystem.metrics.LatencyMetrics;
+import com.parkit.parkingsystem.metrics.Operation;
+import com.parkit.parkingsystem.model.ExitResult;
+import com.parkit.parkingsystem.model.Ticket;
+import com.parkit.parkingsystem.util.LruCache;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Écriture différée des tickets : la borne est acquittée dès que l'écriture est durable dans le TicketJournal,
+ * un thread de fond l'applique ensuite en base par lots. Une sortie journalisée applique aussi la libération
+ * de sa place, dans la même transaction. Au redémarrage, le journal est rejoué ; le rejeu est idempotent
+ * (insertion ignorée si le ticket plate + IN_TIME existe, mise à jour par ID ou par clé, place libérée
+ * seulement si aucun ticket ouvert ne l'occupe).
+ */
+public class WriteBehindTicketWriter implements Closeable {
+
+    private static final Logger logger = LogManager.getLogger("WriteBehindTicketWriter");
+
+    public static final String JOURNAL_FILE = "parkit.writeBehind.journal";
+    public static final String JOURNAL_CAPACITY_MB = "parkit.writeBehind.capacityMb";
+    public static final String FLUSH_INTERVAL_MS = "parkit.writeBehind.flushIntervalMs";
+    public static final String FLUSH_BATCH_SIZE = "parkit.writeBehind.batchSize";
+
+    private static final long MAX_RETRY_DELAY_MILLIS = 30_000;
+    private static final int RECENTLY_CLOSED_SIZE = 10_000;
+
+    public DataBaseConfig dataBaseConfig = new DataBaseConfig();
+
+    private final TicketJournal journal;
+    private final long flushIntervalMillis;
+    private final int batchSize;
+    // dernier état journalisé mais pas encore en base, par immatriculation : lu avant la base par TicketDAO
+    private final ConcurrentHashMap<String, PendingTicket> pendingTickets = new ConcurrentHashMap<>();
+    // sorties journalisées pas encore appliquées en base, par ID de ticket ; sous pendingLock
+    private final Set<Integer> unflushedCloses = ConcurrentHashMap.newKeySet();
+    // sorties appliquées récemment : une borne a pu lire le ticket ouvert juste avant le lot
+    private final LruCache<Integer, Boolean> recentlyClosed = new LruCache<>(RECENTLY_CLOSED_SIZE);
+    private final Object pendingLock = new Object();
+    private final Object flushSignal = new Object();
+    private Thread flusher;
+    private volatile boolean running;
+
+    public WriteBehindTicketWriter(Path journalFile, int capacityBytes, long flushIntervalMillis, int batchSize)
+            throws IOException {
+        this.journal = new TicketJournal(journalFile, capacityBytes);
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.batchSize = batchSize;
+        List<TicketJournal.Record> recovered = journal.getRecoveredRecords();
+        for (TicketJournal.Record record : recovered) {
+            trackPending(record);
+        }
+        if (!recovered.isEmpty()) {
+            logger.warn("{} journaled ticket writes will be replayed to the database", recovered.size());
+        }
+    }
+
+    public static WriteBehindTicketWriter fromSystemProperties() throws IOException {
+        return new WriteBehindTicketWriter(Path.of(System.getProperty(JOURNAL_FILE)),
+                Integer.getInteger(JOURNAL_CAPACITY_MB, 64) * 1024 * 1024,
+                Long.getLong(FLUSH_INTERVAL_MS, 200L),
+                Integer.getInteger(FLUSH_BATCH_SIZE, 500));
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        flusher = new Thread(this::flushLoop, "ticket-write-behind");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    // false si le journal est plein : l'appelant écrit alors directement en base
+    public boolean saveTicket(Ticket ticket) {
+        // DATETIME MySQL est à la seconde : la clé de rejeu plate + IN_TIME doit être exacte
+        Ticket journaled = new Ticket(ticket);
+        journaled.setInTime(new Date(ticket.getInTime().getTime() / 1000 * 1000));
+        return append(TicketJournal.INSERT, journaled);
+    }
+
+    public boolean updateTicket(Ticket ticket) {
+        return append(TicketJournal.UPDATE, ticket);
+    }
+
+    // sortie conditionnelle : NO_TICKET si la sortie de ce ticket est déjà journalisée, vient d'être appliquée,
+    // ou si le ticket est clos en base (autre borne) ; null si le journal est plein (l'appelant clôture alors
+    // directement en base). Deux sorties simultanées sur deux instances restent possibles tant que leurs lots
+    // ne sont pas appliqués.
+    public ExitResult.Status closeTicket(Ticket ticket) {
+        synchronized (pendingLock) {
+            if (isClosedLocally(ticket)) {
+                return ExitResult.Status.NO_TICKET;
+            }
+        }
+        try {
+            if (ticket.getId() > 0 && !isOpenInDataBase(ticket.getId())) {
+                return ExitResult.Status.NO_TICKET;
+            }
+        } catch (SQLException | ClassNotFoundException | RuntimeException e) {
+            logger.error("Unable to check ticket {} before journaling its exit", ticket.getId(), e);
+            return ExitResult.Status.ERROR;
+        }
+        TicketJournal.Record record;
+        synchronized (pendingLock) {
+            // une sortie concurrente a pu être journalisée, voire appliquée, pendant la lecture en base
+            if (isClosedLocally(ticket)) {
+                return ExitResult.Status.NO_TICKET;
+            }
+            record = write(TicketJournal.UPDATE, ticket);
+            if (record == null) {
+                return null;
+            }
+        }
+        awaitDurable(record);
+        return ExitResult.Status.EXITED;
+    }
+
+    // sous pendingLock
+    private boolean isClosedLocally(Ticket ticket) {
+        if (ticket.getId() > 0) {
+            return unflushedCloses.contains(ticket.getId()) || recentlyClosed.get(ticket.getId()) != null;
+        }
+        // ticket journalisé à l'entrée, pas encore en base : identifié par sa clé de rejeu
+        PendingTicket pending = pendingTickets.get(OpenTicketCache.normalize(ticket.getVehicleRegNumber()));
+        return pending != null && pending.ticket.getOutTime() != null
+                && pending.ticket.getInTime().getTime() == ticket.getInTime().getTime();
+    }
+
+    private boolean isOpenInDataBase(int ticketId) throws SQLException, ClassNotFoundException {
+        Connection con = null;
+        try {
+            con = dataBaseConfig.getConnection();
+            try (PreparedStatement ps = con.prepareStatement(DBConstants.IS_TICKET_OPEN)) {
+                ps.setInt(1, ticketId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    return rs.next() && rs.getInt(1) > 0;
+                }
+            }
+        } finally {
+            dataBaseConfig.closeConnection(con);
+        }
+    }
+
+    private boolean append(byte type, Ticket ticket) {
+        TicketJournal.Record record;
+        synchronized (pendingLock) {
+            record = write(type, ticket);
+            if (record == null) {
+                return false;
+            }
+        }
+        awaitDurable(record);
+        return true;
+    }
+
+    // sous pendingLock ; null si le journal est plein
+    private TicketJournal.Record write(byte type, Ticket ticket) {
+        TicketJournal.Record record = journal.write(type, ticket);
+        if (record == null) {
+            logger.warn("Ticket journal is full, writing ticket directly to the database");
+            return null;
+        }
+        trackPending(record);
+        return record;
+    }
+
+    private void awaitDurable(TicketJournal.Record record) {
+        journal.awaitDurable(record.getEndPosition());
+        synchronized (flushSignal) {
+            flushSignal.notifyAll();
+        }
+    }
+
+    private void trackPending(TicketJournal.Record record) {
+        Ticket ticket = record.getTicket();
+        if (record.getType() == TicketJournal.UPDATE && ticket.getOutTime() != null && ticket.getId() > 0) {
+            unflushedCloses.add(ticket.getId());
+        }
+        pendingTickets.put(OpenTicketCache.normalize(ticket.getVehicleRegNumber()),
+                new PendingTicket(record.getSequence(), ticket));
+    }
+
+    // état le plus récent d'un ticket pas encore écrit en base, null sinon
+    public Ticket getPendingTicket(String vehicleRegNumber) {
+        PendingTicket pending = pendingTickets.get(OpenTicketCache.normalize(vehicleRegNumber));
+        return pending == null ? null : new Ticket(pending.ticket);
+    }
+
+    // un ticket plus récent a été écrit directement en base : les lectures peuvent y retourner
+    public void forgetPendingTicket(String vehicleRegNumber) {
+        synchronized (pendingLock) {
+            pendingTickets.remove(OpenTicketCache.normalize(vehicleRegNumber));
+        }
+    }
+
+    public int getPendingCount() {
+        return pendingTickets.size();
+    }
+
+    public long getPendingBytes() {
+        return journal.getPendingBytes();
+    }
+
+    private void flushLoop() {
+        long retryDelay = flushIntervalMillis;
+        while (running) {
+            try {
+                if (flush() == 0) {
+                    synchronized (flushSignal) {
+                        flushSignal.wait(flushIntervalMillis);
+                    }
+                }
+                retryDelay = flushIntervalMillis;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                // rien n'est perdu : les enregistrements restent dans le journal jusqu'au prochain essai
+                logger.error("Unable to flush ticket journal, retrying in {} ms", retryDelay, e);
+                try {
+                    Thread.sleep(retryDelay);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                retryDelay = Math.min(retryDelay * 2, MAX_RETRY_DELAY_MILLIS);
+            }
+        }
+    }
+
+    /**
+     * Applique en base, dans une transaction, le prochain lot d'écritures durables du journal.
+     * Retourne le nombre d'écritures appliquées.
+     */
+    public synchronized int flush() throws SQLException, ClassNotFoundException {
+        List<TicketJournal.Record> records = journal.readDurable(batchSize);
+        if (records.isEmpty()) {
+            return 0;
+        }
+        long start = System.nanoTime();
+        Connection con = null;
+        try {
+            con = dataBaseConfig.getConnection();
+            con.setAutoCommit(false);
+            try (PreparedStatement insert = con.prepareStatement(DBConstants.SAVE_TICKET_IF_ABSENT);
+                 PreparedStatement updateById = con.prepareStatement(DBConstants.UPDATE_TICKET);
+                 PreparedStatement updateByKey = con.prepareStatement(DBConstants.UPDATE_TICKET_BY_PLATE_AND_IN_TIME);
+                 PreparedStatement releaseSpot = con.prepareStatement(DBConstants.RELEASE_PARKING_SPOT_IF_FREE)) {
+                List<Ticket> closedById = new ArrayList<>();
+                // les insertions passent avant les mises à jour : une sortie peut clore un ticket du même lot
+                for (TicketJournal.Record record : records) {
+                    Ticket ticket = record.getTicket();
+                    if (record.getType() == TicketJournal.INSERT) {
+                        bindInsert(insert, ticket);
+                        insert.addBatch();
+                    } else if (ticket.getId() > 0) {
+                        closedById.add(ticket);
+                        TicketDAO.bindPrice(updateById, 1, ticket);
+                        updateById.setTimestamp(2, new Timestamp(ticket.getOutTime().getTime()));
+                        updateById.setInt(3, ticket.getId());
+                        updateById.addBatch();
+                    } else {
+                        TicketDAO.bindPrice(updateByKey, 1, ticket);
+                        updateByKey.setTimestamp(2, new Timestamp(ticket.getOutTime().getTime()));
+                        updateByKey.setString(3, ticket.getVehicleRegNumber());
+                        updateByKey.setTimestamp(4, new Timestamp(ticket.getInTime().getTime()));
+                        updateByKey.addBatch();
+                    }
+                    if (record.getType() == TicketJournal.UPDATE && ticket.getOutTime() != null) {
+                        releaseSpot.setInt(1, ticket.getParkingSpot().getId());
+                        releaseSpot.setInt(2, ticket.getParkingSpot().getId());
+                        releaseSpot.addBatch();
+                    }
+                }
+                insert.executeBatch();
+                warnAlreadyClosed(closedById, updateById.executeBatch());
+                updateByKey.executeBatch();
+                // après les clôtures du lot : la condition "aucun ticket ouvert" les voit
+                releaseSpot.executeBatch();
+            }
+            con.commit();
+        } catch (SQLException | ClassNotFoundException | RuntimeException e) {
+            rollback(con);
+            journal.rewind();
+            throw e;
+        } finally {
+            dataBaseConfig.closeConnection(con);
+            LatencyMetrics.record(Operation.TICKET_JOURNAL_FLUSH, start);
+        }
+
+        TicketJournal.Record last = records.get(records.size() - 1);
+        journal.checkpoint(last);
+        synchronized (pendingLock) {
+            for (TicketJournal.Record record : records) {
+                Ticket ticket = record.getTicket();
+                if (record.getType() == TicketJournal.UPDATE && unflushedCloses.remove(ticket.getId())) {
+                    recentlyClosed.put(ticket.getId(), Boolean.TRUE);
+                }
+                pendingTickets.computeIfPresent(OpenTicketCache.normalize(ticket.getVehicleRegNumber()),
+                        (plate, pending) -> pending.sequence <= record.getSequence() ? null : pending);
+            }
+        }
+        logger.debug("Flushed {} journaled ticket writes", records.size());
+        return records.size();
+    }
+
+    // sortie acquittée mais ticket déjà clos en base : rejeu d'un lot appliqué avant l'arrêt, ou sortie
+    // journalisée sur une autre instance dans le même intervalle (à rapprocher de la facturation)
+    private static void warnAlreadyClosed(List<Ticket> tickets, int[] updateCounts) {
+        if (updateCounts == null) {
+            return;
+        }
+        for (int i = 0; i < Math.min(tickets.size(), updateCounts.length); i++) {
+            if (updateCounts[i] == 0) {
+                logger.warn("Journaled exit of ticket {} found it already closed in the database",
+                        tickets.get(i).getId());
+            }
+        }
+    }
+
+    private static void bindInsert(PreparedStatement ps, Ticket ticket) throws SQLException {
+        Timestamp inTime = new Timestamp(ticket.getInTime().getTime());
+        ps.setInt(1, ticket.getParkingSpot().getId());
+        ps.setString(2, ticket.getVehicleRegNumber());
+        TicketDAO.bindPrice(ps, 3, ticket);
+        ps.setTimestamp(4, inTime);
+        if (ticket.getOutTime() == null) {
+            ps.setNull(5, Types.TIMESTAMP);
+        } else {
+            ps.setTimestamp(5, new Timestamp(ticket.getOutTime().getTime()));
+        }
+        ps.setString(6, ticket.getVehicleRegNumber());
+        ps.setTimestamp(7, inTime);
+    }
+
+    private void rollback(Connection con) {
+        if (con != null) {
+            try {
+                con.rollback();
+            } catch (SQLException e) {
+                logger.error("Error while rolling back journal flush", e);
+            }
+        }
+    }
+
+    // vide le journal autant que possible puis le ferme ; ce qui reste sera rejoué au prochain démarrage
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            running = false;
+        }
+        if (flusher != null) {
+            flusher.interrupt();
+            try {
+                flusher.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        try {
+            while (flush() > 0) {
+                // jusqu'à épuisement
+            }
+        } catch (Exception e) {
+            logger.error("Unable to flush ticket journal before shutdown, it will be replayed on restart", e);
+        }
+        journal.close();
+    }
+
+    private static final class PendingTicket {
+        private final long sequence;
+        private final Ticket ticket;
+
+        private PendingTicket(long sequence, Ticket ticket) {
+            this.sequence = sequence;
+            this.ticket = ticket;
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package com.parkit.parkingsystem.metrics;
+
+import com.parkit.parkingsystem.constants.ParkingType;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compteurs du tableau de bord tenus à jour à chaque entrée et sortie par ParkingService :
+ * places occupées par type, entrées, sorties et chiffre d'affaires par heure (48 dernières heures, heure locale).
+ * Les lectures ne touchent pas la base ; DashboardCheckpointer recopie les heures en base et les restaure au démarrage.
+ */
+public class DashboardCounters {
+
+    private static final ParkingType[] TYPES = ParkingType.values();
+    private static final int HOURS_KEPT = 48;
+    private static final long MILLIS_PER_HOUR = 3_600_000L;
+
+    private final ZoneId zone;
+    private final AtomicLongArray occupied = new AtomicLongArray(TYPES.length);
+    // anneau indexé par heure locale (heures depuis 1970) modulo HOURS_KEPT ; une case est remplacée à son retour
+    private final AtomicReferenceArray<HourBucket> hours = new AtomicReferenceArray<>(HOURS_KEPT);
+    // événements d'une heure déjà sortie de l'anneau (horloge en retard), ignorés
+    private final LongAdder droppedEvents = new LongAdder();
+
+    public DashboardCounters() {
+        this(ZoneId.systemDefault());
+    }
+
+    public DashboardCounters(ZoneId zone) {
+        this.zone = zone;
+    }
+
+    public void recordEntry(ParkingType parkingType, long timeMillis) {
+        occupied.incrementAndGet(parkingType.ordinal());
+        HourBucket bucket = bucket(localHour(timeMillis));
+        if (bucket != null) {
+            bucket.entries[parkingType.ordinal()].increment();
+        }
+    }
+
+    public void recordExit(ParkingType parkingType, long timeMillis, long priceCents) {
+        occupied.decrementAndGet(parkingType.ordinal());
+        HourBucket bucket = bucket(localHour(timeMillis));
+        if (bucket != null) {
+            bucket.exits[parkingType.ordinal()].increment();
+            bucket.revenueCents[parkingType.ordinal()].add(priceCents);
+        }
+    }
+
+    public long getOccupied(ParkingType parkingType) {
+        return occupied.get(parkingType.ordinal());
+    }
+
+    public long getDroppedEvents() {
+        return droppedEvents.sum();
+    }
+
+    // valeur lue en base au démarrage puis à chaque point de reprise : les autres instances ne passent pas par ces compteurs
+    public void setOccupied(ParkingType parkingType, long count) {
+        occupied.set(parkingType.ordinal(), count);
+    }
+
+    public long getEntries(long timeMillis, ParkingType parkingType) {
+        HourBucket bucket = existingBucket(localHour(timeMillis));
+        return bucket == null ? 0 : bucket.entries[parkingType.ordinal()].sum();
+    }
+
+    public long getExits(long timeMillis, ParkingType parkingType) {
+        HourBucket bucket = existingBucket(localHour(timeMillis));
+        return bucket == null ? 0 : bucket.exits[parkingType.ordinal()].sum();
+    }
+
+    // depuis minuit (heure locale) jusqu'à nowMillis : au plus 24 cases lues
+    public long getRevenueTodayCents(long nowMillis) {
+        long hour = localHour(nowMillis);
+        long midnight = Math.floorDiv(hour, 24) * 24;
+        long total = 0;
+        for (long h = midnight; h <= hour; h++) {
+            HourBucket bucket = existingBucket(h);
+            if (bucket != null) {
+                for (LongAdder revenue : bucket.revenueCents) {
+                    total += revenue.sum();
+                }
+            }
+        }
+        return total;
+    }
+
+    // heures conservées, pour le point de reprise en base
+    public List<HourCount> getHourCounts() {
+        List<HourCount> counts = new ArrayList<>();
+        for (int i = 0; i < HOURS_KEPT; i++) {
+            HourBucket bucket = hours.get(i);
+            if (bucket == null) {
+                continue;
+            }
+            for (ParkingType parkingType : TYPES) {
+                int t = parkingType.ordinal();
+                counts.add(new HourCount(bucket.hour, parkingType, bucket.entries[t].sum(), bucket.exits[t].sum(),
+                        bucket.revenueCents[t].sum()));
+            }
+        }
+        return counts;
+    }
+
+    // ajoute un point de reprise aux compteurs de son heure, si elle est encore dans la fenêtre conservée
+    public void restore(HourCount count, long nowMillis) {
+        long now = localHour(nowMillis);
+        if (count.getLocalHour() > now || count.getLocalHour() <= now - HOURS_KEPT) {
+            return;
+        }
+        HourBucket bucket = bucket(count.getLocalHour());
+        if (bucket == null) {
+            return;
+        }
+        int t = count.getParkingType().ordinal();
+        bucket.entries[t].add(count.getEntries());
+        bucket.exits[t].add(count.getExits());
+        bucket.revenueCents[t].add(count.getRevenueCents());
+    }
+
+    // heures écoulées depuis 1970 en heure locale : les heures et journées suivent l'horloge du parking
+    public long localHour(long timeMillis) {
+        long offsetMillis = zone.getRules().getOffset(Instant.ofEpochMilli(timeMillis)).getTotalSeconds() * 1000L;
+        return Math.floorDiv(timeMillis + offsetMillis, MILLIS_PER_HOUR);
+    }
+
+    // début d'une heure locale, sans fuseau (colonne DATETIME), et inversement
+    public static LocalDateTime startOf(long localHour) {
+        return LocalDateTime.ofEpochSecond(localHour * 3600, 0, ZoneOffset.UTC);
+    }
+
+    public static long localHourOf(LocalDateTime start) {
+        return Math.floorDiv(start.toEpochSecond(ZoneOffset.UTC), 3600);
+    }
+
+    // null si une heure plus récente occupe déjà la case : l'événement est compté dans droppedEvents
+    private HourBucket bucket(long hour) {
+        int slot = Math.floorMod(hour, HOURS_KEPT);
+        while (true) {
+            HourBucket bucket = hours.get(slot);
+            if (bucket != null && bucket.hour == hour) {
+                return bucket;
+            }
+            // une heure en retard (horloge, reprise) ne doit pas écraser une heure plus récente
+            if (bucket != null && bucket.hour > hour) {
+                droppedEvents.increment();
+                return null;
+            }
+            HourBucket fresh = new HourBucket(hour);
+            if (hours.compareAndSet(slot, bucket, fresh)) {
+                return fresh;
+            }
+        }
+    }
+
+    private HourBucket existingBucket(long hour) {
+        HourBucket bucket = hours.get(Math.floorMod(hour, HOURS_KEPT));
+        return bucket != null && bucket.hour == hour ? bucket : null;
+    }
+
+    private static final class HourBucket {
+        private final long hour;
+        private final LongAdder[] entries = adders();
+        private final LongAdder[] exits = adders();
+        private final LongAdder[] revenueCents = adders();
+
+        private HourBucket(long hour) {
+            this.hour = hour;
+        }
+
+        private static LongAdder[] adders() {
+            LongAdder[] adders = new LongAdder[TYPES.length];
+            for (int i = 0; i < adders.length; i++) {
+                adders[i] = new LongAdder();
+            }
+            return adders;
+        }
+    }
+
+    /**
+     * Compteurs d'une heure locale et d'un type de place.
+     */
+    public static final class HourCount {
+        private final long localHour;
+        private final ParkingType parkingType;
+        private final long entries;
+        private final long exits;
+        private final long revenueCents;
+
+        public HourCount(long localHour, ParkingType parkingType, long entries, long exits, long revenueCents) {
+            this.localHour = localHour;
+            this.parkingType = parkingType;
+            this.entries = entries;
+            this.exits = exits;
+            this.revenueCents = revenueCents;
+        }
+
+        public long getLocalHour() {
+            return localHour;
+        }
+
+        public ParkingType getParkingType() {
+            return parkingType;
+        }
+
+        public long getEntries() {
+            return entries;
+        }
+
+        public long getExits() {
+            return exits;
+        }
+
+        public long getRevenueCents() {
+            return revenueCents;
+        }
+
+        public LocalDateTime getStart() {
+            return startOf(localHour);
+        }
+    }
+}
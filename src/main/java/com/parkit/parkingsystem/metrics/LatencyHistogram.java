@@ -0,0 +1,131 @@
+package com.parkit.parkingsystem.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogramme de latences en nanosecondes, à seaux log-linéaires : 32 seaux par puissance de deux,
+ * soit une erreur relative inférieure à 3 %. L'enregistrement est sans verrou et sans allocation
+ * (incréments atomiques) ; seule la lecture des percentiles parcourt les seaux.
+ */
+public class LatencyHistogram implements LatencyHistogramMXBean {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // au-delà de 2^42 ns (~73 min), les valeurs tombent dans le dernier seau
+    private static final int MAX_MAGNITUDE = 42;
+    private static final int BUCKETS = SUB_BUCKETS + (MAX_MAGNITUDE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        buckets.incrementAndGet(indexOf(nanos));
+        count.increment();
+        totalNanos.add(nanos);
+        long max;
+        while (nanos > (max = maxNanos.get()) && !maxNanos.compareAndSet(max, nanos)) {
+            // un autre thread a relevé le max entre-temps
+        }
+    }
+
+    static int indexOf(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) nanos;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(nanos);
+        if (magnitude > MAX_MAGNITUDE) {
+            return BUCKETS - 1;
+        }
+        // les SUB_BUCKET_BITS bits de poids fort (bit de tête inclus) situent la valeur dans sa puissance de deux
+        int subBucket = (int) (nanos >>> (magnitude - SUB_BUCKET_BITS)) - SUB_BUCKETS;
+        return SUB_BUCKETS + (magnitude - SUB_BUCKET_BITS) * SUB_BUCKETS + subBucket;
+    }
+
+    // plus grande valeur rangée dans le seau
+    static long upperBoundOf(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int magnitude = (index - SUB_BUCKETS) / SUB_BUCKETS + SUB_BUCKET_BITS;
+        int subBucket = (index - SUB_BUCKETS) % SUB_BUCKETS;
+        int shift = magnitude - SUB_BUCKET_BITS;
+        return ((long) (SUB_BUCKETS + subBucket + 1) << shift) - 1;
+    }
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    // percentile entre 0 et 100, en nanosecondes (borne haute du seau), 0 si vide
+    public long getPercentileNanos(double percentile) {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += buckets.get(i);
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(total * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(i), maxNanos.get());
+            }
+        }
+        return maxNanos.get();
+    }
+
+    @Override
+    public double getMeanMicros() {
+        long n = count.sum();
+        return n == 0 ? 0 : totalNanos.sum() / (n * 1000.0);
+    }
+
+    @Override
+    public double getP50Micros() {
+        return getPercentileNanos(50) / 1000.0;
+    }
+
+    @Override
+    public double getP99Micros() {
+        return getPercentileNanos(99) / 1000.0;
+    }
+
+    @Override
+    public double getP999Micros() {
+        return getPercentileNanos(99.9) / 1000.0;
+    }
+
+    @Override
+    public double getMaxMicros() {
+        return maxNanos.get() / 1000.0;
+    }
+
+    // les enregistrements concurrents d'une remise à zéro peuvent être comptés à moitié
+    @Override
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.set(i, 0);
+        }
+        count.reset();
+        totalNanos.reset();
+        maxNanos.set(0);
+    }
+}
@@ -0,0 +1,21 @@
+package com.parkit.parkingsystem.metrics;
+
+/**
+ * Vue JMX d'un LatencyHistogram, durées en microsecondes.
+ */
+public interface LatencyHistogramMXBean {
+
+    long getCount();
+
+    double getMeanMicros();
+
+    double getP50Micros();
+
+    double getP99Micros();
+
+    double getP999Micros();
+
+    double getMaxMicros();
+
+    void reset();
+}
@@ -0,0 +1,109 @@
+package com.parkit.parkingsystem.metrics;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Histogrammes de latence de chaque Operation, partagés par toute la JVM.
+ * Usage : long start = System.nanoTime(); try { ... } finally { LatencyMetrics.record(op, start); }
+ * Exposés en JMX (com.parkit.parkingsystem:type=Latency,name=...) et en texte par dump().
+ */
+public class LatencyMetrics {
+
+    private static final Logger logger = LogManager.getLogger("LatencyMetrics");
+
+    // intervalle du dump périodique dans les logs, 0 pour le désactiver
+    public static final String DUMP_INTERVAL_MS = "parkit.metrics.dumpIntervalMs";
+
+    public static final String OBJECT_NAME_PREFIX = "com.parkit.parkingsystem:type=Latency,name=";
+
+    private static final Operation[] OPERATIONS = Operation.values();
+
+    // indexé par ordinal : pas de recherche ni d'allocation à l'enregistrement
+    private static final LatencyHistogram[] HISTOGRAMS = new LatencyHistogram[OPERATIONS.length];
+
+    static {
+        for (int i = 0; i < HISTOGRAMS.length; i++) {
+            HISTOGRAMS[i] = new LatencyHistogram();
+        }
+    }
+
+    private static ScheduledExecutorService dumpExecutor;
+
+    private LatencyMetrics() {
+    }
+
+    public static void record(Operation operation, long startNanos) {
+        HISTOGRAMS[operation.ordinal()].record(System.nanoTime() - startNanos);
+    }
+
+    public static LatencyHistogram get(Operation operation) {
+        return HISTOGRAMS[operation.ordinal()];
+    }
+
+    public static void reset() {
+        for (LatencyHistogram histogram : HISTOGRAMS) {
+            histogram.reset();
+        }
+    }
+
+    public static synchronized void registerMBeans() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (Operation operation : OPERATIONS) {
+            try {
+                ObjectName name = new ObjectName(OBJECT_NAME_PREFIX + operation.getLabel());
+                if (!server.isRegistered(name)) {
+                    server.registerMBean(get(operation), name);
+                }
+            } catch (JMException e) {
+                logger.error("Unable to register latency MBean for {}", operation.getLabel(), e);
+            }
+        }
+    }
+
+    // tableau des opérations déjà appelées, durées en microsecondes
+    public static String dump() {
+        StringBuilder text = new StringBuilder(String.format(Locale.ROOT, "%-38s %10s %10s %10s %10s %10s %10s",
+                "operation", "count", "mean", "p50", "p99", "p999", "max"));
+        for (Operation operation : OPERATIONS) {
+            LatencyHistogram histogram = get(operation);
+            if (histogram.getCount() == 0) {
+                continue;
+            }
+            text.append(System.lineSeparator()).append(String.format(Locale.ROOT,
+                    "%-38s %10d %10.1f %10.1f %10.1f %10.1f %10.1f", operation.getLabel(), histogram.getCount(),
+                    histogram.getMeanMicros(), histogram.getP50Micros(), histogram.getP99Micros(),
+                    histogram.getP999Micros(), histogram.getMaxMicros()));
+        }
+        return text.toString();
+    }
+
+    public static synchronized void startDump(long intervalMillis) {
+        if (dumpExecutor != null || intervalMillis <= 0) {
+            return;
+        }
+        dumpExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "latency-metrics-dump");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dumpExecutor.scheduleAtFixedRate(() -> logger.info("Latencies (us){}{}", System.lineSeparator(), dump()),
+                intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public static synchronized void stopDump() {
+        if (dumpExecutor != null) {
+            dumpExecutor.shutdownNow();
+            dumpExecutor = null;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.parkit.parkingsystem.metrics;
+
+/**
+ * Opérations mesurées par LatencyMetrics. processIncomingVehicle et processExitingVehicle
+ * sont mesurées via PARKING_ENTER et PARKING_EXIT, hors saisie console.
+ * Les opérations DAO sont mesurées au point d'entrée, écriture différée et hits du cache compris ;
+ * DAO_ASYNC_WAIT mesure en plus l'attente des variantes *Async dans DaoExecutor.
+ */
+public enum Operation {
+    PARKING_ENTER("ParkingService.enter"),
+    PARKING_EXIT("ParkingService.exit"),
+    PARKING_QUOTE("ParkingService.quote"),
+    FARE_CALCULATE("FareCalculatorService.calculateFare"),
+    TICKET_SAVE("TicketDAO.saveTicket"),
+    TICKET_SAVE_INCOMING("TicketDAO.saveIncomingTicket"),
+    TICKET_IMPORT("TicketDAO.saveTickets"),
+    TICKET_GET("TicketDAO.getTicket"),
+    TICKET_UPDATE("TicketDAO.updateTicket"),
+    TICKET_CLOSE("TicketDAO.closeTicket"),
+    TICKET_COUNT("TicketDAO.getNbTicket"),
+    TICKET_IS_PARKED("TicketDAO.isVehicleAlreadyParked"),
+    SPOT_NEXT_AVAILABLE("ParkingSpotDAO.getNextAvailableSlot"),
+    SPOT_CLAIM("ParkingSpotDAO.claimNextAvailableSlot"),
+    SPOT_UPDATE("ParkingSpotDAO.updateParking"),
+    SPOT_LOAD_ALL("ParkingSpotDAO.getAllParkingSpots"),
+    TICKET_JOURNAL_FLUSH("WriteBehindTicketWriter.flush"),
+    DAO_ASYNC_WAIT("DaoExecutor.queueWait");
+
+    private final String label;
+
+    Operation(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+}
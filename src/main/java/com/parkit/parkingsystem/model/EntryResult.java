@@ -0,0 +1,48 @@
+package com.parkit.parkingsystem.model;
+
+/**
+ * Résultat d'une entrée de véhicule traitée en une seule transaction.
+ */
+public class EntryResult {
+
+    public enum Status {
+        PARKED,
+        NO_SPOT_AVAILABLE,
+        ALREADY_PARKED,
+        ERROR
+    }
+
+    private final Status status;
+    private final Ticket ticket;
+    private final int nbTickets;
+
+    private EntryResult(Status status, Ticket ticket, int nbTickets) {
+        this.status = status;
+        this.ticket = ticket;
+        this.nbTickets = nbTickets;
+    }
+
+    public static EntryResult parked(Ticket ticket, int nbTickets) {
+        return new EntryResult(Status.PARKED, ticket, nbTickets);
+    }
+
+    public static EntryResult of(Status status) {
+        return new EntryResult(status, null, 0);
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public boolean isParked() {
+        return status == Status.PARKED;
+    }
+
+    public Ticket getTicket() {
+        return ticket;
+    }
+
+    public int getNbTickets() {
+        return nbTickets;
+    }
+}
@@ -0,0 +1,47 @@
+package com.parkit.parkingsystem.model;
+
+/**
+ * Résultat d'une sortie de véhicule : ticket clôturé avec son prix.
+ */
+public class ExitResult {
+
+    public enum Status {
+        EXITED,
+        NO_TICKET,
+        ERROR
+    }
+
+    private final Status status;
+    private final Ticket ticket;
+    private final boolean discounted;
+
+    private ExitResult(Status status, Ticket ticket, boolean discounted) {
+        this.status = status;
+        this.ticket = ticket;
+        this.discounted = discounted;
+    }
+
+    public static ExitResult exited(Ticket ticket, boolean discounted) {
+        return new ExitResult(Status.EXITED, ticket, discounted);
+    }
+
+    public static ExitResult of(Status status) {
+        return new ExitResult(status, null, false);
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public boolean isExited() {
+        return status == Status.EXITED;
+    }
+
+    public Ticket getTicket() {
+        return ticket;
+    }
+
+    public boolean isDiscounted() {
+        return discounted;
+    }
+}
@@ -0,0 +1,56 @@
+package com.parkit.parkingsystem.model;
+
+import com.parkit.parkingsystem.constants.ParkingType;
+
+import java.util.Date;
+
+/**
+ * Montant dû à un instant donné pour un véhicule encore garé (le ticket n'est pas clôturé).
+ */
+public class FareQuote {
+
+    private final String vehicleRegNumber;
+    private final ParkingType parkingType;
+    private final Date inTime;
+    private final Date quoteTime;
+    private final long priceCents;
+    private final boolean discounted;
+
+    public FareQuote(String vehicleRegNumber, ParkingType parkingType, Date inTime, Date quoteTime,
+                     long priceCents, boolean discounted) {
+        this.vehicleRegNumber = vehicleRegNumber;
+        this.parkingType = parkingType;
+        this.inTime = inTime;
+        this.quoteTime = quoteTime;
+        this.priceCents = priceCents;
+        this.discounted = discounted;
+    }
+
+    public String getVehicleRegNumber() {
+        return vehicleRegNumber;
+    }
+
+    public ParkingType getParkingType() {
+        return parkingType;
+    }
+
+    public Date getInTime() {
+        return inTime;
+    }
+
+    public Date getQuoteTime() {
+        return quoteTime;
+    }
+
+    public long getPriceCents() {
+        return priceCents;
+    }
+
+    public double getPrice() {
+        return priceCents / 100.0;
+    }
+
+    public boolean isDiscounted() {
+        return discounted;
+    }
+}
@@ -0,0 +1,58 @@
+package com.parkit.parkingsystem.model;
+
+/**
+ * Bilan d'un import de tickets en lot : lignes validées en base, débit, et cause de l'arrêt éventuel.
+ */
+public class ImportResult {
+
+    private final long rowsImported;
+    private final long batches;
+    private final long elapsedNanos;
+    private final Exception failure;
+
+    private ImportResult(long rowsImported, long batches, long elapsedNanos, Exception failure) {
+        this.rowsImported = rowsImported;
+        this.batches = batches;
+        this.elapsedNanos = elapsedNanos;
+        this.failure = failure;
+    }
+
+    public static ImportResult completed(long rowsImported, long batches, long elapsedNanos) {
+        return new ImportResult(rowsImported, batches, elapsedNanos, null);
+    }
+
+    // rowsImported : lignes des lots déjà validés, le lot en échec est annulé
+    public static ImportResult failed(long rowsImported, long batches, long elapsedNanos, Exception failure) {
+        return new ImportResult(rowsImported, batches, elapsedNanos, failure);
+    }
+
+    public boolean isComplete() {
+        return failure == null;
+    }
+
+    public long getRowsImported() {
+        return rowsImported;
+    }
+
+    public long getBatches() {
+        return batches;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedNanos / 1_000_000;
+    }
+
+    public double getRowsPerSecond() {
+        return elapsedNanos == 0 ? 0.0 : rowsImported * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    public Exception getFailure() {
+        return failure;
+    }
+
+    @Override
+    public String toString() {
+        return "ImportResult[rows=" + rowsImported + ", batches=" + batches + ", elapsedMs=" + getElapsedMillis()
+                + ", rowsPerSecond=" + Math.round(getRowsPerSecond()) + (failure != null ? ", failed=" + failure : "") + "]";
+    }
+}
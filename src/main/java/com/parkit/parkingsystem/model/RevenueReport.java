@@ -0,0 +1,133 @@
+package com.parkit.parkingsystem.model;
+
+import com.parkit.parkingsystem.constants.ParkingType;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Chiffre d'affaires et occupation agrégés par jour, heure de sortie et type de place, sur une période [from, to[.
+ * Taille fixée par la période (jours x 24 x types), quel que soit le nombre de tickets agrégés.
+ */
+public class RevenueReport {
+
+    private static final ParkingType[] TYPES = ParkingType.values();
+    private static final int HOURS = 24;
+
+    private final LocalDate from;
+    private final LocalDate to;
+    private final long firstEpochDay;
+    private final int days;
+    private final long[] tickets;
+    private final long[] revenueCents;
+    private final long[] parkedMinutes;
+    private long ignoredRows;
+
+    public RevenueReport(LocalDate from, LocalDate to) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("Période vide : " + from + " - " + to);
+        }
+        this.from = from;
+        this.to = to;
+        this.firstEpochDay = from.toEpochDay();
+        this.days = Math.toIntExact(ChronoUnit.DAYS.between(from, to));
+        int cells = Math.multiplyExact(days, HOURS * TYPES.length);
+        this.tickets = new long[cells];
+        this.revenueCents = new long[cells];
+        this.parkedMinutes = new long[cells];
+    }
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+
+    // ligne hors période ou incohérente : comptée à part, sans fausser les totaux
+    public void add(long epochDay, int hour, ParkingType parkingType, long priceCents, long minutes) {
+        long day = epochDay - firstEpochDay;
+        if (day < 0 || day >= days || hour < 0 || hour >= HOURS || parkingType == null) {
+            ignoredRows++;
+            return;
+        }
+        int cell = cell((int) day, hour, parkingType);
+        tickets[cell]++;
+        revenueCents[cell] += priceCents;
+        parkedMinutes[cell] += minutes;
+    }
+
+    public long getTicketCount(LocalDate day, int hour, ParkingType parkingType) {
+        return tickets[cell(day, hour, parkingType)];
+    }
+
+    public long getRevenueCents(LocalDate day, int hour, ParkingType parkingType) {
+        return revenueCents[cell(day, hour, parkingType)];
+    }
+
+    public long getParkedMinutes(LocalDate day, int hour, ParkingType parkingType) {
+        return parkedMinutes[cell(day, hour, parkingType)];
+    }
+
+    public long getTotalTickets() {
+        long total = 0;
+        for (long count : tickets) {
+            total += count;
+        }
+        return total;
+    }
+
+    public long getTotalRevenueCents() {
+        long total = 0;
+        for (long cents : revenueCents) {
+            total += cents;
+        }
+        return total;
+    }
+
+    public long getIgnoredRows() {
+        return ignoredRows;
+    }
+
+    // une ligne par jour, heure et type ayant au moins un ticket ; montants en euros avec deux décimales
+    public void writeCsv(Appendable out) throws IOException {
+        out.append("day,hour,type,tickets,revenue,parked_minutes\n");
+        StringBuilder line = new StringBuilder(64);
+        for (int day = 0; day < days; day++) {
+            String date = LocalDate.ofEpochDay(firstEpochDay + day).toString();
+            for (int hour = 0; hour < HOURS; hour++) {
+                for (ParkingType parkingType : TYPES) {
+                    int cell = cell(day, hour, parkingType);
+                    if (tickets[cell] == 0) {
+                        continue;
+                    }
+                    line.setLength(0);
+                    line.append(date).append(',').append(hour).append(',').append(parkingType).append(',')
+                            .append(tickets[cell]).append(',');
+                    appendAmount(line, revenueCents[cell]);
+                    line.append(',').append(parkedMinutes[cell]).append('\n');
+                    out.append(line);
+                }
+            }
+        }
+    }
+
+    private static void appendAmount(StringBuilder line, long cents) {
+        if (cents < 0) {
+            line.append('-');
+            cents = -cents;
+        }
+        long remainder = cents % 100;
+        line.append(cents / 100).append('.').append(remainder < 10 ? "0" : "").append(remainder);
+    }
+
+    private int cell(LocalDate day, int hour, ParkingType parkingType) {
+        return cell(Math.toIntExact(day.toEpochDay() - firstEpochDay), hour, parkingType);
+    }
+
+    private int cell(int day, int hour, ParkingType parkingType) {
+        return (day * HOURS + hour) * TYPES.length + parkingType.ordinal();
+    }
+}
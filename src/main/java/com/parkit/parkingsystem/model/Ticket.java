@@ -6,12 +6,23 @@ public class Ticket {
     private int id;
     private ParkingSpot parkingSpot;
     private String vehicleRegNumber;
-    private double price;
+    // prix en centimes : pas de dérive flottante sur les totaux
+    private long priceCents;
     private Date inTime;
     private Date outTime;
 
-    
+    public Ticket() {
+    }
 
+    public Ticket(Ticket other) {
+        this.id = other.id;
+        this.parkingSpot = other.parkingSpot == null ? null
+                : new ParkingSpot(other.parkingSpot.getId(), other.parkingSpot.getParkingType(), other.parkingSpot.isAvailable());
+        this.vehicleRegNumber = other.vehicleRegNumber;
+        this.priceCents = other.priceCents;
+        this.inTime = other.inTime == null ? null : new Date(other.inTime.getTime());
+        this.outTime = other.outTime == null ? null : new Date(other.outTime.getTime());
+    }
 
 	public int getId() {
         return id;
@@ -39,11 +50,19 @@ public class Ticket {
     }
 
     public double getPrice() {
-        return price;
+        return priceCents / 100.0;
     }
 
     public void setPrice(double price) {
-    	this.price = price;
+    	this.priceCents = Math.round(price * 100);
+    }
+
+    public long getPriceCents() {
+        return priceCents;
+    }
+
+    public void setPriceCents(long priceCents) {
+        this.priceCents = priceCents;
     }
 
     public Date getInTime() {
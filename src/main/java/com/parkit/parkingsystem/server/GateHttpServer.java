@@ -0,0 +1,274 @@
+package com.parkit.parkingsystem.server;
+
+import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.metrics.DashboardCounters;
+import com.parkit.parkingsystem.model.EntryResult;
+import com.parkit.parkingsystem.model.ExitResult;
+import com.parkit.parkingsystem.model.FareQuote;
+import com.parkit.parkingsystem.model.Ticket;
+import com.parkit.parkingsystem.service.ParkingService;
+import com.parkit.parkingsystem.util.TaskExecutors;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serveur HTTP des bornes d'entrée/sortie, au-dessus de l'API sans console de ParkingService.
+ * POST /entry?plate=&type=CAR|BIKE, POST /exit?plate=, GET /quote?plate=, GET /dashboard ; réponses en JSON.
+ */
+public class GateHttpServer {
+
+    private static final Logger logger = LogManager.getLogger("GateHttpServer");
+
+    public static final String PORT = "parkit.server.port";
+    public static final String FALLBACK_THREADS = "parkit.server.threads";
+    public static final int DEFAULT_PORT = 8080;
+
+    private final ParkingService parkingService;
+    private final int port;
+    private HttpServer httpServer;
+    private ExecutorService executor;
+
+    public GateHttpServer(ParkingService parkingService, int port) {
+        this.parkingService = parkingService;
+        this.port = port;
+    }
+
+    public synchronized void start() throws IOException {
+        if (httpServer != null) {
+            throw new IllegalStateException("Serveur déjà démarré");
+        }
+        httpServer = HttpServer.create(new InetSocketAddress(port), 0);
+        httpServer.createContext("/entry", handler("POST", this::entry));
+        httpServer.createContext("/exit", handler("POST", this::exit));
+        httpServer.createContext("/quote", handler("GET", this::quote));
+        httpServer.createContext("/dashboard", handler("GET", this::dashboard));
+        // un thread (virtuel si possible) par requête : les appels JDBC bloquants ne limitent plus la concurrence
+        executor = TaskExecutors.newPerTaskExecutor("gate-http", Integer.getInteger(FALLBACK_THREADS, 64));
+        httpServer.setExecutor(executor);
+        httpServer.start();
+        logger.info("Gate server listening on port {} ({})", getPort(),
+                TaskExecutors.isVirtualThreadSupported() ? "virtual threads" : "bounded thread pool");
+    }
+
+    public synchronized void stop(int delaySeconds) {
+        if (httpServer == null) {
+            return;
+        }
+        httpServer.stop(delaySeconds);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(delaySeconds, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        httpServer = null;
+        executor = null;
+    }
+
+    // port effectif, utile quand le serveur est démarré sur le port 0
+    public synchronized int getPort() {
+        return httpServer != null ? httpServer.getAddress().getPort() : port;
+    }
+
+    private Response entry(Map<String, String> parameters) {
+        String plate = parameters.get("plate");
+        String type = parameters.get("type");
+        if (isBlank(plate) || isBlank(type)) {
+            return Response.error(400, "plate and type are required");
+        }
+        ParkingType parkingType;
+        try {
+            parkingType = ParkingType.valueOf(type.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return Response.error(400, "unknown parking type: " + type);
+        }
+        EntryResult result = parkingService.enter(plate, parkingType);
+        StringBuilder json = new StringBuilder("{\"status\":\"").append(result.getStatus()).append('"');
+        if (result.isParked()) {
+            appendTicket(json, result.getTicket());
+            json.append(",\"nbTickets\":").append(result.getNbTickets());
+        }
+        json.append('}');
+        switch (result.getStatus()) {
+            case PARKED:
+                return new Response(200, json.toString());
+            case ALREADY_PARKED:
+            case NO_SPOT_AVAILABLE:
+                return new Response(409, json.toString());
+            default:
+                return new Response(500, json.toString());
+        }
+    }
+
+    private Response exit(Map<String, String> parameters) {
+        String plate = parameters.get("plate");
+        if (isBlank(plate)) {
+            return Response.error(400, "plate is required");
+        }
+        ExitResult result = parkingService.exit(plate);
+        StringBuilder json = new StringBuilder("{\"status\":\"").append(result.getStatus()).append('"');
+        if (result.isExited()) {
+            Ticket ticket = result.getTicket();
+            appendTicket(json, ticket);
+            json.append(",\"outTime\":").append(ticket.getOutTime().getTime())
+                    .append(",\"priceCents\":").append(ticket.getPriceCents())
+                    .append(",\"discounted\":").append(result.isDiscounted());
+        }
+        json.append('}');
+        switch (result.getStatus()) {
+            case EXITED:
+                return new Response(200, json.toString());
+            case NO_TICKET:
+                return new Response(404, json.toString());
+            default:
+                return new Response(500, json.toString());
+        }
+    }
+
+    private Response quote(Map<String, String> parameters) {
+        String plate = parameters.get("plate");
+        if (isBlank(plate)) {
+            return Response.error(400, "plate is required");
+        }
+        FareQuote quote = parkingService.quote(plate);
+        if (quote == null) {
+            return new Response(404, "{\"status\":\"NO_TICKET\"}");
+        }
+        return new Response(200, "{\"status\":\"QUOTED\""
+                + ",\"vehicleRegNumber\":\"" + escape(quote.getVehicleRegNumber()) + '"'
+                + ",\"parkingType\":\"" + quote.getParkingType() + '"'
+                + ",\"inTime\":" + quote.getInTime().getTime()
+                + ",\"quoteTime\":" + quote.getQuoteTime().getTime()
+                + ",\"priceCents\":" + quote.getPriceCents()
+                + ",\"discounted\":" + quote.isDiscounted() + '}');
+    }
+
+    // lu dans les compteurs en mémoire, sans requête
+    private Response dashboard(Map<String, String> parameters) {
+        DashboardCounters counters = parkingService.dashboardCounters;
+        if (counters == null) {
+            return Response.error(404, "dashboard disabled");
+        }
+        long now = System.currentTimeMillis();
+        StringBuilder occupied = new StringBuilder();
+        StringBuilder entries = new StringBuilder();
+        StringBuilder exits = new StringBuilder();
+        for (ParkingType parkingType : ParkingType.values()) {
+            String separator = occupied.length() == 0 ? "" : ",";
+            occupied.append(separator).append('"').append(parkingType).append("\":").append(counters.getOccupied(parkingType));
+            entries.append(separator).append('"').append(parkingType).append("\":").append(counters.getEntries(now, parkingType));
+            exits.append(separator).append('"').append(parkingType).append("\":").append(counters.getExits(now, parkingType));
+        }
+        return new Response(200, "{\"occupied\":{" + occupied + "}"
+                + ",\"entriesThisHour\":{" + entries + "}"
+                + ",\"exitsThisHour\":{" + exits + "}"
+                + ",\"revenueTodayCents\":" + counters.getRevenueTodayCents(now)
+                + ",\"droppedEvents\":" + counters.getDroppedEvents() + '}');
+    }
+
+    private static void appendTicket(StringBuilder json, Ticket ticket) {
+        Date inTime = ticket.getInTime();
+        json.append(",\"ticketId\":").append(ticket.getId())
+                .append(",\"vehicleRegNumber\":\"").append(escape(ticket.getVehicleRegNumber())).append('"')
+                .append(",\"parkingNumber\":").append(ticket.getParkingSpot().getId())
+                .append(",\"parkingType\":\"").append(ticket.getParkingSpot().getParkingType()).append('"')
+                .append(",\"inTime\":").append(inTime != null ? inTime.getTime() : 0);
+    }
+
+    private HttpHandler handler(String method, Route route) {
+        return exchange -> {
+            Response response;
+            try {
+                if (!method.equals(exchange.getRequestMethod())) {
+                    exchange.getResponseHeaders().set("Allow", method);
+                    response = Response.error(405, "method not allowed");
+                } else {
+                    response = route.handle(parseQuery(exchange.getRequestURI().getRawQuery()));
+                }
+            } catch (IllegalArgumentException e) {
+                response = Response.error(400, e.getMessage());
+            } catch (Exception e) {
+                logger.error("Error handling {}", exchange.getRequestURI(), e);
+                response = Response.error(500, "internal error");
+            }
+            send(exchange, response);
+        };
+    }
+
+    private static void send(HttpExchange exchange, Response response) throws IOException {
+        byte[] body = response.body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(response.status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> parameters = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return parameters;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int separator = pair.indexOf('=');
+            String name = separator < 0 ? pair : pair.substring(0, separator);
+            String value = separator < 0 ? "" : pair.substring(separator + 1);
+            parameters.putIfAbsent(URLDecoder.decode(name, StandardCharsets.UTF_8),
+                    URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return parameters;
+    }
+
+    static String escape(String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                escaped.append('\\').append(c);
+            } else if (c < 0x20) {
+                escaped.append(String.format("\\u%04x", (int) c));
+            } else {
+                escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+
+    @FunctionalInterface
+    private interface Route {
+        Response handle(Map<String, String> parameters);
+    }
+
+    private static final class Response {
+        private final int status;
+        private final String body;
+
+        private Response(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+
+        private static Response error(int status, String message) {
+            return new Response(status, "{\"error\":\"" + escape(message) + "\"}");
+        }
+    }
+}
@@ -1,54 +1,95 @@
 package com.parkit.parkingsystem.service;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.util.List;
 
-import com.parkit.parkingsystem.constants.Fare;
+import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.metrics.LatencyMetrics;
+import com.parkit.parkingsystem.metrics.Operation;
+import com.parkit.parkingsystem.model.ParkingSpot;
 import com.parkit.parkingsystem.model.Ticket;
-import com.parkit.parkingsystem.util.Duration;
+import com.parkit.parkingsystem.tariff.TariffEngine;
 
 public class FareCalculatorService {
 
+	// grille tarifaire compilée, rechargeable à chaud
+	private final TariffEngine tariffEngine;
+
+	public FareCalculatorService() {
+		this(TariffEngine.defaults());
+	}
+
+	public FareCalculatorService(TariffEngine tariffEngine) {
+		this.tariffEngine = tariffEngine;
+	}
+
+	public TariffEngine getTariffEngine() {
+		return tariffEngine;
+	}
 
 	public void calculateFare(Ticket ticket, boolean discount){
+		long start = System.nanoTime();
+		try {
+			computeFare(ticket, discount);
+		} finally {
+			LatencyMetrics.record(Operation.FARE_CALCULATE, start);
+		}
+	}
+
+	private void computeFare(Ticket ticket, boolean discount){
         if (ticket == null || ticket.getParkingSpot() == null || ticket.getInTime() == null) {
         	throw new IllegalArgumentException("Données manquantes pour ticket.");
         }
 		if( (ticket.getOutTime() == null) || (ticket.getOutTime().before(ticket.getInTime())) ){
-            throw new IllegalArgumentException("Erreur sur heure de sortie : "+ticket.getOutTime().toString());
-        }
-        
-		long durationMillis = Duration.getDurationMillis(ticket.getInTime(), ticket.getOutTime());
-
-        if (durationMillis < Fare.FREE_PARKING_DURATION) {
-        	ticket.setPrice(0.0);
-        	return;
-        } 
-        
-        double durationHours = Duration.getDurationToHoursDecimal(durationMillis); 
-        
-        double price;
-         	switch (ticket.getParkingSpot().getParkingType()){
-        		case CAR: {
-        		price = durationHours * Fare.CAR_RATE_PER_HOUR;
-                break;
-        		}
-        		case BIKE: {
-        		price = durationHours * Fare.BIKE_RATE_PER_HOUR;
-                break;
-        		}
-            default: throw new IllegalArgumentException("Unkown Parking Type");
-        	}
-        
-        if (discount) {
-        	price *= Fare.COEF_DISCOUNT;
+            throw new IllegalArgumentException("Erreur sur heure de sortie : "+ticket.getOutTime());
         }
-        	
-    	ticket.setPrice(roundPrice(price));
-	}      
-        
-	private double roundPrice (double price) {
-		return new BigDecimal(price).setScale(2, RoundingMode.HALF_UP).doubleValue();
+
+		ParkingSpot parkingSpot = ticket.getParkingSpot();
+		ticket.setPriceCents(calculateFareCents(parkingSpot.getParkingType(), parkingSpot.getId(),
+				ticket.getInTime().getTime(), ticket.getOutTime().getTime(), discount));
+	}
+
+	// prix selon la grille en vigueur : plages horaires de l'entrée, zone de la place, plafond journalier
+	public long calculateFareCents(ParkingType parkingType, int parkingNumber, long inMillis, long outMillis,
+			boolean discount) {
+		return tariffEngine.getTariff().priceCents(parkingType, parkingNumber, inMillis, outMillis, discount);
+	}
+
+	/**
+	 * Durée seule : stationnement supposé se terminer maintenant, hors zone. Avec des plages horaires ou un plafond
+	 * journalier, le prix dépend de l'heure d'appel ; le résultat n'est stable qu'avec une grille à tarif unique.
+	 * @deprecated utiliser calculateFareCents(parkingType, parkingNumber, inMillis, outMillis, discount)
+	 */
+	@Deprecated
+	public long calculateFareCents(ParkingType parkingType, long durationMillis, boolean discount) {
+		long now = System.currentTimeMillis();
+		return calculateFareCents(parkingType, 0, now - durationMillis, now, discount);
+	}
+
+	// calcul par lot sur tableaux primitifs (place de chaque ticket pour les tarifs de zone) :
+	// prix écrits dans pricesCents, retourne le total en centimes
+	public long calculateFaresCents(ParkingType[] parkingTypes, int[] parkingNumbers, long[] inTimes, long[] outTimes,
+			boolean[] discounts, long[] pricesCents, int count) {
+		long total = 0;
+		for (int i = 0; i < count; i++) {
+			if (outTimes[i] < inTimes[i]) {
+				throw new IllegalArgumentException("Erreur sur heure de sortie pour le ticket n°" + i);
+			}
+			long price = calculateFareCents(parkingTypes[i], parkingNumbers[i], inTimes[i], outTimes[i], discounts[i]);
+			pricesCents[i] = price;
+			total += price;
+		}
+		return total;
+	}
+
+	// calcule le prix de chaque ticket (remise discounts[i]) et retourne le total en centimes
+	public long calculateFares(List<Ticket> tickets, boolean[] discounts) {
+		long total = 0;
+		for (int i = 0; i < tickets.size(); i++) {
+			Ticket ticket = tickets.get(i);
+			calculateFare(ticket, discounts[i]);
+			total += ticket.getPriceCents();
+		}
+		return total;
 	}
 	
 	
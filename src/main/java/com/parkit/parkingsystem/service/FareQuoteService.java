@@ -0,0 +1,106 @@
+package com.parkit.parkingsystem.service;
+
+import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.dao.OpenTicketCache;
+import com.parkit.parkingsystem.model.FareQuote;
+import com.parkit.parkingsystem.model.Ticket;
+import com.parkit.parkingsystem.util.LruCache;
+
+import java.util.Date;
+
+/**
+ * Devis des véhicules garés calculés en mémoire : à l'entrée (ou au premier devis lu en base), ParkingService
+ * retient l'heure d'entrée, la place et la remise du véhicule ; les devis suivants ne font que le calcul du tarif.
+ * L'état est oublié à la sortie, et au plus tard après parkit.quoteCache.ttlMs : une sortie sur une autre instance
+ * n'est vue qu'en relisant la base. Le nombre de visites ne change pas tant que le ticket est ouvert,
+ * la remise retenue reste donc celle qui sera appliquée à la sortie.
+ */
+public class FareQuoteService {
+
+    public static final String CACHE_SIZE = "parkit.quoteCache.size";
+    public static final String TTL_MS = "parkit.quoteCache.ttlMs";
+
+    public static final long DEFAULT_TTL_MILLIS = 60_000;
+
+    private final FareCalculatorService fareCalculatorService;
+    private final LruCache<String, QuoteState> states;
+    // heure d'entrée des derniers tickets clôturés, par immatriculation : un devis lu en base avant la sortie
+    // ne doit pas être retenu après elle
+    private final LruCache<String, Long> closedTickets;
+    private final long ttlMillis;
+
+    public FareQuoteService(FareCalculatorService fareCalculatorService, int maxSize) {
+        this(fareCalculatorService, maxSize, DEFAULT_TTL_MILLIS);
+    }
+
+    public FareQuoteService(FareCalculatorService fareCalculatorService, int maxSize, long ttlMillis) {
+        this.fareCalculatorService = fareCalculatorService;
+        this.states = new LruCache<>(maxSize);
+        this.closedTickets = new LruCache<>(maxSize);
+        this.ttlMillis = ttlMillis;
+    }
+
+    // synchronisé avec forget() : le contrôle de clôture et l'ajout ne doivent pas encadrer une sortie
+    public synchronized void remember(Ticket ticket, boolean discounted) {
+        if (ticket.getOutTime() != null) {
+            return;
+        }
+        String plate = OpenTicketCache.normalize(ticket.getVehicleRegNumber());
+        Long closedInMillis = closedTickets.get(plate);
+        if (closedInMillis != null && closedInMillis == ticket.getInTime().getTime()) {
+            return;
+        }
+        states.put(plate, new QuoteState(ticket.getVehicleRegNumber(), ticket.getParkingSpot().getParkingType(),
+                ticket.getParkingSpot().getId(), ticket.getInTime().getTime(), discounted,
+                System.currentTimeMillis() + ttlMillis));
+    }
+
+    // null si le véhicule n'est pas connu : l'appelant relit le ticket en base puis appelle remember()
+    public FareQuote quote(String vehicleRegNumber, Date now) {
+        QuoteState state = states.get(OpenTicketCache.normalize(vehicleRegNumber));
+        if (state == null) {
+            return null;
+        }
+        if (System.currentTimeMillis() > state.expiresAtMillis) {
+            states.remove(OpenTicketCache.normalize(vehicleRegNumber));
+            return null;
+        }
+        long priceCents = fareCalculatorService.calculateFareCents(state.parkingType, state.parkingNumber,
+                state.inMillis, Math.max(now.getTime(), state.inMillis), state.discounted);
+        return new FareQuote(state.vehicleRegNumber, state.parkingType, new Date(state.inMillis), now, priceCents,
+                state.discounted);
+    }
+
+    public synchronized void forget(Ticket closedTicket) {
+        String plate = OpenTicketCache.normalize(closedTicket.getVehicleRegNumber());
+        closedTickets.put(plate, closedTicket.getInTime().getTime());
+        states.remove(plate);
+    }
+
+    public int size() {
+        return states.size();
+    }
+
+    public double getHitRate() {
+        return states.getHitRate();
+    }
+
+    private static final class QuoteState {
+        private final String vehicleRegNumber;
+        private final ParkingType parkingType;
+        private final int parkingNumber;
+        private final long inMillis;
+        private final boolean discounted;
+        private final long expiresAtMillis;
+
+        private QuoteState(String vehicleRegNumber, ParkingType parkingType, int parkingNumber, long inMillis,
+                           boolean discounted, long expiresAtMillis) {
+            this.vehicleRegNumber = vehicleRegNumber;
+            this.parkingType = parkingType;
+            this.parkingNumber = parkingNumber;
+            this.inMillis = inMillis;
+            this.discounted = discounted;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+}
@@ -1,7 +1,5 @@
 package com.parkit.parkingsystem.service;
 
-import com.parkit.parkingsystem.dao.ParkingSpotDAO;
-import com.parkit.parkingsystem.dao.TicketDAO;
 import com.parkit.parkingsystem.util.InputReaderUtil;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -18,17 +16,11 @@ public class InteractiveShell {
         boolean continueApp = true;
         
         InputReaderUtil inputReaderUtil;
-        ParkingSpotDAO parkingSpotDAO;
-        TicketDAO ticketDAO;
-        FareCalculatorService fareCalculatorService;
         ParkingService parkingService;
 
         try {
         	inputReaderUtil = new InputReaderUtil();
-        	parkingSpotDAO = new ParkingSpotDAO();
-        	ticketDAO = new TicketDAO();
-        	fareCalculatorService = new FareCalculatorService();
-        	parkingService = new ParkingService(inputReaderUtil, parkingSpotDAO, ticketDAO, fareCalculatorService);
+        	parkingService = ParkingServiceFactory.create(inputReaderUtil);
         } catch (Exception e) {
         	logger.fatal("Critical error during system initialization", e);
             System.out.println("Erreur critique au démarrage, l'application va fermer !");
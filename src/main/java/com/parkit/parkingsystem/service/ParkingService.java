@@ -1,32 +1,177 @@
 package com.parkit.parkingsystem.service;
 
 import com.parkit.parkingsystem.constants.ParkingType;
-import com.parkit.parkingsystem.dao.ParkingSpotDAO;
-import com.parkit.parkingsystem.dao.TicketDAO;
+import com.parkit.parkingsystem.dao.ParkingSpotStore;
+import com.parkit.parkingsystem.dao.TicketStore;
+import com.parkit.parkingsystem.metrics.DashboardCounters;
+import com.parkit.parkingsystem.metrics.LatencyMetrics;
+import com.parkit.parkingsystem.metrics.Operation;
+import com.parkit.parkingsystem.model.EntryResult;
+import com.parkit.parkingsystem.model.ExitResult;
+import com.parkit.parkingsystem.model.FareQuote;
 import com.parkit.parkingsystem.model.ParkingSpot;
 import com.parkit.parkingsystem.model.Ticket;
 import com.parkit.parkingsystem.util.InputReaderUtil;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.sql.SQLException;
 import java.util.Date;
  
+/**
+ * Entrées et sorties de véhicules. enter() et exit() sont sans état et peuvent être appelées
+ * en parallèle par plusieurs bornes ; processIncomingVehicle() et processExitingVehicle() en sont
+ * les clients console.
+ */
 public class ParkingService {
 
     private static final Logger logger = LogManager.getLogger("ParkingService");
-    private FareCalculatorService fareCalculatorService;
-    private InputReaderUtil inputReaderUtil;
-    private ParkingSpotDAO parkingSpotDAO;
-    private  TicketDAO ticketDAO; 
+    private final FareCalculatorService fareCalculatorService;
+    private final InputReaderUtil inputReaderUtil;
+    private final ParkingSpotStore parkingSpotDAO;
+    private final TicketStore ticketDAO; 
+
+    // compteurs du tableau de bord, optionnels : mis à jour à chaque entrée et sortie réussie
+    public DashboardCounters dashboardCounters;
+
+    // devis en mémoire, optionnels : rempli à l'entrée et au premier devis, vidé à la sortie
+    public FareQuoteService fareQuoteService;
  
     
-    public ParkingService(InputReaderUtil inputReaderUtil, ParkingSpotDAO parkingSpotDAO, TicketDAO ticketDAO, FareCalculatorService fareCalculatorService){
+    public ParkingService(InputReaderUtil inputReaderUtil, ParkingSpotStore parkingSpotDAO, TicketStore ticketDAO, FareCalculatorService fareCalculatorService){
         this.inputReaderUtil = inputReaderUtil;
         this.parkingSpotDAO = parkingSpotDAO;
         this.ticketDAO = ticketDAO;
         this.fareCalculatorService = fareCalculatorService;
     }
 
+    // service sans console, pour les bornes et les appels programmatiques
+    public ParkingService(ParkingSpotStore parkingSpotDAO, TicketStore ticketDAO, FareCalculatorService fareCalculatorService){
+        this(null, parkingSpotDAO, ticketDAO, fareCalculatorService);
+    }
+
+
+    public EntryResult enter(String vehicleRegNumber, ParkingType parkingType) {
+        if (vehicleRegNumber == null || vehicleRegNumber.trim().isEmpty() || parkingType == null) {
+            throw new IllegalArgumentException("Immatriculation et type de véhicule obligatoires");
+        }
+        long start = System.nanoTime();
+        try {
+            EntryResult entry = ticketDAO.saveIncomingTicket(parkingType, vehicleRegNumber, new Date());
+            if (entry.isParked()) {
+                // une ligne info par passage : budget de logs du chemin critique
+                logger.debug("Generated Ticket and saved in DB for vehicle: {}", vehicleRegNumber);
+                logger.info("Recorded in-time for vehicle number :{} is: {}", vehicleRegNumber, entry.getTicket().getInTime());
+                if (dashboardCounters != null) {
+                    dashboardCounters.recordEntry(parkingType, entry.getTicket().getInTime().getTime());
+                }
+                if (fareQuoteService != null) {
+                    fareQuoteService.remember(entry.getTicket(), isRecurringUser(entry.getNbTickets()));
+                }
+            }
+            return entry;
+        } catch (Exception e) {
+            logger.error("Unable to process incoming vehicle", e);
+            return EntryResult.of(EntryResult.Status.ERROR);
+        } finally {
+            LatencyMetrics.record(Operation.PARKING_ENTER, start);
+        }
+    }
+
+
+    public ExitResult exit(String vehicleRegNumber) {
+        if (vehicleRegNumber == null || vehicleRegNumber.trim().isEmpty()) {
+            throw new IllegalArgumentException("Immatriculation obligatoire");
+        }
+        long start = System.nanoTime();
+        try {
+            ExitResult result = tryExit(vehicleRegNumber);
+            if (result.getStatus() == ExitResult.Status.NO_TICKET) {
+                // le ticket servi par le cache a pu être clôturé par une autre borne, le véhicule étant revenu depuis :
+                // la clôture l'a évincé, la seconde lecture passe par la base
+                result = tryExit(vehicleRegNumber);
+            }
+            return result;
+        } catch (Exception e) {
+            logger.error("Unable to process exiting vehicle", e);
+            return ExitResult.of(ExitResult.Status.ERROR);
+        } finally {
+            LatencyMetrics.record(Operation.PARKING_EXIT, start);
+        }
+    }
+
+    // lectures dans le thread de la requête : un thread virtuel bloqué sur JDBC ne mobilise aucun thread de plateforme
+    private ExitResult tryExit(String vehicleRegNumber) throws Exception {
+        Ticket ticket = ticketDAO.loadTicket(vehicleRegNumber);
+        if (ticket == null || ticket.getOutTime() != null) {
+            return ExitResult.of(ExitResult.Status.NO_TICKET);
+        }
+
+        Date outTime = new Date();
+        ticket.setOutTime(outTime);
+
+        // adapter le tarif en fonction du type d'utilisateur (régulier ou occassionnel)
+        boolean discounted = isRecurringUser(ticketDAO.loadNbTicket(vehicleRegNumber));
+        if (discounted) {
+        	fareCalculatorService.calculateFare(ticket, true);
+        } else {
+        	fareCalculatorService.calculateFare(ticket);
+        }
+
+        // clôture et libération de la place ensemble ; sortie simultanée sur une autre borne : elle seule compte la sortie
+        ExitResult.Status closed = ticketDAO.closeTicket(ticket);
+        if (closed != ExitResult.Status.EXITED) {
+            return ExitResult.of(closed);
+        }
+        ParkingSpot parkingSpot = ticket.getParkingSpot();
+        if (fareQuoteService != null) {
+            fareQuoteService.forget(ticket);
+        }
+        if (dashboardCounters != null) {
+            dashboardCounters.recordExit(parkingSpot.getParkingType(), outTime.getTime(), ticket.getPriceCents());
+        }
+        logger.info("Recorded out-time for vehicle number:{} is:{}", vehicleRegNumber, outTime);
+        return ExitResult.exited(ticket, discounted);
+    }
+
+    // montant dû maintenant, sans clôturer le ticket ; null si le véhicule n'est pas garé
+    public FareQuote quote(String vehicleRegNumber) {
+        if (vehicleRegNumber == null || vehicleRegNumber.trim().isEmpty()) {
+            throw new IllegalArgumentException("Immatriculation obligatoire");
+        }
+        long start = System.nanoTime();
+        try {
+            if (fareQuoteService != null) {
+                FareQuote cached = fareQuoteService.quote(vehicleRegNumber, new Date());
+                if (cached != null) {
+                    return cached;
+                }
+            }
+            Ticket ticket = ticketDAO.loadTicket(vehicleRegNumber);
+            if (ticket == null || ticket.getOutTime() != null) {
+                return null;
+            }
+            Date now = new Date();
+            boolean discounted = isRecurringUser(ticketDAO.loadNbTicket(vehicleRegNumber));
+            if (fareQuoteService != null) {
+                fareQuoteService.remember(ticket, discounted);
+            }
+            long priceCents = fareCalculatorService.calculateFareCents(ticket.getParkingSpot().getParkingType(),
+                    ticket.getParkingSpot().getId(), ticket.getInTime().getTime(),
+                    Math.max(now.getTime(), ticket.getInTime().getTime()), discounted);
+            return new FareQuote(vehicleRegNumber, ticket.getParkingSpot().getParkingType(), ticket.getInTime(), now,
+                    priceCents, discounted);
+        } catch (SQLException | ClassNotFoundException e) {
+            throw new IllegalStateException("Unable to read ticket of " + vehicleRegNumber, e);
+        } finally {
+            LatencyMetrics.record(Operation.PARKING_QUOTE, start);
+        }
+    }
+
+    private boolean isRecurringUser(int nbTickets) {
+        return nbTickets > 1;
+    }
+
       
     public void processIncomingVehicle() {
         try{
@@ -39,28 +184,27 @@ public class ParkingService {
             if (vehicleRegNumber == null) {
             	return;
             }      
-            	
-            if (ticketDAO.isVehicleAlreadyParked(vehicleRegNumber)) { 
-            	System.out.println("Un véhicule avec cette immatriculation est déjà garé !");
-            	return;
+
+            // la place proposée n'est qu'indicative : la place réelle est réservée dans la transaction d'entrée
+            EntryResult entry = enter(vehicleRegNumber, parkingSpot.getParkingType());
+            switch (entry.getStatus()) {
+                case ALREADY_PARKED:
+                    System.out.println("Un véhicule avec cette immatriculation est déjà garé !");
+                    return;
+                case NO_SPOT_AVAILABLE:
+                    System.out.println ("Aucune place " +parkingSpot.getParkingType()+ " disponible");
+                    return;
+                case ERROR:
+                    System.out.println("Unable to save ticket information. Error occurred");
+                    return;
+                default:
+                    break;
             }
-            
-            Ticket ticket = new Ticket();
-            ticket.setParkingSpot(parkingSpot);
-            ticket.setVehicleRegNumber(vehicleRegNumber);
-            ticket.setInTime(new Date());
-            ticket.setPrice(0); 
-            
-            ticketDAO.saveTicket(ticket);
-            logger.info("Generated Ticket and saved in DB for vehicle: " + vehicleRegNumber);
-            
-            parkingSpot.setAvailable(false);
-            parkingSpotDAO.updateParking(parkingSpot);
-        	logger.info("Recorded in-time for vehicle number :"+vehicleRegNumber+" is: "+ ticket.getInTime());
 
-        	discount(vehicleRegNumber);
-        	
-            System.out.println("Veuillez vous garer à l'emplacement : " + parkingSpot.getId());
+            if (isRecurringUser(entry.getNbTickets())) {
+                System.out.println("Heureux de vous revoir ! Vous bénéficiez d'une remise de 5%.");
+            }
+            System.out.println("Veuillez vous garer à l'emplacement : " + entry.getTicket().getParkingSpot().getId());
             
         }catch(Exception e){
             logger.error("Unable to process incoming vehicle",e);
@@ -97,7 +241,7 @@ public class ParkingService {
             }
             
             int parkingNumber = parkingSpotDAO.getNextAvailableSlot(parkingType);
-            logger.info("Numéro de place récupéré par parkingSpotDAO : " + parkingNumber);
+            logger.debug("Numéro de place récupéré par parkingSpotDAO : {}", parkingNumber);
             
             if(parkingNumber > 0){
                 parkingSpot = new ParkingSpot(parkingNumber,parkingType, true);
@@ -120,51 +264,25 @@ public class ParkingService {
         return inputReaderUtil.readVehicleRegistrationNumber();
     }
 
-    private boolean discount(String vehicleRegNumber) {
-        int nbTickets = ticketDAO.getNbTicket(vehicleRegNumber);
-        if (nbTickets > 1) {
-            System.out.println("Heureux de vous revoir ! Vous bénéficiez d'une remise de 5%.");
-            return true;
-        }
-        return false;
-    }
-    
-   
-    
-
     public void processExitingVehicle() {
         try{
             String vehicleRegNumber = getVehicleRegNumber();
-            Ticket ticket = ticketDAO.getTicket(vehicleRegNumber);
-            
-            // message utilisateur en cas d'erreur de saisie de l'immatriculation
-            if (ticket == null) {
-                System.out.println("Erreur : Aucun ticket trouvé pour le véhicule " + vehicleRegNumber);
-                return;
-            }
-
-            Date outTime = new Date();
-            ticket.setOutTime(outTime);
-            
-            // adapter le tarif en fonction du type d'utilisateur (régulier ou occassionnel)
-            if (ticketDAO.getNbTicket(vehicleRegNumber) > 1) {
-            	fareCalculatorService.calculateFare(ticket, true);
-            } else {
-            	fareCalculatorService.calculateFare(ticket);
-            }
-            
-            if(ticketDAO.updateTicket(ticket)) {
-                ParkingSpot parkingSpot = ticket.getParkingSpot();
-                parkingSpot.setAvailable(true);
-                parkingSpotDAO.updateParking(parkingSpot);
-                System.out.println("Please pay the parking fare:" + ticket.getPrice());
-                System.out.println("Recorded out-time for vehicle number:" + ticket.getVehicleRegNumber() + " is:" + outTime);
-            }else{
-                System.out.println("Unable to update ticket information. Error occurred");
+            ExitResult exit = exit(vehicleRegNumber);
+            switch (exit.getStatus()) {
+                case NO_TICKET:
+                    // message utilisateur en cas d'erreur de saisie de l'immatriculation
+                    System.out.println("Erreur : Aucun ticket trouvé pour le véhicule " + vehicleRegNumber);
+                    break;
+                case EXITED:
+                    System.out.println("Please pay the parking fare:" + exit.getTicket().getPrice());
+                    System.out.println("Recorded out-time for vehicle number:" + vehicleRegNumber + " is:" + exit.getTicket().getOutTime());
+                    break;
+                default:
+                    System.out.println("Unable to update ticket information. Error occurred");
             }
         }catch(Exception e){
             logger.error("Unable to process exiting vehicle",e);
         }
     }
     
-}
\ No newline at end of file
+}
@@ -0,0 +1,191 @@
+package com.parkit.parkingsystem.service;
+
+import com.parkit.parkingsystem.dao.DashboardCheckpointer;
+import com.parkit.parkingsystem.dao.InMemoryParkingSpotDAO;
+import com.parkit.parkingsystem.dao.InMemoryStore;
+import com.parkit.parkingsystem.dao.InMemoryTicketDAO;
+import com.parkit.parkingsystem.dao.OccupancySnapshot;
+import com.parkit.parkingsystem.dao.OccupancySnapshotManager;
+import com.parkit.parkingsystem.dao.OpenTicketCache;
+import com.parkit.parkingsystem.dao.ParkingSpotDAO;
+import com.parkit.parkingsystem.dao.TicketArchiver;
+import com.parkit.parkingsystem.dao.TicketDAO;
+import com.parkit.parkingsystem.dao.WriteBehindTicketWriter;
+import com.parkit.parkingsystem.metrics.DashboardCounters;
+import com.parkit.parkingsystem.model.Ticket;
+import com.parkit.parkingsystem.tariff.TariffEngine;
+import com.parkit.parkingsystem.util.InputReaderUtil;
+import com.parkit.parkingsystem.util.ShutdownSequence;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Câblage des DAO et du ParkingService selon les propriétés système (stockage, cache de tickets, index des places),
+ * partagé par la console et le serveur HTTP.
+ */
+public class ParkingServiceFactory {
+
+    private static final Logger logger = LogManager.getLogger("ParkingServiceFactory");
+
+    // "mysql" (défaut) ou "memory" : stockage en mémoire, sans base (tests, bornes autonomes)
+    public static final String STORAGE = "parkit.storage";
+    public static final String MEMORY_STORAGE = "memory";
+
+    // taille du cache de tickets créé pour l'instantané quand parkit.ticketCache.size n'est pas renseigné
+    private static final int DEFAULT_SNAPSHOT_TICKET_CACHE_SIZE = 10_000;
+    private static final int DEFAULT_QUOTE_CACHE_SIZE = 10_000;
+
+    private ParkingServiceFactory() {
+    }
+
+    public static boolean isInMemoryStorage() {
+        return MEMORY_STORAGE.equalsIgnoreCase(System.getProperty(STORAGE));
+    }
+
+    // service interactif (console)
+    public static ParkingService create(InputReaderUtil inputReaderUtil) {
+        if (isInMemoryStorage()) {
+            InMemoryStore store = InMemoryStore.fromSystemProperties();
+            FareCalculatorService fareCalculatorService = createFareCalculatorService();
+            ParkingService parkingService = new ParkingService(inputReaderUtil, new InMemoryParkingSpotDAO(store),
+                    new InMemoryTicketDAO(store), fareCalculatorService);
+            // rien à relire ni à persister : le stockage repart vide
+            parkingService.dashboardCounters = new DashboardCounters();
+            parkingService.fareQuoteService = createFareQuoteService(fareCalculatorService);
+            return parkingService;
+        }
+        String snapshotFile = System.getProperty(OccupancySnapshotManager.FILE);
+        ParkingSpotDAO parkingSpotDAO = snapshotFile == null ? createParkingSpotDAO() : new ParkingSpotDAO();
+        TicketDAO ticketDAO = createTicketDAO(parkingSpotDAO);
+        if (snapshotFile != null) {
+            startOccupancySnapshot(Path.of(snapshotFile), parkingSpotDAO, ticketDAO);
+        }
+        if (System.getProperty(TicketArchiver.AFTER_DAYS) != null) {
+            startTicketArchiver();
+        }
+        FareCalculatorService fareCalculatorService = createFareCalculatorService();
+        ParkingService parkingService = new ParkingService(inputReaderUtil, parkingSpotDAO, ticketDAO,
+                fareCalculatorService);
+        parkingService.dashboardCounters = createDashboardCounters();
+        parkingService.fareQuoteService = createFareQuoteService(fareCalculatorService);
+        return parkingService;
+    }
+
+    // service sans console, pour les bornes et le serveur HTTP
+    public static ParkingService createHeadless() {
+        return create(null);
+    }
+
+    static ParkingSpotDAO createParkingSpotDAO() {
+        ParkingSpotDAO parkingSpotDAO = new ParkingSpotDAO();
+        if (Boolean.getBoolean(ParkingSpotDAO.AVAILABILITY_INDEX_ENABLED)) {
+            parkingSpotDAO.enableAvailabilityIndex(Long.getLong(ParkingSpotDAO.AVAILABILITY_INDEX_RECONCILE_MS, 60_000L));
+        }
+        return parkingSpotDAO;
+    }
+
+    // index des places et cache des tickets ouverts remplis depuis l'instantané s'il correspond à la base,
+    // depuis la table parking sinon ; l'instantané est ensuite rafraîchi en tâche de fond et à l'arrêt de la JVM
+    static OccupancySnapshotManager startOccupancySnapshot(Path file, ParkingSpotDAO parkingSpotDAO,
+                                                           TicketDAO ticketDAO) {
+        long start = System.nanoTime();
+        long reconcileMillis = Long.getLong(ParkingSpotDAO.AVAILABILITY_INDEX_RECONCILE_MS, 60_000L);
+        OccupancySnapshotManager snapshotManager = new OccupancySnapshotManager(file);
+        OccupancySnapshot snapshot = snapshotManager.loadVerified();
+        if (snapshot != null) {
+            parkingSpotDAO.enableAvailabilityIndex(snapshot.getParkingSpots(), reconcileMillis);
+            if (ticketDAO.openTicketCache == null) {
+                ticketDAO.openTicketCache = new OpenTicketCache(
+                        Math.max(DEFAULT_SNAPSHOT_TICKET_CACHE_SIZE, snapshot.getOpenTickets().size()));
+            }
+            for (Ticket ticket : snapshot.getOpenTickets()) {
+                ticketDAO.openTicketCache.put(ticket);
+            }
+            logger.info("Occupancy snapshot {} loaded in {} ms: {} spots, {} open tickets", file,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), snapshot.getParkingSpots().size(),
+                    snapshot.getOpenTickets().size());
+        } else {
+            parkingSpotDAO.enableAvailabilityIndex(reconcileMillis);
+        }
+        long refreshMillis = Long.getLong(OccupancySnapshotManager.REFRESH_MS, 60_000L);
+        // absent ou périmé : réécrit tout de suite pour le prochain démarrage
+        snapshotManager.start(snapshot == null ? 0 : refreshMillis, refreshMillis);
+        ShutdownSequence.register(ShutdownSequence.Phase.SAVE_STATE, snapshotManager::close);
+        return snapshotManager;
+    }
+
+    // thread de fond : les tickets clos anciens quittent la table chaude, getTicket les lit dans l'archive
+    static TicketArchiver startTicketArchiver() {
+        TicketArchiver archiver = TicketArchiver.fromSystemProperties();
+        archiver.start(Long.getLong(TicketArchiver.INTERVAL_MS, 60 * 60 * 1000L));
+        return archiver;
+    }
+
+    // grille du fichier parkit.tariff.file, rechargée à chaud ; tarif de Fare sinon
+    static FareCalculatorService createFareCalculatorService() {
+        return new FareCalculatorService(TariffEngine.fromSystemProperties());
+    }
+
+    // null si parkit.quoteCache.size vaut 0 : chaque devis relit alors le ticket en base
+    static FareQuoteService createFareQuoteService(FareCalculatorService fareCalculatorService) {
+        int size = Integer.getInteger(FareQuoteService.CACHE_SIZE, DEFAULT_QUOTE_CACHE_SIZE);
+        return size > 0 ? new FareQuoteService(fareCalculatorService, size,
+                Long.getLong(FareQuoteService.TTL_MS, FareQuoteService.DEFAULT_TTL_MILLIS)) : null;
+    }
+
+    // compteurs relus en base puis recopiés périodiquement et à l'arrêt de la JVM
+    static DashboardCounters createDashboardCounters() {
+        DashboardCounters counters = new DashboardCounters();
+        long checkpointMillis = Long.getLong(DashboardCheckpointer.INTERVAL_MS, 10_000L);
+        if (checkpointMillis <= 0) {
+            return counters;
+        }
+        DashboardCheckpointer checkpointer = new DashboardCheckpointer(counters);
+        try {
+            checkpointer.restore();
+        } catch (Exception e) {
+            logger.error("Unable to restore dashboard counters, starting from zero", e);
+        }
+        checkpointer.start(checkpointMillis);
+        ShutdownSequence.register(ShutdownSequence.Phase.SAVE_STATE, checkpointer::close);
+        return counters;
+    }
+
+    static TicketDAO createTicketDAO(ParkingSpotDAO parkingSpotDAO) {
+        TicketDAO ticketDAO = new TicketDAO();
+        ticketDAO.parkingSpotDAO = parkingSpotDAO;
+        Integer ticketCacheSize = Integer.getInteger(TicketDAO.OPEN_TICKET_CACHE_SIZE);
+        if (ticketCacheSize != null && ticketCacheSize > 0) {
+            ticketDAO.openTicketCache = new OpenTicketCache(ticketCacheSize);
+        }
+        if (System.getProperty(WriteBehindTicketWriter.JOURNAL_FILE) != null) {
+            ticketDAO.writeBehind = createWriteBehind();
+        }
+        return ticketDAO;
+    }
+
+    // le journal est rejoué au démarrage puis vidé à l'arrêt de la JVM
+    static WriteBehindTicketWriter createWriteBehind() {
+        WriteBehindTicketWriter writeBehind;
+        try {
+            writeBehind = WriteBehindTicketWriter.fromSystemProperties();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to open ticket journal", e);
+        }
+        writeBehind.start();
+        // avant l'instantané et le point de contrôle, qui relisent la base
+        ShutdownSequence.register(ShutdownSequence.Phase.FLUSH_JOURNAL, () -> {
+            try {
+                writeBehind.close();
+            } catch (IOException e) {
+                // le contenu non appliqué reste dans le journal
+            }
+        });
+        return writeBehind;
+    }
+}
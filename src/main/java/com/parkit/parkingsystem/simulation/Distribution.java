@@ -0,0 +1,27 @@
+package com.parkit.parkingsystem.simulation;
+
+import java.util.SplittableRandom;
+
+/**
+ * Loi des intervalles entre arrivées et des durées de stationnement du simulateur.
+ */
+public enum Distribution {
+    FIXED,
+    UNIFORM,
+    // arrivées de Poisson pour les intervalles
+    EXPONENTIAL;
+
+    // tirage de moyenne mean, dans la même unité
+    public double sample(double mean, SplittableRandom random) {
+        switch (this) {
+            case FIXED:
+                return mean;
+            case UNIFORM:
+                return 2 * mean * random.nextDouble();
+            case EXPONENTIAL:
+                return -mean * Math.log(1 - random.nextDouble());
+            default:
+                throw new IllegalStateException("Unknown distribution " + this);
+        }
+    }
+}
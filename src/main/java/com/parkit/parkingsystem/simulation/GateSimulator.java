@@ -0,0 +1,316 @@
+package com.parkit.parkingsystem.simulation;
+
+import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.dao.InMemoryParkingSpotDAO;
+import com.parkit.parkingsystem.dao.InMemoryStore;
+import com.parkit.parkingsystem.dao.InMemoryTicketDAO;
+import com.parkit.parkingsystem.dao.ParkingSpotDAO;
+import com.parkit.parkingsystem.dao.ParkingSpotStore;
+import com.parkit.parkingsystem.metrics.LatencyHistogram;
+import com.parkit.parkingsystem.model.EntryResult;
+import com.parkit.parkingsystem.model.ExitResult;
+import com.parkit.parkingsystem.model.ParkingSpot;
+import com.parkit.parkingsystem.service.FareCalculatorService;
+import com.parkit.parkingsystem.service.ParkingService;
+import com.parkit.parkingsystem.service.ParkingServiceFactory;
+import com.parkit.parkingsystem.util.TaskExecutors;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Simulateur de bornes pour le dimensionnement : des arrivées en boucle ouverte (au débit demandé, que les bornes
+ * suivent ou non) sont servies par config.getGates() bornes via ParkingService.enter(), chaque véhicule garé
+ * ressort après sa durée de stationnement via exit(). En fin de simulation, les véhicules encore garés sortent :
+ * le parking est laissé vide.
+ * Stockage : MySQL par défaut, en mémoire avec -Dparkit.storage=memory (plan du parking pris dans la config).
+ */
+public class GateSimulator {
+
+    private static final Logger logger = LogManager.getLogger("GateSimulator");
+
+    // attente maximale de la sortie des véhicules restants en fin de simulation
+    private static final long DRAIN_TIMEOUT_MILLIS = 60_000;
+
+    // rapport d'occupation périodique, null pour ne rien afficher
+    public PrintStream out = System.out;
+
+    private final ParkingService parkingService;
+    private final ParkingSpotStore parkingSpotDAO;
+    private final SimulationConfig config;
+    private final String backend;
+
+    private final LongAdder arrivals = new LongAdder();
+    private final LongAdder parked = new LongAdder();
+    private final LongAdder alreadyParked = new LongAdder();
+    private final LongAdder rejectedFull = new LongAdder();
+    private final LongAdder exits = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final AtomicInteger[] occupied = new AtomicInteger[ParkingType.values().length];
+    private final AtomicInteger[] peakOccupied = new AtomicInteger[ParkingType.values().length];
+    // véhicules arrivés et pas encore ressortis (ou refusés)
+    private final AtomicInteger inSystem = new AtomicInteger();
+    private final LatencyHistogram enterService = new LatencyHistogram();
+    private final LatencyHistogram enterResponse = new LatencyHistogram();
+    private final LatencyHistogram exitService = new LatencyHistogram();
+    private final LatencyHistogram exitResponse = new LatencyHistogram();
+    // clients sortis, susceptibles de revenir (remise fidélité)
+    private final ConcurrentLinkedQueue<String> returningCustomers = new ConcurrentLinkedQueue<>();
+    // véhicules garés en attente de sortie : retirer l'entrée donne le droit de déclencher la sortie
+    private final ConcurrentHashMap<String, ParkingType> pendingDepartures = new ConcurrentHashMap<>();
+    private final List<SimulationReport.Sample> samples = new ArrayList<>();
+    private final String platePrefix;
+    private int nextPlate;
+
+    private ExecutorService gates;
+    private ScheduledThreadPoolExecutor departures;
+    private volatile boolean draining;
+
+    public GateSimulator(ParkingService parkingService, ParkingSpotStore parkingSpotDAO, SimulationConfig config,
+                         String backend) {
+        this.parkingService = parkingService;
+        this.parkingSpotDAO = parkingSpotDAO;
+        this.config = config;
+        this.backend = backend;
+        for (int i = 0; i < occupied.length; i++) {
+            occupied[i] = new AtomicInteger();
+            peakOccupied[i] = new AtomicInteger();
+        }
+        // immatriculations de 10 caractères au plus (VEHICLE_REG_NUMBER varchar(10)), propres à la simulation
+        String runId = Long.toString(Math.floorMod(config.getSeed(), 36L * 36 * 36), 36);
+        this.platePrefix = "S" + "000".substring(runId.length()) + runId;
+    }
+
+    // simulateur sur le stockage choisi par -Dparkit.storage
+    public static GateSimulator create(SimulationConfig config) {
+        if (ParkingServiceFactory.isInMemoryStorage()) {
+            InMemoryStore store = new InMemoryStore(InMemoryStore.parseLayout(
+                    "CAR:" + config.getCarSpots() + ",BIKE:" + config.getBikeSpots()));
+            InMemoryParkingSpotDAO parkingSpotDAO = new InMemoryParkingSpotDAO(store);
+            return new GateSimulator(new ParkingService(parkingSpotDAO, new InMemoryTicketDAO(store),
+                    new FareCalculatorService()), parkingSpotDAO, config, "memory");
+        }
+        return new GateSimulator(ParkingServiceFactory.createHeadless(), new ParkingSpotDAO(), config, "mysql");
+    }
+
+    public SimulationReport run() throws InterruptedException {
+        int[] capacity = new int[ParkingType.values().length];
+        List<ParkingSpot> parkingSpots = parkingSpotDAO.getAllParkingSpots();
+        if (parkingSpots != null) {
+            for (ParkingSpot parkingSpot : parkingSpots) {
+                capacity[parkingSpot.getParkingType().ordinal()]++;
+            }
+        }
+        println("Simulation on " + backend + " (" + config + "), lot: CAR " + capacity[ParkingType.CAR.ordinal()]
+                + ", BIKE " + capacity[ParkingType.BIKE.ordinal()]);
+
+        gates = Executors.newFixedThreadPool(config.getGates(), TaskExecutors.daemonThreadFactory("sim-gate"));
+        departures = new ScheduledThreadPoolExecutor(1, TaskExecutors.daemonThreadFactory("sim-departure"));
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(
+                TaskExecutors.daemonThreadFactory("sim-report"));
+        SplittableRandom random = new SplittableRandom(config.getSeed());
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(config.getDurationSeconds());
+        long[] lastSample = {start, 0};
+        if (config.getReportIntervalMillis() > 0) {
+            reporter.scheduleAtFixedRate(() -> sample(start, lastSample), config.getReportIntervalMillis(),
+                    config.getReportIntervalMillis(), TimeUnit.MILLISECONDS);
+        }
+        try {
+            double meanIntervalNanos = 1_000_000_000.0 / config.getArrivalsPerSecond();
+            double meanStayNanos = TimeUnit.MILLISECONDS.toNanos(config.getMeanStayMillis());
+            long next = start;
+            while (true) {
+                next += (long) config.getArrivalDistribution().sample(meanIntervalNanos, random);
+                if (next >= end) {
+                    break;
+                }
+                // tirages faits sur ce seul thread : la graine fixe les instants, types et durées
+                String plate = nextPlate(random);
+                ParkingType parkingType = random.nextDouble() < config.getBikeRatio() ? ParkingType.BIKE : ParkingType.CAR;
+                long stayNanos = (long) config.getStayDistribution().sample(meanStayNanos, random);
+                long intendedNanos = next;
+                waitUntil(intendedNanos);
+                inSystem.incrementAndGet();
+                gates.execute(() -> enter(plate, parkingType, intendedNanos, stayNanos));
+            }
+            drain();
+        } finally {
+            reporter.shutdownNow();
+            departures.shutdownNow();
+            gates.shutdownNow();
+        }
+        long elapsed = System.nanoTime() - start;
+        sample(start, lastSample);
+        SimulationReport report = new SimulationReport(backend, config.toString(), elapsed, arrivals.sum(), parked.sum(),
+                alreadyParked.sum(), rejectedFull.sum(), exits.sum(), errors.sum(),
+                capacity[ParkingType.CAR.ordinal()], capacity[ParkingType.BIKE.ordinal()],
+                peakOccupied[ParkingType.CAR.ordinal()].get(), peakOccupied[ParkingType.BIKE.ordinal()].get(),
+                enterService, enterResponse, exitService, exitResponse, copySamples());
+        println(report.toString());
+        return report;
+    }
+
+    private void enter(String plate, ParkingType parkingType, long intendedNanos, long stayNanos) {
+        long start = System.nanoTime();
+        EntryResult entry;
+        try {
+            entry = parkingService.enter(plate, parkingType);
+        } catch (RuntimeException e) {
+            logger.error("Simulated entry failed", e);
+            entry = EntryResult.of(EntryResult.Status.ERROR);
+        }
+        long now = System.nanoTime();
+        enterService.record(now - start);
+        enterResponse.record(now - intendedNanos);
+        arrivals.increment();
+        switch (entry.getStatus()) {
+            case PARKED:
+                parked.increment();
+                int count = occupied[parkingType.ordinal()].incrementAndGet();
+                peakOccupied[parkingType.ordinal()].accumulateAndGet(count, Math::max);
+                scheduleDeparture(plate, parkingType, stayNanos);
+                return;
+            case ALREADY_PARKED:
+                alreadyParked.increment();
+                break;
+            case NO_SPOT_AVAILABLE:
+                rejectedFull.increment();
+                returningCustomers.offer(plate);
+                break;
+            default:
+                errors.increment();
+        }
+        inSystem.decrementAndGet();
+    }
+
+    private void scheduleDeparture(String plate, ParkingType parkingType, long stayNanos) {
+        pendingDepartures.put(plate, parkingType);
+        if (!draining) {
+            try {
+                long departureNanos = System.nanoTime() + stayNanos;
+                departures.schedule(() -> submitExit(plate, departureNanos), stayNanos, TimeUnit.NANOSECONDS);
+                return;
+            } catch (RejectedExecutionException e) {
+                // fin de simulation entre le test et la planification
+            }
+        }
+        submitExit(plate, System.nanoTime());
+    }
+
+    private void submitExit(String plate, long intendedNanos) {
+        ParkingType parkingType = pendingDepartures.remove(plate);
+        if (parkingType != null) {
+            gates.execute(() -> exit(plate, parkingType, intendedNanos));
+        }
+    }
+
+    private void exit(String plate, ParkingType parkingType, long intendedNanos) {
+        // décompté avant la sortie : la place libérée peut être reprise avant le retour d'exit(),
+        // l'occupation relevée ne dépasse ainsi jamais l'occupation réelle
+        occupied[parkingType.ordinal()].decrementAndGet();
+        long start = System.nanoTime();
+        try {
+            ExitResult exit = parkingService.exit(plate);
+            long now = System.nanoTime();
+            exitService.record(now - start);
+            if (!draining) {
+                // les sorties anticipées de fin de simulation n'ont pas d'heure prévue significative
+                exitResponse.record(now - intendedNanos);
+            }
+            if (exit.isExited()) {
+                exits.increment();
+                returningCustomers.offer(plate);
+            } else {
+                occupied[parkingType.ordinal()].incrementAndGet();
+                errors.increment();
+            }
+        } catch (RuntimeException e) {
+            logger.error("Simulated exit failed", e);
+            occupied[parkingType.ordinal()].incrementAndGet();
+            errors.increment();
+        } finally {
+            inSystem.decrementAndGet();
+        }
+    }
+
+    // les véhicules encore garés sortent immédiatement, sans attendre la fin de leur stationnement
+    private void drain() throws InterruptedException {
+        draining = true;
+        departures.shutdownNow();
+        for (String plate : pendingDepartures.keySet()) {
+            submitExit(plate, System.nanoTime());
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(DRAIN_TIMEOUT_MILLIS);
+        while (inSystem.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        if (inSystem.get() > 0) {
+            logger.warn("{} simulated vehicles still in the lot after the drain timeout", inSystem.get());
+        }
+    }
+
+    private String nextPlate(SplittableRandom random) {
+        if (random.nextDouble() < config.getRepeatRatio()) {
+            String returning = returningCustomers.poll();
+            if (returning != null) {
+                return returning;
+            }
+        }
+        String counter = Integer.toString(nextPlate++, 36);
+        return platePrefix + "000000".substring(Math.min(6, counter.length())) + counter;
+    }
+
+    private static void waitUntil(long deadlineNanos) throws InterruptedException {
+        long remaining;
+        while ((remaining = deadlineNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+
+    private synchronized void sample(long start, long[] lastSample) {
+        long now = System.nanoTime();
+        long operations = arrivals.sum() + exits.sum();
+        double operationsPerSecond = now == lastSample[0] ? 0.0
+                : (operations - lastSample[1]) * 1_000_000_000.0 / (now - lastSample[0]);
+        lastSample[0] = now;
+        lastSample[1] = operations;
+        SimulationReport.Sample sample = new SimulationReport.Sample(TimeUnit.NANOSECONDS.toMillis(now - start),
+                occupied[ParkingType.CAR.ordinal()].get(), occupied[ParkingType.BIKE.ordinal()].get(),
+                operationsPerSecond);
+        samples.add(sample);
+        println(sample.toString());
+    }
+
+    private synchronized List<SimulationReport.Sample> copySamples() {
+        return new ArrayList<>(samples);
+    }
+
+    private void println(String line) {
+        if (out != null) {
+            out.println(line);
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        create(SimulationConfig.fromSystemProperties()).run();
+    }
+}
@@ -0,0 +1,173 @@
+package com.parkit.parkingsystem.simulation;
+
+import java.util.Locale;
+
+/**
+ * Paramètres d'une simulation, lus dans les propriétés système parkit.sim.*.
+ * Les durées de stationnement sont en temps réel : une journée se simule en la compressant (ex. 1 h -> 1 s).
+ */
+public class SimulationConfig {
+
+    public static final String GATES = "parkit.sim.gates";
+    public static final String DURATION_SECONDS = "parkit.sim.durationSeconds";
+    public static final String ARRIVALS_PER_SECOND = "parkit.sim.arrivalsPerSecond";
+    public static final String ARRIVAL_DISTRIBUTION = "parkit.sim.arrivalDistribution";
+    public static final String MEAN_STAY_MS = "parkit.sim.meanStayMs";
+    public static final String STAY_DISTRIBUTION = "parkit.sim.stayDistribution";
+    public static final String BIKE_RATIO = "parkit.sim.bikeRatio";
+    public static final String REPEAT_RATIO = "parkit.sim.repeatRatio";
+    // plan du parking du stockage en mémoire ; avec MySQL c'est la table parking qui fait foi
+    public static final String CAR_SPOTS = "parkit.sim.carSpots";
+    public static final String BIKE_SPOTS = "parkit.sim.bikeSpots";
+    public static final String REPORT_INTERVAL_MS = "parkit.sim.reportIntervalMs";
+    public static final String SEED = "parkit.sim.seed";
+
+    private int gates = 4;
+    private int durationSeconds = 30;
+    private double arrivalsPerSecond = 50;
+    private Distribution arrivalDistribution = Distribution.EXPONENTIAL;
+    private long meanStayMillis = 5_000;
+    private Distribution stayDistribution = Distribution.EXPONENTIAL;
+    private double bikeRatio = 0.2;
+    private double repeatRatio = 0.3;
+    private int carSpots = 200;
+    private int bikeSpots = 50;
+    private long reportIntervalMillis = 5_000;
+    private long seed = System.nanoTime();
+
+    public static SimulationConfig fromSystemProperties() {
+        SimulationConfig config = new SimulationConfig();
+        config.setGates(Integer.getInteger(GATES, config.gates));
+        config.setDurationSeconds(Integer.getInteger(DURATION_SECONDS, config.durationSeconds));
+        config.setArrivalsPerSecond(doubleProperty(ARRIVALS_PER_SECOND, config.arrivalsPerSecond));
+        config.setArrivalDistribution(distributionProperty(ARRIVAL_DISTRIBUTION, config.arrivalDistribution));
+        config.setMeanStayMillis(Long.getLong(MEAN_STAY_MS, config.meanStayMillis));
+        config.setStayDistribution(distributionProperty(STAY_DISTRIBUTION, config.stayDistribution));
+        config.setBikeRatio(doubleProperty(BIKE_RATIO, config.bikeRatio));
+        config.setRepeatRatio(doubleProperty(REPEAT_RATIO, config.repeatRatio));
+        config.setCarSpots(Integer.getInteger(CAR_SPOTS, config.carSpots));
+        config.setBikeSpots(Integer.getInteger(BIKE_SPOTS, config.bikeSpots));
+        config.setReportIntervalMillis(Long.getLong(REPORT_INTERVAL_MS, config.reportIntervalMillis));
+        config.setSeed(Long.getLong(SEED, config.seed));
+        return config;
+    }
+
+    private static double doubleProperty(String name, double defaultValue) {
+        String value = System.getProperty(name);
+        return value == null ? defaultValue : Double.parseDouble(value);
+    }
+
+    private static Distribution distributionProperty(String name, Distribution defaultValue) {
+        String value = System.getProperty(name);
+        return value == null ? defaultValue : Distribution.valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+
+    public int getGates() {
+        return gates;
+    }
+
+    public void setGates(int gates) {
+        if (gates < 1) {
+            throw new IllegalArgumentException("Au moins une borne : " + gates);
+        }
+        this.gates = gates;
+    }
+
+    public int getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    public void setDurationSeconds(int durationSeconds) {
+        this.durationSeconds = durationSeconds;
+    }
+
+    public double getArrivalsPerSecond() {
+        return arrivalsPerSecond;
+    }
+
+    public void setArrivalsPerSecond(double arrivalsPerSecond) {
+        if (arrivalsPerSecond <= 0) {
+            throw new IllegalArgumentException("Débit d'arrivée invalide : " + arrivalsPerSecond);
+        }
+        this.arrivalsPerSecond = arrivalsPerSecond;
+    }
+
+    public Distribution getArrivalDistribution() {
+        return arrivalDistribution;
+    }
+
+    public void setArrivalDistribution(Distribution arrivalDistribution) {
+        this.arrivalDistribution = arrivalDistribution;
+    }
+
+    public long getMeanStayMillis() {
+        return meanStayMillis;
+    }
+
+    public void setMeanStayMillis(long meanStayMillis) {
+        this.meanStayMillis = meanStayMillis;
+    }
+
+    public Distribution getStayDistribution() {
+        return stayDistribution;
+    }
+
+    public void setStayDistribution(Distribution stayDistribution) {
+        this.stayDistribution = stayDistribution;
+    }
+
+    public double getBikeRatio() {
+        return bikeRatio;
+    }
+
+    public void setBikeRatio(double bikeRatio) {
+        this.bikeRatio = bikeRatio;
+    }
+
+    public double getRepeatRatio() {
+        return repeatRatio;
+    }
+
+    public void setRepeatRatio(double repeatRatio) {
+        this.repeatRatio = repeatRatio;
+    }
+
+    public int getCarSpots() {
+        return carSpots;
+    }
+
+    public void setCarSpots(int carSpots) {
+        this.carSpots = carSpots;
+    }
+
+    public int getBikeSpots() {
+        return bikeSpots;
+    }
+
+    public void setBikeSpots(int bikeSpots) {
+        this.bikeSpots = bikeSpots;
+    }
+
+    public long getReportIntervalMillis() {
+        return reportIntervalMillis;
+    }
+
+    public void setReportIntervalMillis(long reportIntervalMillis) {
+        this.reportIntervalMillis = reportIntervalMillis;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "gates=%d, duration=%ds, arrivals=%.1f/s (%s), stay=%dms (%s), bikes=%.0f%%, "
+                        + "repeat=%.0f%%, seed=%d", gates, durationSeconds, arrivalsPerSecond, arrivalDistribution,
+                meanStayMillis, stayDistribution, bikeRatio * 100, repeatRatio * 100, seed);
+    }
+}
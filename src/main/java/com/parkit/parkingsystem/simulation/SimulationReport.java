@@ -0,0 +1,190 @@
+package com.parkit.parkingsystem.simulation;
+
+import com.parkit.parkingsystem.metrics.LatencyHistogram;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Bilan d'une simulation : débit, latences des entrées et sorties, occupation au fil du temps.
+ * Latence de service : durée de l'appel ParkingService ; latence de réponse : depuis l'heure d'arrivée prévue,
+ * attente d'une borne libre comprise (pas d'omission coordonnée quand les bornes saturent).
+ */
+public class SimulationReport {
+
+    private final String backend;
+    private final String config;
+    private final long elapsedNanos;
+    private final long arrivals;
+    private final long parked;
+    private final long alreadyParked;
+    private final long rejectedFull;
+    private final long exits;
+    private final long errors;
+    private final int carCapacity;
+    private final int bikeCapacity;
+    private final int peakCars;
+    private final int peakBikes;
+    private final LatencyHistogram enterService;
+    private final LatencyHistogram enterResponse;
+    private final LatencyHistogram exitService;
+    private final LatencyHistogram exitResponse;
+    private final List<Sample> samples;
+
+    SimulationReport(String backend, String config, long elapsedNanos, long arrivals, long parked, long alreadyParked,
+                     long rejectedFull, long exits, long errors, int carCapacity, int bikeCapacity, int peakCars,
+                     int peakBikes, LatencyHistogram enterService, LatencyHistogram enterResponse,
+                     LatencyHistogram exitService, LatencyHistogram exitResponse, List<Sample> samples) {
+        this.backend = backend;
+        this.config = config;
+        this.elapsedNanos = elapsedNanos;
+        this.arrivals = arrivals;
+        this.parked = parked;
+        this.alreadyParked = alreadyParked;
+        this.rejectedFull = rejectedFull;
+        this.exits = exits;
+        this.errors = errors;
+        this.carCapacity = carCapacity;
+        this.bikeCapacity = bikeCapacity;
+        this.peakCars = peakCars;
+        this.peakBikes = peakBikes;
+        this.enterService = enterService;
+        this.enterResponse = enterResponse;
+        this.exitService = exitService;
+        this.exitResponse = exitResponse;
+        this.samples = Collections.unmodifiableList(samples);
+    }
+
+    public long getArrivals() {
+        return arrivals;
+    }
+
+    public long getParked() {
+        return parked;
+    }
+
+    public long getAlreadyParked() {
+        return alreadyParked;
+    }
+
+    public long getRejectedFull() {
+        return rejectedFull;
+    }
+
+    public long getExits() {
+        return exits;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    public int getPeakCars() {
+        return peakCars;
+    }
+
+    public int getPeakBikes() {
+        return peakBikes;
+    }
+
+    public int getCarCapacity() {
+        return carCapacity;
+    }
+
+    public int getBikeCapacity() {
+        return bikeCapacity;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedNanos / 1_000_000;
+    }
+
+    // entrées et sorties traitées par seconde
+    public double getOperationsPerSecond() {
+        return elapsedNanos == 0 ? 0.0 : (arrivals + exits) * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    public LatencyHistogram getEnterServiceLatency() {
+        return enterService;
+    }
+
+    public LatencyHistogram getEnterResponseLatency() {
+        return enterResponse;
+    }
+
+    public LatencyHistogram getExitServiceLatency() {
+        return exitService;
+    }
+
+    public LatencyHistogram getExitResponseLatency() {
+        return exitResponse;
+    }
+
+    public List<Sample> getSamples() {
+        return samples;
+    }
+
+    @Override
+    public String toString() {
+        String separator = System.lineSeparator();
+        StringBuilder text = new StringBuilder();
+        text.append("Simulation on ").append(backend).append(" (").append(config).append(')').append(separator);
+        text.append(String.format(Locale.ROOT, "elapsed=%d ms, throughput=%.1f ops/s, arrivals=%d, parked=%d, "
+                        + "full=%d, duplicate=%d, exits=%d, errors=%d", getElapsedMillis(), getOperationsPerSecond(),
+                arrivals, parked, rejectedFull, alreadyParked, exits, errors)).append(separator);
+        text.append(String.format(Locale.ROOT, "peak occupancy: CAR %d/%d, BIKE %d/%d", peakCars, carCapacity,
+                peakBikes, bikeCapacity)).append(separator);
+        text.append(String.format(Locale.ROOT, "%-15s %10s %10s %10s %10s", "latency (us)", "p50", "p99", "p999", "max"));
+        appendLatency(text, "enter service", enterService);
+        appendLatency(text, "enter response", enterResponse);
+        appendLatency(text, "exit service", exitService);
+        appendLatency(text, "exit response", exitResponse);
+        return text.toString();
+    }
+
+    private static void appendLatency(StringBuilder text, String label, LatencyHistogram histogram) {
+        text.append(System.lineSeparator()).append(String.format(Locale.ROOT, "%-15s %10.1f %10.1f %10.1f %10.1f",
+                label, histogram.getP50Micros(), histogram.getP99Micros(), histogram.getP999Micros(),
+                histogram.getMaxMicros()));
+    }
+
+    /**
+     * Occupation et débit relevés à intervalle régulier pendant la simulation.
+     */
+    public static final class Sample {
+        private final long elapsedMillis;
+        private final int parkedCars;
+        private final int parkedBikes;
+        private final double operationsPerSecond;
+
+        Sample(long elapsedMillis, int parkedCars, int parkedBikes, double operationsPerSecond) {
+            this.elapsedMillis = elapsedMillis;
+            this.parkedCars = parkedCars;
+            this.parkedBikes = parkedBikes;
+            this.operationsPerSecond = operationsPerSecond;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        public int getParkedCars() {
+            return parkedCars;
+        }
+
+        public int getParkedBikes() {
+            return parkedBikes;
+        }
+
+        public double getOperationsPerSecond() {
+            return operationsPerSecond;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "t=%6.1fs  CAR=%5d  BIKE=%5d  %8.1f ops/s", elapsedMillis / 1000.0,
+                    parkedCars, parkedBikes, operationsPerSecond);
+        }
+    }
+}
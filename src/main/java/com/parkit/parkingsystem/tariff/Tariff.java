@@ -0,0 +1,145 @@
+package com.parkit.parkingsystem.tariff;
+
+import com.parkit.parkingsystem.constants.ParkingType;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.zone.ZoneRules;
+
+/**
+ * Grille tarifaire compilée par TariffCompiler, immuable. Pour chaque zone (lot) et type de place :
+ * tarif en centimes/heure de chaque minute de la semaine et sommes cumulées de ces tarifs.
+ * Le coût d'un stationnement est la différence de deux sommes cumulées, quel que soit le nombre de règles ;
+ * seul le plafond journalier ajoute une itération par jour calendaire couvert.
+ */
+public final class Tariff {
+
+    static final ParkingType[] TYPES = ParkingType.values();
+    static final int MINUTES_PER_DAY = 24 * 60;
+    static final int MINUTES_PER_WEEK = 7 * MINUTES_PER_DAY;
+    static final long NO_CAP = Long.MAX_VALUE;
+
+    private static final long MILLIS_PER_MINUTE = 60_000L;
+    private static final long MILLIS_PER_HOUR = 60 * MILLIS_PER_MINUTE;
+    private static final long MILLIS_PER_DAY = 24 * MILLIS_PER_HOUR;
+    private static final long MILLIS_PER_WEEK = 7 * MILLIS_PER_DAY;
+    // le 1er janvier 1970 est un jeudi : décalage pour que la minute 0 de la semaine soit le lundi à minuit
+    private static final long MONDAY_SHIFT_MILLIS = 3 * MILLIS_PER_DAY;
+    // durée en ms x centimes/heure x pourcentage -> centimes
+    private static final long FARE_DENOMINATOR = MILLIS_PER_HOUR * 100;
+
+    private final String source;
+    private final ZoneRules zoneRules;
+    private final long freeMillis;
+    private final long discountPercent;
+    private final String[] lotNames;
+    private final int[] lotBySpot;
+    // [lot * TYPES.length + type][minute de la semaine]
+    private final long[][] ratesCentsPerHour;
+    private final long[][] cumulativeRates;
+    // plafond journalier en unités du numérateur (ms x centimes/heure), NO_CAP si absent
+    private final long[] dailyCaps;
+
+    Tariff(String source, ZoneId zone, long freeMillis, long discountPercent, String[] lotNames, int[] lotBySpot,
+           long[][] ratesCentsPerHour, long[] dailyCapsCents) {
+        this.source = source;
+        this.zoneRules = zone.getRules();
+        this.freeMillis = freeMillis;
+        this.discountPercent = discountPercent;
+        this.lotNames = lotNames;
+        this.lotBySpot = lotBySpot;
+        this.ratesCentsPerHour = ratesCentsPerHour;
+        this.cumulativeRates = new long[ratesCentsPerHour.length][];
+        for (int table = 0; table < ratesCentsPerHour.length; table++) {
+            long[] cumulative = new long[MINUTES_PER_WEEK + 1];
+            for (int minute = 0; minute < MINUTES_PER_WEEK; minute++) {
+                cumulative[minute + 1] = cumulative[minute] + ratesCentsPerHour[table][minute] * MILLIS_PER_MINUTE;
+            }
+            cumulativeRates[table] = cumulative;
+        }
+        this.dailyCaps = new long[dailyCapsCents.length];
+        for (int table = 0; table < dailyCapsCents.length; table++) {
+            dailyCaps[table] = dailyCapsCents[table] == NO_CAP ? NO_CAP
+                    : Math.multiplyExact(dailyCapsCents[table], MILLIS_PER_HOUR);
+        }
+    }
+
+    // fichier ou description d'origine, pour les logs
+    public String getSource() {
+        return source;
+    }
+
+    public long getFreeMillis() {
+        return freeMillis;
+    }
+
+    public long getDiscountPercent() {
+        return discountPercent;
+    }
+
+    // zone de la place, "default" si elle n'est rattachée à aucune
+    public String getLotName(int parkingNumber) {
+        return lotNames[lotOf(parkingNumber)];
+    }
+
+    public long getRateCentsPerHour(ParkingType parkingType, int parkingNumber, long timeMillis) {
+        long local = localMillis(timeMillis, timeMillis);
+        int minute = (int) (Math.floorMod(local, MILLIS_PER_WEEK) / MILLIS_PER_MINUTE);
+        return ratesCentsPerHour[table(parkingType, parkingNumber)][minute];
+    }
+
+    /**
+     * Prix en centimes, arrondi au demi-centime supérieur. Les plages horaires suivent le décalage horaire
+     * en vigueur à l'entrée pendant toute la durée du stationnement.
+     */
+    public long priceCents(ParkingType parkingType, int parkingNumber, long inMillis, long outMillis,
+                           boolean discount) {
+        if (outMillis - inMillis < freeMillis) {
+            return 0;
+        }
+        int table = table(parkingType, parkingNumber);
+        long localIn = localMillis(inMillis, inMillis);
+        long localOut = localMillis(outMillis, inMillis);
+        // origine à la semaine d'entrée : les sommes cumulées restent petites
+        long origin = Math.floorDiv(localIn, MILLIS_PER_WEEK) * MILLIS_PER_WEEK;
+        long numerator;
+        long cap = dailyCaps[table];
+        if (cap == NO_CAP) {
+            numerator = cumulative(table, localOut - origin) - cumulative(table, localIn - origin);
+        } else {
+            numerator = 0;
+            long segmentStart = localIn - origin;
+            long end = localOut - origin;
+            while (segmentStart < end) {
+                long segmentEnd = Math.min(end, (Math.floorDiv(segmentStart, MILLIS_PER_DAY) + 1) * MILLIS_PER_DAY);
+                numerator += Math.min(cap, cumulative(table, segmentEnd) - cumulative(table, segmentStart));
+                segmentStart = segmentEnd;
+            }
+        }
+        long percent = discount ? discountPercent : 100;
+        return (Math.multiplyExact(numerator, percent) + FARE_DENOMINATOR / 2) / FARE_DENOMINATOR;
+    }
+
+    private long cumulative(int table, long sinceOrigin) {
+        long weeks = Math.floorDiv(sinceOrigin, MILLIS_PER_WEEK);
+        long inWeek = sinceOrigin - weeks * MILLIS_PER_WEEK;
+        int minute = (int) (inWeek / MILLIS_PER_MINUTE);
+        long[] cumulative = cumulativeRates[table];
+        return weeks * cumulative[MINUTES_PER_WEEK] + cumulative[minute]
+                + (inWeek - minute * MILLIS_PER_MINUTE) * ratesCentsPerHour[table][minute];
+    }
+
+    private long localMillis(long timeMillis, long offsetAtMillis) {
+        long offsetMillis = zoneRules.isFixedOffset() ? zoneRules.getOffset(Instant.EPOCH).getTotalSeconds() * 1000L
+                : zoneRules.getOffset(Instant.ofEpochMilli(offsetAtMillis)).getTotalSeconds() * 1000L;
+        return timeMillis + offsetMillis + MONDAY_SHIFT_MILLIS;
+    }
+
+    private int table(ParkingType parkingType, int parkingNumber) {
+        return lotOf(parkingNumber) * TYPES.length + parkingType.ordinal();
+    }
+
+    private int lotOf(int parkingNumber) {
+        return parkingNumber > 0 && parkingNumber < lotBySpot.length ? lotBySpot[parkingNumber] : 0;
+    }
+}
@@ -0,0 +1,270 @@
+package com.parkit.parkingsystem.tariff;
+
+import com.parkit.parkingsystem.constants.Fare;
+import com.parkit.parkingsystem.constants.ParkingType;
+
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Compile un fichier de règles tarifaires en Tariff. Une directive par ligne, '#' commence un commentaire :
+ * <pre>
+ * zone Europe/Paris                      fuseau des plages horaires (défaut : celui de la JVM)
+ * free 30                                minutes gratuites
+ * discount 95                            pourcentage payé par les usagers réguliers
+ * lot P2 101-200,250-260                 zone de places, avant les règles qui la citent
+ * rate CAR 150                           centimes/heure, toute la semaine
+ * rate CAR 200 MON-FRI 08:00-19:00       jours et plage horaire (19:00-08:00 passe minuit)
+ * rate * 100 SAT,SUN lot=P2              '*' : tous les types ; lot= : une seule zone
+ * cap CAR 1500                           plafond par jour calendaire, en centimes
+ * </pre>
+ * Les règles s'appliquent dans l'ordre du fichier : pour une même minute, la dernière l'emporte.
+ * Une minute couverte par aucune règle est gratuite.
+ */
+public final class TariffCompiler {
+
+    static final String DEFAULT_LOT = "default";
+
+    private TariffCompiler() {
+    }
+
+    // tarif actuel (constantes de Fare) : mêmes prix, à la milliseconde près, que l'ancien calcul
+    public static String defaultRules() {
+        return "free " + Fare.FREE_PARKING_DURATION / 60_000 + "\n"
+                + "discount " + Fare.DISCOUNT_PERCENT + "\n"
+                + "rate CAR " + Fare.CAR_RATE_CENTS_PER_HOUR + "\n"
+                + "rate BIKE " + Fare.BIKE_RATE_CENTS_PER_HOUR + "\n";
+    }
+
+    public static Tariff compileDefault() {
+        return compile("default", defaultRules());
+    }
+
+    // IllegalArgumentException avec le numéro de ligne si une directive est invalide
+    public static Tariff compile(String source, String rules) {
+        ZoneId zone = ZoneId.systemDefault();
+        long freeMinutes = 0;
+        long discountPercent = 100;
+        Map<String, Integer> lots = new LinkedHashMap<>();
+        lots.put(DEFAULT_LOT, 0);
+        List<int[]> lotRanges = new ArrayList<>();
+        List<Rule> rates = new ArrayList<>();
+        List<Rule> caps = new ArrayList<>();
+
+        String[] lines = rules.split("\r?\n");
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i];
+            int comment = line.indexOf('#');
+            String[] tokens = (comment < 0 ? line : line.substring(0, comment)).trim().split("\\s+");
+            if (tokens[0].isEmpty()) {
+                continue;
+            }
+            try {
+                switch (tokens[0].toLowerCase(Locale.ROOT)) {
+                    case "zone":
+                        expectArguments(tokens, 2);
+                        zone = ZoneId.of(tokens[1]);
+                        break;
+                    case "free":
+                        expectArguments(tokens, 2);
+                        freeMinutes = parseNonNegative(tokens[1]);
+                        break;
+                    case "discount":
+                        expectArguments(tokens, 2);
+                        discountPercent = parseNonNegative(tokens[1]);
+                        break;
+                    case "lot":
+                        expectArguments(tokens, 3);
+                        if (lots.containsKey(tokens[1])) {
+                            throw new IllegalArgumentException("zone déjà déclarée : " + tokens[1]);
+                        }
+                        lots.put(tokens[1], lots.size());
+                        for (String range : tokens[2].split(",")) {
+                            int[] spots = parseSpotRange(range);
+                            lotRanges.add(new int[]{spots[0], spots[1], lots.size() - 1});
+                        }
+                        break;
+                    case "rate":
+                        rates.add(parseRule(tokens, lots, true));
+                        break;
+                    case "cap":
+                        caps.add(parseRule(tokens, lots, false));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("directive inconnue : " + tokens[0]);
+                }
+            } catch (IllegalArgumentException | DateTimeException e) {
+                throw new IllegalArgumentException(source + ", ligne " + (i + 1) + " : " + e.getMessage(), e);
+            }
+        }
+
+        int tables = lots.size() * Tariff.TYPES.length;
+        long[][] ratesCentsPerHour = new long[tables][Tariff.MINUTES_PER_WEEK];
+        for (Rule rule : rates) {
+            for (int table : rule.tables(lots.size())) {
+                for (int day = 0; day < 7; day++) {
+                    if ((rule.dayMask & (1 << day)) == 0) {
+                        continue;
+                    }
+                    int length = Math.floorMod(rule.endMinute - rule.startMinute - 1, Tariff.MINUTES_PER_DAY) + 1;
+                    int first = day * Tariff.MINUTES_PER_DAY + rule.startMinute;
+                    for (int minute = first; minute < first + length; minute++) {
+                        ratesCentsPerHour[table][minute % Tariff.MINUTES_PER_WEEK] = rule.amountCents;
+                    }
+                }
+            }
+        }
+        long[] dailyCapsCents = new long[tables];
+        Arrays.fill(dailyCapsCents, Tariff.NO_CAP);
+        for (Rule rule : caps) {
+            for (int table : rule.tables(lots.size())) {
+                dailyCapsCents[table] = rule.amountCents;
+            }
+        }
+        int maxSpot = 0;
+        for (int[] range : lotRanges) {
+            maxSpot = Math.max(maxSpot, range[1]);
+        }
+        int[] lotBySpot = new int[maxSpot + 1];
+        for (int[] range : lotRanges) {
+            Arrays.fill(lotBySpot, range[0], range[1] + 1, range[2]);
+        }
+        return new Tariff(source, zone, freeMinutes * 60_000L, discountPercent, lots.keySet().toArray(new String[0]),
+                lotBySpot, ratesCentsPerHour, dailyCapsCents);
+    }
+
+    // rate <TYPE|*> <centimes/heure> [jours] [HH:MM-HH:MM] [lot=<zone>] ; cap <TYPE|*> <centimes> [lot=<zone>]
+    private static Rule parseRule(String[] tokens, Map<String, Integer> lots, boolean timed) {
+        if (tokens.length < 3) {
+            throw new IllegalArgumentException("type et montant attendus");
+        }
+        int type = "*".equals(tokens[1]) ? -1 : ParkingType.valueOf(tokens[1].toUpperCase(Locale.ROOT)).ordinal();
+        Rule rule = new Rule(type, parseNonNegative(tokens[2]));
+        for (int i = 3; i < tokens.length; i++) {
+            String token = tokens[i];
+            if (token.startsWith("lot=")) {
+                Integer lot = lots.get(token.substring(4));
+                if (lot == null) {
+                    throw new IllegalArgumentException("zone non déclarée : " + token.substring(4));
+                }
+                rule.lot = lot;
+            } else if (timed && token.indexOf(':') > 0) {
+                String[] bounds = token.split("-");
+                if (bounds.length != 2) {
+                    throw new IllegalArgumentException("plage horaire invalide : " + token);
+                }
+                rule.startMinute = parseTime(bounds[0]);
+                rule.endMinute = parseTime(bounds[1]);
+            } else if (timed) {
+                rule.dayMask = parseDays(token);
+            } else {
+                throw new IllegalArgumentException("argument inattendu : " + token);
+            }
+        }
+        return rule;
+    }
+
+    // "MON-FRI", "SAT,SUN", "*"
+    private static int parseDays(String token) {
+        if ("*".equals(token)) {
+            return 0x7F;
+        }
+        int mask = 0;
+        for (String part : token.split(",")) {
+            String[] bounds = part.split("-");
+            int first = parseDay(bounds[0]);
+            int last = bounds.length > 1 ? parseDay(bounds[1]) : first;
+            for (int day = first; ; day = (day + 1) % 7) {
+                mask |= 1 << day;
+                if (day == last) {
+                    break;
+                }
+            }
+        }
+        return mask;
+    }
+
+    private static int parseDay(String day) {
+        String name = day.toUpperCase(Locale.ROOT);
+        for (DayOfWeek dayOfWeek : DayOfWeek.values()) {
+            if (dayOfWeek.name().startsWith(name) && name.length() >= 3) {
+                return dayOfWeek.ordinal();
+            }
+        }
+        throw new IllegalArgumentException("jour inconnu : " + day);
+    }
+
+    // minutes depuis minuit ; "24:00" accepté en fin de plage
+    private static int parseTime(String time) {
+        String[] parts = time.split(":");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("heure invalide : " + time);
+        }
+        int minutes = Integer.parseInt(parts[0]) * 60 + Integer.parseInt(parts[1]);
+        if (minutes < 0 || minutes > Tariff.MINUTES_PER_DAY || Integer.parseInt(parts[1]) >= 60) {
+            throw new IllegalArgumentException("heure invalide : " + time);
+        }
+        return minutes % Tariff.MINUTES_PER_DAY;
+    }
+
+    private static int[] parseSpotRange(String range) {
+        String[] bounds = range.split("-");
+        int first = Integer.parseInt(bounds[0].trim());
+        int last = bounds.length > 1 ? Integer.parseInt(bounds[1].trim()) : first;
+        if (first <= 0 || last < first) {
+            throw new IllegalArgumentException("places invalides : " + range);
+        }
+        return new int[]{first, last};
+    }
+
+    private static long parseNonNegative(String value) {
+        long parsed = Long.parseLong(value);
+        if (parsed < 0) {
+            throw new IllegalArgumentException("valeur négative : " + value);
+        }
+        return parsed;
+    }
+
+    private static void expectArguments(String[] tokens, int count) {
+        if (tokens.length != count) {
+            throw new IllegalArgumentException(tokens[0] + " attend " + (count - 1) + " argument(s)");
+        }
+    }
+
+    private static final class Rule {
+        private final int type;
+        private final long amountCents;
+        private int lot = -1;
+        private int dayMask = 0x7F;
+        private int startMinute;
+        private int endMinute;
+
+        private Rule(int type, long amountCents) {
+            this.type = type;
+            this.amountCents = amountCents;
+        }
+
+        // tables concernées : toutes les zones si lot=-1, tous les types si type=-1
+        private int[] tables(int lotCount) {
+            int firstLot = lot < 0 ? 0 : lot;
+            int lastLot = lot < 0 ? lotCount - 1 : lot;
+            int firstType = type < 0 ? 0 : type;
+            int lastType = type < 0 ? Tariff.TYPES.length - 1 : type;
+            int[] tables = new int[(lastLot - firstLot + 1) * (lastType - firstType + 1)];
+            int i = 0;
+            for (int l = firstLot; l <= lastLot; l++) {
+                for (int t = firstType; t <= lastType; t++) {
+                    tables[i++] = l * Tariff.TYPES.length + t;
+                }
+            }
+            return tables;
+        }
+    }
+}
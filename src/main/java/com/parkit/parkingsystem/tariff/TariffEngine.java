@@ -0,0 +1,117 @@
+package com.parkit.parkingsystem.tariff;
+
+import com.parkit.parkingsystem.util.TaskExecutors;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Grille tarifaire en vigueur. Le rechargement compile le nouveau fichier à part puis remplace la référence :
+ * les bornes lisent toujours une grille complète, sans verrou ni pause. Un fichier invalide est ignoré
+ * et la grille précédente reste en place.
+ */
+public class TariffEngine implements Closeable {
+
+    private static final Logger logger = LogManager.getLogger("TariffEngine");
+
+    public static final String RULES_FILE = "parkit.tariff.file";
+    public static final String RELOAD_MS = "parkit.tariff.reloadMs";
+
+    private static volatile Tariff defaultTariff;
+
+    private final AtomicReference<Tariff> tariff;
+    private final Path file;
+    private long loadedModifiedMillis;
+    private ScheduledExecutorService reloadExecutor;
+
+    private TariffEngine(Tariff tariff, Path file, long loadedModifiedMillis) {
+        this.tariff = new AtomicReference<>(tariff);
+        this.file = file;
+        this.loadedModifiedMillis = loadedModifiedMillis;
+    }
+
+    // tarif des constantes de Fare, compilé une fois et partagé
+    public static TariffEngine defaults() {
+        Tariff compiled = defaultTariff;
+        if (compiled == null) {
+            compiled = TariffCompiler.compileDefault();
+            defaultTariff = compiled;
+        }
+        return new TariffEngine(compiled, null, 0);
+    }
+
+    public static TariffEngine load(Path file) throws IOException {
+        long modified = Files.getLastModifiedTime(file).toMillis();
+        return new TariffEngine(compile(file), file, modified);
+    }
+
+    // fichier de règles si parkit.tariff.file est renseigné (surveillé toutes les parkit.tariff.reloadMs), sinon défaut
+    public static TariffEngine fromSystemProperties() {
+        String file = System.getProperty(RULES_FILE);
+        if (file == null) {
+            return defaults();
+        }
+        TariffEngine engine;
+        try {
+            engine = load(Path.of(file));
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to read tariff rules " + file, e);
+        }
+        engine.startWatching(Long.getLong(RELOAD_MS, 5_000L));
+        return engine;
+    }
+
+    public Tariff getTariff() {
+        return tariff.get();
+    }
+
+    // true si une nouvelle grille a été mise en place
+    public synchronized boolean reloadIfModified() {
+        if (file == null) {
+            return false;
+        }
+        try {
+            long modified = Files.getLastModifiedTime(file).toMillis();
+            if (modified == loadedModifiedMillis) {
+                return false;
+            }
+            Tariff compiled = compile(file);
+            tariff.set(compiled);
+            loadedModifiedMillis = modified;
+            logger.info("Tariff rules reloaded from {}", file);
+            return true;
+        } catch (IOException | IllegalArgumentException e) {
+            logger.error("Ignoring invalid tariff rules {}, keeping the current tariff", file, e);
+            return false;
+        }
+    }
+
+    public synchronized void startWatching(long periodMillis) {
+        if (file == null || reloadExecutor != null || periodMillis <= 0) {
+            return;
+        }
+        reloadExecutor = Executors.newSingleThreadScheduledExecutor(TaskExecutors.daemonThreadFactory("tariff-reload"));
+        reloadExecutor.scheduleWithFixedDelay(this::reloadIfModified, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (reloadExecutor != null) {
+            reloadExecutor.shutdownNow();
+            reloadExecutor = null;
+        }
+    }
+
+    private static Tariff compile(Path file) throws IOException {
+        return TariffCompiler.compile(file.toString(), Files.readString(file, StandardCharsets.UTF_8));
+    }
+}
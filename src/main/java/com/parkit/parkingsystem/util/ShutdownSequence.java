@@ -0,0 +1,57 @@
+package com.parkit.parkingsystem.util;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Arrêt de la JVM en un seul hook : les hooks de Runtime s'exécutent en parallèle, or le journal doit être vidé
+ * avant l'instantané et le point de contrôle, et tout cela avant la fermeture des pools.
+ */
+public class ShutdownSequence {
+
+    private static final Logger logger = LogManager.getLogger("ShutdownSequence");
+
+    // dans l'ordre d'exécution ; les tâches d'une même phase s'exécutent dans l'ordre d'enregistrement
+    public enum Phase {
+        STOP_INPUT,
+        FLUSH_JOURNAL,
+        SAVE_STATE,
+        CLOSE_POOLS
+    }
+
+    private static final Map<Phase, List<Runnable>> tasks = new EnumMap<>(Phase.class);
+    private static boolean hookRegistered;
+
+    private ShutdownSequence() {
+    }
+
+    public static synchronized void register(Phase phase, Runnable task) {
+        tasks.computeIfAbsent(phase, p -> new ArrayList<>()).add(task);
+        if (!hookRegistered) {
+            Runtime.getRuntime().addShutdownHook(new Thread(ShutdownSequence::run, "parkit-shutdown"));
+            hookRegistered = true;
+        }
+    }
+
+    // une tâche en échec n'empêche pas les suivantes
+    static void run() {
+        Map<Phase, List<Runnable>> ordered = new EnumMap<>(Phase.class);
+        synchronized (ShutdownSequence.class) {
+            tasks.forEach((phase, phaseTasks) -> ordered.put(phase, new ArrayList<>(phaseTasks)));
+        }
+        for (Map.Entry<Phase, List<Runnable>> phase : ordered.entrySet()) {
+            for (Runnable task : phase.getValue()) {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    logger.error("Shutdown task failed in phase {}", phase.getKey(), e);
+                }
+            }
+        }
+    }
+}
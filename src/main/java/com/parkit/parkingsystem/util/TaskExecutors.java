@@ -0,0 +1,62 @@
+package com.parkit.parkingsystem.util;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Exécuteurs pour les appels bloquants (JDBC) : un thread virtuel par tâche quand la JVM le permet (Java 21+),
+ * sinon un pool borné de threads démons.
+ */
+public class TaskExecutors {
+
+    private TaskExecutors() {
+    }
+
+    public static boolean isVirtualThreadSupported() {
+        return virtualThreadFactoryMethod() != null;
+    }
+
+    // fallbackThreads : taille du pool quand les threads virtuels ne sont pas disponibles
+    public static ExecutorService newPerTaskExecutor(String name, int fallbackThreads) {
+        Method factory = virtualThreadFactoryMethod();
+        if (factory != null) {
+            try {
+                return (ExecutorService) factory.invoke(null);
+            } catch (ReflectiveOperationException e) {
+                // on retombe sur le pool borné
+            }
+        }
+        return newBoundedExecutor(name, fallbackThreads, fallbackThreads * 16);
+    }
+
+    // pool fixe avec file bornée : au-delà, la tâche s'exécute sur le thread appelant (contre-pression)
+    public static ExecutorService newBoundedExecutor(String name, int threads, int queueSize) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize), daemonThreadFactory(name),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    public static ThreadFactory daemonThreadFactory(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static Method virtualThreadFactoryMethod() {
+        try {
+            return java.util.concurrent.Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+/* Schéma de base : identique à resources/Data.sql, sans effet sur une base déjà créée par ce script */
+create table if not exists parking(
+ PARKING_NUMBER int PRIMARY KEY,
+ AVAILABLE bool NOT NULL,
+ TYPE varchar(10) NOT NULL);
+
+create table if not exists ticket(
+ ID int PRIMARY KEY AUTO_INCREMENT,
+ PARKING_NUMBER int NOT NULL,
+ VEHICLE_REG_NUMBER varchar(10) NOT NULL,
+ PRICE double,
+ IN_TIME DATETIME NOT NULL,
+ OUT_TIME DATETIME,
+ FOREIGN KEY (PARKING_NUMBER)
+ REFERENCES parking(PARKING_NUMBER));
+
+create table if not exists vehicle_visit(
+ VEHICLE_REG_NUMBER varchar(10) PRIMARY KEY,
+ NB_TICKET int NOT NULL);
+
+drop trigger if exists ticket_visit_count;
+
+create trigger ticket_visit_count after insert on ticket for each row
+ insert into vehicle_visit(VEHICLE_REG_NUMBER, NB_TICKET) values(NEW.VEHICLE_REG_NUMBER, 1)
+ on duplicate key update NB_TICKET = NB_TICKET + 1;
+
+/* recalcule les compteurs pour les bases antérieures à vehicle_visit */
+insert into vehicle_visit(VEHICLE_REG_NUMBER, NB_TICKET)
+ select t.VEHICLE_REG_NUMBER, count(*) from ticket t group by t.VEHICLE_REG_NUMBER
+ on duplicate key update NB_TICKET = values(NB_TICKET);
@@ -0,0 +1,8 @@
+/* IS_VEHICLE_ALREADY_PARKED : égalité sur l'immatriculation puis OUT_TIME IS NULL, index couvrant */
+create index IDX_TICKET_PLATE_OUT_TIME on ticket(VEHICLE_REG_NUMBER, OUT_TIME);
+
+/* GET_TICKET : dernier ticket d'une immatriculation, lu en parcours inverse de l'index sans tri */
+create index IDX_TICKET_PLATE_IN_TIME on ticket(VEHICLE_REG_NUMBER, IN_TIME);
+
+/* GET_NEXT_PARKING_SPOT et CLAIM_NEXT_PARKING_SPOT : filtre (TYPE, AVAILABLE), index couvrant sur PARKING_NUMBER */
+create index IDX_PARKING_TYPE_AVAILABLE on parking(TYPE, AVAILABLE, PARKING_NUMBER);
@@ -0,0 +1,2 @@
+/* prix stockés en décimal exact (centimes) : les sommes de chiffre d'affaires ne dérivent plus */
+alter table ticket modify PRICE decimal(10,2);
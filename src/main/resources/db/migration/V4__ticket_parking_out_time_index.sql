@@ -0,0 +1,2 @@
+/* GET_OPEN_TICKETS et GET_OCCUPANCY_CHECKSUM : ticket ouvert d'une place occupée, sans parcourir l'historique de la place */
+create index IDX_TICKET_PARKING_OUT_TIME on ticket(PARKING_NUMBER, OUT_TIME);
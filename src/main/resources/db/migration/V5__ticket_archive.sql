@@ -0,0 +1,15 @@
+/* historique froid : tickets clos déplacés par TicketArchiver, la table ticket ne garde que les tickets ouverts et récents.
+   Partitionné par année de sortie (pas de clé étrangère possible sur une table partitionnée) */
+create table if not exists ticket_archive(
+ ID int NOT NULL,
+ PARKING_NUMBER int NOT NULL,
+ VEHICLE_REG_NUMBER varchar(10) NOT NULL,
+ PRICE decimal(10,2),
+ IN_TIME DATETIME NOT NULL,
+ OUT_TIME DATETIME NOT NULL,
+ PRIMARY KEY (ID, OUT_TIME),
+ KEY IDX_TICKET_ARCHIVE_VEHICLE_IN_TIME (VEHICLE_REG_NUMBER, IN_TIME))
+ partition by hash (year(OUT_TIME)) partitions 8;
+
+/* sélection des tickets à archiver, du plus ancien au plus récent */
+create index IDX_TICKET_OUT_TIME on ticket(OUT_TIME);
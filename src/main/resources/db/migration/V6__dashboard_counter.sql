@@ -0,0 +1,8 @@
+/* point de reprise des compteurs du tableau de bord (DashboardCheckpointer) : une ligne par heure locale et type de place */
+create table if not exists dashboard_counter(
+ PERIOD_START DATETIME NOT NULL,
+ TYPE varchar(10) NOT NULL,
+ ENTRIES bigint NOT NULL,
+ EXITS bigint NOT NULL,
+ REVENUE decimal(12,2) NOT NULL,
+ PRIMARY KEY (PERIOD_START, TYPE));
@@ -0,0 +1,2 @@
+/* une ligne par instance et par heure : plusieurs instances ne s'écrasent plus leurs valeurs absolues (DashboardCheckpointer) */
+alter table dashboard_counter add column INSTANCE varchar(64) NOT NULL default '' first, drop primary key, add primary key (INSTANCE, PERIOD_START, TYPE);
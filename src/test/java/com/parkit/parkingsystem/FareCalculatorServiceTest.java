@@ -167,6 +167,35 @@ public class FareCalculatorServiceTest {
     }
     
     
+    @Test
+    @DisplayName("Vérifier que l'arrondi au demi-centime est exact, sans dérive flottante")
+    public void calculateFareCents_ShouldRoundHalfUpExactly() {
+        // 1h20m12s en voiture = 200,5 centimes exactement : le calcul en double donnait 2,00
+        long durationMillis = 80 * 60 * 1000 + 12 * 1000;
+        long now = System.currentTimeMillis();
+
+        assertEquals(201, fareCalculatorService.calculateFareCents(ParkingType.CAR, 1, now - durationMillis, now, false));
+    }
+
+
+    @Test
+    @DisplayName("Vérifier le calcul par lot et le total en centimes")
+    public void calculateFaresCents_ShouldComputeBatchAndTotal() {
+        long now = System.currentTimeMillis();
+        ParkingType[] types = {ParkingType.CAR, ParkingType.BIKE, ParkingType.CAR};
+        int[] parkingNumbers = {1, 4, 2};
+        long[] inTimes = {now - 60 * 60 * 1000, now - 45 * 60 * 1000, now - 10 * 60 * 1000};
+        long[] outTimes = {now, now, now};
+        boolean[] discounts = {true, false, false};
+        long[] prices = new long[3];
+
+        long total = fareCalculatorService.calculateFaresCents(types, parkingNumbers, inTimes, outTimes, discounts, prices, 3);
+
+        assertArrayEquals(new long[]{143, 75, 0}, prices); // 1,425 -> 1,43 ; 0,75 ; gratuit
+        assertEquals(218, total);
+    }
+
+
     private Ticket createTicket(Date inTime, Date outTime, ParkingSpot parkingSpot) {
     	Ticket ticket = new Ticket();
         ticket.setInTime(inTime); 
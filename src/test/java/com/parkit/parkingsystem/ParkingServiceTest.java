@@ -3,11 +3,16 @@
 import com.parkit.parkingsystem.constants.ParkingType;
 import com.parkit.parkingsystem.dao.ParkingSpotDAO;
 import com.parkit.parkingsystem.dao.TicketDAO;
+import com.parkit.parkingsystem.metrics.DashboardCounters;
+import com.parkit.parkingsystem.model.EntryResult;
+import com.parkit.parkingsystem.model.ExitResult;
+import com.parkit.parkingsystem.model.FareQuote;
 import com.parkit.parkingsystem.model.ParkingSpot;
 import com.parkit.parkingsystem.model.Ticket;
 import com.parkit.parkingsystem.service.ParkingService;
 import com.parkit.parkingsystem.util.InputReaderUtil;
 import com.parkit.parkingsystem.service.FareCalculatorService;
+import com.parkit.parkingsystem.service.FareQuoteService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -17,9 +22,16 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.sql.SQLException;
 import java.util.Date;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import static org.mockito.Mockito.*;
 
@@ -44,7 +56,7 @@ public class ParkingServiceTest {
 
     @BeforeEach
     @DisplayName("Initialisation du service à chaque test")
-    public void initService() {
+    public void initService() throws Exception {
         parkingService = new ParkingService(inputReaderUtil, parkingSpotDAO, ticketDAO, fareCalculatorService);
     }
  
@@ -90,7 +102,7 @@ public class ParkingServiceTest {
 
     @Test
     @DisplayName("Vérifier que processIncomingVehicle() s'arrête si aucune place de parking n'est disponible")
-    public void processIncomingVehicle_ShouldStop_IfNoParkingSpotAvailable() {
+    public void processIncomingVehicle_ShouldStop_IfNoParkingSpotAvailable() throws Exception {
         // Given: Simuler la saisie d'entrée / Aucune place de parking n'est disponible
         when(inputReaderUtil.readSelection()).thenReturn(1);
         when(parkingSpotDAO.getNextAvailableSlot(any(ParkingType.class))).thenReturn(0);
@@ -111,19 +123,20 @@ public class ParkingServiceTest {
     	when(inputReaderUtil.readSelection()).thenReturn(1); 
     	when(parkingSpotDAO.getNextAvailableSlot(any(ParkingType.class))).thenReturn(1);
     	when(inputReaderUtil.readVehicleRegistrationNumber()).thenReturn("ABC123");
-        when(ticketDAO.isVehicleAlreadyParked("ABC123")).thenReturn(false);
+        when(ticketDAO.saveIncomingTicket(eq(ParkingType.CAR), eq("ABC123"), any(Date.class)))
+        		.thenReturn(EntryResult.parked(createTicket("ABC123", 1), 1));
 
         // When
         parkingService.processIncomingVehicle();
 
         // Then
-    	verify(ticketDAO, Mockito.times(1)).saveTicket(any(Ticket.class));
+    	verify(ticketDAO, Mockito.times(1)).saveIncomingTicket(eq(ParkingType.CAR), eq("ABC123"), any(Date.class));
     }
     
 
     @Test
     @DisplayName("Vérifier qu'une place de parking CAR est bien demandée lors de l'entrée d'un véhicule")
-    public void processIncomingVehicle_ShouldRequestCarParkingSpot() {
+    public void processIncomingVehicle_ShouldRequestCarParkingSpot() throws Exception {
         // Given
         when(inputReaderUtil.readSelection()).thenReturn(1);
         when(parkingSpotDAO.getNextAvailableSlot(ParkingType.CAR)).thenReturn(1);
@@ -138,7 +151,7 @@ public class ParkingServiceTest {
 
     @Test
     @DisplayName("Vérifier qu'une place de parking BIKE est bien demandée lors de l'entrée d'un véhicule")
-    public void processIncomingVehicle_ShouldUseBikeType_WhenUserSelects2() {
+    public void processIncomingVehicle_ShouldUseBikeType_WhenUserSelects2() throws Exception {
         // Given: Simuler la sélection utilisateur (2 = BIKE), une place de parking BIKE est disponible (place 5)
         when(inputReaderUtil.readSelection()).thenReturn(2);
         when(parkingSpotDAO.getNextAvailableSlot(ParkingType.BIKE)).thenReturn(5);
@@ -158,14 +171,14 @@ public class ParkingServiceTest {
         when(inputReaderUtil.readSelection()).thenReturn(1);  
         when(parkingSpotDAO.getNextAvailableSlot(ParkingType.CAR)).thenReturn(1);
         when(inputReaderUtil.readVehicleRegistrationNumber()).thenReturn("ABCDEF");
-        when(ticketDAO.isVehicleAlreadyParked("ABCDEF")).thenReturn(false);
-        when(ticketDAO.getNbTicket("ABCDEF")).thenReturn(2);
+        when(ticketDAO.saveIncomingTicket(eq(ParkingType.CAR), eq("ABCDEF"), any(Date.class)))
+        		.thenReturn(EntryResult.parked(createTicket("ABCDEF", 1), 2));
 
         // When
         parkingService.processIncomingVehicle();
 
-        // Then: Vérifier que la méthode `getNbTicket()`est appelée
-        verify(ticketDAO, times(1)).getNbTicket("ABCDEF");
+        // Then: le nombre de visites vient de la transaction d'entrée, sans requête COUNT séparée
+        verify(ticketDAO, never()).getNbTicket("ABCDEF");
     }
     
     
@@ -178,31 +191,35 @@ public class ParkingServiceTest {
         when(inputReaderUtil.readVehicleRegistrationNumber()).thenReturn("ABC123");
 
         // Given: Simuler que le véhicule est déjà garé
-        when(ticketDAO.isVehicleAlreadyParked("ABC123")).thenReturn(true);
+        when(ticketDAO.saveIncomingTicket(eq(ParkingType.CAR), eq("ABC123"), any(Date.class)))
+        		.thenReturn(EntryResult.of(EntryResult.Status.ALREADY_PARKED));
 
         // When: Appel de la méthode
         parkingService.processIncomingVehicle();
 
         // Then: Vérifier que la méthode s'arrête immédiatement et ne continue pas
         verify(ticketDAO, never()).saveTicket(any(Ticket.class));  
+        verify(ticketDAO, never()).getNbTicket(anyString());
         verify(parkingSpotDAO, never()).updateParking(any(ParkingSpot.class));
     }
     
 
     @Test
-    @DisplayName("Vérifier que la place de parking est mise à jour comme occupée")
-    public void processIncomingVehicle_ShouldUpdateParkingSpot() throws Exception {
+    @DisplayName("Vérifier que la place est réservée dans la transaction d'entrée et non par un appel séparé")
+    public void processIncomingVehicle_ShouldClaimParkingSpotInEntryTransaction() throws Exception {
         // Given
         when(inputReaderUtil.readSelection()).thenReturn(1); // Menu : Entrée
         when(parkingSpotDAO.getNextAvailableSlot(any(ParkingType.class))).thenReturn(1);
         when(inputReaderUtil.readVehicleRegistrationNumber()).thenReturn("ABC123");
-        when(ticketDAO.isVehicleAlreadyParked("ABC123")).thenReturn(false);
+        when(ticketDAO.saveIncomingTicket(eq(ParkingType.CAR), eq("ABC123"), any(Date.class)))
+        		.thenReturn(EntryResult.parked(createTicket("ABC123", 2), 1));
 
         // When
         parkingService.processIncomingVehicle();
 
         // Then
-        verify(parkingSpotDAO, times(1)).updateParking(any(ParkingSpot.class));
+        verify(ticketDAO, times(1)).saveIncomingTicket(eq(ParkingType.CAR), eq("ABC123"), any(Date.class));
+        verify(parkingSpotDAO, never()).updateParking(any(ParkingSpot.class));
     }
     
     }  
@@ -220,15 +237,15 @@ public class ParkingServiceTest {
         when(inputReaderUtil.readVehicleRegistrationNumber()).thenReturn("ABC123");
 
         // Given: Simuler que l'utilisateur a déjà utilisé le parking plus d'une fois
-        when(ticketDAO.getNbTicket("ABC123")).thenReturn(2);
+        when(ticketDAO.loadNbTicket("ABC123")).thenReturn(2);
 
         // Given: Simuler un ticket existant
         Ticket ticket = new Ticket();
         ticket.setVehicleRegNumber("ABC123");
         ticket.setParkingSpot(new ParkingSpot(1, ParkingType.CAR, false));
         ticket.setInTime(new Date(System.currentTimeMillis() - (60 * 60 * 1000))); // 1 heure avant
-        when(ticketDAO.getTicket("ABC123")).thenReturn(ticket);
-        when(ticketDAO.updateTicket(any(Ticket.class))).thenReturn(true);
+        when(ticketDAO.loadTicket("ABC123")).thenReturn(ticket);
+        when(ticketDAO.closeTicket(any(Ticket.class))).thenReturn(ExitResult.Status.EXITED);
 
         // When: Exécution de `processExitingVehicle()`
         parkingService.processExitingVehicle();
@@ -243,13 +260,13 @@ public class ParkingServiceTest {
     public void processExitingVehicle_ShouldLogError_WhenExceptionOccurs() throws Exception {
         // Given: Simuler une exception dans `getTicket()`
         when(inputReaderUtil.readVehicleRegistrationNumber()).thenReturn("ABC123");
-        when(ticketDAO.getTicket(anyString())).thenThrow(new RuntimeException("DB error"));
+        when(ticketDAO.loadTicket(anyString())).thenThrow(new SQLException("DB error"));
 
      // When
         assertDoesNotThrow(() -> parkingService.processExitingVehicle());
 
         // Then: Vérifier qu'aucune action supplémentaire n'est effectuée
-        verify(ticketDAO, never()).updateTicket(any(Ticket.class));
+        verify(ticketDAO, never()).closeTicket(any(Ticket.class));
         verify(parkingSpotDAO, never()).updateParking(any(ParkingSpot.class));
     }
     
@@ -265,14 +282,16 @@ public class ParkingServiceTest {
         ticket.setParkingSpot(new ParkingSpot(1, ParkingType.CAR, false));
         ticket.setInTime(new Date(System.currentTimeMillis() - (60 * 60 * 1000))); // 1h avant
 
-        when(ticketDAO.getTicket("XYZ123")).thenReturn(ticket);
-        when(ticketDAO.updateTicket(any(Ticket.class))).thenReturn(true);
+        when(ticketDAO.loadTicket("XYZ123")).thenReturn(ticket);
+        when(ticketDAO.loadNbTicket("XYZ123")).thenReturn(1);
+        when(ticketDAO.closeTicket(any(Ticket.class))).thenReturn(ExitResult.Status.EXITED);
 
         // When
         parkingService.processExitingVehicle();
 
-        // Then
-        verify(parkingSpotDAO, times(1)).updateParking(any(ParkingSpot.class));
+        // Then : la place est libérée par la clôture du ticket, pas par un appel séparé
+        verify(ticketDAO, times(1)).closeTicket(any(Ticket.class));
+        verify(parkingSpotDAO, never()).updateParking(any(ParkingSpot.class));
     }
     
 
@@ -281,15 +300,15 @@ public class ParkingServiceTest {
     public void processExitingVehicle_ShouldNotApplyDiscount_IfUserNotRegular() throws Exception {
         // Given : utilisateur avec un seul ticket (occasionnel)
         when(inputReaderUtil.readVehicleRegistrationNumber()).thenReturn("XYZ123");
-        when(ticketDAO.getNbTicket("XYZ123")).thenReturn(1);
+        when(ticketDAO.loadNbTicket("XYZ123")).thenReturn(1);
 
         Ticket ticket = new Ticket();
         ticket.setVehicleRegNumber("XYZ123");
         ticket.setParkingSpot(new ParkingSpot(1, ParkingType.CAR, false));
         ticket.setInTime(new Date(System.currentTimeMillis() - (60 * 60 * 1000)));
 
-        when(ticketDAO.getTicket("XYZ123")).thenReturn(ticket);
-        when(ticketDAO.updateTicket(any(Ticket.class))).thenReturn(true);
+        when(ticketDAO.loadTicket("XYZ123")).thenReturn(ticket);
+        when(ticketDAO.closeTicket(any(Ticket.class))).thenReturn(ExitResult.Status.EXITED);
 
         // When
         parkingService.processExitingVehicle();
@@ -308,15 +327,16 @@ public class ParkingServiceTest {
         ticket.setVehicleRegNumber("ABC123");
         ticket.setParkingSpot(new ParkingSpot(1, ParkingType.CAR, false));
         ticket.setInTime(new Date(System.currentTimeMillis() - 60 * 60 * 1000));
-    	when(ticketDAO.getTicket("ABC123")).thenReturn(ticket);
+    	when(ticketDAO.loadTicket("ABC123")).thenReturn(ticket);
+    	when(ticketDAO.loadNbTicket("ABC123")).thenReturn(1);
     	
-    	when(ticketDAO.updateTicket(any(Ticket.class))).thenReturn(false);
+    	when(ticketDAO.closeTicket(any(Ticket.class))).thenReturn(ExitResult.Status.ERROR);
         
         // When
 	    parkingService.processExitingVehicle();
 	    
 	    // Then
-    	verify(ticketDAO, Mockito.times(1)).updateTicket(any(Ticket.class));
+    	verify(ticketDAO, Mockito.times(1)).closeTicket(any(Ticket.class));
     	verify(parkingSpotDAO, Mockito.never()).updateParking(any(ParkingSpot.class)); // aucune mise à jour de la place n’a été faite
     }
     
@@ -329,15 +349,199 @@ public class ParkingServiceTest {
         when(inputReaderUtil.readVehicleRegistrationNumber()).thenReturn("XYZ789");
 
         // Given: Simuler que `getTicket()` retourne `null`
-        when(ticketDAO.getTicket("XYZ789")).thenReturn(null);
+        when(ticketDAO.loadTicket("XYZ789")).thenReturn(null);
 
         // When
         parkingService.processExitingVehicle();
 
         // Then: Vérifier que la méthode s'arrête avant de calculer le tarif
         verify(fareCalculatorService, never()).calculateFare(any(Ticket.class));
-        verify(ticketDAO, never()).updateTicket(any(Ticket.class));
+        verify(ticketDAO, never()).closeTicket(any(Ticket.class));
     }
     }
     
-}
\ No newline at end of file
+
+    @Nested
+    @DisplayName("Tests API bornes enter/exit")
+    class GateApiTests {
+
+    @Test
+    @DisplayName("enter() retourne le ticket et la place réservée sans lecture console")
+    public void enter_ShouldReturnParkedResult() throws Exception {
+        when(ticketDAO.saveIncomingTicket(eq(ParkingType.BIKE), eq("GATE01"), any(Date.class)))
+        		.thenReturn(EntryResult.parked(createTicket("GATE01", 4), 1));
+
+        EntryResult entry = parkingService.enter("GATE01", ParkingType.BIKE);
+
+        assertTrue(entry.isParked());
+        assertEquals(4, entry.getTicket().getParkingSpot().getId());
+        verifyNoInteractions(inputReaderUtil);
+    }
+
+    @Test
+    @DisplayName("enter() refuse une immatriculation vide")
+    public void enter_ShouldRejectBlankPlate() throws Exception {
+        assertThrows(IllegalArgumentException.class, () -> parkingService.enter(" ", ParkingType.CAR));
+        verify(ticketDAO, never()).saveIncomingTicket(any(), anyString(), any());
+    }
+
+    @Test
+    @DisplayName("exit() clôture le ticket, libère la place et signale la remise")
+    public void exit_ShouldReturnExitedResultWithDiscount() throws Exception {
+        Ticket ticket = createTicket("GATE02", 1);
+        ticket.setInTime(new Date(System.currentTimeMillis() - 60 * 60 * 1000));
+        when(ticketDAO.loadTicket("GATE02")).thenReturn(ticket);
+        when(ticketDAO.loadNbTicket("GATE02")).thenReturn(3);
+        when(ticketDAO.closeTicket(any(Ticket.class))).thenReturn(ExitResult.Status.EXITED);
+
+        ExitResult exit = parkingService.exit("GATE02");
+
+        assertTrue(exit.isExited());
+        assertTrue(exit.isDiscounted());
+        assertNotNull(exit.getTicket().getOutTime());
+        verify(fareCalculatorService).calculateFare(ticket, true);
+        verify(ticketDAO).closeTicket(ticket);
+        verifyNoInteractions(inputReaderUtil);
+    }
+
+    @Test
+    @DisplayName("exit() renvoie NO_TICKET si une autre borne a clôturé le ticket entre-temps")
+    public void exit_ShouldReturnNoTicket_WhenClosedConcurrently() throws Exception {
+        parkingService.dashboardCounters = new DashboardCounters();
+        Ticket ticket = createTicket("GATE07", 1);
+        when(ticketDAO.loadTicket("GATE07")).thenReturn(ticket);
+        when(ticketDAO.loadNbTicket("GATE07")).thenReturn(1);
+        when(ticketDAO.closeTicket(any(Ticket.class))).thenReturn(ExitResult.Status.NO_TICKET);
+
+        ExitResult exit = parkingService.exit("GATE07");
+
+        assertEquals(ExitResult.Status.NO_TICKET, exit.getStatus());
+        verify(parkingSpotDAO, never()).updateParking(any(ParkingSpot.class));
+        assertEquals(0, parkingService.dashboardCounters.getExits(System.currentTimeMillis(), ParkingType.CAR));
+    }
+
+    @Test
+    @DisplayName("exit() relit le ticket une fois si celui du cache a été clôturé par une autre borne")
+    public void exit_ShouldRetryWithFreshTicket_WhenCachedTicketWasClosedElsewhere() throws Exception {
+        Ticket stale = createTicket("GATE08", 1);
+        Ticket current = createTicket("GATE08", 2);
+        current.setId(stale.getId() + 1);
+        when(ticketDAO.loadTicket("GATE08")).thenReturn(stale,
+                current);
+        when(ticketDAO.loadNbTicket("GATE08")).thenReturn(1);
+        when(ticketDAO.closeTicket(stale)).thenReturn(ExitResult.Status.NO_TICKET);
+        when(ticketDAO.closeTicket(current)).thenReturn(ExitResult.Status.EXITED);
+
+        ExitResult exit = parkingService.exit("GATE08");
+
+        assertTrue(exit.isExited());
+        assertSame(current, exit.getTicket());
+    }
+
+    @Test
+    @DisplayName("exit() ne refacture pas un ticket déjà clôturé")
+    public void exit_ShouldReturnNoTicket_WhenTicketAlreadyClosed() throws Exception {
+        Ticket ticket = createTicket("GATE03", 1);
+        ticket.setOutTime(new Date());
+        when(ticketDAO.loadTicket("GATE03")).thenReturn(ticket);
+
+        ExitResult exit = parkingService.exit("GATE03");
+
+        assertEquals(ExitResult.Status.NO_TICKET, exit.getStatus());
+        verify(ticketDAO, never()).closeTicket(any(Ticket.class));
+    }
+
+    @Test
+    @DisplayName("quote() calcule le montant dû sans clôturer le ticket")
+    public void quote_ShouldReturnPriceWithoutClosingTicket() throws Exception {
+        Ticket ticket = createTicket("GATE04", 2);
+        ticket.setInTime(new Date(System.currentTimeMillis() - 60 * 60 * 1000));
+        when(ticketDAO.loadTicket("GATE04")).thenReturn(ticket);
+        when(ticketDAO.loadNbTicket("GATE04")).thenReturn(1);
+        when(fareCalculatorService.calculateFareCents(eq(ParkingType.CAR), eq(2), anyLong(), anyLong(), eq(false)))
+                .thenReturn(150L);
+
+        FareQuote quote = parkingService.quote("GATE04");
+
+        assertEquals(150L, quote.getPriceCents());
+        assertNull(ticket.getOutTime());
+        verify(ticketDAO, never()).closeTicket(any(Ticket.class));
+        verify(parkingSpotDAO, never()).updateParking(any(ParkingSpot.class));
+    }
+
+    @Test
+    @DisplayName("quote() répond depuis la mémoire après l'entrée, sans lecture en base")
+    public void quote_ShouldUseRememberedEntry_WithoutDatabaseLookup() throws Exception {
+        parkingService.fareQuoteService = new FareQuoteService(fareCalculatorService, 10);
+        Ticket ticket = createTicket("GATE05", 3);
+        when(ticketDAO.saveIncomingTicket(eq(ParkingType.CAR), eq("GATE05"), any(Date.class)))
+                .thenReturn(EntryResult.parked(ticket, 2));
+        when(fareCalculatorService.calculateFareCents(eq(ParkingType.CAR), eq(3), eq(ticket.getInTime().getTime()),
+                anyLong(), eq(true))).thenReturn(95L);
+
+        parkingService.enter("GATE05", ParkingType.CAR);
+        FareQuote quote = parkingService.quote("gate05 ");
+
+        assertEquals(95L, quote.getPriceCents());
+        assertTrue(quote.isDiscounted());
+        verify(ticketDAO, never()).loadTicket(anyString());
+        verify(ticketDAO, never()).loadNbTicket(anyString());
+    }
+
+    @Test
+    @DisplayName("exit() oublie le devis en mémoire : le devis suivant relit la base")
+    public void exit_ShouldForgetRememberedQuote() throws Exception {
+        parkingService.fareQuoteService = new FareQuoteService(fareCalculatorService, 10);
+        Ticket ticket = createTicket("GATE06", 4);
+        parkingService.fareQuoteService.remember(ticket, false);
+        when(ticketDAO.loadTicket("GATE06")).thenReturn(ticket);
+        when(ticketDAO.loadNbTicket("GATE06")).thenReturn(1);
+        when(ticketDAO.closeTicket(any(Ticket.class))).thenReturn(ExitResult.Status.EXITED);
+
+        parkingService.exit("GATE06");
+        FareQuote quote = parkingService.quote("GATE06");
+
+        assertNull(quote);
+        assertEquals(0, parkingService.fareQuoteService.size());
+        verify(ticketDAO, times(2)).loadTicket("GATE06");
+    }
+
+    @Test
+    @DisplayName("Un ticket lu avant la sortie n'est pas retenu après elle, un nouveau ticket de la même immatriculation l'est")
+    public void fareQuoteService_ShouldIgnoreTicketClosedMeanwhile() throws Exception {
+        FareQuoteService fareQuoteService = new FareQuoteService(fareCalculatorService, 10);
+        Ticket ticket = createTicket("GATE09", 1);
+        Ticket nextVisit = createTicket("GATE09", 2);
+        nextVisit.setInTime(new Date(ticket.getInTime().getTime() + 1000));
+
+        fareQuoteService.forget(new Ticket(ticket));
+        fareQuoteService.remember(ticket, false);
+        assertEquals(0, fareQuoteService.size());
+
+        fareQuoteService.remember(nextVisit, false);
+        assertEquals(1, fareQuoteService.size());
+    }
+
+    @Test
+    @DisplayName("Un devis retenu expire : le ticket est relu en base")
+    public void quote_ShouldReadDatabaseAgain_WhenRememberedStateExpired() throws Exception {
+        parkingService.fareQuoteService = new FareQuoteService(fareCalculatorService, 10, -1);
+        Ticket ticket = createTicket("GATE10", 1);
+        parkingService.fareQuoteService.remember(ticket, false);
+        when(ticketDAO.loadTicket("GATE10")).thenReturn(null);
+
+        assertNull(parkingService.quote("GATE10"));
+        verify(ticketDAO).loadTicket("GATE10");
+    }
+    }
+
+
+    private static Ticket createTicket(String vehicleRegNumber, int parkingNumber) {
+        Ticket ticket = new Ticket();
+        ticket.setVehicleRegNumber(vehicleRegNumber);
+        ticket.setParkingSpot(new ParkingSpot(parkingNumber, ParkingType.CAR, false));
+        ticket.setInTime(new Date());
+        return ticket;
+    }
+
+}
@@ -0,0 +1,207 @@
+package com.parkit.parkingsystem.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ConnectionPoolTest {
+
+    private List<Connection> physicalConnections;
+    private List<PreparedStatement> physicalStatements;
+    private ConnectionPool pool;
+
+    @BeforeEach
+    void setUp() {
+        physicalConnections = new ArrayList<>();
+        physicalStatements = new ArrayList<>();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    private ConnectionPool createPool(int minSize, int maxSize, long borrowTimeoutMillis) {
+        return createPool(minSize, maxSize, borrowTimeoutMillis, 0);
+    }
+
+    private ConnectionPool createPool(int minSize, int maxSize, long borrowTimeoutMillis, int statementCacheSize) {
+        return new ConnectionPool(() -> {
+            Connection connection = mock(Connection.class);
+            when(connection.isValid(anyInt())).thenReturn(true);
+            when(connection.getAutoCommit()).thenReturn(true);
+            when(connection.getTransactionIsolation()).thenReturn(Connection.TRANSACTION_REPEATABLE_READ);
+            lenient().when(connection.prepareStatement(anyString())).thenAnswer(invocation -> {
+                PreparedStatement statement = mock(PreparedStatement.class);
+                physicalStatements.add(statement);
+                return statement;
+            });
+            physicalConnections.add(connection);
+            return connection;
+        }, minSize, maxSize, 0, borrowTimeoutMillis, statementCacheSize);
+    }
+
+    @Test
+    @DisplayName("Une connexion rendue au pool est réutilisée sans nouvelle ouverture")
+    void borrow_ShouldReuseReleasedConnection() throws Exception {
+        pool = createPool(0, 2, 100);
+
+        Connection first = pool.borrow();
+        first.close();
+        Connection second = pool.borrow();
+        second.close();
+
+        assertEquals(1, physicalConnections.size());
+        assertEquals(2, pool.getBorrowCount());
+        verify(physicalConnections.get(0), never()).close();
+    }
+
+    @Test
+    @DisplayName("Le pool est pré-rempli jusqu'à la taille minimale")
+    void constructor_ShouldFillToMinSize() {
+        pool = createPool(2, 5, 100);
+
+        assertEquals(2, pool.getTotalConnections());
+        assertEquals(2, pool.getIdleConnections());
+    }
+
+    @Test
+    @DisplayName("L'emprunt échoue après le délai si le pool est épuisé")
+    void borrow_ShouldTimeout_WhenPoolExhausted() throws Exception {
+        pool = createPool(0, 1, 50);
+        Connection connection = pool.borrow();
+
+        assertThrows(SQLException.class, () -> pool.borrow());
+        assertEquals(1, pool.getBorrowTimeouts());
+
+        connection.close();
+        assertNotNull(pool.borrow());
+    }
+
+    @Test
+    @DisplayName("Une connexion invalide est remplacée à l'emprunt")
+    void borrow_ShouldReplaceInvalidConnection() throws Exception {
+        pool = createPool(0, 2, 100);
+        pool.borrow().close();
+        when(physicalConnections.get(0).isValid(anyInt())).thenReturn(false);
+
+        pool.borrow();
+
+        assertEquals(2, physicalConnections.size());
+        assertEquals(1, pool.getValidationFailures());
+        verify(physicalConnections.get(0)).close();
+    }
+
+    @Test
+    @DisplayName("Une connexion rendue ne peut plus être utilisée et la transaction en cours est annulée")
+    void close_ShouldRollbackAndInvalidateLease() throws Exception {
+        pool = createPool(0, 1, 100);
+        Connection connection = pool.borrow();
+        Connection physical = physicalConnections.get(0);
+        when(physical.getAutoCommit()).thenReturn(false);
+
+        connection.close();
+
+        verify(physical).rollback();
+        verify(physical).setAutoCommit(true);
+        assertTrue(connection.isClosed());
+        assertThrows(SQLException.class, () -> connection.prepareStatement("select 1"));
+    }
+
+    @Test
+    @DisplayName("Isolation et lecture seule changées par l'emprunteur sont rétablies à la restitution")
+    void close_ShouldRestoreSessionState() throws Exception {
+        pool = createPool(0, 1, 100);
+        Connection connection = pool.borrow();
+        Connection physical = physicalConnections.get(0);
+
+        connection.setReadOnly(true);
+        connection.setTransactionIsolation(Connection.TRANSACTION_SERIALIZABLE);
+        connection.close();
+        pool.borrow().close();
+
+        verify(physical).setReadOnly(false);
+        verify(physical).setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+    }
+
+    @Test
+    @DisplayName("L'évicteur recrée les connexions détruites jusqu'à minSize")
+    void evictIdleConnections_ShouldRefillToMinSize() throws Exception {
+        pool = createPool(2, 2, 100);
+        Connection connection = pool.borrow();
+        Connection physical = physicalConnections.get(0);
+        when(physical.getAutoCommit()).thenReturn(false);
+        doThrow(new SQLException("connexion perdue")).when(physical).rollback();
+        connection.close();
+        assertEquals(1, pool.getTotalConnections());
+
+        pool.evictIdleConnections();
+
+        assertEquals(2, pool.getTotalConnections());
+        assertEquals(2, pool.getIdleConnections());
+        assertEquals(3, physicalConnections.size());
+    }
+
+    @Test
+    @DisplayName("Une requête n'est préparée qu'une fois par connexion quand le cache de statements est actif")
+    void prepareStatement_ShouldReuseCachedStatementAcrossBorrows() throws Exception {
+        pool = createPool(0, 1, 100, 8);
+
+        for (int i = 0; i < 3; i++) {
+            try (Connection connection = pool.borrow();
+                 PreparedStatement ps = connection.prepareStatement("select 1")) {
+                ps.setInt(1, i);
+            }
+        }
+
+        Connection physical = physicalConnections.get(0);
+        verify(physical, times(1)).prepareStatement("select 1");
+        assertEquals(2, pool.getStatementCacheHits());
+        assertEquals(1, pool.getStatementCacheMisses());
+    }
+
+    @Test
+    @DisplayName("close() sur un statement en cache efface les paramètres sans le fermer")
+    void close_ShouldRecycleCachedStatement() throws Exception {
+        pool = createPool(0, 1, 100, 8);
+        Connection connection = pool.borrow();
+        PreparedStatement ps = connection.prepareStatement("select 1");
+        PreparedStatement physicalStatement = physicalStatements.get(0);
+
+        ps.close();
+
+        verify(physicalStatement).clearParameters();
+        verify(physicalStatement, never()).close();
+        assertTrue(ps.isClosed());
+        assertThrows(SQLException.class, () -> ps.setInt(1, 1));
+    }
+
+    @Test
+    @DisplayName("Une même requête ouverte deux fois sur la connexion obtient un second statement hors cache")
+    void prepareStatement_ShouldNotShareStatementInUse() throws Exception {
+        pool = createPool(0, 1, 100, 8);
+        Connection connection = pool.borrow();
+
+        PreparedStatement first = connection.prepareStatement("select 1");
+        PreparedStatement second = connection.prepareStatement("select 1");
+        second.close();
+        first.close();
+
+        assertEquals(2, physicalStatements.size());
+        verify(physicalStatements.get(1)).close();
+        verify(physicalStatements.get(0), never()).close();
+        assertEquals(2, pool.getStatementCacheMisses());
+    }
+}
@@ -0,0 +1,72 @@
+package com.parkit.parkingsystem.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SchemaMigratorTest {
+
+    @Test
+    @DisplayName("Les scripts de migration sont présents et numérotés dans l'ordre")
+    void migrations_ShouldBeOrderedAndPresent() throws Exception {
+        int previous = 0;
+        for (String migration : SchemaMigrator.MIGRATIONS) {
+            int version = SchemaMigrator.versionOf(migration);
+            assertEquals(previous + 1, version, "Version manquante ou en désordre : " + migration);
+            assertFalse(SchemaMigrator.readStatements("db/migration/" + migration).isEmpty());
+            previous = version;
+        }
+    }
+
+    @Test
+    @DisplayName("Le script est découpé en instructions sans les commentaires")
+    void readStatements_ShouldSplitScript() throws Exception {
+        List<String> statements = SchemaMigrator.readStatements("db/migration/V2__ticket_parking_indexes.sql");
+
+        assertEquals(3, statements.size());
+        assertTrue(statements.get(0).startsWith("create index IDX_TICKET_PLATE_OUT_TIME"));
+        assertFalse(statements.get(0).contains("/*"));
+    }
+
+    @Test
+    @DisplayName("Le trigger du script de base reste une seule instruction")
+    void readStatements_ShouldKeepTriggerInOneStatement() throws Exception {
+        List<String> statements = SchemaMigrator.readStatements("db/migration/V1__baseline.sql");
+
+        assertTrue(statements.stream().anyMatch(sql -> sql.startsWith("create trigger") && sql.contains("on duplicate key update")));
+        assertEquals("baseline", SchemaMigrator.descriptionOf("V1__baseline.sql"));
+    }
+
+    @Test
+    @DisplayName("Les create index et add column sont reconnus pour être sautés s'ils sont déjà appliqués")
+    void indexCreatedByAndColumnAddedBy_ShouldParseRerunnableDdl() throws Exception {
+        List<String> indexes = SchemaMigrator.readStatements("db/migration/V2__ticket_parking_indexes.sql");
+        List<String> columns = SchemaMigrator.readStatements("db/migration/V7__dashboard_counter_instance.sql");
+
+        assertArrayEquals(new String[]{"ticket", "IDX_TICKET_PLATE_OUT_TIME"}, SchemaMigrator.indexCreatedBy(indexes.get(0)));
+        assertArrayEquals(new String[]{"dashboard_counter", "INSTANCE"}, SchemaMigrator.columnAddedBy(columns.get(0)));
+        assertNull(SchemaMigrator.indexCreatedBy("create table if not exists ticket_archive (ID int)"));
+        assertNull(SchemaMigrator.columnAddedBy("alter table ticket modify PRICE decimal(10,2)"));
+    }
+
+    @Test
+    @DisplayName("Les bases créées par Data.sql ont le même trigger de comptage des visites que V1")
+    void dataScript_ShouldDeclareSameVisitTriggerAsBaseline() throws Exception {
+        String trigger = SchemaMigrator.readStatements("db/migration/V1__baseline.sql").stream()
+                .filter(sql -> sql.startsWith("create trigger ticket_visit_count"))
+                .findFirst().orElseThrow();
+        String dataScript = Files.readString(Path.of("resources", "Data.sql"), StandardCharsets.UTF_8);
+
+        // base de production et base de test
+        String normalized = dataScript.replaceAll("\\s+", " ");
+        String expected = trigger.replaceAll("\\s+", " ");
+        assertEquals(2, normalized.split(Pattern.quote(expected), -1).length - 1);
+    }
+}
@@ -0,0 +1,48 @@
+package com.parkit.parkingsystem.dao;
+
+import com.parkit.parkingsystem.config.DataBaseConfig;
+import com.parkit.parkingsystem.constants.DBConstants;
+import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.metrics.DashboardCounters;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+public class DashboardCheckpointerTest {
+
+    @Test
+    @DisplayName("Chaque point de reprise relit les places occupées en base, sorties des autres instances comprises")
+    void checkpoint_ShouldReloadOccupiedSpotsFromDataBase() throws Exception {
+        DataBaseConfig dataBaseConfig = mock(DataBaseConfig.class);
+        Connection connection = mock(Connection.class);
+        PreparedStatement save = mock(PreparedStatement.class);
+        PreparedStatement occupied = mock(PreparedStatement.class);
+        ResultSet rows = mock(ResultSet.class);
+        when(dataBaseConfig.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(DBConstants.SAVE_DASHBOARD_COUNTER)).thenReturn(save);
+        when(connection.prepareStatement(DBConstants.GET_OCCUPIED_SPOTS_BY_TYPE)).thenReturn(occupied);
+        when(occupied.executeQuery()).thenReturn(rows);
+        // plus aucune moto garée : pas de ligne BIKE
+        when(rows.next()).thenReturn(true, false);
+        when(rows.getString(1)).thenReturn("CAR");
+        when(rows.getLong(2)).thenReturn(7L);
+
+        DashboardCounters counters = new DashboardCounters();
+        counters.setOccupied(ParkingType.BIKE, 2);
+        counters.recordEntry(ParkingType.CAR, System.currentTimeMillis());
+        DashboardCheckpointer checkpointer = new DashboardCheckpointer(counters, "gate-1");
+        checkpointer.dataBaseConfig = dataBaseConfig;
+
+        assertEquals(2, checkpointer.checkpoint());
+
+        verify(save).executeBatch();
+        assertEquals(7, counters.getOccupied(ParkingType.CAR));
+        assertEquals(0, counters.getOccupied(ParkingType.BIKE));
+    }
+}
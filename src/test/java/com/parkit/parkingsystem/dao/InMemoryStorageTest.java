@@ -0,0 +1,95 @@
+package com.parkit.parkingsystem.dao;
+
+import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.integration.ParkingScenarios;
+import com.parkit.parkingsystem.metrics.LatencyMetrics;
+import com.parkit.parkingsystem.metrics.Operation;
+import com.parkit.parkingsystem.model.EntryResult;
+import com.parkit.parkingsystem.service.FareCalculatorService;
+import com.parkit.parkingsystem.service.ParkingService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// scénarios de ParkingScenarios sur le stockage en mémoire, plus la réservation concurrente
+public class InMemoryStorageTest extends ParkingScenarios {
+
+    @Override
+    protected void prepareStorage() {
+        InMemoryStore store = new InMemoryStore(InMemoryStore.parseLayout(InMemoryStore.DEFAULT_SPOTS));
+        parkingSpotDAO = new InMemoryParkingSpotDAO(store);
+        ticketDAO = new InMemoryTicketDAO(store);
+    }
+
+    @Test
+    @DisplayName("Les opérations en mémoire sont mesurées sous les mêmes Operation que les DAO JDBC")
+    void operations_ShouldRecordLatencies() {
+        LatencyMetrics.reset();
+
+        parkingService.enter("DDD444", ParkingType.CAR);
+        parkingService.exit("DDD444");
+
+        assertEquals(1, LatencyMetrics.get(Operation.TICKET_SAVE_INCOMING).getCount());
+        assertEquals(1, LatencyMetrics.get(Operation.TICKET_GET).getCount());
+        assertEquals(1, LatencyMetrics.get(Operation.TICKET_CLOSE).getCount());
+    }
+
+    @Test
+    @DisplayName("Des entrées simultanées ne réservent jamais deux fois la même place")
+    void enter_ShouldGiveEachSpotOnceUnderContention() throws Exception {
+        InMemoryStore store = new InMemoryStore(InMemoryStore.parseLayout("CAR:50"));
+        ParkingService service = new ParkingService(new InMemoryParkingSpotDAO(store), new InMemoryTicketDAO(store),
+                new FareCalculatorService());
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<EntryResult>> entries = new ArrayList<>();
+            for (int i = 0; i < 80; i++) {
+                String plate = "GATE-" + i;
+                entries.add(() -> service.enter(plate, ParkingType.CAR));
+            }
+            Set<Integer> spots = new HashSet<>();
+            int parked = 0;
+            for (Future<EntryResult> entry : executor.invokeAll(entries)) {
+                EntryResult result = entry.get();
+                if (result.isParked()) {
+                    parked++;
+                    assertTrue(spots.add(result.getTicket().getParkingSpot().getId()));
+                } else {
+                    assertEquals(EntryResult.Status.NO_SPOT_AVAILABLE, result.getStatus());
+                }
+            }
+            assertEquals(50, parked);
+            assertEquals(50, store.getTicketCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Le stockage en mémoire ne garde pas les tickets clos remplacés par une nouvelle visite")
+    void closedTickets_ShouldNotBeRetained() {
+        InMemoryStore store = new InMemoryStore(InMemoryStore.parseLayout("CAR:1"));
+        ParkingService service = new ParkingService(new InMemoryParkingSpotDAO(store), new InMemoryTicketDAO(store),
+                new FareCalculatorService());
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(service.enter("EEE555", ParkingType.CAR).isParked());
+            assertTrue(service.exit("EEE555").isExited());
+        }
+
+        assertEquals(100, store.getTicketCount());
+        assertEquals(0, store.getOpenTicketCount());
+        assertEquals(100, store.getNbTicket("EEE555"));
+        assertNotNull(store.getTicket("EEE555").getOutTime());
+    }
+}
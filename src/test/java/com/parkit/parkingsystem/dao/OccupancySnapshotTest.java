@@ -0,0 +1,130 @@
+package com.parkit.parkingsystem.dao;
+
+import com.parkit.parkingsystem.config.DataBaseConfig;
+import com.parkit.parkingsystem.constants.DBConstants;
+import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.model.ParkingSpot;
+import com.parkit.parkingsystem.model.Ticket;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class OccupancySnapshotTest {
+
+    @TempDir
+    Path directory;
+
+    private static OccupancySnapshot snapshot() {
+        Ticket ticket = new Ticket();
+        ticket.setId(42);
+        ticket.setVehicleRegNumber("AB-123-CD");
+        ticket.setParkingSpot(new ParkingSpot(2, ParkingType.CAR, false));
+        ticket.setInTime(new Date(1_700_000_000_000L));
+        List<ParkingSpot> parkingSpots = List.of(new ParkingSpot(1, ParkingType.CAR, true),
+                new ParkingSpot(2, ParkingType.CAR, false), new ParkingSpot(4, ParkingType.BIKE, true));
+        return new OccupancySnapshot(1_700_000_100_000L, parkingSpots, List.of(ticket));
+    }
+
+    @Test
+    @DisplayName("L'instantané relu contient les places et les tickets ouverts écrits")
+    void writeThenRead_ShouldRoundTrip() throws Exception {
+        Path file = directory.resolve("occupancy.snapshot");
+        snapshot().write(file);
+
+        OccupancySnapshot read = OccupancySnapshot.read(file);
+
+        assertEquals(1_700_000_100_000L, read.getCreatedMillis());
+        assertEquals(3, read.getParkingSpots().size());
+        assertEquals(new ParkingSpot(4, ParkingType.BIKE, true), read.getParkingSpots().get(2));
+        assertFalse(read.getParkingSpots().get(1).isAvailable());
+        Ticket ticket = read.getOpenTickets().get(0);
+        assertEquals(42, ticket.getId());
+        assertEquals("AB-123-CD", ticket.getVehicleRegNumber());
+        assertEquals(ParkingType.CAR, ticket.getParkingSpot().getParkingType());
+        assertEquals(1_700_000_000_000L, ticket.getInTime().getTime());
+        assertEquals(snapshot().getChecksum(), read.getChecksum());
+        assertFalse(Files.exists(directory.resolve("occupancy.snapshot.tmp")));
+    }
+
+    @Test
+    @DisplayName("Un instantané altéré est rejeté")
+    void read_ShouldRejectCorruptedFile() throws Exception {
+        Path file = directory.resolve("occupancy.snapshot");
+        snapshot().write(file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0x7F}), 37);
+        }
+
+        assertThrows(IOException.class, () -> OccupancySnapshot.read(file));
+    }
+
+    @Test
+    @DisplayName("L'instantané n'est utilisé que si son empreinte correspond à celle de la base")
+    void loadVerified_ShouldCompareWithDatabaseChecksum() throws Exception {
+        Path file = directory.resolve("occupancy.snapshot");
+        snapshot().write(file);
+        OccupancySnapshotManager manager = new OccupancySnapshotManager(file);
+        manager.dataBaseConfig = mock(DataBaseConfig.class);
+        Connection con = mock(Connection.class);
+        PreparedStatement ps = mock(PreparedStatement.class);
+        ResultSet rs = mock(ResultSet.class);
+        when(manager.dataBaseConfig.getConnection()).thenReturn(con);
+        when(con.prepareStatement(DBConstants.GET_OCCUPANCY_CHECKSUM)).thenReturn(ps);
+        when(ps.executeQuery()).thenReturn(rs);
+        when(rs.next()).thenReturn(true);
+        // 3 places, la place 2 occupée par le ticket 42
+        long spotCrcSum = OccupancySnapshot.crc32("1:1") + OccupancySnapshot.crc32("2:0") + OccupancySnapshot.crc32("4:1");
+        when(rs.getLong(1)).thenReturn(3L);
+        when(rs.getLong(2)).thenReturn(spotCrcSum);
+        when(rs.getLong(3)).thenReturn(1L);
+        when(rs.getLong(4)).thenReturn(OccupancySnapshot.crc32("42:2"));
+
+        assertNotNull(manager.loadVerified());
+
+        // un ticket ouvert depuis l'écriture de l'instantané
+        when(rs.getLong(3)).thenReturn(2L);
+        when(rs.getLong(4)).thenReturn(OccupancySnapshot.crc32("42:2") + OccupancySnapshot.crc32("43:1"));
+        assertNull(manager.loadVerified());
+    }
+
+    @Test
+    @DisplayName("Deux occupations différentes de même XOR ont des empreintes différentes")
+    void getChecksum_ShouldDistinguishOccupanciesWithSameXor() {
+        assertNotEquals(occupancy(1, 6).getChecksum(), occupancy(2, 5).getChecksum());
+    }
+
+    // places 1 à 6, seules les places données sont occupées
+    private static OccupancySnapshot occupancy(int... occupied) {
+        List<ParkingSpot> parkingSpots = new ArrayList<>();
+        for (int parkingNumber = 1; parkingNumber <= 6; parkingNumber++) {
+            final int number = parkingNumber;
+            parkingSpots.add(new ParkingSpot(number, ParkingType.CAR,
+                    Arrays.stream(occupied).noneMatch(spot -> spot == number)));
+        }
+        return new OccupancySnapshot(0, parkingSpots, List.of());
+    }
+
+    @Test
+    @DisplayName("Sans fichier, aucun instantané n'est chargé")
+    void loadVerified_ShouldReturnNullWithoutFile() {
+        assertNull(new OccupancySnapshotManager(directory.resolve("missing.snapshot")).loadVerified());
+    }
+}
@@ -0,0 +1,72 @@
+package com.parkit.parkingsystem.dao;
+
+import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.model.ParkingSpot;
+import com.parkit.parkingsystem.model.Ticket;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OpenTicketCacheTest {
+
+    private static Ticket createTicket(int id, String vehicleRegNumber) {
+        Ticket ticket = new Ticket();
+        ticket.setId(id);
+        ticket.setVehicleRegNumber(vehicleRegNumber);
+        ticket.setParkingSpot(new ParkingSpot(1, ParkingType.CAR, false));
+        ticket.setInTime(new Date());
+        return ticket;
+    }
+
+    @Test
+    @DisplayName("L'immatriculation est normalisée (espaces, casse)")
+    void get_ShouldNormalizePlate() {
+        OpenTicketCache cache = new OpenTicketCache(10);
+        cache.put(createTicket(1, "ab-123"));
+
+        assertNotNull(cache.get(" AB-123 "));
+        assertNull(cache.get("AB123"));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    @DisplayName("Les tickets fermés ou sans identifiant ne sont pas mis en cache")
+    void put_ShouldIgnoreClosedOrUnsavedTickets() {
+        OpenTicketCache cache = new OpenTicketCache(10);
+        Ticket closed = createTicket(1, "AAA");
+        closed.setOutTime(new Date());
+        cache.put(closed);
+        cache.put(createTicket(0, "BBB"));
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("Modifier le ticket retourné ne modifie pas le cache")
+    void get_ShouldReturnCopy() {
+        OpenTicketCache cache = new OpenTicketCache(10);
+        cache.put(createTicket(1, "AAA"));
+
+        cache.get("AAA").setOutTime(new Date());
+
+        assertNull(cache.get("AAA").getOutTime());
+    }
+
+    @Test
+    @DisplayName("Le cache est borné : l'entrée la moins récemment utilisée est évincée")
+    void put_ShouldEvictLeastRecentlyUsed() {
+        OpenTicketCache cache = new OpenTicketCache(2);
+        cache.put(createTicket(1, "AAA"));
+        cache.put(createTicket(2, "BBB"));
+        cache.get("AAA");
+        cache.put(createTicket(3, "CCC"));
+
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get("AAA"));
+        assertNull(cache.get("BBB"));
+    }
+}
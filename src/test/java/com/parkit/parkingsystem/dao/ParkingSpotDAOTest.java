@@ -80,4 +80,124 @@ public class ParkingSpotDAOTest {
         assertFalse(updated);
     }
 
+    @Test
+    void testClaimNextAvailableSlot_success() throws Exception {
+        when(mockConnection.prepareStatement(DBConstants.CLAIM_NEXT_PARKING_SPOT)).thenReturn(mockPreparedStatement);
+        when(mockConnection.prepareStatement(DBConstants.UPDATE_PARKING_SPOT)).thenReturn(mockPreparedStatement);
+        when(mockPreparedStatement.executeQuery()).thenReturn(mockResultSet);
+        when(mockResultSet.next()).thenReturn(true);
+        when(mockResultSet.getInt(1)).thenReturn(7);
+        parkingSpotDAO.setPreferredStartSpot(6);
+
+        int result = parkingSpotDAO.claimNextAvailableSlot(ParkingType.CAR);
+
+        assertEquals(7, result);
+        verify(mockPreparedStatement).setString(1, "CAR");
+        verify(mockPreparedStatement).setInt(2, 6); // recherche à partir de la zone de la borne
+        verify(mockPreparedStatement).setBoolean(1, false);
+        verify(mockPreparedStatement).setInt(2, 7);
+        verify(mockConnection).commit();
+    }
+
+    @Test
+    void testClaimNextAvailableSlot_noSpot() throws Exception {
+        when(mockConnection.prepareStatement(DBConstants.CLAIM_NEXT_PARKING_SPOT)).thenReturn(mockPreparedStatement);
+        when(mockPreparedStatement.executeQuery()).thenReturn(mockResultSet);
+        when(mockResultSet.next()).thenReturn(false);
+
+        int result = parkingSpotDAO.claimNextAvailableSlot(ParkingType.BIKE);
+
+        assertEquals(-1, result);
+        verify(mockConnection, never()).prepareStatement(DBConstants.UPDATE_PARKING_SPOT);
+    }
+
+    @Test
+    void testClaimNextAvailableSlot_wrapsBeforePreferredStart() throws Exception {
+        PreparedStatement beforeStatement = mock(PreparedStatement.class);
+        ResultSet beforeResultSet = mock(ResultSet.class);
+        when(mockConnection.prepareStatement(DBConstants.CLAIM_NEXT_PARKING_SPOT)).thenReturn(mockPreparedStatement);
+        when(mockConnection.prepareStatement(DBConstants.CLAIM_NEXT_PARKING_SPOT_BEFORE)).thenReturn(beforeStatement);
+        when(mockConnection.prepareStatement(DBConstants.UPDATE_PARKING_SPOT)).thenReturn(mock(PreparedStatement.class));
+        when(mockPreparedStatement.executeQuery()).thenReturn(mockResultSet);
+        when(mockResultSet.next()).thenReturn(false); // rien à partir de la zone de la borne
+        when(beforeStatement.executeQuery()).thenReturn(beforeResultSet);
+        when(beforeResultSet.next()).thenReturn(true);
+        when(beforeResultSet.getInt(1)).thenReturn(2);
+        parkingSpotDAO.setPreferredStartSpot(6);
+
+        int result = parkingSpotDAO.claimNextAvailableSlot(ParkingType.CAR);
+
+        assertEquals(2, result);
+        verify(beforeStatement).setInt(2, 6);
+    }
+
+    @Test
+    void testGetNextAvailableSlot_fromAvailabilityIndex() throws Exception {
+        // chargement de l'index : places 1 (CAR, occupée) et 2 (CAR, libre)
+        PreparedStatement loadStatement = mock(PreparedStatement.class);
+        ResultSet loadResultSet = mock(ResultSet.class);
+        when(mockConnection.prepareStatement(DBConstants.GET_ALL_PARKING_SPOTS)).thenReturn(loadStatement);
+        when(loadStatement.executeQuery()).thenReturn(loadResultSet);
+        when(loadResultSet.next()).thenReturn(true, true, false);
+        when(loadResultSet.getInt(1)).thenReturn(1, 2);
+        when(loadResultSet.getString(2)).thenReturn("CAR");
+        when(loadResultSet.getBoolean(3)).thenReturn(false, true);
+        assertTrue(parkingSpotDAO.enableAvailabilityIndex(0));
+
+        when(mockConnection.prepareStatement(DBConstants.UPDATE_PARKING_SPOT)).thenReturn(mockPreparedStatement);
+        when(mockPreparedStatement.executeUpdate()).thenReturn(1);
+
+        assertEquals(2, parkingSpotDAO.getNextAvailableSlot(ParkingType.CAR));
+        parkingSpotDAO.updateParking(new ParkingSpot(2, ParkingType.CAR, false)); // écriture en base puis dans l'index
+        assertEquals(-1, parkingSpotDAO.getNextAvailableSlot(ParkingType.CAR));
+
+        verify(mockConnection, never()).prepareStatement(DBConstants.GET_NEXT_PARKING_SPOT);
+        verify(mockPreparedStatement).executeUpdate();
+    }
+
+    @Test
+    void testClaimNextAvailableSlot_startsFromAvailabilityIndex() throws Exception {
+        // index : places 1 à 3 CAR, seule la 3 est libre
+        PreparedStatement loadStatement = mock(PreparedStatement.class);
+        ResultSet loadResultSet = mock(ResultSet.class);
+        when(mockConnection.prepareStatement(DBConstants.GET_ALL_PARKING_SPOTS)).thenReturn(loadStatement);
+        when(loadStatement.executeQuery()).thenReturn(loadResultSet);
+        when(loadResultSet.next()).thenReturn(true, true, true, false);
+        when(loadResultSet.getInt(1)).thenReturn(1, 2, 3);
+        when(loadResultSet.getString(2)).thenReturn("CAR");
+        when(loadResultSet.getBoolean(3)).thenReturn(false, false, true);
+        assertTrue(parkingSpotDAO.enableAvailabilityIndex(0));
+
+        PreparedStatement claimStatement = mock(PreparedStatement.class);
+        ResultSet claimResultSet = mock(ResultSet.class);
+        when(mockConnection.prepareStatement(DBConstants.CLAIM_NEXT_PARKING_SPOT)).thenReturn(claimStatement);
+        when(claimStatement.executeQuery()).thenReturn(claimResultSet);
+        when(claimResultSet.next()).thenReturn(true);
+        when(claimResultSet.getInt(1)).thenReturn(3);
+        when(mockConnection.prepareStatement(DBConstants.UPDATE_PARKING_SPOT)).thenReturn(mockPreparedStatement);
+
+        assertEquals(3, parkingSpotDAO.claimNextAvailableSlot(ParkingType.CAR));
+
+        verify(claimStatement).setInt(2, 3);
+        assertFalse(parkingSpotDAO.getAvailabilityIndex().isAvailable(3));
+    }
+
+    @Test
+    void testReloadAvailabilityIndex_keepsIndexInstance() throws Exception {
+        PreparedStatement loadStatement = mock(PreparedStatement.class);
+        ResultSet loadResultSet = mock(ResultSet.class);
+        when(mockConnection.prepareStatement(DBConstants.GET_ALL_PARKING_SPOTS)).thenReturn(loadStatement);
+        when(loadStatement.executeQuery()).thenReturn(loadResultSet);
+        when(loadResultSet.next()).thenReturn(true, false, true, false);
+        when(loadResultSet.getInt(1)).thenReturn(1);
+        when(loadResultSet.getString(2)).thenReturn("CAR");
+        when(loadResultSet.getBoolean(3)).thenReturn(true, false);
+        assertTrue(parkingSpotDAO.enableAvailabilityIndex(0));
+        SpotAvailabilityIndex index = parkingSpotDAO.getAvailabilityIndex();
+
+        assertTrue(parkingSpotDAO.reloadAvailabilityIndex());
+
+        assertSame(index, parkingSpotDAO.getAvailabilityIndex());
+        assertFalse(index.isAvailable(1));
+    }
 }
@@ -0,0 +1,110 @@
+package com.parkit.parkingsystem.dao;
+
+import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.model.ParkingSpot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SpotAvailabilityIndexTest {
+
+    private SpotAvailabilityIndex index;
+
+    @BeforeEach
+    void setUp() {
+        List<ParkingSpot> parkingSpots = new ArrayList<>();
+        parkingSpots.add(new ParkingSpot(1, ParkingType.CAR, false));
+        parkingSpots.add(new ParkingSpot(2, ParkingType.CAR, true));
+        parkingSpots.add(new ParkingSpot(3, ParkingType.CAR, true));
+        parkingSpots.add(new ParkingSpot(4, ParkingType.BIKE, true));
+        parkingSpots.add(new ParkingSpot(130, ParkingType.BIKE, true));
+        index = new SpotAvailabilityIndex(parkingSpots);
+    }
+
+    @Test
+    @DisplayName("La prochaine place libre est la plus petite place libre du type demandé")
+    void nextAvailable_ShouldReturnLowestFreeSpotOfType() {
+        assertEquals(2, index.nextAvailable(ParkingType.CAR));
+        assertEquals(4, index.nextAvailable(ParkingType.BIKE));
+    }
+
+    @Test
+    @DisplayName("Occuper puis libérer une place met à jour l'index")
+    void setAvailable_ShouldUpdateIndex() {
+        index.setAvailable(4, false);
+        assertEquals(130, index.nextAvailable(ParkingType.BIKE));
+        assertEquals(1, index.countAvailable(ParkingType.BIKE));
+
+        index.setAvailable(4, true);
+        assertTrue(index.isAvailable(4));
+        assertEquals(4, index.nextAvailable(ParkingType.BIKE));
+    }
+
+    @Test
+    @DisplayName("Retourne -1 quand plus aucune place du type n'est libre")
+    void nextAvailable_ShouldReturnMinusOne_WhenFull() {
+        index.setAvailable(2, false);
+        index.setAvailable(3, false);
+
+        assertEquals(-1, index.nextAvailable(ParkingType.CAR));
+        assertEquals(0, index.countAvailable(ParkingType.CAR));
+    }
+
+    @Test
+    @DisplayName("Une place inconnue de l'index est ignorée")
+    void setAvailable_ShouldIgnoreUnknownSpot() {
+        assertFalse(index.setAvailable(999, true));
+        assertFalse(index.setAvailable(5, true));
+        assertNull(index.typeOf(5));
+    }
+
+    @Test
+    @DisplayName("Réserver une place la retire de l'index, -1 quand le type est complet")
+    void claimNextAvailable_ShouldTakeEachSpotOnce() {
+        assertEquals(4, index.claimNextAvailable(ParkingType.BIKE));
+        assertEquals(130, index.claimNextAvailable(ParkingType.BIKE));
+        assertEquals(-1, index.claimNextAvailable(ParkingType.BIKE));
+        assertFalse(index.isAvailable(130));
+    }
+
+    @Test
+    @DisplayName("La recherche à partir d'une place ignore les places libres situées avant")
+    void nextAvailable_ShouldStartFromGivenSpot() {
+        assertEquals(3, index.nextAvailable(ParkingType.CAR, 3));
+        assertEquals(130, index.nextAvailable(ParkingType.BIKE, 5));
+        assertEquals(-1, index.nextAvailable(ParkingType.CAR, 4));
+    }
+
+    @Test
+    @DisplayName("La resynchronisation n'écrase pas une place modifiée pendant la relecture de la table")
+    void reload_ShouldKeepUpdatesMadeDuringReload() {
+        List<ParkingSpot> table = new ArrayList<>();
+        table.add(new ParkingSpot(1, ParkingType.CAR, true));
+        table.add(new ParkingSpot(2, ParkingType.CAR, true));
+        table.add(new ParkingSpot(3, ParkingType.CAR, true));
+
+        index.beginReload();
+        index.setAvailable(2, false); // entrée validée après la lecture de la table
+
+        assertTrue(index.reload(table));
+        assertTrue(index.isAvailable(1));
+        assertFalse(index.isAvailable(2));
+        assertTrue(index.isAvailable(3));
+    }
+
+    @Test
+    @DisplayName("Une place ajoutée en base impose de reconstruire l'index")
+    void reload_ShouldRefuseUnknownSpot() {
+        List<ParkingSpot> table = new ArrayList<>();
+        table.add(new ParkingSpot(5, ParkingType.CAR, true));
+
+        index.beginReload();
+
+        assertFalse(index.reload(table));
+    }
+}
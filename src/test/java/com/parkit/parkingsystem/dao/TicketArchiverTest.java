@@ -0,0 +1,86 @@
+package com.parkit.parkingsystem.dao;
+
+import com.parkit.parkingsystem.config.DataBaseConfig;
+import com.parkit.parkingsystem.constants.DBConstants;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class TicketArchiverTest {
+
+    private TicketArchiver archiver;
+    private Connection con;
+    private PreparedStatement select;
+    private PreparedStatement copy;
+    private PreparedStatement delete;
+    private ResultSet rs;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        archiver = new TicketArchiver(0, 2);
+        archiver.dataBaseConfig = mock(DataBaseConfig.class);
+        con = mock(Connection.class);
+        select = mock(PreparedStatement.class);
+        copy = mock(PreparedStatement.class);
+        delete = mock(PreparedStatement.class);
+        rs = mock(ResultSet.class);
+        when(archiver.dataBaseConfig.getConnection()).thenReturn(con);
+        when(con.prepareStatement(DBConstants.GET_ARCHIVABLE_TICKET_IDS)).thenReturn(select);
+        when(con.prepareStatement(DBConstants.ARCHIVE_TICKET)).thenReturn(copy);
+        when(con.prepareStatement(DBConstants.DELETE_ARCHIVED_TICKET)).thenReturn(delete);
+        when(select.executeQuery()).thenReturn(rs);
+    }
+
+    @Test
+    @DisplayName("Les tickets du lot sont copiés dans l'archive puis supprimés, dans une seule transaction")
+    void archiveBatch_ShouldCopyThenDeleteInOneTransaction() throws Exception {
+        when(rs.next()).thenReturn(true, true, false);
+        when(rs.getInt(1)).thenReturn(7, 9);
+
+        int moved = archiver.archiveBatch(new Timestamp(0));
+
+        assertEquals(2, moved);
+        verify(con).setAutoCommit(false);
+        verify(copy).setInt(1, 7);
+        verify(delete).setInt(1, 9);
+        verify(copy).executeBatch();
+        verify(delete).executeBatch();
+        verify(con).commit();
+        verify(archiver.dataBaseConfig).closeConnection(con);
+    }
+
+    @Test
+    @DisplayName("Les lots s'enchaînent tant qu'ils sont pleins")
+    void archive_ShouldLoopUntilBatchIsNotFull() throws Exception {
+        // 2 + 1 tickets : le deuxième lot incomplet termine le passage
+        when(rs.next()).thenReturn(true, true, false, true, false);
+        when(rs.getInt(1)).thenReturn(1, 2, 3);
+
+        assertEquals(3, archiver.archive());
+        verify(con, times(2)).commit();
+    }
+
+    @Test
+    @DisplayName("En cas d'erreur, le lot est annulé et rien n'est supprimé")
+    void archiveBatch_ShouldRollbackOnFailure() throws Exception {
+        when(rs.next()).thenReturn(true, false);
+        when(rs.getInt(1)).thenReturn(7);
+        when(copy.executeBatch()).thenThrow(new SQLException("archive table missing"));
+
+        assertThrows(SQLException.class, () -> archiver.archiveBatch(new Timestamp(0)));
+
+        verify(con).rollback();
+        verify(delete, never()).executeBatch();
+        verify(con, never()).commit();
+        verify(archiver.dataBaseConfig).closeConnection(con);
+    }
+}
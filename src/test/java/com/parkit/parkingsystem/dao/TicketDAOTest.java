@@ -1,7 +1,13 @@
 package com.parkit.parkingsystem.dao;
 
 import com.parkit.parkingsystem.config.DataBaseConfig;
+import com.parkit.parkingsystem.constants.DBConstants;
 import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.metrics.LatencyMetrics;
+import com.parkit.parkingsystem.metrics.Operation;
+import com.parkit.parkingsystem.model.EntryResult;
+import com.parkit.parkingsystem.model.ExitResult;
+import com.parkit.parkingsystem.model.ImportResult;
 import com.parkit.parkingsystem.model.ParkingSpot;
 import com.parkit.parkingsystem.model.Ticket;
 import org.junit.jupiter.api.BeforeEach;
@@ -12,8 +18,13 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.math.BigDecimal;
 import java.sql.*;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -55,6 +66,7 @@ class TicketDAOTest {
 
         // Simule la création d'un PreparedStatement
         lenient().when(mockConnection.prepareStatement(anyString())).thenReturn(mockPreparedStatement);
+        lenient().when(mockConnection.prepareStatement(anyString(), anyInt())).thenReturn(mockPreparedStatement);
     }
     
 
@@ -71,7 +83,7 @@ class TicketDAOTest {
         assertTrue(result); // Vérifie que le ticket de sortie est bien enregistré
         verify(mockPreparedStatement, times(1)).setInt(1, ticket.getParkingSpot().getId());
         verify(mockPreparedStatement, times(1)).setString(2, ticket.getVehicleRegNumber());
-        verify(mockPreparedStatement, times(1)).setDouble(3, ticket.getPrice());
+        verify(mockPreparedStatement, times(1)).setBigDecimal(3, BigDecimal.valueOf(ticket.getPriceCents(), 2));
         verify(mockPreparedStatement, times(1)).setTimestamp(4, new Timestamp(ticket.getInTime().getTime()));
         verify(mockPreparedStatement, times(1)).setTimestamp(5, new Timestamp(ticket.getOutTime().getTime()));
         verify(mockPreparedStatement, times(1)).executeUpdate();
@@ -99,7 +111,7 @@ class TicketDAOTest {
         assertTrue(result); // Vérifie que le ticket d'entrée est bien enregistré 
         verify(mockPreparedStatement, times(1)).setInt(1, ticket.getParkingSpot().getId());
         verify(mockPreparedStatement, times(1)).setString(2, ticket.getVehicleRegNumber());
-        verify(mockPreparedStatement, times(1)).setDouble(3, ticket.getPrice());
+        verify(mockPreparedStatement, times(1)).setBigDecimal(3, BigDecimal.valueOf(ticket.getPriceCents(), 2));
         verify(mockPreparedStatement, times(1)).setTimestamp(4, new Timestamp(ticket.getInTime().getTime()));
         verify(mockPreparedStatement, times(1)).setNull(5, Types.TIMESTAMP); // car outTime == null
         verify(mockPreparedStatement, times(1)).executeUpdate();
@@ -143,7 +155,7 @@ class TicketDAOTest {
         when(resultSet.next()).thenReturn(true);
         when(resultSet.getInt(1)).thenReturn(3);
         when(resultSet.getInt(2)).thenReturn(12);
-        when(resultSet.getDouble(3)).thenReturn(8.5);
+        when(resultSet.getBigDecimal(3)).thenReturn(new BigDecimal("8.50"));
         when(resultSet.getTimestamp(4)).thenReturn(new Timestamp(ticket.getInTime().getTime()));
         when(resultSet.getTimestamp(5)).thenReturn(new Timestamp(ticket.getOutTime().getTime()));
         when(resultSet.getString(6)).thenReturn("CAR");
@@ -154,11 +166,40 @@ class TicketDAOTest {
         // THEN
         assertNotNull(result);
         assertEquals("ABC123", result.getVehicleRegNumber());
-        assertEquals(8.5, result.getPrice());
+        assertEquals(850, result.getPriceCents());
         assertEquals(3, result.getParkingSpot().getId());
     }
 
     
+    @Test
+    @DisplayName("Un ticket absent de la table chaude est lu dans l'archive")
+    void testGetTicket_FallsThroughToArchive() throws Exception {
+        // GIVEN : GET_TICKET ne trouve rien, GET_ARCHIVED_TICKET trouve le ticket
+        PreparedStatement archiveStatement = mock(PreparedStatement.class);
+        ResultSet archiveResultSet = mock(ResultSet.class);
+        when(mockConnection.prepareStatement(DBConstants.GET_ARCHIVED_TICKET)).thenReturn(archiveStatement);
+        when(mockPreparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(false);
+        when(archiveStatement.executeQuery()).thenReturn(archiveResultSet);
+        when(archiveResultSet.next()).thenReturn(true);
+        when(archiveResultSet.getInt(1)).thenReturn(3);
+        when(archiveResultSet.getInt(2)).thenReturn(12);
+        when(archiveResultSet.getBigDecimal(3)).thenReturn(new BigDecimal("8.50"));
+        when(archiveResultSet.getTimestamp(4)).thenReturn(new Timestamp(ticket.getInTime().getTime()));
+        when(archiveResultSet.getTimestamp(5)).thenReturn(new Timestamp(ticket.getOutTime().getTime()));
+        when(archiveResultSet.getString(6)).thenReturn("CAR");
+
+        // WHEN
+        Ticket result = ticketDAO.getTicket("ABC123");
+
+        // THEN
+        assertNotNull(result);
+        assertEquals(12, result.getId());
+        assertNotNull(result.getOutTime());
+        verify(mockConnection).prepareStatement(DBConstants.GET_TICKET);
+        verify(mockDataBaseConfig, times(1)).closeConnection(mockConnection);
+    }
+
     @Test
     @DisplayName("Echec récupération ticket lié à une exception")
     void testGetTicket_ThrowsException() throws Exception {
@@ -174,13 +215,41 @@ class TicketDAOTest {
         // Vérifier que la requête SQL n'a pas avancé
         verify(resultSet, never()).next(); // Le ResultSet ne doit jamais être parcouru
     }
+
+    @Test
+    @DisplayName("getTicketAsync propage l'exception SQL au lieu de renvoyer null")
+    void testGetTicketAsync_PropagatesException() throws Exception {
+        // GIVEN
+        SQLException failure = new SQLException("Query failed");
+        when(mockPreparedStatement.executeQuery()).thenThrow(failure);
+
+        // WHEN
+        CompletionException thrown = assertThrows(CompletionException.class,
+                () -> ticketDAO.getTicketAsync("ABC123").join());
+
+        // THEN
+        assertSame(failure, thrown.getCause());
+        verify(mockDataBaseConfig, times(1)).closeConnection(mockConnection);
+    }
+
+    @Test
+    @DisplayName("getNbTicketAsync renvoie le nombre de visites")
+    void testGetNbTicketAsync() throws Exception {
+        // GIVEN
+        when(mockPreparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getInt(1)).thenReturn(3);
+
+        // WHEN / THEN
+        assertEquals(3, ticketDAO.getNbTicketAsync("ABC123").get(5, TimeUnit.SECONDS));
+    }
     
     
     @Test
     @DisplayName("Echec mise à jour ticket lié à exception")
     void testUpdateTicket_WhenExecuteFails() throws Exception {
         // GIVEN
-        when(mockPreparedStatement.execute()).thenThrow(new SQLException("Update failed"));
+        when(mockPreparedStatement.executeUpdate()).thenThrow(new SQLException("Update failed"));
 
         // WHEN
         boolean result = ticketDAO.updateTicket(ticket);
@@ -189,10 +258,30 @@ class TicketDAOTest {
         assertFalse(result, "Si l'update échoue, la méthode doit retourner `false`");
 
         // Vérifier que la requête a bien été tentée
-        verify(mockPreparedStatement, times(1)).setDouble(1, ticket.getPrice());
+        verify(mockPreparedStatement, times(1)).setBigDecimal(1, BigDecimal.valueOf(ticket.getPriceCents(), 2));
     }
     
 
+    @Test
+    @DisplayName("Clôture conditionnelle : NO_TICKET si le ticket est déjà clos en base")
+    void testCloseTicket_WhenAlreadyClosed() throws Exception {
+        // GIVEN : OUT_TIME déjà renseigné par une autre borne, aucune ligne modifiée
+        when(mockPreparedStatement.executeUpdate()).thenReturn(0, 1);
+        LatencyMetrics.reset();
+
+        // WHEN / THEN
+        assertEquals(ExitResult.Status.NO_TICKET, ticketDAO.closeTicket(ticket));
+        assertEquals(ExitResult.Status.EXITED, ticketDAO.closeTicket(ticket));
+        verify(mockConnection, times(2)).prepareStatement(DBConstants.UPDATE_TICKET);
+        // place libérée dans la transaction de la seule clôture effective
+        verify(mockConnection, times(1)).prepareStatement(DBConstants.UPDATE_PARKING_SPOT);
+        verify(mockConnection, times(2)).commit();
+        assertTrue(ticket.getParkingSpot().isAvailable());
+        // mesurées comme sorties, pas comme mises à jour
+        assertEquals(2, LatencyMetrics.get(Operation.TICKET_CLOSE).getCount());
+        assertEquals(0, LatencyMetrics.get(Operation.TICKET_UPDATE).getCount());
+    }
+
     @Test
     @DisplayName("Compte le nombre de tickets pour un véhicule")
     void testGetNbTicket() throws Exception {
@@ -253,4 +342,143 @@ class TicketDAOTest {
         // THEN
         assertTrue(isParked);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Entrée complète en une transaction : place réservée, ticket créé, nb de visites retourné")
+    void testSaveIncomingTicket_Parked() throws Exception {
+        // GIVEN : pas de ticket ouvert, place 2 libre, 3 visites au total
+        when(mockPreparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getInt(1)).thenReturn(0, 2, 3);
+        Date inTime = new Date();
+
+        // WHEN
+        EntryResult entry = ticketDAO.saveIncomingTicket(ParkingType.CAR, "ABC123", inTime);
+
+        // THEN
+        assertTrue(entry.isParked());
+        assertEquals(2, entry.getTicket().getParkingSpot().getId());
+        assertEquals(3, entry.getNbTickets());
+        verify(mockConnection, times(1)).setAutoCommit(false);
+        verify(mockConnection, times(1)).commit();
+        verify(mockConnection, never()).rollback();
+        verify(mockDataBaseConfig, times(1)).closeConnection(mockConnection);
+        verify(mockPreparedStatement, times(1)).setTimestamp(4, new Timestamp(inTime.getTime()));
+    }
+
+    @Test
+    @DisplayName("Entrée refusée et transaction annulée si l'immatriculation est déjà garée")
+    void testSaveIncomingTicket_AlreadyParked() throws Exception {
+        // GIVEN
+        when(mockPreparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getInt(1)).thenReturn(1);
+
+        // WHEN
+        EntryResult entry = ticketDAO.saveIncomingTicket(ParkingType.CAR, "ABC123", new Date());
+
+        // THEN
+        assertEquals(EntryResult.Status.ALREADY_PARKED, entry.getStatus());
+        verify(mockConnection, times(1)).rollback();
+        verify(mockConnection, never()).commit();
+        // le contrôle a lieu sous le verrou de l'immatriculation, aucun ticket n'est inséré
+        verify(mockConnection).prepareStatement(DBConstants.LOCK_VEHICLE_VISIT);
+        verify(mockConnection, never()).prepareStatement(eq(DBConstants.SAVE_TICKET), anyInt());
+    }
+
+    @Test
+    @DisplayName("Le ticket ouvert enregistré est servi depuis le cache jusqu'à sa clôture")
+    void testOpenTicketCache_PopulatedOnSaveAndEvictedOnUpdate() throws Exception {
+        // GIVEN : cache activé, la base renvoie l'identifiant généré 42
+        ticketDAO.openTicketCache = new OpenTicketCache(10);
+        ticket.setOutTime(null);
+        when(mockPreparedStatement.executeUpdate()).thenReturn(1);
+        when(mockPreparedStatement.getGeneratedKeys()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getInt(1)).thenReturn(42);
+
+        // WHEN
+        ticketDAO.saveTicket(ticket);
+        Ticket cached = ticketDAO.getTicket(" abc123 ");
+
+        // THEN : servi depuis le cache, sans requête GET_TICKET
+        assertNotNull(cached);
+        assertEquals(42, cached.getId());
+        verify(mockPreparedStatement, never()).executeQuery();
+        assertEquals(1, ticketDAO.openTicketCache.getHits());
+
+        // WHEN : sortie du véhicule
+        cached.setOutTime(new Date());
+        ticketDAO.updateTicket(cached);
+
+        // THEN
+        assertEquals(0, ticketDAO.openTicketCache.size());
+    }
+
+    @Test
+    @DisplayName("Un ticket en cache clôturé par une autre borne ne bloque pas l'entrée : la base fait foi")
+    void testSaveIncomingTicket_StaleCacheEntry() throws Exception {
+        // GIVEN : ticket ouvert en cache, aucun ticket ouvert en base, place 2 libre, 2 visites au total
+        ticketDAO.openTicketCache = new OpenTicketCache(10);
+        ticket.setOutTime(null);
+        ticketDAO.openTicketCache.put(ticket);
+        when(mockPreparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(mockPreparedStatement.getGeneratedKeys()).thenReturn(resultSet);
+        when(resultSet.getInt(1)).thenReturn(0, 2, 3, 2);
+
+        // WHEN
+        EntryResult entry = ticketDAO.saveIncomingTicket(ParkingType.CAR, "ABC123", new Date());
+
+        // THEN : contrôle en base sous le verrou de l'immatriculation, le nouveau ticket remplace l'ancien en cache
+        assertTrue(entry.isParked());
+        verify(mockConnection).prepareStatement(DBConstants.LOCK_VEHICLE_VISIT);
+        verify(mockConnection).prepareStatement(DBConstants.IS_VEHICLE_ALREADY_PARKED);
+        assertEquals(3, ticketDAO.openTicketCache.get("ABC123").getId());
+    }
+
+    @Test
+    @DisplayName("L'import en lot envoie un executeBatch par lot et valide par tranche")
+    void testSaveTickets_BatchesAndCommitsByChunk() throws Exception {
+        // GIVEN : 5 tickets, lots de 2, commit toutes les 4 lignes
+        List<Ticket> tickets = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            tickets.add(ticket);
+        }
+
+        // WHEN
+        ImportResult result = ticketDAO.saveTickets(tickets, 2, 4);
+
+        // THEN
+        assertTrue(result.isComplete());
+        assertEquals(5, result.getRowsImported());
+        assertEquals(3, result.getBatches());
+        verify(mockPreparedStatement, times(5)).addBatch();
+        verify(mockPreparedStatement, times(3)).executeBatch();
+        verify(mockConnection, times(2)).commit();
+        verify(mockPreparedStatement, never()).executeUpdate();
+    }
+
+    @Test
+    @DisplayName("Un lot en échec annule la tranche en cours et conserve les tranches validées")
+    void testSaveTickets_RollsBackFailedChunk() throws Exception {
+        // GIVEN : le troisième lot échoue, la première tranche (4 lignes) est déjà validée
+        List<Ticket> tickets = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            tickets.add(ticket);
+        }
+        when(mockPreparedStatement.executeBatch())
+                .thenReturn(new int[]{1, 1})
+                .thenReturn(new int[]{1, 1})
+                .thenThrow(new BatchUpdateException());
+
+        // WHEN
+        ImportResult result = ticketDAO.saveTickets(tickets, 2, 4);
+
+        // THEN
+        assertFalse(result.isComplete());
+        assertEquals(4, result.getRowsImported());
+        verify(mockConnection, times(1)).commit();
+        verify(mockConnection, times(1)).rollback();
+    }
+}
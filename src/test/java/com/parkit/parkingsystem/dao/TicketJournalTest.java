@@ -0,0 +1,106 @@
+package com.parkit.parkingsystem.dao;
+
+import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.model.ParkingSpot;
+import com.parkit.parkingsystem.model.Ticket;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TicketJournalTest {
+
+    private static final int CAPACITY = 4096;
+
+    @TempDir
+    Path directory;
+
+    private static Ticket ticket(String vehicleRegNumber, int id) {
+        Ticket ticket = new Ticket();
+        ticket.setId(id);
+        ticket.setVehicleRegNumber(vehicleRegNumber);
+        ticket.setParkingSpot(new ParkingSpot(2, ParkingType.BIKE, false));
+        ticket.setInTime(new Date(1_700_000_000_000L));
+        ticket.setPriceCents(150);
+        return ticket;
+    }
+
+    @Test
+    @DisplayName("Les écritures non appliquées en base sont relues à la réouverture, dans l'ordre")
+    void reopen_ShouldRecoverUncheckpointedRecords() throws Exception {
+        Path file = directory.resolve("tickets.journal");
+        try (TicketJournal journal = new TicketJournal(file, CAPACITY)) {
+            TicketJournal.Record first = journal.write(TicketJournal.INSERT, ticket("AA-111", 0));
+            Ticket closed = ticket("BB-222", 7);
+            closed.setOutTime(new Date(1_700_000_360_000L));
+            TicketJournal.Record second = journal.write(TicketJournal.UPDATE, closed);
+            journal.awaitDurable(second.getEndPosition());
+            assertEquals(0, first.getSequence());
+        }
+
+        try (TicketJournal journal = new TicketJournal(file, CAPACITY)) {
+            List<TicketJournal.Record> recovered = journal.getRecoveredRecords();
+            assertEquals(2, recovered.size());
+            assertEquals(TicketJournal.INSERT, recovered.get(0).getType());
+            assertEquals("AA-111", recovered.get(0).getTicket().getVehicleRegNumber());
+            Ticket update = recovered.get(1).getTicket();
+            assertEquals(7, update.getId());
+            assertEquals(ParkingType.BIKE, update.getParkingSpot().getParkingType());
+            assertEquals(1_700_000_360_000L, update.getOutTime().getTime());
+            assertEquals(150, update.getPriceCents());
+        }
+    }
+
+    @Test
+    @DisplayName("Seules les écritures après le checkpoint sont rejouées")
+    void checkpoint_ShouldSkipAppliedRecords() throws Exception {
+        Path file = directory.resolve("tickets.journal");
+        try (TicketJournal journal = new TicketJournal(file, CAPACITY)) {
+            journal.write(TicketJournal.INSERT, ticket("AA-111", 0));
+            TicketJournal.Record last = journal.write(TicketJournal.INSERT, ticket("BB-222", 0));
+            journal.awaitDurable(last.getEndPosition());
+
+            List<TicketJournal.Record> read = journal.readDurable(1);
+            assertEquals(1, read.size());
+            journal.checkpoint(read.get(0));
+        }
+
+        try (TicketJournal journal = new TicketJournal(file, CAPACITY)) {
+            List<TicketJournal.Record> recovered = journal.getRecoveredRecords();
+            assertEquals(1, recovered.size());
+            assertEquals("BB-222", recovered.get(0).getTicket().getVehicleRegNumber());
+        }
+    }
+
+    @Test
+    @DisplayName("L'espace libéré par le checkpoint est réutilisé en anneau, le journal plein refuse l'écriture")
+    void write_ShouldWrapAroundAndRefuseWhenFull() throws Exception {
+        try (TicketJournal journal = new TicketJournal(directory.resolve("tickets.journal"), CAPACITY)) {
+            int written = 0;
+            TicketJournal.Record record;
+            while ((record = journal.write(TicketJournal.INSERT, ticket("CC-" + written, 0))) != null) {
+                journal.awaitDurable(record.getEndPosition());
+                written++;
+            }
+            assertTrue(written > 10);
+
+            // tout est appliqué : le journal accepte de nouveau un tour complet
+            List<TicketJournal.Record> read = journal.readDurable(Integer.MAX_VALUE);
+            assertEquals(written, read.size());
+            journal.checkpoint(read.get(read.size() - 1));
+            for (int i = 0; i < written; i++) {
+                record = journal.write(TicketJournal.INSERT, ticket("DD-" + i, 0));
+                assertNotNull(record);
+                journal.awaitDurable(record.getEndPosition());
+            }
+            read = journal.readDurable(Integer.MAX_VALUE);
+            assertEquals(written, read.size());
+            assertEquals("DD-" + (written - 1), read.get(written - 1).getTicket().getVehicleRegNumber());
+        }
+    }
+}
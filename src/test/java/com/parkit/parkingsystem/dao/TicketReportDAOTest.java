@@ -0,0 +1,68 @@
+package com.parkit.parkingsystem.dao;
+
+import com.parkit.parkingsystem.config.DataBaseConfig;
+import com.parkit.parkingsystem.constants.DBConstants;
+import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.model.RevenueReport;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class TicketReportDAOTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 1);
+
+    @Test
+    @DisplayName("Les tickets lus en flux sont agrégés par jour, heure et type")
+    void getRevenueReport_ShouldAggregateStreamedRows() throws Exception {
+        TicketReportDAO reportDAO = new TicketReportDAO();
+        reportDAO.dataBaseConfig = mock(DataBaseConfig.class);
+        Connection con = mock(Connection.class);
+        PreparedStatement ps = mock(PreparedStatement.class);
+        ResultSet rs = mock(ResultSet.class);
+        when(reportDAO.dataBaseConfig.getConnection()).thenReturn(con);
+        when(con.prepareStatement(DBConstants.STREAM_CLOSED_TICKETS, ResultSet.TYPE_FORWARD_ONLY,
+                ResultSet.CONCUR_READ_ONLY)).thenReturn(ps);
+        when(ps.executeQuery()).thenReturn(rs);
+        // deux voitures sorties à 9 h, un vélo à 18 h le lendemain
+        when(rs.next()).thenReturn(true, true, true, false);
+        when(rs.getString(1)).thenReturn("CAR", "CAR", "BIKE");
+        when(rs.getLong(2)).thenReturn(DAY.toEpochDay(), DAY.toEpochDay(), DAY.toEpochDay() + 1);
+        when(rs.getInt(3)).thenReturn(9, 9, 18);
+        when(rs.getLong(4)).thenReturn(150L, 225L, 100L);
+        when(rs.getLong(5)).thenReturn(60L, 90L, 120L);
+
+        RevenueReport report = reportDAO.getRevenueReport(DAY, DAY.plusDays(7));
+
+        verify(ps).setFetchSize(Integer.MIN_VALUE);
+        verify(reportDAO.dataBaseConfig).closeConnection(con);
+        assertEquals(2, report.getTicketCount(DAY, 9, ParkingType.CAR));
+        assertEquals(375, report.getRevenueCents(DAY, 9, ParkingType.CAR));
+        assertEquals(150, report.getParkedMinutes(DAY, 9, ParkingType.CAR));
+        assertEquals(475, report.getTotalRevenueCents());
+
+        StringBuilder csv = new StringBuilder();
+        report.writeCsv(csv);
+        assertEquals("day,hour,type,tickets,revenue,parked_minutes\n"
+                + "2024-03-01,9,CAR,2,3.75,150\n"
+                + "2024-03-02,18,BIKE,1,1.00,120\n", csv.toString());
+    }
+
+    @Test
+    @DisplayName("Une ligne hors période est ignorée sans fausser les totaux")
+    void add_ShouldIgnoreRowsOutsideThePeriod() {
+        RevenueReport report = new RevenueReport(DAY, DAY.plusDays(1));
+
+        report.add(DAY.toEpochDay() + 1, 10, ParkingType.CAR, 150, 60);
+
+        assertEquals(0, report.getTotalTickets());
+        assertEquals(1, report.getIgnoredRows());
+    }
+}
@@ -0,0 +1,165 @@
+package com.parkit.parkingsystem.dao;
+
+import com.parkit.parkingsystem.config.DataBaseConfig;
+import com.parkit.parkingsystem.constants.DBConstants;
+import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.model.ExitResult;
+import com.parkit.parkingsystem.model.ParkingSpot;
+import com.parkit.parkingsystem.model.Ticket;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class WriteBehindTicketWriterTest {
+
+    @TempDir
+    Path directory;
+
+    private DataBaseConfig dataBaseConfig;
+    private Connection connection;
+    private PreparedStatement insert;
+    private PreparedStatement updateById;
+    private PreparedStatement releaseSpot;
+    private ResultSet ticketOpen;
+    private WriteBehindTicketWriter writeBehind;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dataBaseConfig = mock(DataBaseConfig.class);
+        connection = mock(Connection.class);
+        insert = mock(PreparedStatement.class);
+        updateById = mock(PreparedStatement.class);
+        releaseSpot = mock(PreparedStatement.class);
+        when(dataBaseConfig.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(DBConstants.SAVE_TICKET_IF_ABSENT)).thenReturn(insert);
+        when(connection.prepareStatement(DBConstants.UPDATE_TICKET)).thenReturn(updateById);
+        when(connection.prepareStatement(DBConstants.UPDATE_TICKET_BY_PLATE_AND_IN_TIME)).thenReturn(mock(PreparedStatement.class));
+        when(connection.prepareStatement(DBConstants.RELEASE_PARKING_SPOT_IF_FREE)).thenReturn(releaseSpot);
+        // le ticket est ouvert en base tant qu'un test ne dit pas le contraire
+        PreparedStatement isTicketOpen = mock(PreparedStatement.class);
+        ticketOpen = mock(ResultSet.class);
+        when(connection.prepareStatement(DBConstants.IS_TICKET_OPEN)).thenReturn(isTicketOpen);
+        when(isTicketOpen.executeQuery()).thenReturn(ticketOpen);
+        when(ticketOpen.next()).thenReturn(true);
+        when(ticketOpen.getInt(1)).thenReturn(1);
+        writeBehind = open();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        writeBehind.close();
+    }
+
+    private WriteBehindTicketWriter open() throws Exception {
+        WriteBehindTicketWriter writer = new WriteBehindTicketWriter(directory.resolve("tickets.journal"), 64 * 1024, 50, 100);
+        writer.dataBaseConfig = dataBaseConfig;
+        return writer;
+    }
+
+    private static Ticket closedTicket() {
+        Ticket ticket = new Ticket();
+        ticket.setId(12);
+        ticket.setVehicleRegNumber("AB-123");
+        ticket.setParkingSpot(new ParkingSpot(1, ParkingType.CAR, false));
+        ticket.setInTime(new Date(System.currentTimeMillis() - 3_600_000));
+        ticket.setOutTime(new Date());
+        ticket.setPriceCents(150);
+        return ticket;
+    }
+
+    @Test
+    @DisplayName("La sortie est acquittée sans base, visible en lecture, puis appliquée par lot avec la libération de la place")
+    void updateTicket_ShouldBeReadableBeforeFlushAndAppliedByFlush() throws Exception {
+        assertTrue(writeBehind.updateTicket(closedTicket()));
+        verifyNoInteractions(dataBaseConfig);
+        assertNotNull(writeBehind.getPendingTicket(" ab-123 ").getOutTime());
+
+        assertEquals(1, writeBehind.flush());
+
+        verify(updateById).setBigDecimal(1, new BigDecimal("1.50"));
+        verify(updateById).setInt(3, 12);
+        verify(updateById).executeBatch();
+        verify(releaseSpot).setInt(1, 1);
+        verify(releaseSpot).executeBatch();
+        verify(connection).commit();
+        assertNull(writeBehind.getPendingTicket("AB-123"));
+        assertEquals(0, writeBehind.getPendingBytes());
+    }
+
+    @Test
+    @DisplayName("Une seconde sortie du même ticket n'est pas journalisée, avant comme après l'application du lot")
+    void closeTicket_ShouldRejectSecondExitOfSameTicket() throws Exception {
+        Ticket ticket = closedTicket();
+
+        assertEquals(ExitResult.Status.EXITED, writeBehind.closeTicket(ticket));
+        assertEquals(ExitResult.Status.NO_TICKET, writeBehind.closeTicket(new Ticket(ticket)));
+
+        assertEquals(1, writeBehind.flush());
+        // ticket lu ouvert par une autre borne juste avant le lot
+        assertNull(writeBehind.getPendingTicket("AB-123"));
+        assertEquals(ExitResult.Status.NO_TICKET, writeBehind.closeTicket(new Ticket(ticket)));
+        assertEquals(0, writeBehind.flush());
+    }
+
+    @Test
+    @DisplayName("Un ticket clos en base par une autre instance n'est pas journalisé")
+    void closeTicket_ShouldRejectTicketClosedInDataBase() throws Exception {
+        when(ticketOpen.getInt(1)).thenReturn(0);
+
+        assertEquals(ExitResult.Status.NO_TICKET, writeBehind.closeTicket(closedTicket()));
+
+        assertNull(writeBehind.getPendingTicket("AB-123"));
+        assertEquals(0, writeBehind.flush());
+    }
+
+    @Test
+    @DisplayName("Un échec en base ne perd rien : l'écriture est rejouée après redémarrage")
+    void flush_ShouldKeepRecordsWhenDatabaseFails() throws Exception {
+        writeBehind.updateTicket(closedTicket());
+        when(updateById.executeBatch()).thenThrow(new SQLException("Database unavailable"));
+
+        assertThrows(SQLException.class, () -> writeBehind.flush());
+        verify(connection).rollback();
+        writeBehind.close();
+
+        // redémarrage : l'écriture est retrouvée dans le journal et appliquée
+        reset(updateById);
+        writeBehind = open();
+        assertNotNull(writeBehind.getPendingTicket("AB-123"));
+        assertEquals(1, writeBehind.flush());
+        verify(updateById).setInt(3, 12);
+        assertNull(writeBehind.getPendingTicket("AB-123"));
+    }
+
+    @Test
+    @DisplayName("Un ticket journalisé à l'entrée est inséré avec sa clé de rejeu à la seconde")
+    void saveTicket_ShouldInsertIdempotently() throws Exception {
+        Ticket ticket = closedTicket();
+        ticket.setId(0);
+        ticket.setOutTime(null);
+        ticket.setInTime(new Date(1_700_000_000_789L));
+
+        assertTrue(writeBehind.saveTicket(ticket));
+        writeBehind.flush();
+
+        // le ticket de l'appelant garde ses millisecondes, seul l'enregistrement journalisé est tronqué
+        assertEquals(1_700_000_000_789L, ticket.getInTime().getTime());
+
+        verify(insert).setString(6, "AB-123");
+        verify(insert).setTimestamp(7, new java.sql.Timestamp(1_700_000_000_000L));
+        verify(insert).executeBatch();
+    }
+}
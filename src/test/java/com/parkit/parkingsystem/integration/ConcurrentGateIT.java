@@ -0,0 +1,176 @@
+package com.parkit.parkingsystem.integration;
+
+import com.parkit.parkingsystem.config.SchemaMigrator;
+import com.parkit.parkingsystem.constants.DBConstants;
+import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.dao.ParkingSpotDAO;
+import com.parkit.parkingsystem.dao.TicketDAO;
+import com.parkit.parkingsystem.integration.config.DataBaseTestConfig;
+import com.parkit.parkingsystem.integration.service.DataBasePrepareService;
+import com.parkit.parkingsystem.model.EntryResult;
+import com.parkit.parkingsystem.model.ExitResult;
+import com.parkit.parkingsystem.model.Ticket;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// plusieurs bornes sur la même base : chaque transaction ouverte par le test joue le rôle d'une autre borne
+public class ConcurrentGateIT {
+
+    private static DataBaseTestConfig dataBaseTestConfig = new DataBaseTestConfig();
+    private static DataBasePrepareService dataBasePrepareService = new DataBasePrepareService();
+
+    private ParkingSpotDAO parkingSpotDAO;
+    private TicketDAO ticketDAO;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        new SchemaMigrator(dataBaseTestConfig).migrate();
+    }
+
+    @BeforeEach
+    void setUpPerTest() {
+        dataBasePrepareService.clearDataBaseEntries();
+        parkingSpotDAO = new ParkingSpotDAO();
+        parkingSpotDAO.dataBaseConfig = dataBaseTestConfig;
+        ticketDAO = new TicketDAO();
+        ticketDAO.dataBaseConfig = dataBaseTestConfig;
+        ticketDAO.parkingSpotDAO = parkingSpotDAO;
+    }
+
+    // place verrouillée par une transaction laissée ouverte, comme le ferait une borne en cours d'entrée
+    private static int lockSpot(Connection con, int startSpot) throws Exception {
+        con.setAutoCommit(false);
+        try (PreparedStatement ps = con.prepareStatement(DBConstants.CLAIM_NEXT_PARKING_SPOT)) {
+            ps.setString(1, ParkingType.CAR.toString());
+            ps.setInt(2, startSpot);
+            try (ResultSet rs = ps.executeQuery()) {
+                assertTrue(rs.next());
+                return rs.getInt(1);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Deux réservations simultanées obtiennent deux places distinctes")
+    void claim_ShouldGiveDistinctSpotsToConcurrentTransactions() throws Exception {
+        try (Connection otherGate = dataBaseTestConfig.getConnection()) {
+            int locked = lockSpot(otherGate, 0);
+            try {
+                int claimed = CompletableFuture.supplyAsync(() -> parkingSpotDAO.claimNextAvailableSlot(ParkingType.CAR))
+                        .get(10, TimeUnit.SECONDS);
+
+                assertTrue(claimed > 0, "Des places restent libres : la réservation ne doit pas échouer");
+                assertNotEquals(locked, claimed);
+            } finally {
+                otherGate.rollback();
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("La recherche reprend au début quand la zone de la borne est prise")
+    void claim_ShouldWrapBeforePreferredStartSpot() throws Exception {
+        try (Connection otherGate = dataBaseTestConfig.getConnection()) {
+            int locked = lockSpot(otherGate, 3);
+            try {
+                parkingSpotDAO.setPreferredStartSpot(3);
+                int claimed = CompletableFuture.supplyAsync(() -> parkingSpotDAO.claimNextAvailableSlot(ParkingType.CAR))
+                        .get(10, TimeUnit.SECONDS);
+
+                assertEquals(3, locked);
+                assertEquals(1, claimed);
+            } finally {
+                otherGate.rollback();
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Une entrée de la même immatriculation attend la transaction en cours puis est refusée")
+    void enter_ShouldWaitForSamePlateEntryAndRejectIt() throws Exception {
+        try (Connection otherGate = dataBaseTestConfig.getConnection()) {
+            otherGate.setAutoCommit(false);
+            try (PreparedStatement lock = otherGate.prepareStatement(DBConstants.LOCK_VEHICLE_VISIT);
+                 PreparedStatement insert = otherGate.prepareStatement(DBConstants.SAVE_TICKET)) {
+                lock.setString(1, "SAME01");
+                lock.executeUpdate();
+                insert.setInt(1, 1);
+                insert.setString(2, "SAME01");
+                insert.setBigDecimal(3, BigDecimal.ZERO);
+                insert.setTimestamp(4, new Timestamp(System.currentTimeMillis()));
+                insert.setNull(5, Types.TIMESTAMP);
+                insert.executeUpdate();
+            }
+            CompletableFuture<EntryResult> entry = CompletableFuture.supplyAsync(
+                    () -> ticketDAO.saveIncomingTicket(ParkingType.CAR, "SAME01", new Date()));
+            Thread.sleep(500);
+            assertFalse(entry.isDone(), "L'entrée doit attendre le verrou de l'immatriculation");
+            otherGate.commit();
+
+            assertEquals(EntryResult.Status.ALREADY_PARKED, entry.get(10, TimeUnit.SECONDS).getStatus());
+        }
+    }
+
+    @Test
+    @DisplayName("Des entrées simultanées de la même immatriculation ne créent qu'un ticket ouvert")
+    void enter_ShouldParkSamePlateOnceUnderContention() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Callable<EntryResult>> entries = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                entries.add(() -> ticketDAO.saveIncomingTicket(ParkingType.CAR, "SAME02", new Date()));
+            }
+            int parked = 0;
+            for (Future<EntryResult> entry : executor.invokeAll(entries)) {
+                EntryResult result = entry.get();
+                if (result.isParked()) {
+                    parked++;
+                } else {
+                    assertEquals(EntryResult.Status.ALREADY_PARKED, result.getStatus());
+                }
+            }
+            assertEquals(1, parked);
+            assertTrue(ticketDAO.isVehicleAlreadyParked("SAME02"));
+            assertEquals(1, ticketDAO.getNbTicket("SAME02"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Deux sorties du même ticket lu en parallèle : une seule le clôture et libère la place")
+    void closeTicket_ShouldCloseOpenTicketOnce() {
+        assertTrue(ticketDAO.saveIncomingTicket(ParkingType.CAR, "SAME03", new Date()).isParked());
+        Ticket firstGate = ticketDAO.getTicket("SAME03");
+        Ticket secondGate = ticketDAO.getTicket("SAME03");
+        firstGate.setOutTime(new Date());
+        firstGate.setPriceCents(150);
+        secondGate.setOutTime(new Date());
+        secondGate.setPriceCents(300);
+
+        assertEquals(ExitResult.Status.EXITED, ticketDAO.closeTicket(firstGate));
+        assertEquals(ExitResult.Status.NO_TICKET, ticketDAO.closeTicket(secondGate));
+        assertEquals(150, ticketDAO.getTicket("SAME03").getPriceCents());
+        assertEquals(firstGate.getParkingSpot().getId(), parkingSpotDAO.getNextAvailableSlot(ParkingType.CAR));
+    }
+}
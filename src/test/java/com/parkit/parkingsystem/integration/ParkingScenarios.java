@@ -0,0 +1,153 @@
+package com.parkit.parkingsystem.integration;
+
+import com.parkit.parkingsystem.constants.Fare;
+import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.dao.ParkingSpotStore;
+import com.parkit.parkingsystem.dao.TicketStore;
+import com.parkit.parkingsystem.model.EntryResult;
+import com.parkit.parkingsystem.model.ExitResult;
+import com.parkit.parkingsystem.model.ParkingSpot;
+import com.parkit.parkingsystem.model.Ticket;
+import com.parkit.parkingsystem.service.FareCalculatorService;
+import com.parkit.parkingsystem.service.ParkingService;
+import com.parkit.parkingsystem.util.InputReaderUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// scénarios de bout en bout joués sur chaque stockage : MySQL (ParkingDataBaseIT) et mémoire (InMemoryStorageTest).
+// Au départ le stockage est vide, places 1 à 3 CAR et 4 à 5 BIKE toutes libres.
+public abstract class ParkingScenarios {
+
+    protected ParkingSpotStore parkingSpotDAO;
+    protected TicketStore ticketDAO;
+    protected InputReaderUtil inputReaderUtil;
+    protected ParkingService parkingService;
+
+    // vide le stockage et renseigne parkingSpotDAO et ticketDAO
+    protected abstract void prepareStorage() throws Exception;
+
+    @BeforeEach
+    void setUpScenario() throws Exception {
+        prepareStorage();
+        inputReaderUtil = mock(InputReaderUtil.class);
+        parkingService = new ParkingService(inputReaderUtil, parkingSpotDAO, ticketDAO, new FareCalculatorService());
+    }
+
+    @Test
+    @DisplayName("Vérifier que le ticket est enregistré et qu'une place CAR passe indisponible")
+    public void testParkingACar() throws Exception {
+        // Given
+        when(inputReaderUtil.readSelection()).thenReturn(1);
+        when(inputReaderUtil.readVehicleRegistrationNumber()).thenReturn("AAA111");
+
+        // When
+        parkingService.processIncomingVehicle();
+
+        // Then
+        Ticket ticket = ticketDAO.getTicket("AAA111");
+        assertAll("Vérification du ticket à l'entrée",
+                () -> assertNotNull(ticket, "Le ticket doit être enregistré !"),
+                () -> assertTrue(ticket.getId() > 0),
+                () -> assertNotNull(ticket.getInTime(), "L'heure d'entrée ne doit pas être null !"),
+                () -> assertNull(ticket.getOutTime(), "L’heure de sortie doit être null après l’entrée"),
+                () -> assertEquals(0, ticket.getPriceCents(), "Le prix doit être 0 à l’entrée"),
+                () -> assertEquals(ParkingType.CAR, ticket.getParkingSpot().getParkingType()),
+                () -> assertEquals(1, ticket.getParkingSpot().getId(), "L'ID du parking doit être 1 !"),
+                () -> assertEquals(2, parkingSpotDAO.getNextAvailableSlot(ParkingType.CAR), "La place 1 doit être occupée")
+        );
+    }
+
+    @Test
+    @DisplayName("Vérifier que l'heure de sortie et le tarif (gratuité) sont enregistrés")
+    public void testParkingLotExit() throws Exception {
+        // Given
+        when(inputReaderUtil.readSelection()).thenReturn(1);
+        when(inputReaderUtil.readVehicleRegistrationNumber()).thenReturn("BBB222");
+        parkingService.processIncomingVehicle();
+
+        // When
+        parkingService.processExitingVehicle();
+
+        // Then
+        Ticket ticket = ticketDAO.getTicket("BBB222");
+        assertAll("Vérification du ticket à la sortie",
+                () -> assertNotNull(ticket.getOutTime(), "L'heure de sortie doit être renseignée !"),
+                () -> assertFalse(ticket.getOutTime().before(ticket.getInTime()), "La sortie ne peut précéder l'entrée !"),
+                () -> assertEquals(0, ticket.getPriceCents(), "Moins de 30 minutes : gratuit"),
+                () -> assertEquals(1, parkingSpotDAO.getNextAvailableSlot(ParkingType.CAR), "La place doit être libérée")
+        );
+    }
+
+    @Test
+    @DisplayName("Vérifier que l'heure de sortie et le tarif sont corrects, et qu'une seconde sortie est refusée")
+    public void testParkingLotExit2() throws Exception {
+        // Given : véhicule garé depuis 1 h, une nouvelle entrée de la même immatriculation est refusée
+        String vehicleRegNumber = "BBB222";
+        Ticket entryTicket = createTicket(vehicleRegNumber, new ParkingSpot(1, ParkingType.CAR, false),
+                new Date(System.currentTimeMillis() - 60 * 60 * 1000), null);
+        ticketDAO.saveTicket(entryTicket);
+        parkingSpotDAO.updateParking(entryTicket.getParkingSpot());
+        when(inputReaderUtil.readSelection()).thenReturn(1);
+        when(inputReaderUtil.readVehicleRegistrationNumber()).thenReturn(vehicleRegNumber);
+        parkingService.processIncomingVehicle();
+
+        // When
+        parkingService.processExitingVehicle();
+
+        // Then
+        Ticket ticket = ticketDAO.getTicket(vehicleRegNumber);
+        assertNotNull(ticket.getOutTime(), "L'heure de sortie doit être renseignée !");
+        assertEquals(Fare.CAR_RATE_PER_HOUR, ticket.getPrice(), 0.01);
+        assertEquals(1, parkingSpotDAO.getNextAvailableSlot(ParkingType.CAR));
+        assertEquals(ExitResult.Status.NO_TICKET, parkingService.exit(vehicleRegNumber).getStatus());
+    }
+
+    @Test
+    @DisplayName("Une immatriculation déjà garée est refusée, un type complet aussi")
+    public void testDuplicateAndFullType() {
+        assertTrue(parkingService.enter("AAA111", ParkingType.BIKE).isParked());
+
+        assertEquals(EntryResult.Status.ALREADY_PARKED, parkingService.enter(" aaa111", ParkingType.BIKE).getStatus());
+        assertTrue(parkingService.enter("BBB222", ParkingType.BIKE).isParked());
+        assertEquals(EntryResult.Status.NO_SPOT_AVAILABLE, parkingService.enter("CCC333", ParkingType.BIKE).getStatus());
+    }
+
+    @Test
+    @DisplayName("Vérifier que le visiteur régulier bénéficie de la remise fidélité")
+    public void testRecurringUserIntegration() throws Exception {
+        // Given : une visite passée et le stationnement en cours depuis 1 h
+        String vehicleRegNumber = "CCC333";
+        ticketDAO.saveTicket(createTicket(vehicleRegNumber, new ParkingSpot(2, ParkingType.CAR, false),
+                new Date(System.currentTimeMillis() - 48 * 60 * 60 * 1000),
+                new Date(System.currentTimeMillis() - 47 * 60 * 60 * 1000)));
+        ticketDAO.saveTicket(createTicket(vehicleRegNumber, new ParkingSpot(1, ParkingType.CAR, false),
+                new Date(System.currentTimeMillis() - 60 * 60 * 1000), null));
+        when(inputReaderUtil.readVehicleRegistrationNumber()).thenReturn(vehicleRegNumber);
+
+        // When
+        parkingService.processExitingVehicle();
+
+        // Then
+        Ticket finalTicket = ticketDAO.getTicket(vehicleRegNumber);
+        assertNotNull(finalTicket.getOutTime(), "L'heure de sortie doit être renseignée");
+        assertEquals(Fare.CAR_RATE_PER_HOUR * Fare.COEF_DISCOUNT, finalTicket.getPrice(), 0.01,
+                "Le tarif doit inclure une remise de 5% pour utilisateur récurrent");
+        assertEquals(2, ticketDAO.getNbTicket(vehicleRegNumber));
+    }
+
+    protected static Ticket createTicket(String vehicleRegNumber, ParkingSpot parkingSpot, Date inTime, Date outTime) {
+        Ticket ticket = new Ticket();
+        ticket.setVehicleRegNumber(vehicleRegNumber);
+        ticket.setParkingSpot(parkingSpot);
+        ticket.setInTime(inTime);
+        ticket.setOutTime(outTime);
+        return ticket;
+    }
+}
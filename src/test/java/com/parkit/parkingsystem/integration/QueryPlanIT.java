@@ -0,0 +1,95 @@
+package com.parkit.parkingsystem.integration;
+
+import com.parkit.parkingsystem.config.SchemaMigrator;
+import com.parkit.parkingsystem.constants.DBConstants;
+import com.parkit.parkingsystem.integration.config.DataBaseTestConfig;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QueryPlanIT {
+
+    private static DataBaseTestConfig dataBaseTestConfig = new DataBaseTestConfig();
+
+    // paramètres d'exemple pour chaque requête vérifiée
+    private static final Map<String, Object[]> SAMPLE_PARAMETERS = new HashMap<>();
+    // requêtes sans filtre à vérifier (insertions, chargement complet volontaire de la table parking,
+    // parcours de l'historique pour les rapports)
+    private static final Set<String> EXCLUDED = Set.of("SAVE_TICKET", "GET_ALL_PARKING_SPOTS", "GET_OPEN_TICKETS",
+            "GET_OCCUPANCY_CHECKSUM", "STREAM_CLOSED_TICKETS", "SAVE_DASHBOARD_COUNTER",
+            "LOCK_VEHICLE_VISIT");
+
+    static {
+        SAMPLE_PARAMETERS.put("GET_NEXT_PARKING_SPOT", new Object[]{"CAR"});
+        SAMPLE_PARAMETERS.put("CLAIM_NEXT_PARKING_SPOT", new Object[]{"CAR", 0});
+        SAMPLE_PARAMETERS.put("CLAIM_NEXT_PARKING_SPOT_BEFORE", new Object[]{"CAR", 3});
+        SAMPLE_PARAMETERS.put("UPDATE_PARKING_SPOT", new Object[]{false, 1});
+        SAMPLE_PARAMETERS.put("RELEASE_PARKING_SPOT_IF_FREE", new Object[]{1, 1});
+        SAMPLE_PARAMETERS.put("UPDATE_TICKET", new Object[]{1.5, new java.sql.Timestamp(new Date().getTime()), 1});
+        SAMPLE_PARAMETERS.put("IS_TICKET_OPEN", new Object[]{1});
+        SAMPLE_PARAMETERS.put("SAVE_TICKET_IF_ABSENT", new Object[]{1, "ABC123", 0.0, new java.sql.Timestamp(0), null,
+                "ABC123", new java.sql.Timestamp(0)});
+        SAMPLE_PARAMETERS.put("UPDATE_TICKET_BY_PLATE_AND_IN_TIME", new Object[]{1.5, new java.sql.Timestamp(new Date().getTime()),
+                "ABC123", new java.sql.Timestamp(0)});
+        SAMPLE_PARAMETERS.put("GET_TICKET", new Object[]{"ABC123"});
+        SAMPLE_PARAMETERS.put("NB_TICKET", new Object[]{"ABC123"});
+        SAMPLE_PARAMETERS.put("IS_VEHICLE_ALREADY_PARKED", new Object[]{"ABC123"});
+        SAMPLE_PARAMETERS.put("GET_ARCHIVED_TICKET", new Object[]{"ABC123"});
+        SAMPLE_PARAMETERS.put("GET_ARCHIVABLE_TICKET_IDS", new Object[]{new java.sql.Timestamp(0), 1000});
+        SAMPLE_PARAMETERS.put("ARCHIVE_TICKET", new Object[]{1});
+        SAMPLE_PARAMETERS.put("DELETE_ARCHIVED_TICKET", new Object[]{1});
+        SAMPLE_PARAMETERS.put("GET_OCCUPIED_SPOTS_BY_TYPE", new Object[]{});
+        SAMPLE_PARAMETERS.put("GET_DASHBOARD_COUNTERS_SINCE", new Object[]{"gate-1", new java.sql.Timestamp(0)});
+    }
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        new SchemaMigrator(dataBaseTestConfig).migrate();
+    }
+
+    @Test
+    @DisplayName("Aucune requête de DBConstants ne fait de parcours complet de table")
+    public void queries_ShouldNotUseFullTableScan() throws Exception {
+        List<String> fullScans = new ArrayList<>();
+
+        try (Connection con = dataBaseTestConfig.getConnection()) {
+            for (Field field : DBConstants.class.getFields()) {
+                if (!Modifier.isStatic(field.getModifiers()) || field.getType() != String.class
+                        || EXCLUDED.contains(field.getName())) {
+                    continue;
+                }
+                Object[] parameters = SAMPLE_PARAMETERS.get(field.getName());
+                assertNotNull(parameters, "Paramètres d'exemple manquants pour " + field.getName());
+
+                try (PreparedStatement ps = con.prepareStatement("explain " + field.get(null))) {
+                    for (int i = 0; i < parameters.length; i++) {
+                        ps.setObject(i + 1, parameters[i]);
+                    }
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            if (rs.getString("table") != null && "ALL".equals(rs.getString("type"))) {
+                                fullScans.add(field.getName() + " (" + rs.getString("table") + ")");
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        assertTrue(fullScans.isEmpty(), "Parcours complet détecté pour : " + fullScans);
+    }
+}
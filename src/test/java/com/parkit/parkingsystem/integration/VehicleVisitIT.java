@@ -0,0 +1,163 @@
+package com.parkit.parkingsystem.integration;
+
+import com.parkit.parkingsystem.config.SchemaMigrator;
+import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.dao.ParkingSpotDAO;
+import com.parkit.parkingsystem.dao.TicketArchiver;
+import com.parkit.parkingsystem.dao.TicketDAO;
+import com.parkit.parkingsystem.integration.config.DataBaseTestConfig;
+import com.parkit.parkingsystem.integration.service.DataBasePrepareService;
+import com.parkit.parkingsystem.model.ParkingSpot;
+import com.parkit.parkingsystem.model.Ticket;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// vehicle_visit.NB_TICKET (trigger ticket_visit_count, rattrapage de V1) reste égal au nombre de tickets de chaque
+// immatriculation, tickets archivés compris
+public class VehicleVisitIT {
+
+    private static final String COUNT_TICKETS = "select VEHICLE_REG_NUMBER, count(*) from"
+            + " (select VEHICLE_REG_NUMBER from ticket union all select VEHICLE_REG_NUMBER from ticket_archive) t"
+            + " group by VEHICLE_REG_NUMBER";
+    private static final String COUNT_VISITS = "select VEHICLE_REG_NUMBER, NB_TICKET from vehicle_visit";
+
+    private static DataBaseTestConfig dataBaseTestConfig = new DataBaseTestConfig();
+    private static DataBasePrepareService dataBasePrepareService = new DataBasePrepareService();
+
+    private TicketDAO ticketDAO;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        new SchemaMigrator(dataBaseTestConfig).migrate();
+    }
+
+    @BeforeEach
+    void setUpPerTest() {
+        dataBasePrepareService.clearDataBaseEntries();
+        ParkingSpotDAO parkingSpotDAO = new ParkingSpotDAO();
+        parkingSpotDAO.dataBaseConfig = dataBaseTestConfig;
+        ticketDAO = new TicketDAO();
+        ticketDAO.dataBaseConfig = dataBaseTestConfig;
+        ticketDAO.parkingSpotDAO = parkingSpotDAO;
+    }
+
+    // tickets clos il y a plus de deux ans, puis un ticket ouvert par immatriculation
+    private void insertVisits() {
+        long old = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(800);
+        List<Ticket> history = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            history.add(ticket("VISIT1", 1, old + i * TimeUnit.DAYS.toMillis(1)));
+        }
+        history.add(ticket("VISIT2", 4, old));
+        assertEquals(6, ticketDAO.saveTickets(history, 2, 4).getRowsImported());
+
+        assertTrue(ticketDAO.saveIncomingTicket(ParkingType.CAR, "VISIT1", new Date()).isParked());
+        assertTrue(ticketDAO.saveIncomingTicket(ParkingType.CAR, "VISIT3", new Date()).isParked());
+        // une entrée refusée ne compte pas de visite
+        assertFalse(ticketDAO.saveIncomingTicket(ParkingType.CAR, "VISIT3", new Date()).isParked());
+    }
+
+    private static Ticket ticket(String vehicleRegNumber, int parkingNumber, long inMillis) {
+        Ticket ticket = new Ticket();
+        ticket.setVehicleRegNumber(vehicleRegNumber);
+        ticket.setParkingSpot(new ParkingSpot(parkingNumber, parkingNumber < 4 ? ParkingType.CAR : ParkingType.BIKE, false));
+        ticket.setInTime(new Date(inMillis));
+        ticket.setOutTime(new Date(inMillis + TimeUnit.HOURS.toMillis(2)));
+        ticket.setPriceCents(300);
+        return ticket;
+    }
+
+    private static Map<String, Long> counts(String query) throws Exception {
+        Map<String, Long> counts = new HashMap<>();
+        try (Connection con = dataBaseTestConfig.getConnection();
+             PreparedStatement ps = con.prepareStatement(query);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                counts.put(rs.getString(1), rs.getLong(2));
+            }
+        }
+        return counts;
+    }
+
+    private static void execute(String sql) throws Exception {
+        try (Connection con = dataBaseTestConfig.getConnection();
+             Statement statement = con.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    @Test
+    @DisplayName("Le trigger compte chaque ticket inséré, en lot comme à l'entrée")
+    void trigger_ShouldCountEveryInsertedTicket() throws Exception {
+        insertVisits();
+
+        assertEquals(counts(COUNT_TICKETS), counts(COUNT_VISITS));
+        assertEquals(6, ticketDAO.getNbTicket("VISIT1"));
+        assertEquals(1, ticketDAO.getNbTicket("VISIT3"));
+    }
+
+    @Test
+    @DisplayName("Le rattrapage de V1 reconstruit les compteurs depuis la table ticket")
+    void backfill_ShouldRebuildCountsFromTickets() throws Exception {
+        insertVisits();
+        Map<String, Long> expected = counts(COUNT_VISITS);
+        execute("truncate table vehicle_visit");
+
+        for (String sql : SchemaMigrator.readStatements("db/migration/V1__baseline.sql")) {
+            if (sql.startsWith("insert into vehicle_visit")) {
+                execute(sql);
+            }
+        }
+
+        assertEquals(expected, counts(COUNT_VISITS));
+        assertEquals(counts(COUNT_TICKETS), counts(COUNT_VISITS));
+    }
+
+    @Test
+    @DisplayName("L'archivage ne change pas le nombre de visites : la remise fidélité est conservée")
+    void archive_ShouldKeepVisitCounts() throws Exception {
+        insertVisits();
+        Map<String, Long> before = counts(COUNT_VISITS);
+        TicketArchiver archiver = new TicketArchiver(TimeUnit.DAYS.toMillis(365), 2);
+        archiver.dataBaseConfig = dataBaseTestConfig;
+
+        assertEquals(6, archiver.archive());
+
+        assertEquals(before, counts(COUNT_VISITS));
+        assertEquals(counts(COUNT_TICKETS), counts(COUNT_VISITS));
+        assertEquals(6, ticketDAO.getNbTicket("VISIT1"));
+        assertEquals(1, ticketDAO.getNbTicket("VISIT2"));
+        // ticket ouvert toujours dans ticket, historique déplacé
+        assertNull(ticketDAO.getTicket("VISIT1").getOutTime());
+        assertNotNull(ticketDAO.getTicket("VISIT2"));
+    }
+
+    @Test
+    @DisplayName("Un ticket réinséré après archivage compte une visite de plus")
+    void archive_ShouldNotResetCountOfNextVisit() throws Exception {
+        insertVisits();
+        TicketArchiver archiver = new TicketArchiver(TimeUnit.DAYS.toMillis(365), 100);
+        archiver.dataBaseConfig = dataBaseTestConfig;
+        archiver.archive();
+
+        assertTrue(ticketDAO.saveIncomingTicket(ParkingType.BIKE, "VISIT2", new Date()).isParked());
+
+        assertEquals(2, ticketDAO.getNbTicket("VISIT2"));
+        assertEquals(counts(COUNT_TICKETS), counts(COUNT_VISITS));
+    }
+}
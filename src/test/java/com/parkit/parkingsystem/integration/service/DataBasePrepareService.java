@@ -3,26 +3,27 @@ package com.parkit.parkingsystem.integration.service;
 import com.parkit.parkingsystem.integration.config.DataBaseTestConfig;
 
 import java.sql.Connection;
+import java.sql.Statement;
 
 public class DataBasePrepareService {
 
     DataBaseTestConfig dataBaseTestConfig = new DataBaseTestConfig();
 
     public void clearDataBaseEntries(){
-        Connection connection = null;
-        try{
-            connection = dataBaseTestConfig.getConnection();
+        // la connexion retourne dans le pool : on ferme explicitement les statements
+        try (Connection connection = dataBaseTestConfig.getConnection();
+             Statement statement = connection.createStatement()) {
 
             //set parking entries to available
-            connection.prepareStatement("update parking set available = true").execute();
+            statement.execute("update parking set available = true");
 
             //clear ticket entries;
-            connection.prepareStatement("truncate table ticket").execute();
+            statement.execute("truncate table ticket");
+            statement.execute("truncate table ticket_archive");
+            statement.execute("truncate table vehicle_visit");
 
         }catch(Exception e){
             e.printStackTrace();
-        }finally {
-            dataBaseTestConfig.closeConnection(connection);
         }
     }
 
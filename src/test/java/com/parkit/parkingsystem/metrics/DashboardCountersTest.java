@@ -0,0 +1,80 @@
+package com.parkit.parkingsystem.metrics;
+
+import com.parkit.parkingsystem.constants.ParkingType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DashboardCountersTest {
+
+    private static final long MIDNIGHT = Instant.parse("2024-03-01T00:00:00Z").toEpochMilli();
+    private static final long HOUR = 3_600_000L;
+
+    @Test
+    @DisplayName("Entrées et sorties mettent à jour occupation, compteurs horaires et recette du jour")
+    void recordEntryAndExit_ShouldUpdateCounters() {
+        DashboardCounters counters = new DashboardCounters(ZoneOffset.UTC);
+
+        counters.recordEntry(ParkingType.CAR, MIDNIGHT + 9 * HOUR);
+        counters.recordEntry(ParkingType.CAR, MIDNIGHT + 9 * HOUR + 60_000);
+        counters.recordEntry(ParkingType.BIKE, MIDNIGHT + 10 * HOUR);
+        counters.recordExit(ParkingType.CAR, MIDNIGHT + 11 * HOUR, 225);
+
+        assertEquals(1, counters.getOccupied(ParkingType.CAR));
+        assertEquals(1, counters.getOccupied(ParkingType.BIKE));
+        assertEquals(2, counters.getEntries(MIDNIGHT + 9 * HOUR + 30 * 60_000, ParkingType.CAR));
+        assertEquals(1, counters.getExits(MIDNIGHT + 11 * HOUR, ParkingType.CAR));
+        assertEquals(225, counters.getRevenueTodayCents(MIDNIGHT + 12 * HOUR));
+        // le lendemain, la recette du jour repart de zéro
+        assertEquals(0, counters.getRevenueTodayCents(MIDNIGHT + 25 * HOUR));
+    }
+
+    @Test
+    @DisplayName("Une heure revenue dans l'anneau remplace l'ancienne au lieu de s'y ajouter")
+    void recordEntry_ShouldRollOverOldHours() {
+        DashboardCounters counters = new DashboardCounters(ZoneOffset.UTC);
+
+        counters.recordEntry(ParkingType.CAR, MIDNIGHT);
+        counters.recordEntry(ParkingType.CAR, MIDNIGHT + 48 * HOUR);
+
+        assertEquals(1, counters.getEntries(MIDNIGHT + 48 * HOUR, ParkingType.CAR));
+        assertEquals(0, counters.getEntries(MIDNIGHT, ParkingType.CAR));
+    }
+
+    @Test
+    @DisplayName("Un événement d'une heure déjà remplacée dans l'anneau est ignoré et compté")
+    void recordEntry_ShouldDropEventOfOverwrittenHour() {
+        DashboardCounters counters = new DashboardCounters(ZoneOffset.UTC);
+
+        counters.recordEntry(ParkingType.CAR, MIDNIGHT + 48 * HOUR);
+        counters.recordExit(ParkingType.CAR, MIDNIGHT, 150);
+
+        assertEquals(1, counters.getEntries(MIDNIGHT + 48 * HOUR, ParkingType.CAR));
+        assertEquals(0, counters.getExits(MIDNIGHT + 48 * HOUR, ParkingType.CAR));
+        assertEquals(0, counters.getRevenueTodayCents(MIDNIGHT + 48 * HOUR));
+        assertEquals(1, counters.getDroppedEvents());
+    }
+
+    @Test
+    @DisplayName("Les heures relues depuis le point de reprise s'ajoutent aux compteurs")
+    void restore_ShouldReloadCheckpointedHours() {
+        DashboardCounters counters = new DashboardCounters(ZoneOffset.UTC);
+        counters.recordExit(ParkingType.BIKE, MIDNIGHT + 8 * HOUR, 100);
+        List<DashboardCounters.HourCount> checkpoint = counters.getHourCounts();
+
+        DashboardCounters restarted = new DashboardCounters(ZoneOffset.UTC);
+        for (DashboardCounters.HourCount count : checkpoint) {
+            long hour = DashboardCounters.localHourOf(count.getStart());
+            restarted.restore(new DashboardCounters.HourCount(hour, count.getParkingType(), count.getEntries(),
+                    count.getExits(), count.getRevenueCents()), MIDNIGHT + 9 * HOUR);
+        }
+
+        assertEquals(1, restarted.getExits(MIDNIGHT + 8 * HOUR, ParkingType.BIKE));
+        assertEquals(100, restarted.getRevenueTodayCents(MIDNIGHT + 9 * HOUR));
+    }
+}
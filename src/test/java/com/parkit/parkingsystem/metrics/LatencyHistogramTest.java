@@ -0,0 +1,81 @@
+package com.parkit.parkingsystem.metrics;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    @DisplayName("Chaque valeur tombe dans un seau dont la borne haute est à moins de 3 % au-dessus")
+    void indexOf_ShouldKeepRelativeErrorBelowThreePercent() {
+        int previous = -1;
+        for (long nanos = 0; nanos < 5_000_000_000L; nanos = nanos < 100 ? nanos + 1 : nanos * 101 / 100) {
+            int index = LatencyHistogram.indexOf(nanos);
+            assertTrue(index >= previous, "seaux croissants");
+            long upperBound = LatencyHistogram.upperBoundOf(index);
+            assertTrue(upperBound >= nanos);
+            assertTrue(upperBound - nanos <= Math.max(1, nanos * 0.032), "précision pour " + nanos);
+            previous = index;
+        }
+    }
+
+    @Test
+    @DisplayName("Les percentiles reflètent la distribution enregistrée")
+    void percentiles_ShouldMatchDistribution() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        // 1 à 1000 µs
+        for (int micros = 1; micros <= 1000; micros++) {
+            histogram.record(micros * 1000L);
+        }
+
+        assertEquals(1000, histogram.getCount());
+        assertEquals(500, histogram.getP50Micros(), 500 * 0.03);
+        assertEquals(990, histogram.getP99Micros(), 990 * 0.03);
+        assertEquals(1000, histogram.getMaxMicros());
+        assertEquals(500.5, histogram.getMeanMicros(), 0.001);
+
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getP999Micros());
+    }
+
+    @Test
+    @DisplayName("Les enregistrements concurrents ne sont pas perdus")
+    void record_ShouldCountConcurrentRecords() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int thread = 0; thread < 4; thread++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 100_000; i++) {
+                    histogram.record(i);
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(400_000, histogram.getCount());
+        assertEquals(99_999, histogram.getMaxNanos());
+    }
+
+    @Test
+    @DisplayName("Les opérations mesurées sont exposées en JMX et dans le dump texte")
+    void latencyMetrics_ShouldExposeMBeansAndDump() throws Exception {
+        LatencyMetrics.record(Operation.FARE_CALCULATE, System.nanoTime() - 2_000);
+        LatencyMetrics.registerMBeans();
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(LatencyMetrics.OBJECT_NAME_PREFIX + Operation.FARE_CALCULATE.getLabel());
+        assertTrue((Long) server.getAttribute(name, "Count") >= 1);
+        assertTrue(LatencyMetrics.dump().contains(Operation.FARE_CALCULATE.getLabel()));
+    }
+}
@@ -0,0 +1,109 @@
+package com.parkit.parkingsystem.server;
+
+import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.metrics.DashboardCounters;
+import com.parkit.parkingsystem.model.EntryResult;
+import com.parkit.parkingsystem.model.ExitResult;
+import com.parkit.parkingsystem.model.ParkingSpot;
+import com.parkit.parkingsystem.model.Ticket;
+import com.parkit.parkingsystem.service.ParkingService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class GateHttpServerTest {
+
+    private ParkingService parkingService;
+    private GateHttpServer server;
+    private HttpClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        parkingService = mock(ParkingService.class);
+        server = new GateHttpServer(parkingService, 0);
+        server.start();
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    private HttpResponse<String> send(String method, String path) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + path))
+                .method(method, HttpRequest.BodyPublishers.noBody())
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    @DisplayName("POST /entry gare le véhicule et renvoie la place attribuée")
+    void entry_ShouldReturnParkedTicket() throws Exception {
+        Ticket ticket = new Ticket();
+        ticket.setId(12);
+        ticket.setVehicleRegNumber("AB-123");
+        ticket.setParkingSpot(new ParkingSpot(3, ParkingType.CAR, false));
+        ticket.setInTime(new Date());
+        when(parkingService.enter("AB-123", ParkingType.CAR)).thenReturn(EntryResult.parked(ticket, 1));
+
+        HttpResponse<String> response = send("POST", "/entry?plate=AB-123&type=car");
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body().contains("\"status\":\"PARKED\""));
+        assertTrue(response.body().contains("\"parkingNumber\":3"));
+    }
+
+    @Test
+    @DisplayName("POST /entry refuse un type de véhicule inconnu")
+    void entry_ShouldReturnBadRequest_WhenTypeIsUnknown() throws Exception {
+        HttpResponse<String> response = send("POST", "/entry?plate=AB-123&type=TRUCK");
+
+        assertEquals(400, response.statusCode());
+        verifyNoInteractions(parkingService);
+    }
+
+    @Test
+    @DisplayName("POST /exit renvoie 404 si aucun ticket n'est ouvert")
+    void exit_ShouldReturnNotFound_WhenNoTicket() throws Exception {
+        when(parkingService.exit("ZZ-999")).thenReturn(ExitResult.of(ExitResult.Status.NO_TICKET));
+
+        HttpResponse<String> response = send("POST", "/exit?plate=ZZ-999");
+
+        assertEquals(404, response.statusCode());
+        assertTrue(response.body().contains("NO_TICKET"));
+    }
+
+    @Test
+    @DisplayName("GET /entry est refusé")
+    void entry_ShouldRejectWrongMethod() throws Exception {
+        HttpResponse<String> response = send("GET", "/entry?plate=AB-123&type=CAR");
+
+        assertEquals(405, response.statusCode());
+        verifyNoInteractions(parkingService);
+    }
+
+    @Test
+    @DisplayName("GET /dashboard lit les compteurs en mémoire")
+    void dashboard_ShouldReturnCounters() throws Exception {
+        DashboardCounters counters = new DashboardCounters();
+        counters.recordEntry(ParkingType.CAR, System.currentTimeMillis());
+        parkingService.dashboardCounters = counters;
+
+        HttpResponse<String> response = send("GET", "/dashboard");
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body().contains("\"occupied\":{\"CAR\":1,\"BIKE\":0}"));
+        assertTrue(response.body().contains("\"entriesThisHour\":{\"CAR\":1,"));
+    }
+}
@@ -0,0 +1,64 @@
+package com.parkit.parkingsystem.simulation;
+
+import com.parkit.parkingsystem.constants.ParkingType;
+import com.parkit.parkingsystem.dao.InMemoryParkingSpotDAO;
+import com.parkit.parkingsystem.dao.InMemoryStore;
+import com.parkit.parkingsystem.dao.InMemoryTicketDAO;
+import com.parkit.parkingsystem.service.FareCalculatorService;
+import com.parkit.parkingsystem.service.ParkingService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GateSimulatorTest {
+
+    @Test
+    @DisplayName("La simulation en mémoire respecte la capacité du parking et le laisse vide à la fin")
+    void run_ShouldReportThroughputAndOccupancyWithinCapacity() throws Exception {
+        SimulationConfig config = new SimulationConfig();
+        config.setGates(4);
+        config.setDurationSeconds(1);
+        config.setArrivalsPerSecond(400);
+        config.setMeanStayMillis(100);
+        config.setCarSpots(10);
+        config.setBikeSpots(3);
+        config.setReportIntervalMillis(250);
+        config.setSeed(42);
+        InMemoryStore store = new InMemoryStore(InMemoryStore.parseLayout("CAR:10,BIKE:3"));
+        InMemoryParkingSpotDAO parkingSpotDAO = new InMemoryParkingSpotDAO(store);
+        GateSimulator simulator = new GateSimulator(new ParkingService(parkingSpotDAO, new InMemoryTicketDAO(store),
+                new FareCalculatorService()), parkingSpotDAO, config, "memory");
+        simulator.out = null;
+
+        SimulationReport report = simulator.run();
+
+        assertTrue(report.getArrivals() > 200);
+        assertEquals(report.getArrivals(),
+                report.getParked() + report.getRejectedFull() + report.getAlreadyParked() + report.getErrors());
+        assertEquals(report.getParked(), report.getExits());
+        assertEquals(0, report.getErrors());
+        assertTrue(report.getRejectedFull() > 0, "le parking de 13 places doit saturer à ce débit");
+        assertTrue(report.getPeakCars() <= 10 && report.getPeakBikes() <= 3);
+        assertEquals(10, report.getCarCapacity());
+        assertFalse(report.getSamples().isEmpty());
+        assertEquals(report.getArrivals(), report.getEnterServiceLatency().getCount());
+        assertEquals(13, parkingSpotDAO.getAvailabilityIndex().countAvailable(ParkingType.CAR)
+                + parkingSpotDAO.getAvailabilityIndex().countAvailable(ParkingType.BIKE));
+    }
+
+    @Test
+    @DisplayName("Les lois de tirage ont la moyenne demandée")
+    void distributions_ShouldHaveRequestedMean() {
+        SplittableRandom random = new SplittableRandom(7);
+        for (Distribution distribution : Distribution.values()) {
+            double sum = 0;
+            for (int i = 0; i < 100_000; i++) {
+                sum += distribution.sample(50, random);
+            }
+            assertEquals(50, sum / 100_000, 1, distribution.name());
+        }
+    }
+}
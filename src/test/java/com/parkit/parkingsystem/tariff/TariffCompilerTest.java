@@ -0,0 +1,115 @@
+package com.parkit.parkingsystem.tariff;
+
+import com.parkit.parkingsystem.constants.Fare;
+import com.parkit.parkingsystem.constants.ParkingType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TariffCompilerTest {
+
+    private static final long HOUR = 3_600_000L;
+    // lundi 4 mars 2024, minuit UTC
+    private static final long MONDAY = Instant.parse("2024-03-04T00:00:00Z").toEpochMilli();
+
+    @TempDir
+    Path directory;
+
+    // ancien calcul de FareCalculatorService, référence du tarif par défaut
+    private static long legacyPriceCents(ParkingType parkingType, long durationMillis, boolean discount) {
+        if (durationMillis < Fare.FREE_PARKING_DURATION) {
+            return 0;
+        }
+        long rate = parkingType == ParkingType.CAR ? Fare.CAR_RATE_CENTS_PER_HOUR : Fare.BIKE_RATE_CENTS_PER_HOUR;
+        long denominator = Fare.MILLIS_PER_HOUR * 100;
+        long numerator = durationMillis * rate * (discount ? Fare.DISCOUNT_PERCENT : 100);
+        return (numerator + denominator / 2) / denominator;
+    }
+
+    @Test
+    @DisplayName("Les règles par défaut donnent exactement les prix de l'ancien calcul")
+    void defaultRules_ShouldReproduceLegacyFares() {
+        Tariff tariff = TariffCompiler.compileDefault();
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < 100_000; i++) {
+            ParkingType parkingType = random.nextBoolean() ? ParkingType.CAR : ParkingType.BIKE;
+            long inMillis = MONDAY + random.nextLong(365 * 24 * HOUR);
+            long duration = random.nextLong(30 * 24 * HOUR);
+            boolean discount = random.nextBoolean();
+            assertEquals(legacyPriceCents(parkingType, duration, discount),
+                    tariff.priceCents(parkingType, random.nextInt(100), inMillis, inMillis + duration, discount),
+                    "durée " + duration + " ms");
+        }
+    }
+
+    @Test
+    @DisplayName("Plages horaires et week-end : chaque minute est facturée au tarif de sa plage")
+    void timeOfDayRules_ShouldChargeEachMinuteAtItsRate() {
+        Tariff tariff = TariffCompiler.compile("test", "zone UTC\n"
+                + "rate CAR 100\n"
+                + "rate CAR 300 MON-FRI 08:00-19:00   # heures de bureau\n"
+                + "rate CAR 0 SAT,SUN\n");
+
+        // lundi 7 h - 9 h : une heure à 1 €, une heure à 3 €
+        assertEquals(400, tariff.priceCents(ParkingType.CAR, 1, MONDAY + 7 * HOUR, MONDAY + 9 * HOUR, false));
+        // vendredi 18 h - samedi 2 h : 1 h à 3 €, 5 h à 1 €, samedi gratuit
+        long friday = MONDAY + 4 * 24 * HOUR;
+        assertEquals(800, tariff.priceCents(ParkingType.CAR, 1, friday + 18 * HOUR, friday + 26 * HOUR, false));
+        // sans règle, le vélo est gratuit
+        assertEquals(0, tariff.priceCents(ParkingType.BIKE, 1, MONDAY, MONDAY + 5 * HOUR, false));
+    }
+
+    @Test
+    @DisplayName("Plafond journalier par jour calendaire et tarif propre à une zone")
+    void capAndLotRules_ShouldApplyPerDayAndPerLot() {
+        Tariff tariff = TariffCompiler.compile("test", "zone UTC\n"
+                + "lot P2 101-200\n"
+                + "rate * 150\n"
+                + "rate CAR 50 lot=P2\n"
+                + "cap CAR 1000\n");
+
+        // lundi 12 h - mercredi 12 h : 12 h (18 €, plafonné à 10), 24 h (plafonné), 12 h (plafonné)
+        assertEquals(3000, tariff.priceCents(ParkingType.CAR, 1, MONDAY + 12 * HOUR, MONDAY + 60 * HOUR, false));
+        // zone P2 : 0,50 €/h, plafond de 10 € atteint seulement au-delà de 20 h
+        assertEquals(300, tariff.priceCents(ParkingType.CAR, 150, MONDAY, MONDAY + 6 * HOUR, false));
+        assertEquals("P2", tariff.getLotName(150));
+        assertEquals("default", tariff.getLotName(201));
+    }
+
+    @Test
+    @DisplayName("Une directive invalide est signalée avec son numéro de ligne")
+    void compile_ShouldReportLineOfInvalidDirective() {
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> TariffCompiler.compile("tarifs.rules", "rate CAR 150\nrate TRUCK 300\n"));
+
+        assertTrue(error.getMessage().startsWith("tarifs.rules, ligne 2"), error.getMessage());
+    }
+
+    @Test
+    @DisplayName("Le rechargement remplace la grille ; un fichier invalide laisse la grille en place")
+    void reloadIfModified_ShouldSwapTariffOnlyWhenValid() throws Exception {
+        Path file = directory.resolve("tarifs.rules");
+        Files.writeString(file, "zone UTC\nrate CAR 150\n");
+        TariffEngine engine = TariffEngine.load(file);
+        Tariff initial = engine.getTariff();
+
+        Files.writeString(file, "zone UTC\nrate CAR 300\n");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 2_000));
+        assertTrue(engine.reloadIfModified());
+        assertNotSame(initial, engine.getTariff());
+        assertEquals(300, engine.getTariff().priceCents(ParkingType.CAR, 1, MONDAY, MONDAY + HOUR, false));
+
+        Files.writeString(file, "rate CAR abc\n");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 4_000));
+        assertFalse(engine.reloadIfModified());
+        assertEquals(300, engine.getTariff().priceCents(ParkingType.CAR, 1, MONDAY, MONDAY + HOUR, false));
+    }
+}